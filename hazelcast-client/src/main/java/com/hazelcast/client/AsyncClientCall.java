@@ -16,12 +16,15 @@
 
 package com.hazelcast.client;
 
+import com.hazelcast.core.AsyncFuture;
+import com.hazelcast.core.ExecutionCallback;
+
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-public class AsyncClientCall<V> implements Future<V> {
+public class AsyncClientCall<V> implements AsyncFuture<V> {
     protected static final Object NULL = new Object();
     protected Object result = null;
     protected final Call remoteCall;
@@ -35,6 +38,18 @@ public class AsyncClientCall<V> implements Future<V> {
         result = (obj == null) ? NULL : obj;
     }
 
+    public void andThen(final ExecutionCallback<V> callback, final Executor executor) {
+        remoteCall.addResponseListener(new Runnable() {
+            public void run() {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        callback.done(AsyncClientCall.this);
+                    }
+                });
+            }
+        });
+    }
+
     public boolean cancel(boolean mayInterruptIfRunning) {
         return false;
     }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.logging.Level;
+
+/**
+ * Member connection over blocking socket streams. Calls are written by the calling
+ * threads, responses are read by a dedicated thread.
+ */
+class BlockingMemberConnection extends MemberConnection implements Runnable {
+
+    BlockingMemberConnection(SmartRouter router, HazelcastClient client, InetSocketAddress address, Connection connection) {
+        super(router, client, address, connection);
+    }
+
+    void start() {
+        final Thread thread = new Thread(this, "hz.client." + client.id + ".MemberReader[" + address + "]");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    boolean send(Call call) {
+        if (!addCall(call)) {
+            return false;
+        }
+        try {
+            synchronized (writer) {
+                writer.write(connection, call.getRequest());
+                writer.flush(connection);
+            }
+            call.written = System.nanoTime();
+            return true;
+        } catch (IOException e) {
+            close();
+            // if the call is already taken over by close() it is sent through the gateway
+            return calls.remove(call.getId()) == null;
+        }
+    }
+
+    public void run() {
+        try {
+            while (router.isRunning() && !closed.get()) {
+                handleResponse(reader.readPacket(connection));
+            }
+        } catch (Throwable e) {
+            if (!closed.get()) {
+                logger.log(Level.FINEST, "Member connection " + connection + " is broken: " + e.getMessage(), e);
+            }
+        } finally {
+            close();
+        }
+    }
+}
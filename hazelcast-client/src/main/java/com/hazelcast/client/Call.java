@@ -19,6 +19,8 @@ package com.hazelcast.client;
 import com.hazelcast.core.Member;
 import com.hazelcast.util.ResponseQueueFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -42,6 +44,9 @@ public class Call {
 
     private boolean fireNforget;
 
+    // run once the response is set, guarded by this
+    private List<Runnable> responseListeners = null;
+
     public Call(Long id, Packet request) {
         this.id = id;
         this.request = request;
@@ -96,6 +101,33 @@ public class Call {
     public void setResponse(Object response) {
         this.response = response;
         this.responseQueue.offer(response);
+        final List<Runnable> listeners;
+        synchronized (this) {
+            listeners = responseListeners;
+            responseListeners = null;
+        }
+        if (listeners != null) {
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * Runs the listener on the thread setting the response, or right away if the
+     * response is already set.
+     */
+    public void addResponseListener(Runnable listener) {
+        synchronized (this) {
+            if (response == null) {
+                if (responseListeners == null) {
+                    responseListeners = new ArrayList<Runnable>(1);
+                }
+                responseListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
     }
 
     public boolean isFireNforget() {
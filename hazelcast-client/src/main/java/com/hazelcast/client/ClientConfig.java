@@ -17,6 +17,7 @@
 package com.hazelcast.client;
 
 import com.hazelcast.config.GroupConfig;
+import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.nio.SocketInterceptor;
 import com.hazelcast.security.Credentials;
 
@@ -24,6 +25,8 @@ import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ClientConfig {
 
@@ -36,7 +39,10 @@ public class ClientConfig {
     private int reConnectionTimeOut = 5000;
     private boolean shuffle = false;
     private boolean updateAutomatic = true;
+    private boolean smartRouting = false;
+    private boolean nioTransport = false;
     private SocketInterceptor socketInterceptor = null;
+    private final Map<String, NearCacheConfig> nearCacheConfigs = new ConcurrentHashMap<String, NearCacheConfig>();
 
     public SocketInterceptor getSocketInterceptor() {
         return socketInterceptor;
@@ -139,6 +145,54 @@ public class ClientConfig {
         return shuffle;
     }
 
+    /**
+     * Adds a near cache for the map with the given name. Near cached entries are
+     * invalidated by the entry events of the map.
+     */
+    public ClientConfig addNearCacheConfig(String mapName, NearCacheConfig nearCacheConfig) {
+        nearCacheConfigs.put(mapName, nearCacheConfig);
+        return this;
+    }
+
+    public NearCacheConfig getNearCacheConfig(String mapName) {
+        return nearCacheConfigs.get(mapName);
+    }
+
+    public Map<String, NearCacheConfig> getNearCacheConfigs() {
+        return nearCacheConfigs;
+    }
+
+    public void setNearCacheConfigs(Map<String, NearCacheConfig> nearCacheConfigs) {
+        this.nearCacheConfigs.clear();
+        this.nearCacheConfigs.putAll(nearCacheConfigs);
+    }
+
+    public boolean isSmartRouting() {
+        return smartRouting;
+    }
+
+    /**
+     * Enables sending key based map operations directly to the owner of the key's partition.
+     * The client then keeps a connection to each member of the cluster.
+     */
+    public ClientConfig setSmartRouting(boolean smartRouting) {
+        this.smartRouting = smartRouting;
+        return this;
+    }
+
+    public boolean isNioTransport() {
+        return nioTransport;
+    }
+
+    /**
+     * Serves the member connections of smart routing with a single non-blocking
+     * selector thread instead of a reader thread per member.
+     */
+    public ClientConfig setNioTransport(boolean nioTransport) {
+        this.nioTransport = nioTransport;
+        return this;
+    }
+
     public boolean isUpdateAutomatic() {
         return updateAutomatic;
     }
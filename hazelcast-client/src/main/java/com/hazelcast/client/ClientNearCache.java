@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.impl.monitor.LocalMapStatsImpl;
+import com.hazelcast.nio.Data;
+import com.hazelcast.util.Clock;
+import com.hazelcast.util.SampledEviction;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Near cache of a map on the client. Entries are invalidated by the entry events
+ * of the map and by the updates of this client.
+ * <p/>
+ * Values are cached serialized and each get returns its own copy.
+ * A value read from the cluster is cached only if its key was not invalidated while it was read,
+ * so a late response can not put back a value which is already updated. Invalidations are counted
+ * per stripe of keys, so an invalidation only holds back the reads of the keys in the same stripe.
+ */
+public class ClientNearCache {
+    private static final int INVALIDATION_STRIPE_COUNT = 64;
+
+    private final ConcurrentMap<Object, CacheEntry> cache;
+    private final int maxSize;        // 0 means infinite
+    private final long ttl;           // 0 means never expires
+    private final long maxIdleTime;   // 0 means never idle
+    private final boolean lfu;
+    private final boolean lru;
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final AtomicLongArray invalidationSequences = new AtomicLongArray(INVALIDATION_STRIPE_COUNT);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ClientNearCache(NearCacheConfig nearCacheConfig) {
+        this.maxSize = (nearCacheConfig.getMaxSize() == 0) ? Integer.MAX_VALUE : nearCacheConfig.getMaxSize();
+        this.ttl = nearCacheConfig.getTimeToLiveSeconds() * 1000L;
+        this.maxIdleTime = nearCacheConfig.getMaxIdleSeconds() * 1000L;
+        this.lfu = "LFU".equalsIgnoreCase(nearCacheConfig.getEvictionPolicy());
+        this.lru = "LRU".equalsIgnoreCase(nearCacheConfig.getEvictionPolicy());
+        int size = (maxSize > 50000) ? 10000 : maxSize;
+        this.cache = new ConcurrentHashMap<Object, CacheEntry>(size);
+    }
+
+    public Object get(Object key) {
+        final CacheEntry entry = cache.get(key);
+        if (entry != null) {
+            final long now = Clock.currentTimeMillis();
+            if (entry.isValid(now)) {
+                entry.touch(now);
+                hits.incrementAndGet();
+                return toObject(entry.value);
+            }
+            if (cache.remove(key, entry)) {
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @return sequence to be passed to {@link #put(Object, Data, long)} for a value of the key read after this call
+     */
+    public long getInvalidationSequence(Object key) {
+        return invalidationSequences.get(stripeOf(key));
+    }
+
+    public void put(Object key, Data value, long sequence) {
+        final int stripe = stripeOf(key);
+        if (value == null || invalidationSequences.get(stripe) != sequence) {
+            return;
+        }
+        if (cache.size() + 1 >= maxSize) {
+            startEviction();
+            if (cache.size() + 1 >= maxSize) {
+                return;
+            }
+        }
+        final CacheEntry entry = new CacheEntry(value);
+        cache.put(key, entry);
+        if (invalidationSequences.get(stripe) != sequence) {
+            cache.remove(key, entry);
+        }
+    }
+
+    public void invalidate(Object key) {
+        invalidationSequences.incrementAndGet(stripeOf(key));
+        if (cache.remove(key) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < INVALIDATION_STRIPE_COUNT; i++) {
+            invalidationSequences.incrementAndGet(i);
+        }
+        cache.clear();
+    }
+
+    private static int stripeOf(Object key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % INVALIDATION_STRIPE_COUNT;
+    }
+
+    void startEviction() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final int count = SampledEviction.evict(cache, lru || lfu, new SampledEviction.Remover<Object, CacheEntry>() {
+                public boolean remove(Object key, CacheEntry entry) {
+                    return cache.remove(key, entry);
+                }
+            });
+            evictions.addAndGet(count);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    LocalMapStatsImpl getLocalMapStats() {
+        LocalMapStatsImpl localMapStats = new LocalMapStatsImpl();
+        localMapStats.setNearCacheEntryCount(size());
+        localMapStats.setNearCacheHits(getHits());
+        localMapStats.setNearCacheMisses(getMisses());
+        localMapStats.setNearCacheEvictions(getEvictions());
+        localMapStats.setNearCacheInvalidations(getInvalidations());
+        return localMapStats;
+    }
+
+    private class CacheEntry implements SampledEviction.Entry {
+        private final Data value;
+        private final long createTime;
+        @SuppressWarnings("VolatileLongOrDoubleField")
+        private volatile long lastAccessTime;
+        private volatile int hits;
+
+        private CacheEntry(Data value) {
+            this.value = value;
+            this.createTime = Clock.currentTimeMillis();
+            this.lastAccessTime = createTime;
+        }
+
+        void touch(long now) {
+            if (lastAccessTime != now) {
+                lastAccessTime = now;
+            }
+            if (lfu) {
+                hits++;
+            }
+        }
+
+        public long getEvictionScore() {
+            return lfu ? hits : lastAccessTime;
+        }
+
+        public boolean isValid(long now) {
+            if (ttl != 0 && now - createTime > ttl) {
+                return false;
+            }
+            if (maxIdleTime != 0 && now - lastAccessTime > maxIdleTime) {
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+
+/**
+ * Single thread serving the reads and writes of all non-blocking member connections
+ * of a client. Registrations and interest changes are passed to the selector thread as tasks.
+ */
+class ClientSelector implements Runnable {
+
+    interface SelectionHandler {
+        void handle(SelectionKey key);
+    }
+
+    private final ILogger logger = Logger.getLogger(getClass().getName());
+
+    private final Selector selector;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    ClientSelector(String threadName) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, threadName);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    Selector getSelector() {
+        return selector;
+    }
+
+    void addTask(Runnable task) {
+        tasks.offer(task);
+        selector.wakeup();
+    }
+
+    public void run() {
+        try {
+            while (running) {
+                processTasks();
+                try {
+                    if (selector.select() == 0) {
+                        continue;
+                    }
+                } catch (IOException e) {
+                    logger.log(Level.FINEST, e.getMessage(), e);
+                    continue;
+                }
+                final Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    final SelectionKey key = it.next();
+                    it.remove();
+                    try {
+                        ((SelectionHandler) key.attachment()).handle(key);
+                    } catch (Throwable e) {
+                        logger.log(Level.WARNING, e.getMessage(), e);
+                    }
+                }
+            }
+        } finally {
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void processTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.log(Level.WARNING, e.getMessage(), e);
+            }
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+}
@@ -25,6 +25,7 @@ import java.util.concurrent.ConcurrentMap;
 public final class ClientThreadContext {
     private static final ConcurrentMap<Thread, ClientThreadContext> mapContexts = new ConcurrentHashMap<Thread, ClientThreadContext>(100);
     TransactionClientProxy transactionProxy;
+    int heldLocks;
     final ClientSerializer serializer = new ClientSerializer();
     final Thread thread;
 
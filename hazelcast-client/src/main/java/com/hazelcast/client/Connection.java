@@ -24,6 +24,7 @@ import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.channels.SocketChannel;
 
 /**
  * Holds the socket to one of the members of Hazelcast Cluster.
@@ -54,14 +55,22 @@ public class Connection {
     }
 
     public Connection(InetSocketAddress address, int id) {
+        this(address, id, false);
+    }
+
+    /**
+     * @param channel true to open the socket through a {@link SocketChannel} so it can be
+     *                switched to non-blocking mode once the connection is bound
+     */
+    Connection(InetSocketAddress address, int id, boolean channel) {
         this.id = id;
         this.address = address;
         try {
             final InetSocketAddress isa = new InetSocketAddress(address.getAddress(), address.getPort());
-            final Socket socket = new Socket();
+            final Socket socket = channel ? SocketChannel.open().socket() : new Socket();
             try {
                 socket.setKeepAlive(true);
-//                socket.setTcpNoDelay(true);
+                socket.setTcpNoDelay(true);
                 socket.setSoLinger(true, 5);
 //                socket.setSendBufferSize(BUFFER_SIZE);
 //                socket.setReceiveBufferSize(BUFFER_SIZE);
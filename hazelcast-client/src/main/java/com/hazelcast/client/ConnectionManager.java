@@ -274,6 +274,10 @@ public class ConnectionManager implements MembershipListener {
         return new Connection(address, connectionIdGenerator.incrementAndGet());
     }
 
+    Connection createConnection(InetSocketAddress address, boolean channel) {
+        return new Connection(address, connectionIdGenerator.incrementAndGet(), channel);
+    }
+
     public void memberAdded(MembershipEvent membershipEvent) {
         InetSocketAddress address = membershipEvent.getMember().getInetSocketAddress();
         Collection<InetSocketAddress> addresses = AddressHelper.getPossibleSocketAddresses(address.getAddress(),
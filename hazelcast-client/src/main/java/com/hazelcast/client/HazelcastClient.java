@@ -62,6 +62,7 @@ public class HazelcastClient implements HazelcastInstance {
     final ConcurrentMap<String, ExecutorServiceClientProxy> mapExecutors = new ConcurrentHashMap<String, ExecutorServiceClientProxy>(2);
     final ClusterClientProxy clusterClientProxy;
     final PartitionClientProxy partitionClientProxy;
+    final SmartRouter smartRouter;
     final LifecycleServiceClientImpl lifecycleService;
     final static ILogger logger = Logger.getLogger(HazelcastClient.class.getName());
 
@@ -111,6 +112,13 @@ public class HazelcastClient implements HazelcastInstance {
             this.getCluster().addMembershipListener(connectionManager);
             connectionManager.updateMembers();
         }
+        if (config.isSmartRouting()) {
+            smartRouter = new SmartRouter(this);
+            this.getCluster().addMembershipListener(smartRouter);
+            smartRouter.start();
+        } else {
+            smartRouter = null;
+        }
         lifecycleService.fireLifecycleEvent(STARTED);
         connectionManager.scheduleHeartbeatTimerTask();
         lsClients.add(HazelcastClient.this);
@@ -214,6 +222,10 @@ public class HazelcastClient implements HazelcastInstance {
         return connectionManager;
     }
 
+    SmartRouter getSmartRouter() {
+        return smartRouter;
+    }
+
     public void addInstanceListener(InstanceListener instanceListener) {
         clusterClientProxy.addInstanceListener(instanceListener);
     }
@@ -314,6 +326,9 @@ public class HazelcastClient implements HazelcastInstance {
         if (active.compareAndSet(true, false)) {
             logger.log(Level.INFO, "HazelcastClient[" + this.id + "] is shutting down.");
             connectionManager.shutdown();
+            if (smartRouter != null) {
+                smartRouter.shutdown();
+            }
             out.shutdown();
             in.shutdown();
             listenerManager.shutdown();
@@ -70,7 +70,9 @@ public class LockClientProxy implements ILock {
         Packet request = proxyHelper.prepareRequest(operation, lockObject, null);
         request.setTimeout(timeUnit == null ? timeout : timeUnit.toMillis(timeout));
         Packet response = proxyHelper.callAndGetResult(request);
-        return proxyHelper.getValue(response);
+        Object result = proxyHelper.getValue(response);
+        SmartRouter.lockResponded(!Boolean.FALSE.equals(result));
+        return result;
     }
 
     public Condition newCondition() {
@@ -17,22 +17,22 @@
 package com.hazelcast.client;
 
 import com.hazelcast.client.impl.EntryListenerManager;
-import com.hazelcast.core.EntryListener;
-import com.hazelcast.core.IMap;
-import com.hazelcast.core.MapEntry;
-import com.hazelcast.core.Prefix;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.*;
 import com.hazelcast.impl.CMap.CMapEntry;
 import com.hazelcast.impl.ClusterOperation;
 import com.hazelcast.impl.Keys;
 import com.hazelcast.impl.base.KeyValue;
 import com.hazelcast.impl.base.Pairs;
 import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.nio.Data;
+import com.hazelcast.query.Aggregator;
 import com.hazelcast.query.Expression;
+import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.util.DistributedTimeoutException;
 
 import java.util.*;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -43,10 +43,62 @@ import static com.hazelcast.nio.IOUtil.toObject;
 public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
     final ProxyHelper proxyHelper;
     final private String name;
+    final ClientNearCache nearCache;
+    private volatile boolean nearCacheListenerRegistered = false;
 
     public MapClientProxy(HazelcastClient client, String name) {
         this.name = name;
         this.proxyHelper = new ProxyHelper(name, client);
+        final ClientConfig clientConfig = client.getClientConfig();
+        final NearCacheConfig nearCacheConfig = (clientConfig == null) ? null : clientConfig.getNearCacheConfig(getName());
+        if (nearCacheConfig != null) {
+            nearCache = new ClientNearCache(nearCacheConfig);
+            client.getLifecycleService().addLifecycleListener(new LifecycleListener() {
+                public void stateChanged(LifecycleEvent event) {
+                    // events may be lost while disconnected
+                    if (event.getState() == LifecycleEvent.LifecycleState.CLIENT_CONNECTION_OPENED) {
+                        nearCache.clear();
+                    }
+                }
+            });
+        } else {
+            nearCache = null;
+        }
+    }
+
+    private void ensureNearCacheListener() {
+        if (!nearCacheListenerRegistered) {
+            synchronized (nearCache) {
+                if (!nearCacheListenerRegistered) {
+                    addEntryListener(new NearCacheInvalidationListener(), false);
+                    nearCacheListenerRegistered = true;
+                }
+            }
+        }
+    }
+
+    private void invalidateNearCache(Object key) {
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    private class NearCacheInvalidationListener implements EntryListener<K, V> {
+        public void entryAdded(EntryEvent<K, V> event) {
+            nearCache.invalidate(event.getKey());
+        }
+
+        public void entryRemoved(EntryEvent<K, V> event) {
+            nearCache.invalidate(event.getKey());
+        }
+
+        public void entryUpdated(EntryEvent<K, V> event) {
+            nearCache.invalidate(event.getKey());
+        }
+
+        public void entryEvicted(EntryEvent<K, V> event) {
+            nearCache.invalidate(event.getKey());
+        }
     }
 
     public void addLocalEntryListener(EntryListener<K, V> listener) {
@@ -54,7 +106,11 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
     }
 
     public void addEntryListener(EntryListener<K, V> listener, boolean includeValue) {
-        addEntryListener(listener, null, includeValue);
+        addEntryListener(listener, (K) null, includeValue);
+    }
+
+    public void addEntryListener(EntryListener<K, V> listener, Predicate<K, V> predicate, boolean includeValue) {
+        throw new UnsupportedOperationException("client doesn't support entry listener with predicate");
     }
 
     public void addEntryListener(EntryListener<K, V> listener, K key, boolean includeValue) {
@@ -73,15 +129,21 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
 
     public void removeEntryListener(EntryListener<K, V> listener) {
         check(listener);
-        proxyHelper.doOp(ClusterOperation.REMOVE_LISTENER, null, null);
-        listenerManager().removeListener(name, null, listener);
+        removeListener(listener, null);
     }
 
     public void removeEntryListener(EntryListener<K, V> listener, K key) {
         check(listener);
         check(key);
-        proxyHelper.doOp(ClusterOperation.REMOVE_LISTENER, key, null);
-        listenerManager().removeListener(name, key, listener);
+        removeListener(listener, key);
+    }
+
+    private void removeListener(EntryListener<K, V> listener, K key) {
+        // member keeps one registration per map and key for all the listeners of the client,
+        // including the near cache invalidation listener
+        if (!listenerManager().removeListener(name, key, listener)) {
+            proxyHelper.doOp(ClusterOperation.REMOVE_LISTENER, key, null);
+        }
     }
 
     private EntryListenerManager listenerManager() {
@@ -89,16 +151,30 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
     }
 
     public Set<java.util.Map.Entry<K, V>> entrySet(Predicate predicate) {
-        final Collection collection = proxyHelper.entries(predicate);
+        final Collection collection = (predicate instanceof PagingPredicate)
+                ? pageEntries((PagingPredicate) predicate) : proxyHelper.entries(predicate);
         return new LightEntrySetSet<K, V>(collection, this, getInstanceType());
     }
 
+    /**
+     * Reads the current page and keeps its last entry as the anchor of the next page.
+     * Entries are always read, as the anchor needs the value for the comparator.
+     */
+    private List<KeyValue> pageEntries(PagingPredicate pagingPredicate) {
+        final List<KeyValue> entries = (List<KeyValue>) proxyHelper.<KeyValue>entries(pagingPredicate);
+        if (!entries.isEmpty()) {
+            pagingPredicate.setAnchor(pagingPredicate.getPage(), entries.get(entries.size() - 1));
+        }
+        return entries;
+    }
+
     public void flush() {
         proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_FLUSH, null, null);
     }
 
     public boolean evict(Object key) {
         ProxyHelper.check(key);
+        invalidateNearCache(key);
         return (Boolean) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_EVICT, key, null);
     }
 
@@ -112,6 +188,13 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
     }
 
     public Set<K> keySet(Predicate predicate) {
+        if (predicate instanceof PagingPredicate) {
+            final Set<K> keys = new LinkedHashSet<K>();
+            for (KeyValue entry : pageEntries((PagingPredicate) predicate)) {
+                keys.add((K) entry.getKey());
+            }
+            return new LightKeySet<K>(this, keys);
+        }
         final Collection<K> collection = proxyHelper.keys(predicate);
         return new LightKeySet<K>(this, new HashSet<K>(collection));
     }
@@ -141,12 +224,14 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
         if (result instanceof DistributedTimeoutException) {
             throw new TimeoutException();
         }
+        SmartRouter.lockResponded(true);
         return (V) result;
     }
 
     public void putAndUnlock(K key, V value) {
         check(key);
         check(value);
+        invalidateNearCache(key);
         proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_PUT_AND_UNLOCK, key, value);
     }
 
@@ -156,11 +241,38 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
         return (Boolean) doLock(ClusterOperation.CONCURRENT_MAP_LOCK, key, time, timeunit);
     }
 
+    /**
+     * Locks the keys one by one, the locks acquired are released if any of the
+     * keys cannot be locked in time.
+     */
+    public boolean tryLockAll(Set<K> keys, long time, TimeUnit timeunit) {
+        check(keys);
+        ProxyHelper.checkTime(time, timeunit);
+        final List<K> lockedKeys = new ArrayList<K>(keys.size());
+        for (K key : keys) {
+            if (!tryLock(key, time, timeunit)) {
+                for (K lockedKey : lockedKeys) {
+                    unlock(lockedKey);
+                }
+                return false;
+            }
+            lockedKeys.add(key);
+        }
+        return true;
+    }
+
     public void unlock(K key) {
         check(key);
         proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_UNLOCK, key, null);
     }
 
+    public void unlockAll(Set<K> keys) {
+        check(keys);
+        for (K key : keys) {
+            unlock(key);
+        }
+    }
+
     public void forceUnlock(K key) {
         check(key);
         proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_FORCE_UNLOCK, key, null);
@@ -174,22 +286,26 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
     public V putIfAbsent(K key, V value, long ttl, TimeUnit timeunit) {
         check(key);
         check(value);
+        invalidateNearCache(key);
         return (V) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_PUT_IF_ABSENT, key, value, ttl, timeunit);
     }
 
     public V putIfAbsent(K key, V value) {
+        invalidateNearCache(key);
         return (V) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_PUT_IF_ABSENT, key, value);
     }
 
     public boolean remove(Object arg0, Object arg1) {
         check(arg0);
         check(arg1);
+        invalidateNearCache(arg0);
         return (Boolean) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_REMOVE_IF_SAME, arg0, arg1);
     }
 
     public V replace(K arg0, V arg1) {
         check(arg0);
         check(arg1);
+        invalidateNearCache(arg0);
         return (V) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_REPLACE_IF_NOT_NULL, arg0, arg1);
     }
 
@@ -197,6 +313,7 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
         check(arg0);
         check(arg1);
         check(arg2);
+        invalidateNearCache(arg0);
         Keys keys = new Keys();
         keys.getKeys().add(toData(arg1));
         keys.getKeys().add(toData(arg2));
@@ -212,9 +329,23 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
 
     public boolean containsKey(Object arg0) {
         check(arg0);
+        if (nearCache != null && nearCache.get(arg0) != null) {
+            return true;
+        }
         return (Boolean) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_CONTAINS_KEY, arg0, null);
     }
 
+    public Set<K> containsKeys(Set<K> keys) {
+        check(keys);
+        final Set<K> containing = new HashSet<K>();
+        for (K key : keys) {
+            if (containsKey(key)) {
+                containing.add(key);
+            }
+        }
+        return containing;
+    }
+
     public boolean containsValue(Object arg0) {
         check(arg0);
         return (Boolean) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_CONTAINS_VALUE, null, arg0);
@@ -226,26 +357,99 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
 
     public V get(Object key) {
         check(key);
-        return (V) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_GET, (K) key, null);
+        if (nearCache == null) {
+            return (V) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_GET, (K) key, null);
+        }
+        Object value = nearCache.get(key);
+        if (value == null) {
+            ensureNearCacheListener();
+            final long sequence = nearCache.getInvalidationSequence(key);
+            final Packet response = proxyHelper.callAndGetResult(
+                    proxyHelper.prepareRequest(ClusterOperation.CONCURRENT_MAP_GET, key, null));
+            value = ProxyHelper.getValue(response);
+            if (value != null) {
+                nearCache.put(key, new Data(response.getValue()), sequence);
+            }
+        }
+        return (V) value;
     }
 
     public Map<K, V> getAll(Set<K> setKeys) {
         check(setKeys);
+        Map map = new HashMap();
         Keys keys = new Keys();
+        final Map<Object, Long> sequences = (nearCache == null) ? null : new HashMap<Object, Long>();
+        if (nearCache != null) {
+            ensureNearCacheListener();
+        }
         for (K key : setKeys) {
-            keys.add(toData(key));
+            final Object value = (nearCache == null) ? null : nearCache.get(key);
+            if (value != null) {
+                map.put(key, value);
+            } else {
+                keys.add(toData(key));
+                if (nearCache != null) {
+                    sequences.put(key, nearCache.getInvalidationSequence(key));
+                }
+            }
+        }
+        if (keys.getKeys().isEmpty()) {
+            return map;
         }
         Pairs pairs = (Pairs) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_GET_ALL, keys, null);
         List<KeyValue> lsKeyValues = pairs.getKeyValues();
-        Map map = new HashMap();
         if (lsKeyValues != null) {
             for (KeyValue keyValue : lsKeyValues) {
-                map.put(toObject(keyValue.getKeyData()), toObject(keyValue.getValueData()));
+                final Object key = toObject(keyValue.getKeyData());
+                final Object value = toObject(keyValue.getValueData());
+                map.put(key, value);
+                if (nearCache != null) {
+                    final Long sequence = sequences.get(key);
+                    if (sequence != null) {
+                        nearCache.put(key, keyValue.getValueData(), sequence);
+                    }
+                }
             }
         }
         return map;
     }
 
+    public Object executeOnKey(K key, EntryProcessor<K, V> processor) {
+        check(key);
+        check(processor);
+        invalidateNearCache(key);
+        return proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_EXECUTE_ON_KEY, key, processor);
+    }
+
+    public Map<K, Object> executeOnEntries(EntryProcessor<K, V> processor) {
+        return executeOnEntries(processor, null);
+    }
+
+    public Map<K, Object> executeOnEntries(EntryProcessor<K, V> processor, Predicate predicate) {
+        check(processor);
+        Pairs pairs = (Pairs) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_EXECUTE_ON_ENTRIES, processor, predicate);
+        if (nearCache != null) {
+            nearCache.clear();
+        }
+        Map<K, Object> map = new HashMap<K, Object>();
+        List<KeyValue> lsKeyValues = pairs.getKeyValues();
+        if (lsKeyValues != null) {
+            for (KeyValue keyValue : lsKeyValues) {
+                map.put((K) toObject(keyValue.getKeyData()), toObject(keyValue.getValueData()));
+            }
+        }
+        return map;
+    }
+
+    public <R> R aggregate(Aggregator<? super K, ? super V, R> aggregator) {
+        return aggregate(aggregator, null);
+    }
+
+    public <R> R aggregate(Aggregator<? super K, ? super V, R> aggregator, Predicate predicate) {
+        check(aggregator);
+        return (R) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_AGGREGATE, aggregator, predicate);
+    }
+
     public boolean isEmpty() {
         return size() == 0;
     }
@@ -259,56 +463,66 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
     }
 
     public LocalMapStats getLocalMapStats() {
-        throw new UnsupportedOperationException();
+        if (nearCache == null) {
+            throw new UnsupportedOperationException();
+        }
+        return nearCache.getLocalMapStats();
     }
 
     public Set<K> keySet() {
         return keySet(null);
     }
 
-    public Future<V> getAsync(K key) {
+    public AsyncFuture<V> getAsync(K key) {
         check(key);
         return proxyHelper.doAsync(ClusterOperation.CONCURRENT_MAP_GET, key, null);
     }
 
-    public Future<V> putAsync(K key, V value) {
+    public AsyncFuture<V> putAsync(K key, V value) {
         check(key);
         check(value);
+        invalidateNearCache(key);
         return proxyHelper.doAsync(ClusterOperation.CONCURRENT_MAP_PUT, key, value);
     }
 
-    public Future<V> removeAsync(K key) {
+    public AsyncFuture<V> removeAsync(K key) {
         check(key);
+        invalidateNearCache(key);
         return proxyHelper.doAsync(ClusterOperation.CONCURRENT_MAP_REMOVE, key, null);
     }
 
     public V put(K key, V value) {
         check(key);
         check(value);
+        invalidateNearCache(key);
         return (V) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_PUT, key, value);
     }
 
     public V put(K key, V value, long ttl, TimeUnit timeunit) {
         check(key);
         check(value);
+        invalidateNearCache(key);
         return (V) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_PUT, key, value, ttl, timeunit);
     }
 
     public void set(K key, V value, long ttl, TimeUnit timeunit) {
         check(key);
         check(value);
+        invalidateNearCache(key);
         proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_SET, key, value, ttl, timeunit);
     }
 
     public void putTransient(K key, V value, long ttl, TimeUnit timeunit) {
         check(key);
         check(value);
+        invalidateNearCache(key);
         proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_PUT_TRANSIENT, key, value, ttl, timeunit);
     }
 
     public boolean tryPut(K key, V value, long timeout, TimeUnit timeunit) {
         check(key);
         check(value);
+        invalidateNearCache(key);
         return (Boolean) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_TRY_PUT, key, value, timeout, timeunit);
     }
 
@@ -316,6 +530,7 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
         Pairs pairs = new Pairs(map.size());
         for (final K key : map.keySet()) {
             final V value = map.get(key);
+            invalidateNearCache(key);
             pairs.addKeyValue(new KeyValue(toData(key), toData(value)));
         }
         proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_PUT_ALL, null, pairs);
@@ -323,11 +538,20 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
 
     public V remove(Object arg0) {
         check(arg0);
+        invalidateNearCache(arg0);
         return (V) proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_REMOVE, arg0, null);
     }
 
+    public void removeAll(Set<K> keys) {
+        check(keys);
+        for (K key : keys) {
+            remove(key);
+        }
+    }
+
     public Object tryRemove(K key, long timeout, TimeUnit timeunit) throws TimeoutException {
         check(key);
+        invalidateNearCache(key);
         Object result = proxyHelper.doOp(ClusterOperation.CONCURRENT_MAP_TRY_REMOVE, key, null, timeout, timeunit);
         if (result instanceof DistributedTimeoutException) {
             throw new TimeoutException();
@@ -339,7 +563,11 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
         Packet request = proxyHelper.prepareRequest(operation, key, timeUnit);
         request.setTimeout(timeout);
         Packet response = proxyHelper.callAndGetResult(request);
-        return proxyHelper.getValue(response);
+        Object result = proxyHelper.getValue(response);
+        if (operation != ClusterOperation.CONCURRENT_MAP_UNLOCK_MAP) {
+            SmartRouter.lockResponded(!Boolean.FALSE.equals(result));
+        }
+        return result;
     }
 
     public int size() {
@@ -366,12 +594,19 @@ public class MapClientProxy<K, V> implements IMap<K, V>, EntryHolder {
         proxyHelper.doOp(ClusterOperation.ADD_INDEX, expression, ordered);
     }
 
+    public QueryCache<K, V> getQueryCache(Predicate<K, V> predicate) {
+        throw new UnsupportedOperationException("client doesn't support query cache");
+    }
+
     public String getName() {
         return name.substring(Prefix.MAP.length());
     }
 
     public void destroy() {
         proxyHelper.destroy();
+        if (nearCache != null) {
+            nearCache.clear();
+        }
     }
 
     @Override
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.SocketInterceptor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection of the {@link SmartRouter} to a single member. Pending calls of a broken
+ * connection are handed over to the gateway connection.
+ */
+abstract class MemberConnection {
+
+    final ILogger logger = Logger.getLogger(getClass().getName());
+
+    final SmartRouter router;
+
+    final HazelcastClient client;
+
+    final InetSocketAddress address;
+
+    final Connection connection;
+
+    final PacketWriter writer = new PacketWriter();
+
+    final PacketReader reader = new PacketReader();
+
+    final ConcurrentMap<Long, Call> calls = new ConcurrentHashMap<Long, Call>();
+
+    final AtomicBoolean closed = new AtomicBoolean(false);
+
+    MemberConnection(SmartRouter router, HazelcastClient client, InetSocketAddress address, Connection connection) {
+        this.router = router;
+        this.client = client;
+        this.address = address;
+        this.connection = connection;
+    }
+
+    /**
+     * Authenticates the connection, done with blocking reads and writes before {@link #start()}.
+     */
+    void bind() throws IOException {
+        final ClientConfig config = client.getClientConfig();
+        final SocketInterceptor socketInterceptor = config.getSocketInterceptor();
+        if (socketInterceptor != null) {
+            socketInterceptor.onConnect(connection.getSocket());
+        }
+        new DefaultClientBinder(client) {
+            @Override
+            Packet writeAndRead(Connection connection, Packet packet) throws IOException {
+                write(connection, packet);
+                return reader.readPacket(connection);
+            }
+
+            @Override
+            void write(Connection connection, Packet packet) throws IOException {
+                writer.write(connection, packet);
+                writer.flush(connection);
+            }
+        }.bind(connection, config.getCredentials());
+    }
+
+    /**
+     * Starts reading the responses.
+     */
+    abstract void start() throws IOException;
+
+    /**
+     * @return true if the call is sent or handed over to the gateway connection,
+     *         false if the caller should send it through the gateway connection
+     */
+    abstract boolean send(Call call);
+
+    /**
+     * Registers the call as waiting for a response.
+     *
+     * @return false if the connection is closed
+     */
+    boolean addCall(Call call) {
+        if (closed.get()) {
+            return false;
+        }
+        final Long id = call.getId();
+        calls.put(id, call);
+        return !(closed.get() && calls.remove(id) != null);
+    }
+
+    void handleResponse(Packet packet) {
+        final Call call = calls.remove(packet.getCallId());
+        if (call != null) {
+            call.received = System.nanoTime();
+            call.setResponse(packet);
+        }
+    }
+
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        client.getConnectionManager().closeConnection(connection);
+        for (Long id : calls.keySet()) {
+            final Call call = calls.remove(id);
+            if (call != null) {
+                if (router.isRunning()) {
+                    client.getOutRunnable().enQueue(call);
+                } else {
+                    call.setResponse(new NoMemberAvailableException());
+                }
+            }
+        }
+        router.onConnectionClosed(this);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [" + connection + "]";
+    }
+}
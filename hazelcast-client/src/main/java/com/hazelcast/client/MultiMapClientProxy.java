@@ -104,7 +104,11 @@ public class MultiMapClientProxy<K, V> implements MultiMap<K, V>, EntryHolder {
         Packet request = proxyHelper.prepareRequest(operation, key, timeUnit);
         request.setTimeout(timeout);
         Packet response = proxyHelper.callAndGetResult(request);
-        return proxyHelper.getValue(response);
+        Object result = proxyHelper.getValue(response);
+        if (operation != ClusterOperation.CONCURRENT_MAP_UNLOCK_MAP) {
+            SmartRouter.lockResponded(!Boolean.FALSE.equals(result));
+        }
+        return result;
     }
 
     public void unlock(K key) {
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Member connection served by the {@link ClientSelector}. Calling threads only queue
+ * their calls; the selector thread writes all queued calls with as few socket writes
+ * as possible and parses the responses from the read buffer. The wire format is the
+ * same as the blocking connections.
+ */
+class NioMemberConnection extends MemberConnection implements ClientSelector.SelectionHandler {
+
+    private static final int BUFFER_SIZE = 32 << 10;
+
+    // headerSize, keySize, valueSize and packet version
+    private static final int FRAME_HEADER_SIZE = 13;
+
+    private final ClientSelector selector;
+
+    private final SocketChannel channel;
+
+    private final Queue<Call> writeQueue = new ConcurrentLinkedQueue<Call>();
+
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+
+    private final PacketOutputStream packetOutput = new PacketOutputStream();
+
+    private final DataOutputStream packetDataOutput = new DataOutputStream(packetOutput);
+
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private ByteBuffer currentPacket;
+
+    private volatile SelectionKey selectionKey;
+
+    private final Runnable writeTask = new Runnable() {
+        public void run() {
+            handleWrite();
+        }
+    };
+
+    NioMemberConnection(SmartRouter router, HazelcastClient client, InetSocketAddress address,
+                        Connection connection, ClientSelector selector) {
+        super(router, client, address, connection);
+        this.selector = selector;
+        this.channel = connection.getSocket().getChannel();
+    }
+
+    void start() throws IOException {
+        channel.configureBlocking(false);
+        selector.addTask(new Runnable() {
+            public void run() {
+                try {
+                    selectionKey = channel.register(selector.getSelector(), SelectionKey.OP_READ,
+                            NioMemberConnection.this);
+                } catch (IOException e) {
+                    logger.log(Level.FINEST, "Could not register " + connection + ": " + e.getMessage(), e);
+                    close();
+                }
+            }
+        });
+    }
+
+    boolean send(Call call) {
+        if (!addCall(call)) {
+            return false;
+        }
+        writeQueue.offer(call);
+        if (writeScheduled.compareAndSet(false, true)) {
+            selector.addTask(writeTask);
+        }
+        return true;
+    }
+
+    public void handle(SelectionKey key) {
+        if (key.isValid() && key.isReadable()) {
+            handleRead();
+        }
+        if (key.isValid() && key.isWritable()) {
+            handleWrite();
+        }
+    }
+
+    private void handleRead() {
+        try {
+            if (channel.read(readBuffer) == -1) {
+                throw new EOFException("Remote socket closed");
+            }
+            readBuffer.flip();
+            while (readBuffer.remaining() >= FRAME_HEADER_SIZE) {
+                final int position = readBuffer.position();
+                final int frameSize = FRAME_HEADER_SIZE + readBuffer.getInt(position)
+                        + readBuffer.getInt(position + 4) + readBuffer.getInt(position + 8);
+                if (readBuffer.remaining() < frameSize) {
+                    if (frameSize > readBuffer.capacity()) {
+                        final ByteBuffer newBuffer = ByteBuffer.allocate(frameSize);
+                        newBuffer.put(readBuffer);
+                        readBuffer = newBuffer;
+                        return;
+                    }
+                    break;
+                }
+                final Packet packet = new Packet();
+                packet.readFrom(reader, new DataInputStream(new ByteArrayInputStream(readBuffer.array(),
+                        readBuffer.arrayOffset() + position, frameSize)));
+                readBuffer.position(position + frameSize);
+                handleResponse(packet);
+            }
+            readBuffer.compact();
+        } catch (Throwable e) {
+            handleError(e);
+        }
+    }
+
+    private void handleWrite() {
+        if (closed.get() || selectionKey == null) {
+            return;
+        }
+        try {
+            fillWriteBuffer();
+            writeBuffer.flip();
+            channel.write(writeBuffer);
+            writeBuffer.compact();
+            if (writeBuffer.position() > 0 || currentPacket != null) {
+                selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            selectionKey.interestOps(SelectionKey.OP_READ);
+            writeScheduled.set(false);
+            if (!writeQueue.isEmpty() && writeScheduled.compareAndSet(false, true)) {
+                selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        } catch (Throwable e) {
+            handleError(e);
+        }
+    }
+
+    private void fillWriteBuffer() throws IOException {
+        while (writeBuffer.hasRemaining()) {
+            if (currentPacket == null) {
+                final Call call = writeQueue.poll();
+                if (call == null) {
+                    return;
+                }
+                packetOutput.reset();
+                call.getRequest().writeTo(writer, packetDataOutput);
+                packetDataOutput.flush();
+                currentPacket = packetOutput.toByteBuffer();
+                call.written = System.nanoTime();
+            }
+            if (currentPacket.remaining() <= writeBuffer.remaining()) {
+                writeBuffer.put(currentPacket);
+                currentPacket = null;
+            } else {
+                final int limit = currentPacket.limit();
+                currentPacket.limit(currentPacket.position() + writeBuffer.remaining());
+                writeBuffer.put(currentPacket);
+                currentPacket.limit(limit);
+            }
+        }
+    }
+
+    private void handleError(Throwable e) {
+        if (!closed.get()) {
+            logger.log(Level.FINEST, "Member connection " + connection + " is broken: " + e.getMessage(), e);
+        }
+        close();
+    }
+
+    @Override
+    void close() {
+        if (selectionKey != null) {
+            selectionKey.cancel();
+        }
+        super.close();
+    }
+
+    /**
+     * Gives access to the serialized packet without copying it.
+     */
+    private static class PacketOutputStream extends ByteArrayOutputStream {
+
+        PacketOutputStream() {
+            super(1024);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.client;
 
 import com.hazelcast.impl.ClusterOperation;
 import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.impl.Util;
 import com.hazelcast.util.ByteUtil;
 
 import java.io.DataInputStream;
@@ -131,6 +132,8 @@ public class Packet {
         int indexCount = readHeaderBuffer.get();
         keyHash = readHeaderBuffer.getInt();
         valueHash = readHeaderBuffer.getInt();
+        readHeaderBuffer.getInt(); // hash of the key
+        readHeaderBuffer.get(); // id of the key hash
         key = new byte[keySize];
         dis.readFully(key);
         value = new byte[valueSize];
@@ -190,6 +193,8 @@ public class Packet {
         writeHeaderBuffer.put((byte) 0);
         writeHeaderBuffer.putInt(keyHash);
         writeHeaderBuffer.putInt(valueHash);
+        writeHeaderBuffer.putInt(0); // hash of the key, computed by the member
+        writeHeaderBuffer.put(Util.DATA_HASH_ID);
     }
 
     public void set(String name, ClusterOperation operation,
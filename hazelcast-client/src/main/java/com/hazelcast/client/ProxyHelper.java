@@ -16,6 +16,7 @@
 
 package com.hazelcast.client;
 
+import com.hazelcast.core.AsyncFuture;
 import com.hazelcast.core.Member;
 import com.hazelcast.core.PartitionAware;
 import com.hazelcast.impl.ClientServiceException;
@@ -30,7 +31,6 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EventListener;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
@@ -83,7 +83,10 @@ public class ProxyHelper {
         if (c == null) {
             throw new NullPointerException();
         }
-        client.getOutRunnable().enQueue(c);
+        final SmartRouter smartRouter = client.getSmartRouter();
+        if (smartRouter == null || !smartRouter.route(c)) {
+            client.getOutRunnable().enQueue(c);
+        }
     }
 
     public Call createCall(Packet request) {
@@ -129,7 +132,7 @@ public class ProxyHelper {
         return request;
     }
 
-    <V> Future<V> doAsync(final ClusterOperation operation, final Object key, final Object value) {
+    <V> AsyncFuture<V> doAsync(final ClusterOperation operation, final Object key, final Object value) {
         Packet request = prepareRequest(operation, key, value);
         Call remoteCall = createCall(request);
         sendCall(remoteCall);
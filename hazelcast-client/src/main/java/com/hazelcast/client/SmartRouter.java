@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.core.MembershipEvent;
+import com.hazelcast.core.MembershipListener;
+import com.hazelcast.impl.ClusterOperation;
+import com.hazelcast.impl.Util;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.partition.Partition;
+import com.hazelcast.util.Clock;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Sends key based map calls directly to the owner of the key's partition, over one
+ * connection per member. Everything else, and every call that can not be routed
+ * (partition table missing or stale, no connection to the owner yet, a transaction
+ * or a lock held by the calling thread), goes through the gateway connection
+ * of the {@link OutRunnable} as before.
+ * <p/>
+ * The partition table is refreshed periodically and whenever the membership changes.
+ * Routing to a member that is not the owner anymore is still correct, the member
+ * forwards the call to the owner.
+ * <p/>
+ * Member connections use blocking streams with a reader thread each, or with
+ * {@link ClientConfig#setNioTransport(boolean)} a single selector thread for all of them.
+ */
+public class SmartRouter implements MembershipListener {
+
+    static final long REFRESH_INTERVAL_MILLIS = 10000;
+
+    static final long MAX_TABLE_AGE_MILLIS = 3 * REFRESH_INTERVAL_MILLIS;
+
+    private static final Set<ClusterOperation> ROUTABLE_OPERATIONS = EnumSet.of(
+            ClusterOperation.CONCURRENT_MAP_GET,
+            ClusterOperation.CONCURRENT_MAP_GET_MAP_ENTRY,
+            ClusterOperation.CONCURRENT_MAP_CONTAINS_KEY,
+            ClusterOperation.CONCURRENT_MAP_PUT,
+            ClusterOperation.CONCURRENT_MAP_PUT_TRANSIENT,
+            ClusterOperation.CONCURRENT_MAP_PUT_IF_ABSENT,
+            ClusterOperation.CONCURRENT_MAP_SET,
+            ClusterOperation.CONCURRENT_MAP_TRY_PUT,
+            ClusterOperation.CONCURRENT_MAP_REPLACE_IF_NOT_NULL,
+            ClusterOperation.CONCURRENT_MAP_REPLACE_IF_SAME,
+            ClusterOperation.CONCURRENT_MAP_REMOVE,
+            ClusterOperation.CONCURRENT_MAP_REMOVE_IF_SAME,
+            ClusterOperation.CONCURRENT_MAP_TRY_REMOVE,
+            ClusterOperation.CONCURRENT_MAP_EVICT,
+            ClusterOperation.CONCURRENT_MAP_EXECUTE_ON_KEY);
+
+    private static final Set<ClusterOperation> LOCK_OPERATIONS = EnumSet.of(
+            ClusterOperation.CONCURRENT_MAP_LOCK,
+            ClusterOperation.CONCURRENT_MAP_LOCK_MAP,
+            ClusterOperation.CONCURRENT_MAP_TRY_LOCK_AND_GET,
+            ClusterOperation.LOCK_LOCK);
+
+    private static final Set<ClusterOperation> UNLOCK_OPERATIONS = EnumSet.of(
+            ClusterOperation.CONCURRENT_MAP_UNLOCK,
+            ClusterOperation.CONCURRENT_MAP_UNLOCK_MAP,
+            ClusterOperation.CONCURRENT_MAP_PUT_AND_UNLOCK,
+            ClusterOperation.CONCURRENT_MAP_FORCE_UNLOCK,
+            ClusterOperation.LOCK_UNLOCK,
+            ClusterOperation.LOCK_FORCE_UNLOCK);
+
+    private final ILogger logger = Logger.getLogger(getClass().getName());
+
+    private final HazelcastClient client;
+
+    private final ConcurrentMap<InetSocketAddress, MemberConnection> connections
+            = new ConcurrentHashMap<InetSocketAddress, MemberConnection>();
+
+    private final Timer timer;
+
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean(false);
+
+    private final AtomicLong routedCallCount = new AtomicLong();
+
+    private final ClientSelector selector;
+
+    private volatile PartitionTable partitionTable;
+
+    private volatile boolean running = true;
+
+    public SmartRouter(HazelcastClient client) {
+        this.client = client;
+        final String prefix = "hz.client." + client.id + ".";
+        try {
+            this.selector = client.getClientConfig().isNioTransport() ? new ClientSelector(prefix + "Selector") : null;
+        } catch (IOException e) {
+            throw new ClusterClientException(e);
+        }
+        this.timer = new Timer(prefix + "PartitionRefresher", true);
+    }
+
+    void start() {
+        if (selector != null) {
+            selector.start();
+        }
+        timer.schedule(new TimerTask() {
+            public void run() {
+                refresh();
+            }
+        }, 0, REFRESH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Sends the call directly to the owner of its key if possible.
+     *
+     * @return true if the call is sent, false if it should go through the gateway connection
+     */
+    boolean route(Call call) {
+        final Packet request = call.getRequest();
+        if (!running || request == null || call.isFireNforget()) {
+            return false;
+        }
+        final ClusterOperation operation = request.getOperation();
+        if (LOCK_OPERATIONS.contains(operation)) {
+            // the lock is owned by the gateway connection, counted by lockResponded if acquired
+            return false;
+        }
+        if (UNLOCK_OPERATIONS.contains(operation)) {
+            final ClientThreadContext threadContext = ClientThreadContext.get();
+            if (threadContext.heldLocks > 0) {
+                threadContext.heldLocks--;
+            }
+            return false;
+        }
+        if (request.getKey() == null || !ROUTABLE_OPERATIONS.contains(operation)) {
+            return false;
+        }
+        final ClientThreadContext threadContext = ClientThreadContext.get();
+        if (threadContext.transactionProxy != null || threadContext.heldLocks > 0) {
+            return false;
+        }
+        final PartitionTable table = partitionTable;
+        if (table == null || table.isStale(Clock.currentTimeMillis())) {
+            return false;
+        }
+        final InetSocketAddress owner = table.getOwner(request);
+        final MemberConnection connection = (owner == null) ? null : connections.get(owner);
+        if (connection == null) {
+            scheduleRefresh();
+            return false;
+        }
+        if (connection.send(call)) {
+            routedCallCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called by the proxies after a lock call. An acquired lock is owned by the gateway
+     * connection, so are the following calls of this thread until it is unlocked.
+     */
+    static void lockResponded(boolean acquired) {
+        if (acquired) {
+            ClientThreadContext.get().heldLocks++;
+        }
+    }
+
+    /**
+     * Reloads the partition table and opens the missing member connections.
+     */
+    void refresh() {
+        if (!running) {
+            return;
+        }
+        try {
+            final Set<Partition> partitions = client.getPartitionService().getPartitions();
+            final InetSocketAddress[] owners = new InetSocketAddress[partitions.size()];
+            final Set<InetSocketAddress> members = new HashSet<InetSocketAddress>();
+            for (Partition partition : partitions) {
+                final Member owner = partition.getOwner();
+                if (owner != null) {
+                    owners[partition.getPartitionId()] = owner.getInetSocketAddress();
+                }
+            }
+            for (Member member : client.getCluster().getMembers()) {
+                members.add(member.getInetSocketAddress());
+            }
+            for (InetSocketAddress address : members) {
+                if (running && !connections.containsKey(address)) {
+                    openConnection(address);
+                }
+            }
+            for (MemberConnection connection : connections.values()) {
+                if (!members.contains(connection.address)) {
+                    connection.close();
+                }
+            }
+            partitionTable = new PartitionTable(owners, Clock.currentTimeMillis());
+        } catch (Throwable e) {
+            partitionTable = null;
+            logger.log(Level.FINEST, "Could not refresh the partition table: " + e.getMessage(), e);
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (running && refreshScheduled.compareAndSet(false, true)) {
+            try {
+                timer.schedule(new TimerTask() {
+                    public void run() {
+                        refreshScheduled.set(false);
+                        refresh();
+                    }
+                }, 0);
+            } catch (IllegalStateException e) {
+                // timer is cancelled, router is shutting down
+                refreshScheduled.set(false);
+            }
+        }
+    }
+
+    private void openConnection(InetSocketAddress address) {
+        Connection connection = null;
+        try {
+            connection = client.getConnectionManager().createConnection(address, selector != null);
+            final MemberConnection memberConnection = (selector != null)
+                    ? new NioMemberConnection(this, client, address, connection, selector)
+                    : new BlockingMemberConnection(this, client, address, connection);
+            memberConnection.bind();
+            if (connections.putIfAbsent(address, memberConnection) == null) {
+                memberConnection.start();
+                logger.log(Level.FINEST, "Opened member connection " + memberConnection);
+            } else {
+                client.getConnectionManager().closeConnection(connection);
+            }
+        } catch (Throwable e) {
+            client.getConnectionManager().closeConnection(connection);
+            logger.log(Level.FINEST, "Could not connect to member " + address + ": " + e.getMessage(), e);
+        }
+    }
+
+    void onConnectionClosed(MemberConnection connection) {
+        connections.remove(connection.address, connection);
+        if (running) {
+            partitionTable = null;
+            scheduleRefresh();
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    public void memberAdded(MembershipEvent membershipEvent) {
+        partitionTable = null;
+        scheduleRefresh();
+    }
+
+    public void memberRemoved(MembershipEvent membershipEvent) {
+        partitionTable = null;
+        final MemberConnection connection = connections.get(membershipEvent.getMember().getInetSocketAddress());
+        if (connection != null) {
+            connection.close();
+        }
+        scheduleRefresh();
+    }
+
+    /**
+     * @return number of calls sent directly to the partition owners
+     */
+    public long getRoutedCallCount() {
+        return routedCallCount.get();
+    }
+
+    int getConnectionCount() {
+        return connections.size();
+    }
+
+    void shutdown() {
+        running = false;
+        timer.cancel();
+        for (MemberConnection connection : connections.values()) {
+            connection.close();
+        }
+        if (selector != null) {
+            selector.shutdown();
+        }
+    }
+
+    static class PartitionTable {
+
+        private final InetSocketAddress[] owners;
+
+        private final long createTime;
+
+        PartitionTable(InetSocketAddress[] owners, long createTime) {
+            this.owners = owners;
+            this.createTime = createTime;
+        }
+
+        boolean isStale(long now) {
+            return owners.length == 0 || now - createTime > MAX_TABLE_AGE_MILLIS;
+        }
+
+        /**
+         * Same partition id as the member computes, see ConcurrentMapManager.getPartitionId(Data).
+         */
+        InetSocketAddress getOwner(Packet request) {
+            final int hash = (request.getKeyHash() != -1) ? request.getKeyHash() : Util.hashCode(request.getKey());
+            final int partitionId = (hash == Integer.MIN_VALUE) ? 0 : Math.abs(hash) % owners.length;
+            return owners[partitionId];
+        }
+    }
+}
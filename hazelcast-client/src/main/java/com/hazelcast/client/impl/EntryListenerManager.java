@@ -67,7 +67,10 @@ public class EntryListenerManager {
         return key != NULL_KEY ? key : null;
     }
 
-    public synchronized void removeListener(String name, Object key, EntryListener<?, ?> entryListener) {
+    /**
+     * @return true if other listeners of the map and key are still registered
+     */
+    public synchronized boolean removeListener(String name, Object key, EntryListener<?, ?> entryListener) {
         Map<Object, List<EntryListenerHolder>> m = entryListeners.get(name);
         if (m != null) {
             key = toKey(key);
@@ -86,7 +89,9 @@ public class EntryListenerManager {
             if (m.isEmpty()) {
                 entryListeners.remove(name);
             }
+            return m.containsKey(key);
         }
+        return false;
     }
 
     public synchronized Boolean noListenerRegistered(Object key, String name, boolean includeValue) {
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compares the gateway connection with the blocking and the non-blocking member connections
+ * of smart routing, with many threads calling get/put on a single client.
+ * Thread count can be set by -DclientThreadCount (default 1000).
+ */
+public class ClientTransportPerformance {
+
+    private static final int CLIENT_THREAD_COUNT = Integer.getInteger("clientThreadCount", 1000);
+    private static final int MEMBER_COUNT = 2;
+    private static final int KEY_COUNT = 10000;
+    private static final int VALUE_SIZE = 100;
+    private static final long DURATION_MILLIS = TimeUnit.SECONDS.toMillis(Integer.getInteger("durationSeconds", 20));
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testGatewayConnection() throws Exception {
+        run("gateway", false, false);
+    }
+
+    @Test
+    public void testBlockingMemberConnections() throws Exception {
+        run("smart-blocking", true, false);
+    }
+
+    @Test
+    public void testNioMemberConnections() throws Exception {
+        run("smart-nio", true, true);
+    }
+
+    private void run(String name, boolean smartRouting, boolean nioTransport) throws Exception {
+        HazelcastInstance h1 = null;
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            HazelcastInstance h = Hazelcast.newHazelcastInstance(new Config());
+            if (h1 == null) {
+                h1 = h;
+            }
+        }
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.getGroupConfig().setName(h1.getConfig().getGroupConfig().getName())
+                .setPassword(h1.getConfig().getGroupConfig().getPassword());
+        InetSocketAddress address = h1.getCluster().getLocalMember().getInetSocketAddress();
+        clientConfig.addInetSocketAddress(address);
+        clientConfig.setSmartRouting(smartRouting);
+        clientConfig.setNioTransport(nioTransport);
+        HazelcastClient client = HazelcastClient.newHazelcastClient(clientConfig);
+        final IMap<Integer, byte[]> map = client.getMap("default");
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, new byte[VALUE_SIZE]);
+        }
+        if (smartRouting) {
+            for (int i = 0; i < 100 && client.getSmartRouter().getConnectionCount() < MEMBER_COUNT; i++) {
+                Thread.sleep(100);
+            }
+        }
+        final AtomicLong operations = new AtomicLong();
+        final AtomicLong totalLatency = new AtomicLong();
+        // latency histogram with power of two microsecond buckets
+        final AtomicLongArray histogram = new AtomicLongArray(32);
+        final long end = System.currentTimeMillis() + DURATION_MILLIS;
+        final CountDownLatch latch = new CountDownLatch(CLIENT_THREAD_COUNT);
+        for (int t = 0; t < CLIENT_THREAD_COUNT; t++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    final Random random = new Random();
+                    try {
+                        while (System.currentTimeMillis() < end) {
+                            final int key = random.nextInt(KEY_COUNT);
+                            final long start = System.nanoTime();
+                            if (random.nextInt(100) < 80) {
+                                map.get(key);
+                            } else {
+                                map.put(key, new byte[VALUE_SIZE]);
+                            }
+                            final long latency = System.nanoTime() - start;
+                            totalLatency.addAndGet(latency);
+                            operations.incrementAndGet();
+                            histogram.incrementAndGet(Math.min(31, 64 - Long.numberOfLeadingZeros(latency / 1000)));
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        latch.await();
+        final long count = operations.get();
+        System.out.println(name + ": threads=" + CLIENT_THREAD_COUNT
+                + ", ops/s=" + (count * 1000 / DURATION_MILLIS)
+                + ", avg latency us=" + (count == 0 ? 0 : totalLatency.get() / count / 1000)
+                + ", p50 latency us<" + percentile(histogram, count, 0.50)
+                + ", p99 latency us<" + percentile(histogram, count, 0.99));
+    }
+
+    private static long percentile(AtomicLongArray histogram, long count, double percentile) {
+        long seen = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= count * percentile) {
+                return 1L << i;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
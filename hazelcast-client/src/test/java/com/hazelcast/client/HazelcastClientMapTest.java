@@ -18,7 +18,9 @@ package com.hazelcast.client;
 
 import com.hazelcast.core.*;
 import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Aggregators;
 import com.hazelcast.query.EntryObject;
+import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.PredicateBuilder;
 import com.hazelcast.query.SqlPredicate;
@@ -29,6 +31,7 @@ import org.junit.Test;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.io.Serializable;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.util.*;
@@ -663,6 +666,24 @@ public class HazelcastClientMapTest extends HazelcastClientTestBase {
         assertEquals(4, entryUpdatedLatch.getCount());
     }
 
+    @Test
+    public void removeOneOfTwoListeners() throws InterruptedException {
+        HazelcastClient hClient = getHazelcastClient();
+        final IMap<String, String> map = hClient.getMap("removeOneOfTwoListeners");
+        final CountDownLatch entryAddLatch1 = new CountDownLatch(2);
+        final CountDownLatch entryAddLatch2 = new CountDownLatch(2);
+        CountDownLatchEntryListener<String, String> listener1 = new CountDownLatchEntryListener<String, String>(entryAddLatch1, new CountDownLatch(0), new CountDownLatch(0));
+        CountDownLatchEntryListener<String, String> listener2 = new CountDownLatchEntryListener<String, String>(entryAddLatch2, new CountDownLatch(0), new CountDownLatch(0));
+        map.addEntryListener(listener1, true);
+        map.addEntryListener(listener2, true);
+        map.put("1", "a");
+        map.removeEntryListener(listener1);
+        map.put("2", "b");
+        assertTrue(entryAddLatch2.await(5, TimeUnit.SECONDS));
+        assertEquals(1, entryAddLatch1.getCount());
+        map.removeEntryListener(listener2);
+    }
+
     @Test
     public void putIfAbsent() {
         HazelcastClient hClient = getHazelcastClient();
@@ -927,6 +948,105 @@ public class HazelcastClientMapTest extends HazelcastClientTestBase {
         }
     }
 
+    @Test
+    public void testExecuteOnKey() {
+        HazelcastInstance h = getHazelcastInstance();
+        HazelcastClient hClient = getHazelcastClient();
+        IMap<Integer, Integer> map = hClient.getMap("testExecuteOnKey");
+        map.put(1, 1);
+        assertEquals(1, map.executeOnKey(1, new IncrementProcessor()));
+        assertEquals(Integer.valueOf(2), h.getMap("testExecuteOnKey").get(1));
+        assertNull(map.executeOnKey(2, new IncrementProcessor()));
+        assertEquals(Integer.valueOf(1), map.get(2));
+    }
+
+    @Test
+    public void testExecuteOnEntries() {
+        HazelcastInstance h = getHazelcastInstance();
+        HazelcastClient hClient = getHazelcastClient();
+        IMap<Integer, Integer> map = hClient.getMap("testExecuteOnEntries");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        Map<Integer, Object> results = map.executeOnEntries(new IncrementProcessor());
+        assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, results.get(i));
+            assertEquals(Integer.valueOf(i + 1), map.get(i));
+        }
+        results = map.executeOnEntries(new IncrementProcessor(), new ValueGreaterThan(50));
+        assertEquals(50, results.size());
+        assertEquals(Integer.valueOf(50), h.getMap("testExecuteOnEntries").get(49));
+        assertEquals(Integer.valueOf(52), h.getMap("testExecuteOnEntries").get(50));
+    }
+
+    @Test
+    public void testPagingPredicate() {
+        HazelcastClient hClient = getHazelcastClient();
+        IMap<Integer, Integer> map = hClient.getMap("testPagingPredicate");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        PagingPredicate pagingPredicate = new PagingPredicate(new ValueGreaterThan(49), new ValueDescending(), 20);
+        Collection<Integer> values = map.values(pagingPredicate);
+        assertEquals(20, values.size());
+        assertEquals(Integer.valueOf(99), values.iterator().next());
+        pagingPredicate.nextPage();
+        int expected = 79;
+        for (Integer value : map.values(pagingPredicate)) {
+            assertEquals(expected--, value.intValue());
+        }
+        assertEquals(59, expected);
+        pagingPredicate.nextPage();
+        Set<Integer> keys = map.keySet(pagingPredicate);
+        assertEquals(10, keys.size());
+        for (Integer key : keys) {
+            assertEquals(expected--, key.intValue());
+        }
+        pagingPredicate.nextPage();
+        assertTrue(map.entrySet(pagingPredicate).isEmpty());
+    }
+
+    @Test
+    public void testAggregate() {
+        HazelcastClient hClient = getHazelcastClient();
+        IMap<Integer, Integer> map = hClient.getMap("testAggregate");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        assertEquals(Long.valueOf(100), map.aggregate(Aggregators.count()));
+        assertEquals(4950L, map.aggregate(Aggregators.sum("this")));
+        assertEquals(74.5, map.aggregate(Aggregators.avg("this"), new ValueGreaterThan(49)), 0.001);
+        assertEquals(99, map.aggregate(Aggregators.max("this")));
+        assertEquals(50, map.aggregate(Aggregators.min("this"), new ValueGreaterThan(49)));
+    }
+
+    static class ValueDescending implements Comparator<Map.Entry>, Serializable {
+        public int compare(Map.Entry e1, Map.Entry e2) {
+            return ((Integer) e2.getValue()).compareTo((Integer) e1.getValue());
+        }
+    }
+
+    static class IncrementProcessor implements EntryProcessor<Integer, Integer> {
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            Integer value = entry.getValue();
+            entry.setValue(value == null ? 1 : value + 1);
+            return value;
+        }
+    }
+
+    static class ValueGreaterThan implements Predicate {
+        final int value;
+
+        ValueGreaterThan(int value) {
+            this.value = value;
+        }
+
+        public boolean apply(MapEntry mapEntry) {
+            return (Integer) mapEntry.getValue() > value;
+        }
+    }
+
     public static class Employee implements DataSerializable {
         String name;
         String familyName;
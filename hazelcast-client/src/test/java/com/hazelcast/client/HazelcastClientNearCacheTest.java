@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.*;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.monitor.LocalMapStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class HazelcastClientNearCacheTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    @Before
+    public void cleanup() throws Exception {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    private static HazelcastClient newClient(HazelcastInstance h, NearCacheConfig nearCacheConfig) {
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.getGroupConfig().setName(h.getConfig().getGroupConfig().getName())
+                .setPassword(h.getConfig().getGroupConfig().getPassword());
+        InetSocketAddress address = h.getCluster().getLocalMember().getInetSocketAddress();
+        clientConfig.addInetSocketAddress(address);
+        clientConfig.addNearCacheConfig("cached", nearCacheConfig);
+        return HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    @Test
+    public void testNoNearCacheByDefault() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, new NearCacheConfig());
+        MapClientProxy<Integer, Integer> map = (MapClientProxy<Integer, Integer>) client.<Integer, Integer>getMap("default");
+        assertNull(map.nearCache);
+        try {
+            map.getLocalMapStats();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void testHitsAndLocalInvalidation() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, new NearCacheConfig());
+        IMap<Integer, String> map = client.getMap("cached");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "value" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, map.get(i));
+            assertEquals("value" + i, map.get(i));
+        }
+        LocalMapStats stats = map.getLocalMapStats();
+        assertEquals(100, stats.getNearCacheEntryCount());
+        assertEquals(100, stats.getNearCacheHits());
+        assertEquals(100, stats.getNearCacheMisses());
+        map.put(1, "new");
+        assertEquals("new", map.get(1));
+        map.remove(2);
+        assertNull(map.get(2));
+        assertTrue(map.containsKey(3));
+        assertTrue(map.getLocalMapStats().getNearCacheInvalidations() >= 2);
+    }
+
+    @Test
+    public void testInvalidationByMemberUpdates() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, new NearCacheConfig());
+        IMap<Integer, String> map = client.getMap("cached");
+        IMap<Integer, String> memberMap = h1.getMap("cached");
+        for (int i = 0; i < 100; i++) {
+            memberMap.put(i, "value" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, map.get(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            memberMap.put(i, "new" + i);
+        }
+        memberMap.remove(7);
+        for (int i = 0; i < 100 && map.getLocalMapStats().getNearCacheEntryCount() > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, map.getLocalMapStats().getNearCacheEntryCount());
+        for (int i = 0; i < 100; i++) {
+            if (i != 7) {
+                assertEquals("new" + i, map.get(i));
+            }
+        }
+        assertNull(map.get(7));
+    }
+
+    @Test
+    public void testListenerRemovalKeepsInvalidation() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, new NearCacheConfig());
+        IMap<Integer, String> map = client.getMap("cached");
+        IMap<Integer, String> memberMap = h1.getMap("cached");
+        memberMap.put(1, "value");
+        assertEquals("value", map.get(1));
+        EntryListener<Integer, String> listener = new EntryAdapter<Integer, String>();
+        map.addEntryListener(listener, true);
+        map.removeEntryListener(listener);
+        memberMap.put(1, "new");
+        for (int i = 0; i < 100 && map.getLocalMapStats().getNearCacheEntryCount() > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals("new", map.get(1));
+    }
+
+    @Test
+    public void testMaxSizeAndGetAll() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, new NearCacheConfig().setMaxSize(100).setEvictionPolicy("LFU"));
+        IMap<Integer, Integer> map = client.getMap("cached");
+        Set<Integer> keys = new HashSet<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+            keys.add(i);
+        }
+        Map<Integer, Integer> all = map.getAll(keys);
+        assertEquals(1000, all.size());
+        all = map.getAll(keys);
+        assertEquals(1000, all.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), all.get(i));
+        }
+        LocalMapStats stats = map.getLocalMapStats();
+        assertTrue(stats.getNearCacheEntryCount() < 100);
+        assertTrue(stats.getNearCacheEvictions() > 0);
+    }
+
+    @Test
+    public void testCachedValueIsCopied() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, new NearCacheConfig());
+        IMap<Integer, Set<String>> map = client.getMap("cached");
+        map.put(1, new HashSet<String>());
+        map.get(1).add("changed");
+        Set<String> value = map.get(1);
+        assertTrue(value.isEmpty());
+        assertNotSame(value, map.get(1));
+        assertEquals(2, map.getLocalMapStats().getNearCacheHits());
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, new NearCacheConfig().setTimeToLiveSeconds(1));
+        IMap<Integer, Integer> map = client.getMap("cached");
+        map.put(1, 1);
+        map.get(1);
+        map.get(1);
+        assertEquals(1, map.getLocalMapStats().getNearCacheHits());
+        Thread.sleep(1500);
+        map.get(1);
+        assertEquals(1, map.getLocalMapStats().getNearCacheHits());
+    }
+}
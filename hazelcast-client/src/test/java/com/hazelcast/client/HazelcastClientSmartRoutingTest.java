@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.Transaction;
+import com.hazelcast.impl.GroupProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class HazelcastClientSmartRoutingTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    @Before
+    public void cleanup() throws Exception {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    private static HazelcastClient newClient(HazelcastInstance h, boolean smartRouting) {
+        return newClient(h, smartRouting, false);
+    }
+
+    private static HazelcastClient newClient(HazelcastInstance h, boolean smartRouting, boolean nioTransport) {
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.getGroupConfig().setName(h.getConfig().getGroupConfig().getName())
+                .setPassword(h.getConfig().getGroupConfig().getPassword());
+        InetSocketAddress address = h.getCluster().getLocalMember().getInetSocketAddress();
+        clientConfig.addInetSocketAddress(address);
+        clientConfig.setSmartRouting(smartRouting);
+        clientConfig.setNioTransport(nioTransport);
+        return HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    private static void waitForRouting(HazelcastClient client, IMap<Integer, ?> map, int memberCount) throws Exception {
+        final SmartRouter router = client.getSmartRouter();
+        for (int i = 0; i < 100; i++) {
+            final long routed = router.getRoutedCallCount();
+            map.get(i);
+            if (router.getConnectionCount() == memberCount && router.getRoutedCallCount() > routed) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        fail("Partition table is not loaded");
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, false);
+        assertNull(client.getSmartRouter());
+        client.getMap("default").put(1, 1);
+        assertEquals(1, client.getMap("default").get(1));
+    }
+
+    @Test
+    public void testKeyOperationsAreRouted() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, true);
+        IMap<Integer, Integer> map = client.getMap("default");
+        waitForRouting(client, map, 2);
+        final long routed = client.getSmartRouter().getRoutedCallCount();
+        for (int i = 0; i < 1000; i++) {
+            assertNull(map.put(i, i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i));
+            assertTrue(map.containsKey(i));
+        }
+        assertEquals(Integer.valueOf(7), map.remove(7));
+        assertEquals(999, map.size());
+        assertEquals(999, h2.getMap("default").size());
+        assertTrue(client.getSmartRouter().getRoutedCallCount() - routed >= 3000);
+    }
+
+    @Test
+    public void testLockedKeyIsNotRouted() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, true);
+        final IMap<Integer, Integer> map = client.getMap("default");
+        waitForRouting(client, map, 2);
+        final CountDownLatch latch = new CountDownLatch(1);
+        map.lock(1);
+        final long routed = client.getSmartRouter().getRoutedCallCount();
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                map.put(2, 2);
+                latch.countDown();
+            }
+        });
+        thread.start();
+        for (int i = 0; i < 10; i++) {
+            map.put(1, i);
+        }
+        assertEquals(Integer.valueOf(9), map.get(1));
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        map.unlock(1);
+        assertEquals(routed + 1, client.getSmartRouter().getRoutedCallCount());
+        map.put(1, 10);
+        assertEquals(routed + 2, client.getSmartRouter().getRoutedCallCount());
+    }
+
+    @Test
+    public void testFailedTryLockDoesNotStopRouting() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, true);
+        IMap<Integer, Integer> map = client.getMap("default");
+        waitForRouting(client, map, 2);
+        h2.getMap("default").lock(1);
+        assertFalse(map.tryLock(1));
+        assertFalse(map.tryLock(1, 100, TimeUnit.MILLISECONDS));
+        final long routed = client.getSmartRouter().getRoutedCallCount();
+        map.put(2, 2);
+        assertEquals(routed + 1, client.getSmartRouter().getRoutedCallCount());
+        h2.getMap("default").unlock(1);
+    }
+
+    @Test
+    public void testTransactionIsNotRouted() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, true);
+        IMap<Integer, Integer> map = client.getMap("default");
+        waitForRouting(client, map, 2);
+        Transaction txn = client.getTransaction();
+        txn.begin();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        txn.rollback();
+        for (int i = 0; i < 10; i++) {
+            assertNull(map.get(i));
+        }
+    }
+
+    @Test
+    public void testMemberDies() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, true);
+        IMap<Integer, Integer> map = client.getMap("default");
+        waitForRouting(client, map, 2);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        h2.getLifecycleService().shutdown();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i));
+            map.put(i, -i);
+        }
+        waitForRouting(client, map, 1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(-i), map.get(i));
+        }
+    }
+
+    @Test
+    public void testNioTransport() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, true, true);
+        final IMap<Integer, byte[]> map = client.getMap("default");
+        waitForRouting(client, map, 2);
+        final long routed = client.getSmartRouter().getRoutedCallCount();
+        final int threadCount = 10;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        final AtomicInteger errors = new AtomicInteger();
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < 100; i++) {
+                            final int key = threadIndex * 100 + i;
+                            // values larger than the socket buffers are written and read in pieces
+                            final byte[] value = new byte[(i % 10 == 0) ? 100 * 1024 : 100];
+                            Arrays.fill(value, (byte) key);
+                            map.put(key, value);
+                            if (!Arrays.equals(value, map.get(key))) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        e.printStackTrace();
+                        errors.incrementAndGet();
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        assertEquals(0, errors.get());
+        assertEquals(threadCount * 100, map.size());
+        assertTrue(client.getSmartRouter().getRoutedCallCount() - routed >= threadCount * 200);
+    }
+
+    @Test
+    public void testNioTransportMemberDies() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastClient client = newClient(h1, true, true);
+        IMap<Integer, Integer> map = client.getMap("default");
+        waitForRouting(client, map, 2);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        h2.getLifecycleService().shutdown();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i));
+        }
+        waitForRouting(client, map, 1);
+        assertEquals(1000, map.size());
+    }
+}
@@ -205,8 +205,10 @@ public final class ClusterManager extends BaseManager implements ConnectionListe
 
     public void appendState(StringBuffer sbState) {
         sbState.append("\nClusterManager {");
-        for (ScheduledAction sa : setScheduledActions) {
-            sbState.append("\n\t" + sa + ", from:" + sa.getRequest().caller);
+        synchronized (setScheduledActions) {
+            for (ScheduledAction sa : setScheduledActions) {
+                sbState.append("\n\t" + sa + ", from:" + sa.getRequest().caller);
+            }
         }
         sbState.append("\n}");
     }
@@ -757,40 +759,68 @@ public final class ClusterManager extends BaseManager implements ConnectionListe
         return sendProcessableTo(node.createJoinInfo(withCredentials), toAddress);
     }
 
+    // scheduled actions of partition threaded maps are registered by partition threads
     public void registerScheduledAction(ScheduledAction scheduledAction) {
-        setScheduledActions.add(scheduledAction);
+        synchronized (setScheduledActions) {
+            setScheduledActions.add(scheduledAction);
+        }
     }
 
     public void deregisterScheduledAction(ScheduledAction scheduledAction) {
-        setScheduledActions.remove(scheduledAction);
+        synchronized (setScheduledActions) {
+            setScheduledActions.remove(scheduledAction);
+        }
     }
 
     public void checkScheduledActions() {
         if (!node.joined() || !node.isActive()) return;
-        if (setScheduledActions.size() > 0) {
-            Iterator<ScheduledAction> it = setScheduledActions.iterator();
-            while (it.hasNext()) {
-                ScheduledAction sa = it.next();
-                if (sa.expired() && sa.isValid()) {
-                    sa.onExpire();
-                    it.remove();
-                } else if (!sa.isValid()) {
-                    it.remove();
+        synchronized (setScheduledActions) {
+            if (setScheduledActions.size() > 0) {
+                Iterator<ScheduledAction> it = setScheduledActions.iterator();
+                while (it.hasNext()) {
+                    ScheduledAction sa = it.next();
+                    if (sa.expired() && sa.isValid()) {
+                        expireScheduledAction(sa);
+                        it.remove();
+                    } else if (!sa.isValid()) {
+                        it.remove();
+                    }
                 }
             }
         }
     }
 
+    private void expireScheduledAction(final ScheduledAction sa) {
+        final Request request = sa.getRequest();
+        final int partitionId = node.concurrentMapManager.getPartitionIdForThreading(request.operation,
+                request.name, request.key);
+        if (partitionId == -1) {
+            sa.onExpire();
+        } else {
+            // action is expired by the thread owning its record,
+            // unless it is consumed by that thread in the meantime.
+            node.clusterService.enqueuePartitionAndReturn(partitionId, new Processable() {
+                public void process() {
+                    if (sa.isValid()) {
+                        sa.onExpire();
+                    }
+                }
+            });
+        }
+    }
+
     public void invalidateScheduledActionsFor(Address endpoint, Set<Integer> threadIds) {
         if (!node.joined() || !node.isActive()) return;
-        if (setScheduledActions.size() > 0) {
-            Iterator<ScheduledAction> it = setScheduledActions.iterator();
-            while (it.hasNext()) {
-                ScheduledAction sa = it.next();
-                Request request = sa.getRequest();
-                if (endpoint.equals(request.caller) && threadIds.contains(request.lockThreadId)) {
-                    sa.setValid(false);
-                    it.remove();
+        synchronized (setScheduledActions) {
+            if (setScheduledActions.size() > 0) {
+                Iterator<ScheduledAction> it = setScheduledActions.iterator();
+                while (it.hasNext()) {
+                    ScheduledAction sa = it.next();
+                    Request request = sa.getRequest();
+                    if (endpoint.equals(request.caller) && threadIds.contains(request.lockThreadId)) {
+                        sa.setValid(false);
+                        it.remove();
+                    }
                 }
             }
         }
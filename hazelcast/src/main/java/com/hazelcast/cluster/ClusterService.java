@@ -67,18 +67,66 @@ public final class ClusterService implements Runnable, Constants {
 
     private final Thread serviceThread;
 
+    private final PartitionThread[] partitionThreads;
+
+    private final boolean[] partitionAwareOperations = new boolean[ClusterOperation.LENGTH];
+
     public ClusterService(Node node) {
         this.node = node;
         this.logger = node.getLogger(ClusterService.class.getName());
         MAX_IDLE_MILLIS = node.groupProperties.MAX_NO_HEARTBEAT_SECONDS.getInteger() * 1000L;
         RESTART_ON_MAX_IDLE = node.groupProperties.RESTART_ON_MAX_IDLE.getBoolean();
         serviceThread = new Thread(node.threadGroup, this, node.getThreadNamePrefix("ServiceThread"));
+        final int partitionThreadCount = Math.max(0, node.groupProperties.PARTITION_THREAD_COUNT.getInteger());
+        partitionThreads = new PartitionThread[partitionThreadCount];
+        for (int i = 0; i < partitionThreadCount; i++) {
+            partitionThreads[i] = new PartitionThread(this, node, i);
+        }
     }
 
     public Thread getServiceThread() {
         return serviceThread;
     }
 
+    public void startPartitionThreads() {
+        for (PartitionThread partitionThread : partitionThreads) {
+            logger.log(Level.FINEST, "Starting thread " + partitionThread.getThread().getName());
+            partitionThread.start();
+        }
+    }
+
+    public boolean isPartitionThreadingEnabled() {
+        return partitionThreads.length > 0;
+    }
+
+    public int getPartitionThreadCount() {
+        return partitionThreads.length;
+    }
+
+    public boolean isPartitionThread(Thread thread) {
+        for (PartitionThread partitionThread : partitionThreads) {
+            if (partitionThread.getThread() == thread) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the current thread is the one executing operations of the given partition.
+     * When partition threading is disabled, this is the ServiceThread.
+     */
+    public boolean isPartitionOwnerThread(int partitionId) {
+        if (partitionThreads.length == 0) {
+            return Thread.currentThread() == serviceThread;
+        }
+        return Thread.currentThread() == getPartitionThread(partitionId).getThread();
+    }
+
+    public boolean isPartitionAware(ClusterOperation operation) {
+        return partitionAwareOperations[operation.getValue()];
+    }
+
     public void registerPeriodicRunnable(Runnable runnable) {
         int len = periodicRunnables.length;
         for (int i = 0; i < len; i++) {
@@ -98,6 +146,16 @@ public final class ClusterService implements Runnable, Constants {
         packetProcessors[operation.getValue()] = packetProcessor;
     }
 
+    /**
+     * Registers a processor whose operations are bound to the partition of the packet key.
+     * If partition threading is enabled, such packets are processed by the partition thread
+     * instead of the ServiceThread.
+     */
+    public void registerPartitionAwarePacketProcessor(ClusterOperation operation, PacketProcessor packetProcessor) {
+        registerPacketProcessor(operation, packetProcessor);
+        partitionAwareOperations[operation.getValue()] = true;
+    }
+
     public PacketProcessor getPacketProcessor(ClusterOperation operation) {
         PacketProcessor packetProcessor = packetProcessors[operation.getValue()];
         if (packetProcessor == null) {
@@ -114,10 +172,64 @@ public final class ClusterService implements Runnable, Constants {
                 css.info(packet, "Enqueue Packet ", packet.operation);
             }
         }
+        if (partitionThreads.length > 0 && partitionAwareOperations[packet.operation.getValue()]) {
+            final int partitionId = node.concurrentMapManager.getPartitionIdForThreading(packet.operation,
+                    packet.name, packet.getKeyData());
+            if (partitionId != -1) {
+                getPartitionThread(partitionId).enqueuePacket(packet);
+                return;
+            }
+        }
         packetQueue.offer(packet);
         unpark();
     }
 
+    private PartitionThread getPartitionThread(int partitionId) {
+        return partitionThreads[partitionId % partitionThreads.length];
+    }
+
+    /**
+     * Enqueues the processable to the thread executing the operations of the given partition.
+     * When partition threading is disabled, it is enqueued to the ServiceThread.
+     */
+    public void enqueuePartitionAndReturn(int partitionId, Processable processable) {
+        if (partitionThreads.length == 0) {
+            enqueueAndReturn(processable);
+        } else {
+            getPartitionThread(partitionId).enqueueProcessable(processable);
+        }
+    }
+
+    public void enqueuePartitionAndWait(int partitionId, final Processable processable) {
+        try {
+            final CountDownLatch l = new CountDownLatch(1);
+            enqueuePartitionAndReturn(partitionId, new Processable() {
+                public void process() {
+                    processable.process();
+                    l.countDown();
+                }
+            });
+            node.checkNodeState();
+            l.await();
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    /**
+     * Enqueues the processable to every partition thread, or once to the ServiceThread
+     * when partition threading is disabled. Processable is expected to filter the records
+     * it touches by {@link #isPartitionOwnerThread(int)}.
+     */
+    public void enqueueToPartitionThreads(Processable processable) {
+        if (partitionThreads.length == 0) {
+            enqueueAndReturn(processable);
+        } else {
+            for (PartitionThread partitionThread : partitionThreads) {
+                partitionThread.enqueueProcessable(processable);
+            }
+        }
+    }
+
     public boolean enqueueAndWait(final Processable processable, final int seconds) {
         try {
             final CountDownLatch l = new CountDownLatch(1);
@@ -158,7 +270,7 @@ public final class ClusterService implements Runnable, Constants {
         LockSupport.unpark(serviceThread);
     }
 
-    private void processPacket(Packet packet) {
+    void processPacket(Packet packet) {
         if (!running) return;
         final MemberImpl memberFrom = node.clusterManager.getMember(packet.conn.getEndPoint());
         if (memberFrom != null) {
@@ -271,6 +383,9 @@ public final class ClusterService implements Runnable, Constants {
     public void stop() {
         packetQueue.clear();
         processableQueue.clear();
+        for (PartitionThread partitionThread : partitionThreads) {
+            partitionThread.stop();
+        }
         try {
             final CountDownLatch stopLatch = new CountDownLatch(1);
             processableQueue.offer(new Processable() {
@@ -287,8 +402,13 @@ public final class ClusterService implements Runnable, Constants {
 
     @Override
     public String toString() {
+        int partitionQueueSize = 0;
+        for (PartitionThread partitionThread : partitionThreads) {
+            partitionQueueSize += partitionThread.getQueueSize();
+        }
         return "ClusterService packetQueueSize=" + packetQueue.size()
-                + "unknownQueueSize=" + processableQueue.size() + " isMaster= " + node.isMaster()
+                + "unknownQueueSize=" + processableQueue.size()
+                + " partitionQueueSize=" + partitionQueueSize + " isMaster= " + node.isMaster()
                 + " isMaster= " + node.getMasterAddress();
     }
 
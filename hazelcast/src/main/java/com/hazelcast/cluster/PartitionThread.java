@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cluster;
+
+import com.hazelcast.impl.Node;
+import com.hazelcast.impl.Processable;
+import com.hazelcast.impl.ThreadContext;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Packet;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Executes partition bound operations for the partitions assigned to it
+ * (partitionId % partitionThreadCount). Records of a partition are only
+ * touched by its partition thread, the same way they are only touched by
+ * the ServiceThread when partition threading is disabled.
+ */
+final class PartitionThread implements Runnable {
+
+    private static final int BULK_SIZE = 64;
+
+    private final ClusterService clusterService;
+
+    private final Node node;
+
+    private final ILogger logger;
+
+    private final Queue<Packet> packetQueue = new ConcurrentLinkedQueue<Packet>();
+
+    private final Queue<Processable> processableQueue = new ConcurrentLinkedQueue<Processable>();
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    PartitionThread(ClusterService clusterService, Node node, int index) {
+        this.clusterService = clusterService;
+        this.node = node;
+        this.logger = node.getLogger(PartitionThread.class.getName());
+        this.thread = new Thread(node.threadGroup, this, node.getThreadNamePrefix("PartitionThread-" + index));
+    }
+
+    Thread getThread() {
+        return thread;
+    }
+
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    void enqueuePacket(Packet packet) {
+        packetQueue.offer(packet);
+        LockSupport.unpark(thread);
+    }
+
+    void enqueueProcessable(Processable processable) {
+        processableQueue.offer(processable);
+        LockSupport.unpark(thread);
+    }
+
+    void stop() {
+        running = false;
+        packetQueue.clear();
+        processableQueue.clear();
+        LockSupport.unpark(thread);
+    }
+
+    int getQueueSize() {
+        return packetQueue.size() + processableQueue.size();
+    }
+
+    public void run() {
+        ThreadContext.get().setCurrentFactory(node.factory);
+        while (running) {
+            try {
+                boolean readPackets = (dequeuePackets() != 0);
+                boolean readProcessables = (dequeueProcessables() != 0);
+                if (!readPackets && !readProcessables) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            } catch (OutOfMemoryError e) {
+                node.onOutOfMemory(e);
+            } catch (Throwable e) {
+                logger.log(Level.SEVERE, e.getMessage(), e);
+            }
+        }
+        packetQueue.clear();
+        processableQueue.clear();
+    }
+
+    private int dequeuePackets() {
+        Packet packet = null;
+        try {
+            for (int i = 0; i < BULK_SIZE; i++) {
+                packet = packetQueue.poll();
+                if (packet == null) {
+                    return i;
+                }
+                clusterService.processPacket(packet);
+            }
+        } catch (OutOfMemoryError e) {
+            throw e;
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "error processing messages  packet=" + packet, e);
+            throw e;
+        }
+        return BULK_SIZE;
+    }
+
+    private int dequeueProcessables() {
+        Processable processable = null;
+        try {
+            for (int i = 0; i < BULK_SIZE; i++) {
+                processable = processableQueue.poll();
+                if (processable == null) {
+                    return i;
+                }
+                if (running) {
+                    processable.process();
+                }
+            }
+        } catch (OutOfMemoryError e) {
+            throw e;
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "error processing messages  processable=" + processable, e);
+            throw e;
+        }
+        return BULK_SIZE;
+    }
+}
@@ -210,6 +210,7 @@ public class ConfigXmlGenerator {
             xml.append("<eviction-policy>").append(m.getEvictionPolicy()).append("</eviction-policy>");
             xml.append("<max-size policy=\"").append(m.getMaxSizeConfig().getMaxSizePolicy()).append("\">").append(m.getMaxSizeConfig().getSize()).append("</max-size>");
             xml.append("<eviction-percentage>").append(m.getEvictionPercentage()).append("</eviction-percentage>");
+            xml.append("<eviction-sample-size>").append(m.getEvictionSampleSize()).append("</eviction-sample-size>");
             xml.append("<merge-policy>").append(m.getMergePolicy()).append("</merge-policy>");
             xml.append("<cache-value>").append(m.isCacheValue()).append("</cache-value>");
             xml.append("<read-backup-data>").append(m.isReadBackupData()).append("</read-backup-data>");
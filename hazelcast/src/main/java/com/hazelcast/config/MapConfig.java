@@ -38,6 +38,7 @@ public class MapConfig implements DataSerializable {
     public final static int MAX_EVICTION_PERCENTAGE = 100;
 
     public final static int DEFAULT_EVICTION_DELAY_SECONDS = 3;
+    public final static int DEFAULT_EVICTION_SAMPLE_SIZE = 0;
     public final static int DEFAULT_TTL_SECONDS = 0;
     public final static int DEFAULT_MAX_IDLE_SECONDS = 0;
     public final static int DEFAULT_MAX_SIZE = Integer.MAX_VALUE;
@@ -56,6 +57,8 @@ public class MapConfig implements DataSerializable {
 
     private int evictionPercentage = DEFAULT_EVICTION_PERCENTAGE;
 
+    private int evictionSampleSize = DEFAULT_EVICTION_SAMPLE_SIZE;
+
     private int timeToLiveSeconds = DEFAULT_TTL_SECONDS;
 
     private int maxIdleSeconds = DEFAULT_TTL_SECONDS;
@@ -101,6 +104,7 @@ public class MapConfig implements DataSerializable {
         this.name = config.name;
         this.backupCount = config.backupCount;
         this.evictionPercentage = config.evictionPercentage;
+        this.evictionSampleSize = config.evictionSampleSize;
         this.timeToLiveSeconds = config.timeToLiveSeconds;
         this.maxIdleSeconds = config.maxIdleSeconds;
         this.evictionDelaySeconds = config.evictionDelaySeconds;
@@ -281,6 +285,31 @@ public class MapConfig implements DataSerializable {
         return this;
     }
 
+    /**
+     * @return the evictionSampleSize
+     */
+    public int getEvictionSampleSize() {
+        return evictionSampleSize;
+    }
+
+    /**
+     * Number of random records sampled to choose each entry to evict.
+     * 0 (default) sorts all entries of the map by the eviction policy instead.
+     * If 5 is set for example, the least recently used (LRU) or the least frequently
+     * used (LFU) one of 5 random entries will get evicted. LFU is approximated by
+     * a frequency sketch of the recent accesses when sampling.
+     *
+     * @param evictionSampleSize the evictionSampleSize to set
+     * @throws IllegalArgumentException if evictionSampleSize is negative.
+     */
+    public MapConfig setEvictionSampleSize(final int evictionSampleSize) {
+        if (evictionSampleSize < 0) {
+            throw new IllegalArgumentException("eviction sample size must be greater or equal than 0");
+        }
+        this.evictionSampleSize = evictionSampleSize;
+        return this;
+    }
+
     /**
      * @return the evictionDelaySeconds
      * @deprecated
@@ -507,6 +536,7 @@ public class MapConfig implements DataSerializable {
         result = prime * result + this.asyncBackupCount;
         result = prime * result + this.evictionDelaySeconds;
         result = prime * result + this.evictionPercentage;
+        result = prime * result + this.evictionSampleSize;
         result = prime
                  * result
                  + ((this.evictionPolicy == null) ? 0 : this.evictionPolicy
@@ -547,6 +577,7 @@ public class MapConfig implements DataSerializable {
                 this.asyncBackupCount == other.asyncBackupCount &&
                 this.evictionDelaySeconds == other.evictionDelaySeconds &&
                 this.evictionPercentage == other.evictionPercentage &&
+                this.evictionSampleSize == other.evictionSampleSize &&
                 this.maxIdleSeconds == other.maxIdleSeconds &&
                 this.maxSizeConfig.getSize() == other.maxSizeConfig.getSize() &&
                 this.timeToLiveSeconds == other.timeToLiveSeconds &&
@@ -569,6 +600,7 @@ public class MapConfig implements DataSerializable {
                ", asyncBackupCount=" + asyncBackupCount +
                ", mergePolicy=" + mergePolicy +
                ", evictionPercentage=" + evictionPercentage +
+               ", evictionSampleSize=" + evictionSampleSize +
                ", timeToLiveSeconds=" + timeToLiveSeconds +
                ", maxIdleSeconds=" + maxIdleSeconds +
                ", evictionDelaySeconds=" + evictionDelaySeconds +
@@ -596,6 +628,7 @@ public class MapConfig implements DataSerializable {
         cacheValue = b[2];
         evictionPolicy = in.readUTF();
         mergePolicy = in.readUTF();
+        evictionSampleSize = in.readInt();
         // TODO: MapStoreConfig mapStoreConfig
         // TODO: NearCacheConfig nearCacheConfig
     }
@@ -612,6 +645,7 @@ public class MapConfig implements DataSerializable {
         out.writeByte(ByteUtil.toByte(valueIndexed, readBackupData, cacheValue));
         out.writeUTF(evictionPolicy);
         out.writeUTF(mergePolicy);
+        out.writeInt(evictionSampleSize);
         // TODO: MapStoreConfig mapStoreConfig
         // TODO: NearCacheConfig nearCacheConfig
     }
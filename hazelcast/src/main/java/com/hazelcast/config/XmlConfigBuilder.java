@@ -643,6 +643,9 @@ public class XmlConfigBuilder extends AbstractXmlConfigHelper implements ConfigB
             } else if ("eviction-percentage".equals(nodeName)) {
                 mapConfig.setEvictionPercentage(getIntegerValue("eviction-percentage", value,
                         MapConfig.DEFAULT_EVICTION_PERCENTAGE));
+            } else if ("eviction-sample-size".equals(nodeName)) {
+                mapConfig.setEvictionSampleSize(getIntegerValue("eviction-sample-size", value,
+                        MapConfig.DEFAULT_EVICTION_SAMPLE_SIZE));
             } else if ("eviction-delay-seconds".equals(nodeName)) {
                 mapConfig.setEvictionDelaySeconds(getIntegerValue("eviction-delay-seconds", value,
                         MapConfig.DEFAULT_EVICTION_DELAY_SECONDS));
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Future of an asynchronous operation. It is completed by the response of the
+ * operation, no thread waits for the response, so any number of operations can
+ * be in flight at once.
+ *
+ * @param <V> result type
+ * @see IMap#getAsync(Object)
+ * @see IMap#putAsync(Object, Object)
+ * @see IMap#removeAsync(Object)
+ */
+public interface AsyncFuture<V> extends Future<V> {
+
+    /**
+     * Registers a callback to be run by the given executor once the operation
+     * completes, or right away if it is already completed. The callback is given
+     * this future, its get methods return the result without blocking.
+     *
+     * @param callback callback to run
+     * @param executor executor running the callback
+     */
+    void andThen(ExecutionCallback<V> callback, Executor executor);
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Processes a map entry on the member owning the key, see
+ * {@link IMap#executeOnKey(Object, EntryProcessor)}. Instead of getting the value,
+ * changing it and putting it back, the processor is sent to the owner and only the
+ * new value is sent to the backups.
+ * <p/>
+ * The processor runs while no other operation can change the entry, so it should be
+ * short and must not call other distributed data structures.
+ *
+ * @param <K> key
+ * @param <V> value
+ */
+public interface EntryProcessor<K, V> extends Serializable {
+    /**
+     * Processes the entry. The value of the entry is null if the key doesn't exist.
+     * Calling {@link Map.Entry#setValue(Object)} updates the value in the map,
+     * setting the value to null removes the entry.
+     *
+     * @param entry entry to process
+     * @return result of the processing, returned to the caller
+     */
+    Object process(Map.Entry<K, V> entry);
+}
@@ -17,6 +17,7 @@
 package com.hazelcast.core;
 
 import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.query.Aggregator;
 import com.hazelcast.query.Expression;
 import com.hazelcast.query.Predicate;
 
@@ -24,7 +25,6 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -67,6 +67,27 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      */
     Map<K, V> getAll(Set<K> keys);
 
+    /**
+     * Removes the entries of the given keys. Keys are grouped by the members
+     * owning them, each member is called once for all of its keys and the
+     * backups of the removed entries are sent in batches.
+     * <p/>
+     * Unlike {@link #remove(Object)}, removed values are not returned. Within an
+     * active transaction keys are removed one by one, as part of the transaction.
+     *
+     * @param keys keys of the entries to remove
+     */
+    void removeAll(Set<K> keys);
+
+    /**
+     * Returns the given keys which are in this map, calling each member once
+     * for all of the keys it owns.
+     *
+     * @param keys keys to check
+     * @return keys contained in this map
+     */
+    Set<K> containsKeys(Set<K> keys);
+
     /**
      * Asynchronously gets the given key.
      * <code>
@@ -85,13 +106,18 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      * // time wasn't enough
      * }
      * </code>
-     * ExecutionException is never thrown.
+     * No thread waits for the operation, the future is completed by its response.
+     * Callbacks can be registered to run once it completes:
+     * <code>
+     * map.getAsync(key).andThen(callback, executor);
+     * </code>
+     * ExecutionException is thrown if the operation failed.
      *
      * @param key the key of the map entry
      * @return Future from which the value of the key can be retrieved.
-     * @see java.util.concurrent.Future
+     * @see AsyncFuture
      */
-    Future<V> getAsync(K key);
+    AsyncFuture<V> getAsync(K key);
 
     /**
      * Asynchronously puts the given key and value.
@@ -111,23 +137,24 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      * // time wasn't enough
      * }
      * </code>
-     * ExecutionException is never thrown.
+     * The future is completed once the sync backups of the entry are written.
+     * ExecutionException is thrown if the operation failed.
      *
      * @param key   the key of the map entry
      * @param value the new value of the map entry
      * @return Future from which the old value of the key can be retrieved.
-     * @see java.util.concurrent.Future
+     * @see AsyncFuture
      */
-    Future<V> putAsync(K key, V value);
+    AsyncFuture<V> putAsync(K key, V value);
 
     /**
      * Asynchronously removes the given key.
      *
      * @param key The key of the map entry to remove.
-     * @return A {@link java.util.concurrent.Future} from which the value
+     * @return A {@link AsyncFuture} from which the value
      *         removed from the map can be retrieved.
      */
-    Future<V> removeAsync(K key);
+    AsyncFuture<V> removeAsync(K key);
 
     /**
      * Tries to remove the entry with the given key from this map
@@ -244,6 +271,59 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      */
     void putAndUnlock(K key, V value);
 
+    /**
+     * Applies the processor to the entry of the key on the member owning the key
+     * and returns the result of the processor. If the processor changes the value,
+     * only the new value is sent to the backups.
+     * <p/>
+     * Waits if the key is locked by another thread. This operation is not
+     * transactional, it is applied immediately even inside a transaction.
+     *
+     * @param key       key of the entry
+     * @param processor processor to apply
+     * @return result of the processor
+     */
+    Object executeOnKey(K key, EntryProcessor<K, V> processor);
+
+    /**
+     * Applies the processor to all entries of this map, in parallel on each member
+     * for the entries it owns.
+     *
+     * @param processor processor to apply
+     * @return keys and non-null results of the processor
+     */
+    Map<K, Object> executeOnEntries(EntryProcessor<K, V> processor);
+
+    /**
+     * Applies the processor to the entries of this map matching the predicate,
+     * in parallel on each member for the entries it owns.
+     *
+     * @param processor processor to apply
+     * @param predicate entries to process
+     * @return keys and non-null results of the processor
+     */
+    Map<K, Object> executeOnEntries(EntryProcessor<K, V> processor, Predicate predicate);
+
+    /**
+     * Aggregates all entries of this map. Each member aggregates the entries it owns
+     * and only the partial results are sent to the caller.
+     *
+     * @param aggregator aggregator to apply, see {@link com.hazelcast.query.Aggregators}
+     * @return result of the aggregation
+     */
+    <R> R aggregate(Aggregator<? super K, ? super V, R> aggregator);
+
+    /**
+     * Aggregates the entries of this map matching the predicate. Each member aggregates
+     * the entries it owns, using the indexes of the map if the predicate is index aware,
+     * and only the partial results are sent to the caller.
+     *
+     * @param aggregator aggregator to apply, see {@link com.hazelcast.query.Aggregators}
+     * @param predicate  entries to aggregate
+     * @return result of the aggregation
+     */
+    <R> R aggregate(Aggregator<? super K, ? super V, R> aggregator, Predicate predicate);
+
     /**
      * Acquires the lock for the specified key.
      * <p>If the lock is not available then
@@ -288,6 +368,32 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      */
     boolean tryLock(K key, long time, TimeUnit timeunit);
 
+    /**
+     * Tries to acquire the locks of all of the specified keys, waiting at most the
+     * given time for each of them. Locks are requested from the members owning the
+     * keys at the same time, one call per member. If any of the locks cannot be
+     * acquired in time, the locks acquired by this call are released and
+     * <tt>false</tt> is returned.
+     * <p/>
+     * There is no blocking variant on purpose; two callers locking overlapping
+     * keys in different orders would wait for each other forever.
+     *
+     * @param keys     keys to lock in this map
+     * @param time     maximum time to wait for each lock
+     * @param timeunit time unit of the <tt>time</tt> argument.
+     * @return <tt>true</tt> if all of the locks were acquired, <tt>false</tt> otherwise.
+     */
+    boolean tryLockAll(Set<K> keys, long time, TimeUnit timeunit);
+
+    /**
+     * Releases the locks of the specified keys held by the current thread,
+     * one call per member owning the keys.
+     *
+     * @param keys keys to unlock.
+     * @see #unlock(Object)
+     */
+    void unlockAll(Set<K> keys);
+
     /**
      * Releases the lock for the specified key. It never blocks and
      * returns immediately.
@@ -379,6 +485,23 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      */
     void addEntryListener(EntryListener<K, V> listener, K key, boolean includeValue);
 
+    /**
+     * Adds an entry listener getting the add/remove/update/evict events
+     * of the entries matching the given predicate only. The predicate is
+     * evaluated against the key and the value of the event on the member
+     * owning the entry, so events of the entries not matching it are not
+     * sent to this member at all. For remove and evict events the predicate
+     * is evaluated against the removed value.
+     * <p/>
+     * The listener is removed by {@link #removeEntryListener(EntryListener)}.
+     *
+     * @param listener     entry listener
+     * @param predicate    predicate filtering the entries to listen
+     * @param includeValue <tt>true</tt> if <tt>EntryEvent</tt> should
+     *                     contain the value.
+     */
+    void addEntryListener(EntryListener<K, V> listener, Predicate<K, V> predicate, boolean includeValue);
+
     /**
      * Removes the specified entry listener for the specified key.
      * Returns silently if there is no such listener added before for
@@ -499,8 +622,9 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      * </pre>
      * <p/>
      * Index attribute should either have a getter method or be public.
-     * You should also make sure to add the indexes before adding
-     * entries to this map.
+     * Indexes can be added to a map that already has entries, each member
+     * builds the index for its own entries in the background and queries
+     * don't use the index until it is built.
      *
      * @param attribute attribute of value
      * @param ordered   <tt>true</tt> if index should be ordered,
@@ -517,6 +641,20 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, Instance {
      */
     void addIndex(Expression<?> expression, boolean ordered);
 
+    /**
+     * Creates a query cache holding the entries of this map matching the given
+     * predicate on this member. Instead of querying the cluster each time,
+     * the entries are queried once and kept up to date by the entry events of
+     * the map, so reading them or querying them again is local.
+     * <p/>
+     * Each call creates a new cache listening the map, caches should be shared
+     * and destroyed by {@link QueryCache#destroy()} when they are no longer needed.
+     *
+     * @param predicate predicate of the entries to cache
+     * @return query cache of the matching entries
+     */
+    QueryCache<K, V> getQueryCache(Predicate<K, V> predicate);
+
     /**
      * Returns LocalMapStats for this map.
      * LocalMapStats is the statistics for the local portion of this
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * MapLoader that can stream its keys for the initial load of the map.
+ * If the MapLoader implements this interface, Hazelcast will call
+ * iterateKeys(Set) instead of loadAllKeys() and will load the keys
+ * in chunks while iterating, so all the keys of the store never have to
+ * be kept in memory at once.
+ * <p/>
+ * If the returned iterator implements java.io.Closeable, it is closed
+ * when the initial load is done, so the implementation can close its
+ * cursor or connection.
+ */
+public interface MapKeyStreamingLoader<K, V> extends MapLoader<K, V> {
+    /**
+     * Iterates over the keys of the given partitions. Each member asks for the
+     * partitions it owns, so the store is not read in full by every member. The
+     * partition of a key is given by the PartitionService of the HazelcastInstance
+     * passed to {@link MapLoaderLifecycleSupport#init}.
+     * <p/>
+     * Keys of other partitions may be returned too, they are skipped.
+     *
+     * @param partitionIds ids of the partitions owned by the calling member
+     * @return iterator over the keys of the partitions
+     */
+    Iterator<K> iterateKeys(Set<Integer> partitionIds);
+}
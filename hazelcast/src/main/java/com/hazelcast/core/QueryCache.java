@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import com.hazelcast.monitor.LocalQueryCacheStats;
+import com.hazelcast.query.Predicate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local view of the entries of a distributed map matching a predicate. The matching
+ * entries are loaded once when the query cache is created, then the cache is kept
+ * up to date by the entry events of the map, which are filtered by the predicate on
+ * the members owning the entries. Reads and queries of the cache are local.
+ * <p/>
+ * The cache is eventually consistent with the map, it lags behind the map by the
+ * time the events take to arrive, see {@link #getLocalQueryCacheStats()}.
+ * Values returned by the cache are shared by the callers and must not be modified.
+ *
+ * @param <K> key
+ * @param <V> value
+ * @see IMap#getQueryCache(Predicate)
+ */
+public interface QueryCache<K, V> {
+
+    /**
+     * Returns the name of the map of this query cache.
+     *
+     * @return name of the map
+     */
+    String getName();
+
+    /**
+     * Returns the predicate of this query cache.
+     *
+     * @return predicate the entries of the cache match
+     */
+    Predicate<K, V> getPredicate();
+
+    V get(Object key);
+
+    boolean containsKey(Object key);
+
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Returns a copy of the keys of the cache.
+     */
+    Set<K> keySet();
+
+    /**
+     * Returns a copy of the values of the cache.
+     */
+    Collection<V> values();
+
+    /**
+     * Returns a copy of the entries of the cache.
+     */
+    Set<Map.Entry<K, V>> entrySet();
+
+    /**
+     * Queries the cache locally, the indexes of the cache are used if they
+     * match the predicate.
+     *
+     * @param predicate query criteria
+     * @return keys of the cached entries matching the predicate
+     */
+    Set<K> keySet(Predicate predicate);
+
+    /**
+     * Queries the cache locally, the indexes of the cache are used if they
+     * match the predicate.
+     *
+     * @param predicate query criteria
+     * @return values of the cached entries matching the predicate
+     */
+    Collection<V> values(Predicate predicate);
+
+    /**
+     * Queries the cache locally, the indexes of the cache are used if they
+     * match the predicate.
+     *
+     * @param predicate query criteria
+     * @return cached entries matching the predicate
+     */
+    Set<Map.Entry<K, V>> entrySet(Predicate predicate);
+
+    /**
+     * Adds an index to the cache for the given attribute. The index is local to
+     * this cache, it is independent of the indexes of the map.
+     *
+     * @param attribute attribute of the value
+     * @param ordered   <tt>true</tt> if the index should be ordered,
+     *                  <tt>false</tt> otherwise.
+     * @see IMap#addIndex(String, boolean)
+     */
+    void addIndex(String attribute, boolean ordered);
+
+    /**
+     * Returns the statistics of the cache, the event lag showing how far the
+     * cache is behind the map.
+     *
+     * @return statistics of the cache
+     */
+    LocalQueryCacheStats getLocalQueryCacheStats();
+
+    /**
+     * Stops listening the map and clears the cache.
+     */
+    void destroy();
+}
@@ -100,7 +100,7 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
         return toObject(key);
     }
 
-    public Long[] getIndexes() {
+    public Object[] getIndexes() {
         if (optionalInfo == null) return null;
         return getOptionalInfo().indexes;
     }
@@ -110,7 +110,7 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
         return getOptionalInfo().indexTypes;
     }
 
-    public void setIndexes(Long[] indexes, byte[] indexTypes) {
+    public void setIndexes(Object[] indexes, byte[] indexTypes) {
         if (indexes != null) {
             this.getOptionalInfo().indexes = indexes;
             this.getOptionalInfo().indexTypes = indexTypes;
@@ -181,6 +181,7 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
     public void setLastAccessed() {
         setLastAccessTime(Clock.currentTimeMillis());
         incrementHits();
+        cmap.onRecordAccess(this);
     }
 
     public long getExpirationTime() {
@@ -452,7 +453,7 @@ public abstract class AbstractRecord extends AbstractSimpleRecord implements Rec
 
     class OptionalInfo {
         volatile Collection<ValueHolder> lsMultiValues = null; // multimap values
-        Long[] indexes; // indexes of the current value;
+        Object[] indexes; // indexes of the current value;
         byte[] indexTypes; // index types of the current value;
         List<ScheduledAction> lsScheduledActions = null;
         SortedSet<VersionedBackupOp> backupOps = null;
@@ -33,6 +33,8 @@ public abstract class AbstractSimpleRecord implements Record {
     protected final Data key;
     protected final short blockId;
     protected volatile boolean active = true;
+    // guarded by RecordSampler
+    protected int samplingIndex = -1;
 
     public AbstractSimpleRecord(int blockId, CMap cmap, long id, Data key) {
         this.blockId = (short) blockId;
@@ -58,7 +60,7 @@ public abstract class AbstractSimpleRecord implements Record {
         return key;
     }
 
-    public Long[] getIndexes() {
+    public Object[] getIndexes() {
         return null;
     }
 
@@ -66,7 +68,7 @@ public abstract class AbstractSimpleRecord implements Record {
         return null;
     }
 
-    public void setIndexes(Long[] indexes, byte[] indexTypes) {
+    public void setIndexes(Object[] indexes, byte[] indexTypes) {
     }
 
     public boolean unlock(int threadId, Address address) {
@@ -316,4 +318,12 @@ public abstract class AbstractSimpleRecord implements Record {
     public boolean equals(Object obj) {
         return obj instanceof SimpleRecord && id == ((SimpleRecord) obj).id;
     }
+
+    public int getSamplingIndex() {
+        return samplingIndex;
+    }
+
+    public void setSamplingIndex(int samplingIndex) {
+        this.samplingIndex = samplingIndex;
+    }
 }
@@ -33,6 +33,7 @@ import com.hazelcast.util.ResponseQueueFactory;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
@@ -309,8 +310,12 @@ public abstract class BaseManager {
             css.logObject(request, CS_INFO, "ReturnResponse");
         }
         if (request.local) {
-            final TargetAwareOp targetAwareOp = (TargetAwareOp) request.attachment;
-            targetAwareOp.setResult(request.response);
+            if (request.attachment instanceof ResponseHandler) {
+                ((ResponseHandler) request.attachment).handleResponse(request.response);
+            } else {
+                final TargetAwareOp targetAwareOp = (TargetAwareOp) request.attachment;
+                targetAwareOp.setResult(request.response);
+            }
         } else {
             Packet packet = obtainPacket();
 //            request.setPacket(packet);
@@ -504,9 +509,21 @@ public abstract class BaseManager {
 
         private final BlockingQueue<Object> responses = ResponseQueueFactory.newResponseQueue();
 
+        // completes the call instead of a waiting thread when set
+        private volatile ResponseHandler responseHandler = null;
+
         public ResponseQueueCall() {
         }
 
+        /**
+         * Makes the call complete without a waiting thread. Responses are handed to the
+         * handler on the response path, and redo responses redo the call after the redo
+         * wait on the scheduler.
+         */
+        public void setResponseHandler(ResponseHandler responseHandler) {
+            this.responseHandler = responseHandler;
+        }
+
         @Override
         public void doOp() {
             responses.clear();
@@ -574,14 +591,7 @@ public abstract class BaseManager {
                     handleInterruptedException();
                 }
                 if (result == OBJECT_REDO) {
-                    request.redoCount++;
-                    SystemLogService css = node.getSystemLogService();
-                    if (css.shouldTrace()) {
-                        css.trace(this, MapSystemLogFactory.newRedoLog(node, request));
-                    }
-                    if (request.redoCount > 19 && (request.redoCount % 10 == 0)) {
-                        logger.log(Level.WARNING, MapSystemLogFactory.newRedoLog(node, request).toString());
-                    }
+                    countRedo();
                     try {
                         //noinspection BusyWait
                         Thread.sleep(redoWaitMillis);
@@ -596,6 +606,36 @@ public abstract class BaseManager {
             }
         }
 
+        private void countRedo() {
+            request.redoCount++;
+            SystemLogService css = node.getSystemLogService();
+            if (css.shouldTrace()) {
+                css.trace(this, MapSystemLogFactory.newRedoLog(node, request));
+            }
+            if (request.redoCount > 19 && (request.redoCount % 10 == 0)) {
+                logger.log(Level.WARNING, MapSystemLogFactory.newRedoLog(node, request).toString());
+            }
+        }
+
+        private void redoLater(final ResponseHandler handler) {
+            countRedo();
+            final Runnable redo = new Runnable() {
+                public void run() {
+                    try {
+                        beforeRedo();
+                        doOp();
+                    } catch (Throwable e) {
+                        handler.handleResponse(e);
+                    }
+                }
+            };
+            try {
+                node.executorManager.getScheduledExecutorService().schedule(redo, redoWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                handler.handleResponse(e);
+            }
+        }
+
         protected Address getTarget() {
             return thisAddress;
         }
@@ -664,7 +704,14 @@ public abstract class BaseManager {
                     systemLogService.info(request, "setResult(REDO)");
                 }
             }
-            responses.offer(obj == null ? OBJECT_NULL : obj);
+            final ResponseHandler handler = responseHandler;
+            if (handler == null) {
+                responses.offer(obj == null ? OBJECT_NULL : obj);
+            } else if (obj == OBJECT_REDO) {
+                redoLater(handler);
+            } else {
+                handler.handleResponse(obj == null ? OBJECT_NULL : obj);
+            }
         }
     }
 
@@ -841,6 +888,19 @@ public abstract class BaseManager {
         }
 
         public void doLocalOp() {
+            final int partitionId = getPartitionIdForThreading(request);
+            if (partitionId == -1) {
+                handleLocalOp();
+            } else {
+                node.clusterService.enqueuePartitionAndReturn(partitionId, new Processable() {
+                    public void process() {
+                        handleLocalOp();
+                    }
+                });
+            }
+        }
+
+        void handleLocalOp() {
             if (isMigrationAware() && isMigrating(request)) {
                 setResult(OBJECT_REDO);
             } else {
@@ -1019,6 +1079,14 @@ public abstract class BaseManager {
         return false;
     }
 
+    /**
+     * Returns the partition id whose partition thread should handle the request,
+     * or -1 if the request should be handled by the ServiceThread.
+     */
+    protected int getPartitionIdForThreading(Request req) {
+        return -1;
+    }
+
     public static InstanceType getInstanceType(final String name) {
         if (name.startsWith(Prefix.ATOMIC_NUMBER)) {
             return InstanceType.ATOMIC_NUMBER;
@@ -1086,13 +1154,19 @@ public abstract class BaseManager {
         node.clusterService.registerPacketProcessor(operation, packetProcessor);
     }
 
+    public void registerPartitionAwarePacketProcessor(ClusterOperation operation, PacketProcessor packetProcessor) {
+        node.clusterService.registerPartitionAwarePacketProcessor(operation, packetProcessor);
+    }
+
     public PacketProcessor getPacketProcessor(ClusterOperation operation) {
         return node.clusterService.getPacketProcessor(operation);
     }
 
-    public void sendEvents(int eventType, String name, Data key, Data value, Map<Address, Boolean> mapListeners, Address callerAddress) {
+    public void sendEvents(int eventType, String name, Data key, Data newValue, Data oldValue,
+                           Map<Address, Boolean> mapListeners, Address callerAddress) {
         if (mapListeners != null) {
-            checkServiceThread();
+            checkServiceOrPartitionThread();
+            final long creationTime = node.getClusterImpl().getClusterTime();
             final Set<Map.Entry<Address, Boolean>> listeners = mapListeners.entrySet();
             for (final Map.Entry<Address, Boolean> listener : listeners) {
                 final Address toAddress = listener.getKey();
@@ -1103,13 +1177,13 @@ public abstract class BaseManager {
                     // By this way we can handle scenario of successively registered 
                     // a LocalEntryListener (which sets implicitly include-value to true) 
                     // and an EntryListener whose include-value is false. 
-                    enqueueEvent(eventType, name, key, /*(includeValue) ? value : null*/ value, callerAddress, true);
+                    enqueueEvent(eventType, name, key, newValue, oldValue, callerAddress, true, creationTime);
+                } else if (includeValue) {
+                    node.listenerManager.eventBatcher.publish(toAddress, eventType, name, key, newValue, oldValue,
+                            callerAddress, creationTime);
                 } else {
-                    final Packet packet = obtainPacket();
-                    packet.set(name, ClusterOperation.EVENT, key, (includeValue) ? value : null);
-                    packet.lockAddress = callerAddress;
-                    packet.longValue = eventType;
-                    sendOrReleasePacket(packet, toAddress);
+                    node.listenerManager.eventBatcher.publish(toAddress, eventType, name, key, null, null,
+                            callerAddress, creationTime);
                 }
             }
         }
@@ -1250,10 +1324,6 @@ public abstract class BaseManager {
 
     void enqueueEvent(int eventType, String name, Data key, Data value, Address from, boolean localEvent) {
         try {
-            Member member = getMember(from);
-            if (member == null) {
-                member = new MemberImpl(from, thisAddress.equals(from));
-            }
             Data newValue = value;
             Data oldValue = null;
             if (value != null && getInstanceType(name).isMap()) {
@@ -1269,7 +1339,21 @@ public abstract class BaseManager {
                     }
                 }
             }
-            final DataAwareEntryEvent dataAwareEntryEvent = new DataAwareEntryEvent(member, eventType, name, key, newValue, oldValue, localEvent);
+            enqueueEvent(eventType, name, key, newValue, oldValue, from, localEvent, 0);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+
+    void enqueueEvent(int eventType, String name, Data key, Data newValue, Data oldValue, Address from,
+                      boolean localEvent, long creationTime) {
+        try {
+            Member member = getMember(from);
+            if (member == null) {
+                member = new MemberImpl(from, thisAddress.equals(from));
+            }
+            final DataAwareEntryEvent dataAwareEntryEvent = new DataAwareEntryEvent(member, eventType, name, key, newValue, oldValue,
+                    localEvent, creationTime);
             int hash;
             if (key != null) {
                 hash = key.hashCode();
@@ -1298,6 +1382,15 @@ public abstract class BaseManager {
         }
     }
 
+    public final void checkServiceOrPartitionThread() {
+        final Thread currentThread = Thread.currentThread();
+        if (currentThread != node.serviceThread && !node.clusterService.isPartitionThread(currentThread)) {
+            String msg = "Only ServiceThread or PartitionThreads can access this method. " + currentThread;
+            logger.log(Level.SEVERE, msg);
+            throw new Error(msg);
+        }
+    }
+
     static int hashTwo(int hash1, int hash2) {
         return hash1 * 29 + hash2;
     }
@@ -1315,47 +1408,51 @@ public abstract class BaseManager {
     void fireMapEvent(final Map<Address, Boolean> mapListeners, final String name,
                       final int eventType, final Data key, final Data oldValue, final Data value,
                       Map<Address, Boolean> keyListeners, Address callerAddress) {
-        if (keyListeners == null && (mapListeners == null || mapListeners.size() == 0)) {
-            return;
-        }
         try {
+            final Map<Address, Boolean> predicateListeners = getMatchingPredicateListeners(name, key, value, oldValue);
+            if (keyListeners == null && predicateListeners == null && (mapListeners == null || mapListeners.size() == 0)) {
+                return;
+            }
             Map<Address, Boolean> mapTargetListeners = null;
             if (keyListeners != null) {
                 mapTargetListeners = new HashMap<Address, Boolean>(keyListeners);
             }
             if (mapListeners != null && mapListeners.size() > 0) {
-                if (mapTargetListeners == null) {
-                    mapTargetListeners = new HashMap<Address, Boolean>(mapListeners);
-                } else {
-                    final Set<Map.Entry<Address, Boolean>> entries = mapListeners.entrySet();
-                    for (final Map.Entry<Address, Boolean> entry : entries) {
-                        if (mapTargetListeners.containsKey(entry.getKey())) {
-                            if (entry.getValue()) {
-                                mapTargetListeners.put(entry.getKey(), entry.getValue());
-                            }
-                        } else
-                            mapTargetListeners.put(entry.getKey(), entry.getValue());
-                    }
-                }
+                mapTargetListeners = addTargetListeners(mapTargetListeners, mapListeners);
+            }
+            if (predicateListeners != null) {
+                mapTargetListeners = addTargetListeners(mapTargetListeners, predicateListeners);
             }
             if (mapTargetListeners == null || mapTargetListeners.size() == 0) {
                 return;
             }
-            Data packetValue = value;
-            if (value != null && getInstanceType(name).isMap()) {
-                Keys keys = new Keys();
-                keys.add(value);
-                if (oldValue != null) {
-                    keys.add(oldValue);
-                }
-                packetValue = toData(keys);
-            }
-            sendEvents(eventType, name, key, packetValue, mapTargetListeners, callerAddress);
+            sendEvents(eventType, name, key, value, (value == null) ? null : oldValue, mapTargetListeners, callerAddress);
         } catch (final Exception e) {
             logger.log(Level.WARNING, e.getMessage(), e);
         }
     }
 
+    private static Map<Address, Boolean> addTargetListeners(Map<Address, Boolean> targetListeners,
+                                                            Map<Address, Boolean> listeners) {
+        if (targetListeners == null) {
+            return new HashMap<Address, Boolean>(listeners);
+        }
+        for (final Map.Entry<Address, Boolean> entry : listeners.entrySet()) {
+            if (entry.getValue() || !targetListeners.containsKey(entry.getKey())) {
+                targetListeners.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return targetListeners;
+    }
+
+    /**
+     * @return members listening the map with a predicate matching the new or the old value of
+     *         the entry, null if there is none
+     */
+    Map<Address, Boolean> getMatchingPredicateListeners(String name, Data key, Data value, Data oldValue) {
+        return null;
+    }
+
     MemberImpl getMember(Address address) {
         return node.clusterManager.getMember(address);
     }
@@ -1370,6 +1467,14 @@ public abstract class BaseManager {
         }
     }
 
+    void registerListener(boolean add, String name, Data key, Address address, boolean includeValue, Data predicate) {
+        if (predicate == null) {
+            registerListener(add, name, key, address, includeValue);
+        } else {
+            node.concurrentMapManager.registerPredicateListener(add, name, address, predicate);
+        }
+    }
+
     public final void handleResponse(Packet packetResponse) {
         final Call call = getRemoteCall(packetResponse.callId);
         if (call != null) {
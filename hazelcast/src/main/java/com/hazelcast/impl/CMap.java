@@ -26,11 +26,14 @@ import com.hazelcast.impl.base.Values;
 import com.hazelcast.impl.concurrentmap.*;
 import com.hazelcast.impl.monitor.LocalMapStatsImpl;
 import com.hazelcast.impl.partition.PartitionInfo;
+import com.hazelcast.impl.storage.Storage;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.merge.MergePolicy;
 import com.hazelcast.nio.*;
 import com.hazelcast.query.Expression;
+import com.hazelcast.query.Index;
 import com.hazelcast.query.MapIndexService;
+import com.hazelcast.query.Predicate;
 import com.hazelcast.query.Predicates;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.ConcurrentHashSet;
@@ -44,17 +47,27 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import static com.hazelcast.core.Prefix.*;
 import static com.hazelcast.impl.ClusterOperation.*;
 import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
 
 public class CMap {
 
     private static final Comparator<MapEntry> LRU_COMPARATOR = new LRUMapEntryComparator();
     private static final Comparator<MapEntry> LFU_COMPARATOR = new LFUMapEntryComparator();
 
+    private static final int EVICTION_POOL_SIZE = 16;
+
+    // records visited by a cleanup cycle that is not forced
+    private static final int CLEANUP_BATCH_SIZE = 10000;
+
+    private static final long MAX_WRITE_BEHIND_RETRY_DELAY_MILLIS = 5 * 60 * 1000L;
+
     enum EvictionPolicy {
         LRU,
         LFU,
@@ -81,7 +94,7 @@ public class CMap {
 
     final Address thisAddress;
 
-    final ConcurrentMap<Data, Record> mapRecords = new ConcurrentHashMap<Data, Record>(10000, 0.75f, 1);
+    final PartitionedRecordMap mapRecords;
 
     final String name;
 
@@ -89,7 +102,14 @@ public class CMap {
 
     final MultiMapConfig multiMapConfig;
 
-    final Map<Address, Boolean> mapListeners = new HashMap<Address, Boolean>(1);
+    final Map<Address, Boolean> mapListeners = new ConcurrentHashMap<Address, Boolean>(1, 0.75f, 1);
+
+    /**
+     * Predicates of the entry listeners of each member, by their serialized form.
+     * A member gets the events of the entries matching at least one of its predicates.
+     */
+    final ConcurrentMap<Address, Map<Data, Predicate>> mapPredicateListeners
+            = new ConcurrentHashMap<Address, Map<Data, Predicate>>(1, 0.75f, 1);
 
     int backupCount;
 
@@ -103,6 +123,8 @@ public class CMap {
 
     float evictionRate;
 
+    int evictionSampleSize;
+
     long ttl; //ttl for entries
 
     long maxIdle; //maxIdle for entries
@@ -139,14 +161,12 @@ public class CMap {
 
     volatile boolean ttlPerRecord = false;
 
-    volatile boolean dirty = false;
-
     private volatile long lastCleanup = Clock.currentTimeMillis();
 
     @SuppressWarnings("VolatileLongOrDoubleField")
     volatile long lastEvictionTime = 0;
 
-    DistributedLock lockEntireMap = null;
+    volatile DistributedLock lockEntireMap = null;
 
     volatile InitializationState initState = InitializationState.NONE;
 
@@ -160,6 +180,32 @@ public class CMap {
 
     final AtomicBoolean cleanupActive = new AtomicBoolean(false);
 
+    // partition the next cleanup cycle starts from, only used by the active cleanup
+    private int cleanupPartitionId = 0;
+
+    final boolean partitionThreaded;
+
+    final Storage storage;
+
+    final RecordSampler recordSampler;
+
+    final FrequencySketch frequencySketch;
+
+    // records of the owned partitions waiting to be stored, null if the map has no write-behind
+    final WriteBehindQueue[] writeBehindQueues;
+
+    // records of the backup partitions the owner may not have stored yet
+    final WriteBehindQueue[] backupWriteBehindQueues;
+
+    final int writeBehindBatchSize;
+
+    final AtomicLong writeBehindFailureCount = new AtomicLong();
+
+    final AtomicInteger writeBehindConsecutiveFailures = new AtomicInteger();
+
+    // entries loaded by the initial load, null if the map has no loader
+    final MapLoadProgress loadProgress;
+
     CMap(ConcurrentMapManager concurrentMapManager, String name) {
         this.concurrentMapManager = concurrentMapManager;
         this.logger = concurrentMapManager.node.getLogger(CMap.class.getName());
@@ -167,6 +213,8 @@ public class CMap {
         this.node = concurrentMapManager.node;
         this.thisAddress = concurrentMapManager.thisAddress;
         this.name = name;
+        partitionThreaded = concurrentMapManager.isPartitionThreadedMap(name);
+        mapRecords = new PartitionedRecordMap(PARTITION_COUNT);
         mapForQueue = name.startsWith(MAP_FOR_QUEUE);
         instanceType = ConcurrentMapManager.getInstanceType(name);
         String mapConfigName = name.substring(2);
@@ -184,7 +232,12 @@ public class CMap {
         }
         this.mapIndexService = new MapIndexService(mapConfig.isValueIndexed());
         setRuntimeConfig(mapConfig);
-        if (mapForQueue || node.groupProperties.ELASTIC_MEMORY_ENABLED.getBoolean()) {
+        storage = isOffHeap(mapConfig) ? concurrentMapManager.createOffHeapStorage(name) : null;
+        final boolean sampledEviction = mapConfig.getEvictionSampleSize() > 0 && isUserMap() && !mapForQueue;
+        recordSampler = sampledEviction ? new RecordSampler() : null;
+        frequencySketch = sampledEviction && evictionPolicy == EvictionPolicy.LFU
+                ? new FrequencySketch(expectedEntryCount(mapConfig.getMaxSizeConfig())) : null;
+        if (mapForQueue || storage != null || node.groupProperties.ELASTIC_MEMORY_ENABLED.getBoolean()) {
             cacheValue = false;
         }
         MapStoreConfig mapStoreConfig = mapConfig.getMapStoreConfig();
@@ -226,6 +279,19 @@ public class CMap {
         }
         loader = (mapStoreWrapper == null || !mapStoreWrapper.isMapLoader()) ? null : mapStoreWrapper;
         store = (mapStoreWrapper == null || !mapStoreWrapper.isMapStore()) ? null : mapStoreWrapper;
+        if (store != null && writeDelayMillis > 0) {
+            writeBehindQueues = new WriteBehindQueue[PARTITION_COUNT];
+            backupWriteBehindQueues = new WriteBehindQueue[PARTITION_COUNT];
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                writeBehindQueues[i] = new WriteBehindQueue();
+                backupWriteBehindQueues[i] = new WriteBehindQueue();
+            }
+        } else {
+            writeBehindQueues = null;
+            backupWriteBehindQueues = null;
+        }
+        writeBehindBatchSize = node.groupProperties.MAP_WRITE_BEHIND_BATCH_SIZE.getInteger();
+        loadProgress = (loader == null) ? null : new MapLoadProgress(PARTITION_COUNT);
         NearCacheConfig nearCacheConfig = mapConfig.getNearCacheConfig();
         if (nearCacheConfig == null) {
             nearCache = null;
@@ -277,6 +343,13 @@ public class CMap {
         }
     }
 
+    private boolean isOffHeap(MapConfig mapConfig) {
+        if (mapForQueue || isMultiMap() || name.startsWith(MAP_HAZELCAST)) {
+            return false;
+        }
+        return mapConfig.getStorageType() == MapConfig.StorageType.OFFHEAP;
+    }
+
     private void initializeIndexes() {
         for (MapIndexConfig index : mapConfig.getMapIndexConfigs()) {
             if (index.getAttribute() != null) {
@@ -365,6 +438,17 @@ public class CMap {
             }
         }
         evictionRate = mapConfig.getEvictionPercentage() / 100f;
+        evictionSampleSize = mapConfig.getEvictionSampleSize();
+    }
+
+    private static int expectedEntryCount(MaxSizeConfig maxSizeConfig) {
+        final String policy = maxSizeConfig.getMaxSizePolicy();
+        if (MaxSizeConfig.POLICY_USED_HEAP_SIZE.equals(policy)
+                || MaxSizeConfig.POLICY_USED_HEAP_PERCENTAGE.equals(policy)
+                || maxSizeConfig.getSize() == Integer.MAX_VALUE) {
+            return 1 << 16;
+        }
+        return Math.min(maxSizeConfig.getSize(), 1 << 20);
     }
 
     public MapConfig getRuntimeConfig() {
@@ -380,6 +464,7 @@ public class CMap {
             mapConfig.getMaxSizeConfig().setSize(maxSizePolicy.getMaxSizeConfig().getSize());
         }
         mapConfig.setEvictionPercentage((int) (evictionRate * 100));
+        mapConfig.setEvictionSampleSize(evictionSampleSize);
         return mapConfig;
     }
 
@@ -387,6 +472,14 @@ public class CMap {
         return loader;
     }
 
+    /**
+     * @param partitionIds partitions owned by this member
+     * @return iterator over the keys of the loader for the initial load, null if there are none
+     */
+    Iterator iterateLoaderKeys(Set<Integer> partitionIds) {
+        return (loader == null) ? null : mapStoreWrapper.iterateKeys(partitionIds);
+    }
+
     public Object getInitLock() {
         return initLock;
     }
@@ -432,7 +525,11 @@ public class CMap {
     }
 
     public void addIndex(Expression expression, boolean ordered, int attributeIndex) {
-        mapIndexService.addIndex(expression, ordered, attributeIndex);
+        final boolean exists = mapIndexService.getIndexes().containsKey(expression);
+        final Index index = mapIndexService.addIndex(expression, ordered, attributeIndex);
+        if (!exists && !index.isReady()) {
+            concurrentMapManager.node.executorManager.executeQueryTask(new MapIndexBuilder(this, index));
+        }
     }
 
     public Record getRecord(Data key) {
@@ -578,6 +675,9 @@ public class CMap {
             Record record = toRecord(req);
             markAsActive(record);
             record.setVersion(req.version);
+            if (backupWriteBehindQueues != null) {
+                backupWriteBehindQueues[record.getBlockId()].offer(record, Clock.currentTimeMillis() + writeDelayMillis);
+            }
             if (req.indexes != null) {
                 if (req.indexTypes == null) {
                     throw new RuntimeException("index types cannot be null!");
@@ -591,12 +691,16 @@ public class CMap {
                 record.setTTL(req.ttl);
                 ttlPerRecord = true;
             }
-        } else if (req.operation == CONCURRENT_MAP_BACKUP_REMOVE) {
+        } else if (req.operation == CONCURRENT_MAP_BACKUP_REMOVE || req.operation == CONCURRENT_MAP_BACKUP_EVICT) {
             Record record = getRecord(req);
             if (record != null) {
                 if (record.isActive()) {
                     markAsEvicted(record);
                 }
+                if (backupWriteBehindQueues != null && req.operation == CONCURRENT_MAP_BACKUP_REMOVE) {
+                    // the delete is kept, like the updates, until the owner has stored it
+                    backupWriteBehindQueues[record.getBlockId()].offer(record, Clock.currentTimeMillis() + writeDelayMillis);
+                }
             }
         } else if (req.operation == CONCURRENT_MAP_BACKUP_LOCK) {
             if (req.lockCount == 0) {
@@ -735,13 +839,16 @@ public class CMap {
     }
 
     void fireScheduledActions(Record record) {
-        concurrentMapManager.checkServiceThread();
+        concurrentMapManager.checkServiceOrPartitionThread();
         if (record.getLockCount() == 0) {
             record.clearLock();
             while (record.hasScheduledAction()) {
                 ScheduledAction sa = record.getScheduledActions().remove(0);
                 node.clusterManager.deregisterScheduledAction(sa);
-                if (!sa.expired()) {
+                final boolean expired = sa.expired();
+                // a pending expiration from ClusterManager must not fire once the action is taken here
+                sa.setValid(false);
+                if (!expired) {
                     sa.consume();
                     if (record.isLocked()) {
                         return;
@@ -919,6 +1026,17 @@ public class CMap {
         }
     }
 
+    boolean isPartitionThreaded() {
+        return partitionThreaded;
+    }
+
+    /**
+     * @return storage of the record values or null if values are kept on heap
+     */
+    public Storage getStorage() {
+        return storage;
+    }
+
     boolean isMapForQueue() {
         return mapForQueue;
     }
@@ -937,53 +1055,243 @@ public class CMap {
         }
     }
 
-    private void executeStoreUpdate(final Set<Record> dirtyRecords) {
-        if (dirtyRecords.size() > 0) {
-            concurrentMapManager.storeExecutor.execute(new Runnable() {
-                public void run() {
-                    try {
-                        Set<Object> keysToDelete = new HashSet<Object>();
-                        Set<Record> toStore = new HashSet<Record>();
-                        Map<Object, Object> updates = new HashMap<Object, Object>();
-                        for (Record dirtyRecord : dirtyRecords) {
-                            if (!dirtyRecord.isActive()) {
-                                keysToDelete.add(dirtyRecord.getKey());
-                            } else {
-                                toStore.add(dirtyRecord);
-                                updates.put(dirtyRecord.getKey(), dirtyRecord.getValue());
+    /**
+     * Stores the records of the owned partitions whose write delay has passed, in batches
+     * on the store executor. Records of the partitions that are not owned any more are
+     * stored at once. Records kept for the partitions this member is not a backup of
+     * any more are dropped, the others are kept until the owner has stored them.
+     */
+    void flushWriteBehind(long now) {
+        if (writeBehindQueues == null) return;
+        final PartitionManager partitionManager = concurrentMapManager.partitionManager;
+        List<Record> batch = new ArrayList<Record>();
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            final PartitionInfo partition = partitionManager.getPartition(partitionId);
+            if (backupWriteBehindQueues[partitionId].size() > 0 && partition.getOwner() != null
+                    && !partition.isOwnerOrBackup(thisAddress, getTotalBackupCount())) {
+                backupWriteBehindQueues[partitionId].clear();
+            }
+            final WriteBehindQueue queue = writeBehindQueues[partitionId];
+            if (queue.size() == 0) continue;
+            final Address owner = partition.getOwner();
+            if (owner == null || partitionManager.isPartitionMigrating(partitionId)) continue;
+            final long dueTime = thisAddress.equals(owner) ? now : Long.MAX_VALUE;
+            List<Record> records;
+            while ((records = queue.poll(dueTime, writeBehindBatchSize - batch.size())) != null) {
+                batch.addAll(records);
+                if (batch.size() >= writeBehindBatchSize) {
+                    executeWriteBehindStore(batch);
+                    batch = new ArrayList<Record>();
+                }
+            }
+        }
+        executeWriteBehindStore(batch);
+    }
+
+    private void executeWriteBehindStore(List<Record> records) {
+        final WriteBehindStore writeBehindStore = new WriteBehindStore(records);
+        if (writeBehindStore.hasRecords()) {
+            // one map is stored by one thread, so a key is never stored by two batches at once
+            concurrentMapManager.storeExecutor.execute(writeBehindStore, name.hashCode());
+        }
+    }
+
+    /**
+     * Stores all the records waiting in the write-behind queues of this member, in the
+     * caller thread.
+     */
+    void flushWriteBehindNow() {
+        if (writeBehindQueues == null) return;
+        List<Record> batch = new ArrayList<Record>();
+        for (WriteBehindQueue queue : writeBehindQueues) {
+            List<Record> records;
+            while ((records = queue.poll(Long.MAX_VALUE, writeBehindBatchSize - batch.size())) != null) {
+                batch.addAll(records);
+                if (batch.size() >= writeBehindBatchSize) {
+                    storeWriteBehindNow(batch);
+                    batch = new ArrayList<Record>();
+                }
+            }
+        }
+        storeWriteBehindNow(batch);
+    }
+
+    private void storeWriteBehindNow(List<Record> records) {
+        final WriteBehindStore writeBehindStore = new WriteBehindStore(records);
+        if (writeBehindStore.hasRecords() && !writeBehindStore.store()) {
+            throw new RuntimeException("Could not store the entries of map " + getName());
+        }
+    }
+
+    /**
+     * Called for the records of a partition whose owner is dead, when this member is
+     * the new owner. Records the dead owner may not have stored or deleted are queued
+     * to be stored or deleted by this member.
+     */
+    void promoteWriteBehind(Record record) {
+        if (backupWriteBehindQueues != null
+                && backupWriteBehindQueues[record.getBlockId()].remove(record.getKeyData()) != null) {
+            markAsDirty(record, true);
+        }
+    }
+
+    /**
+     * Called on the backups when the owner has stored the given versions of the keys,
+     * later updates of the keys are kept.
+     */
+    public void onWriteBehindStored(List<Data> keys, long[] versions) {
+        if (backupWriteBehindQueues == null) return;
+        for (int i = 0; i < keys.size(); i++) {
+            final Data key = keys.get(i);
+            backupWriteBehindQueues[concurrentMapManager.getPartitionId(key)].removeStored(key, versions[i]);
+        }
+    }
+
+    /**
+     * Tells the other replicas of the partitions of the stored records that they do not
+     * need to keep them any more.
+     */
+    private void sendWriteBehindStored(final List<Record> records, final long[] versions) {
+        if (getTotalBackupCount() == 0) return;
+        concurrentMapManager.enqueueAndReturn(new Processable() {
+            public void process() {
+                final Map<Address, List<Integer>> indexesByAddress = new HashMap<Address, List<Integer>>();
+                for (int i = 0; i < records.size(); i++) {
+                    final PartitionInfo partition = concurrentMapManager.partitionManager.getPartition(records.get(i).getBlockId());
+                    for (int replica = 0; replica <= getTotalBackupCount(); replica++) {
+                        final Address address = partition.getReplicaAddress(replica);
+                        if (address != null && !thisAddress.equals(address)) {
+                            List<Integer> indexes = indexesByAddress.get(address);
+                            if (indexes == null) {
+                                indexes = new ArrayList<Integer>();
+                                indexesByAddress.put(address, indexes);
                             }
-                        }
-                        if (keysToDelete.size() == 1) {
-                            store.delete(keysToDelete.iterator().next());
-                        } else if (keysToDelete.size() > 1) {
-                            store.deleteAll(keysToDelete);
-                        }
-                        if (updates.size() == 1) {
-                            Map.Entry entry = updates.entrySet().iterator().next();
-                            store.store(entry.getKey(), entry.getValue());
-                        } else if (updates.size() > 1) {
-                            store.storeAll(updates);
-                        }
-                        for (Record stored : toStore) {
-                            stored.setLastStoredTime(Clock.currentTimeMillis());
-                            // stored.setDirty(false); // not required since we are setting dirty false before execution
-                        }
-                    } catch (Exception e) {
-                        for (Record dirtyRecord : dirtyRecords) {
-                            dirtyRecord.setDirty(true);
+                            indexes.add(i);
                         }
                     }
                 }
-            });
+                for (Map.Entry<Address, List<Integer>> entry : indexesByAddress.entrySet()) {
+                    final List<Integer> indexes = entry.getValue();
+                    final List<Data> keys = new ArrayList<Data>(indexes.size());
+                    final long[] storedVersions = new long[indexes.size()];
+                    for (int i = 0; i < indexes.size(); i++) {
+                        keys.add(records.get(indexes.get(i)).getKeyData());
+                        storedVersions[i] = versions[indexes.get(i)];
+                    }
+                    concurrentMapManager.sendProcessableTo(new WriteBehindStored(name, keys, storedVersions), entry.getKey());
+                }
+            }
+        });
+    }
+
+    int getWriteBehindQueueSize(WriteBehindQueue[] queues) {
+        int size = 0;
+        if (queues != null) {
+            for (WriteBehindQueue queue : queues) {
+                size += queue.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * One batch of records, removed records are deleted and the others are stored.
+     * Keys and values are taken when the batch is created, so later updates are queued
+     * again. If the store fails the records are queued again with a delay growing with
+     * the number of consecutive failures. Once stored the backups are told to drop them.
+     */
+    class WriteBehindStore implements Runnable {
+        final List<Record> records;
+        final long[] versions;
+        final Map<Data, Data> updates = new HashMap<Data, Data>();
+        final Set<Data> keysToDelete = new HashSet<Data>();
+
+        WriteBehindStore(List<Record> polledRecords) {
+            this.records = new ArrayList<Record>(polledRecords.size());
+            this.versions = new long[polledRecords.size()];
+            for (Record record : polledRecords) {
+                if (!record.isDirty()) {
+                    continue;   // already stored by another operation
+                }
+                record.setDirty(false);
+                if (!record.isActive()) {
+                    keysToDelete.add(record.getKeyData());
+                } else {
+                    final Data value = record.getValueData();
+                    if (value == null) {
+                        continue;
+                    }
+                    updates.put(record.getKeyData(), value);
+                }
+                versions[records.size()] = record.getVersion();
+                records.add(record);
+            }
+        }
+
+        boolean hasRecords() {
+            return !records.isEmpty();
+        }
+
+        public void run() {
+            store();
+        }
+
+        boolean store() {
+            try {
+                if (keysToDelete.size() == 1) {
+                    store.delete(toObject(keysToDelete.iterator().next()));
+                } else if (keysToDelete.size() > 1) {
+                    final Set<Object> keys = new HashSet<Object>(keysToDelete.size());
+                    for (Data key : keysToDelete) {
+                        keys.add(toObject(key));
+                    }
+                    store.deleteAll(keys);
+                }
+                if (updates.size() == 1) {
+                    final Map.Entry<Data, Data> entry = updates.entrySet().iterator().next();
+                    store.store(toObject(entry.getKey()), toObject(entry.getValue()));
+                } else if (updates.size() > 1) {
+                    final Map<Object, Object> entries = new HashMap<Object, Object>(updates.size());
+                    for (Map.Entry<Data, Data> entry : updates.entrySet()) {
+                        entries.put(toObject(entry.getKey()), toObject(entry.getValue()));
+                    }
+                    store.storeAll(entries);
+                }
+                writeBehindConsecutiveFailures.set(0);
+                final long now = Clock.currentTimeMillis();
+                for (Record record : records) {
+                    record.setLastStoredTime(now);
+                }
+                sendWriteBehindStored(records, versions);
+                return true;
+            } catch (Exception e) {
+                writeBehindFailureCount.incrementAndGet();
+                final int failures = writeBehindConsecutiveFailures.incrementAndGet();
+                final long retryDelay = Math.min(writeDelayMillis << Math.min(failures - 1, 16), MAX_WRITE_BEHIND_RETRY_DELAY_MILLIS);
+                logger.log(Level.WARNING, "Could not store " + records.size() + " entries of map " + getName()
+                        + ", retrying in " + retryDelay + " ms", e);
+                final long retryTime = Clock.currentTimeMillis() + retryDelay;
+                for (Record record : records) {
+                    if (!record.isDirty()) {
+                        record.setDirty(true);
+                        record.setWriteTime(retryTime);
+                        writeBehindQueues[record.getBlockId()].offer(record, retryTime);
+                    }
+                }
+                return false;
+            }
         }
     }
 
     private void purgeIfNotOwnedOrBackup(Collection<Record> records) {
         PartitionManager partitionManager = concurrentMapManager.getPartitionManager();
         for (Record record : records) {
-            if (partitionManager.shouldPurge(record.getBlockId(), getTotalBackupCount())) {
+            if (concurrentMapManager.isRecordOwnerThread(this, record)
+                    && partitionManager.shouldPurge(record.getBlockId(), getTotalBackupCount())) {
                 mapIndexService.remove(record);
                 mapRecords.remove(record.getKeyData());
+                removeFromSampler(record);
+                releaseStorage(record);
             }
         }
     }
@@ -1020,12 +1328,15 @@ public class CMap {
         if (partitionManager.getVersion() != expectedPartitionVersion) return -1;
         long now = Clock.currentTimeMillis();
         int size = 0;
-        Collection<Record> records = mapRecords.values();
-        for (Record record : records) {
-            Member owner = concurrentMapManager.partitionServiceImpl.getPartition(record.getBlockId()).getOwner();
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            final Collection<Record> records = mapRecords.getPartition(partitionId).values();
+            if (records.isEmpty()) continue;
+            Member owner = concurrentMapManager.partitionServiceImpl.getPartition(partitionId).getOwner();
             if (owner != null && owner.localMember()) {
-                if (record.isActive() && record.isValid(now)) {
-                    size += record.valueCount();
+                for (Record record : records) {
+                    if (record.isActive() && record.isValid(now)) {
+                        size += record.valueCount();
+                    }
                 }
             }
         }
@@ -1076,32 +1387,37 @@ public class CMap {
         long lockedEntryCount = 0;
         long lockWaitCount = 0;
         ClusterImpl clusterImpl = node.getClusterImpl();
-        final Collection<Record> records = mapRecords.values();
         final PartitionManager partitionManager = concurrentMapManager.partitionManager;
-        for (Record record : records) {
-            if (!record.isActive() || !record.isValid(now)) {
-                markedAsRemovedEntryCount++;
-                markedAsRemovedMemoryCost += record.getCost();
-            } else {
-                PartitionInfo partition = partitionManager.getPartition(record.getBlockId());
-                Address owner = partition.getOwner();
-                if (owner != null && thisAddress.equals(owner)) {
-                    if (store != null && record.getLastStoredTime() < Math.max(record.getLastUpdateTime(), record.getCreationTime())) {
-                        dirtyCount++;
-                    }
-                    ownedEntryCount += record.valueCount();
-                    ownedEntryMemoryCost += record.getCost();
-                    localMapStats.setLastAccessTime(record.getLastAccessTime());
-                    localMapStats.setLastUpdateTime(record.getLastUpdateTime());
-                    hits += record.getHits();
-                    if (record.isLocked()) {
-                        lockedEntryCount++;
-                        lockWaitCount += record.getScheduledActionCount();
-                    }
-                } else if (partition.isBackup(thisAddress, getTotalBackupCount())) {
-                    if (record.valueCount() > 0) {
-                        backupEntryCount += record.valueCount();
-                        backupEntryMemoryCost += record.getCost();
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            final Collection<Record> records = mapRecords.getPartition(partitionId).values();
+            if (records.isEmpty()) continue;
+            PartitionInfo partition = partitionManager.getPartition(partitionId);
+            Address owner = partition.getOwner();
+            boolean owned = owner != null && thisAddress.equals(owner);
+            boolean backup = !owned && partition.isBackup(thisAddress, getTotalBackupCount());
+            for (Record record : records) {
+                if (!record.isActive() || !record.isValid(now)) {
+                    markedAsRemovedEntryCount++;
+                    markedAsRemovedMemoryCost += record.getCost();
+                } else {
+                    if (owned) {
+                        if (store != null && record.getLastStoredTime() < Math.max(record.getLastUpdateTime(), record.getCreationTime())) {
+                            dirtyCount++;
+                        }
+                        ownedEntryCount += record.valueCount();
+                        ownedEntryMemoryCost += record.getCost();
+                        localMapStats.setLastAccessTime(record.getLastAccessTime());
+                        localMapStats.setLastUpdateTime(record.getLastUpdateTime());
+                        hits += record.getHits();
+                        if (record.isLocked()) {
+                            lockedEntryCount++;
+                            lockWaitCount += record.getScheduledActionCount();
+                        }
+                    } else if (backup) {
+                        if (record.valueCount() > 0) {
+                            backupEntryCount += record.valueCount();
+                            backupEntryMemoryCost += record.getCost();
+                        }
                     }
                 }
             }
@@ -1119,6 +1435,21 @@ public class CMap {
         localMapStats.setBackupEntryMemoryCost(zeroOrPositive(backupEntryMemoryCost));
         localMapStats.setLastEvictionTime(zeroOrPositive(clusterImpl.getClusterTimeFor(lastEvictionTime)));
         localMapStats.setCreationTime(zeroOrPositive(clusterImpl.getClusterTimeFor(creationTime)));
+        if (nearCache != null) {
+            localMapStats.setNearCacheEntryCount(nearCache.size());
+            localMapStats.setNearCacheHits(nearCache.getHits());
+            localMapStats.setNearCacheMisses(nearCache.getMisses());
+            localMapStats.setNearCacheEvictions(nearCache.getEvictions());
+            localMapStats.setNearCacheInvalidations(nearCache.getInvalidations());
+        }
+        localMapStats.setWriteBehindQueueSize(getWriteBehindQueueSize(writeBehindQueues));
+        localMapStats.setWriteBehindBackupQueueSize(getWriteBehindQueueSize(backupWriteBehindQueues));
+        localMapStats.setWriteBehindFailureCount(writeBehindFailureCount.get());
+        if (loadProgress != null) {
+            localMapStats.setInitialLoadedEntryCount(loadProgress.getLoadedCount());
+            localMapStats.setInitialLoadedEntryCounts(loadProgress.getLoadedCounts());
+            localMapStats.setInitialLoadCompleted(loadProgress.isCompleted());
+        }
         return localMapStats;
     }
 
@@ -1152,7 +1483,12 @@ public class CMap {
 
     void evict(int percentage) {
         final long now = Clock.currentTimeMillis();
-        final Collection<Record> records = mapRecords.values();
+        if (isSampledEviction()) {
+            final Set<Record> recordsToEvict = new HashSet<Record>();
+            selectSampledRecordsToEvict(mapIndexService.size() * percentage / 100, now, recordsToEvict);
+            executeEviction(recordsToEvict);
+            return;
+        }
         Comparator<MapEntry> comparator = evictionComparator;
         if (comparator == null) {
             comparator = new ComparatorWrapper(LRU_COMPARATOR);
@@ -1161,21 +1497,22 @@ public class CMap {
         final PartitionManager partitionManager = concurrentMapManager.partitionManager;
         final Set<Record> sortedRecords = new TreeSet<Record>(new ComparatorWrapper(comparator));
         final Set<Record> recordsToEvict = new HashSet<Record>();
-        for (Record record : records) {
-            PartitionServiceImpl.PartitionProxy partition = partitionService.getPartition(record.getBlockId());
-            Member owner = partition.getOwner();
-            if (owner != null && !partitionManager.isOwnedPartitionMigrating(partition.getPartitionId())) {
-                boolean owned = owner.localMember();
-                if (owned) {
-                    if (store != null && writeDelayMillis > 0 && record.isDirty()) {
-                        // record should be stored, do not evict!
-                    } else if (shouldPurgeRecord(record, now)) {
-                        // record should be purged, do not evict!
-                    } else if (record.isActive() && !record.isValid(now)) {
-                        recordsToEvict.add(record);  // expired records
-                    } else if (record.isActive() && record.isEvictable()) {
-                        sortedRecords.add(record);   // sorting for eviction
-                    }
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            final Collection<Record> records = mapRecords.getPartition(partitionId).values();
+            if (records.isEmpty()) continue;
+            Member owner = partitionService.getPartition(partitionId).getOwner();
+            if (owner == null || !owner.localMember() || partitionManager.isOwnedPartitionMigrating(partitionId)) {
+                continue;
+            }
+            for (Record record : records) {
+                if (store != null && writeDelayMillis > 0 && record.isDirty()) {
+                    // record should be stored, do not evict!
+                } else if (shouldPurgeRecord(record, now)) {
+                    // record should be purged, do not evict!
+                } else if (record.isActive() && !record.isValid(now)) {
+                    recordsToEvict.add(record);  // expired records
+                } else if (record.isActive() && record.isEvictable()) {
+                    sortedRecords.add(record);   // sorting for eviction
                 }
             }
         }
@@ -1215,10 +1552,14 @@ public class CMap {
 
         MaxSizeHeapPolicy(MaxSizeConfig maxSizeConfig) {
             super(maxSizeConfig);
-            memoryLimit = maxSizeConfig.getSize() * 1000 * 1000; // MB to byte
+            memoryLimit = maxSizeConfig.getSize() * 1000L * 1000L; // MB to byte
         }
 
         public boolean overCapacity() {
+            if (storage != null) {
+                // values are off-heap, limit applies to the storage
+                return storage.getUsedSize() > memoryLimit;
+            }
             boolean over = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) > memoryLimit;
             if (over) {
                 Runtime.getRuntime().gc();
@@ -1234,6 +1575,9 @@ public class CMap {
         }
 
         public boolean overCapacity() {
+            if (storage != null) {
+                return (storage.getUsedSize() * 100D / storage.getTotalSize()) > maxSizeConfig.getSize();
+            }
             long total = Runtime.getRuntime().totalMemory();
             long free = Runtime.getRuntime().freeMemory();
             int usedPercentage = (int) (((total - free) / total) * 100D);
@@ -1285,67 +1629,83 @@ public class CMap {
     boolean startCleanup(boolean forced) {
         final long now = Clock.currentTimeMillis();
         long dirtyAge = (now - lastCleanup);
-        boolean shouldRun = forced
-                || (store != null && dirty && dirtyAge >= writeDelayMillis)
-                || (dirtyAge > cleanupDelayMillis);
+        flushWriteBehind(now);
+        boolean shouldRun = forced || (dirtyAge > cleanupDelayMillis);
         if (shouldRun && cleanupActive.compareAndSet(false, true)) {
             lastCleanup = now;
             try {
                 if (nearCache != null) {
-                    nearCache.evict(now, false);
+                    nearCache.evict(now);
                 }
-                dirty = false;
-                final Set<Record> recordsDirty = new HashSet<Record>();
                 final Set<Record> recordsUnknown = new HashSet<Record>();
                 final Set<Record> recordsToPurge = new HashSet<Record>();
                 final Set<Record> recordsToEvict = new HashSet<Record>();
-                final Set<Record> sortedRecords = new TreeSet<Record>(new ComparatorWrapper(evictionComparator));
-                final Collection<Record> records = mapRecords.values();
+                final boolean sampled = isSampledEviction();
+                final Set<Record> sortedRecords = sampled ? null : new TreeSet<Record>(new ComparatorWrapper(evictionComparator));
                 final boolean overCapacity = maxSizePolicy != null && maxSizePolicy.overCapacity();
                 final boolean evictionAware = evictionComparator != null && overCapacity;
+                // sorting for eviction needs all the records, otherwise a cycle visits the partitions
+                // up to CLEANUP_BATCH_SIZE records and the next one goes on from where it stopped
+                final boolean fullScan = forced || (evictionAware && !sampled);
                 int recordsStillOwned = 0;
                 int backupPurgeCount = 0;
+                int visitedRecords = 0;
+                int visitedPartitions = 0;
                 PartitionManager partitionManager = concurrentMapManager.partitionManager;
-                for (Record record : records) {
-                    PartitionInfo partition = partitionManager.getPartition(record.getBlockId());
+                for (; visitedPartitions < PARTITION_COUNT && (fullScan || visitedRecords < CLEANUP_BATCH_SIZE); visitedPartitions++) {
+                    final int partitionId = (cleanupPartitionId + visitedPartitions) % PARTITION_COUNT;
+                    final Collection<Record> records = mapRecords.getPartition(partitionId).values();
+                    if (records.isEmpty()) continue;
+                    visitedRecords += records.size();
+                    PartitionInfo partition = partitionManager.getPartition(partitionId);
                     Address owner = partition.getOwner();
-                    boolean owned = (owner != null && thisAddress.equals(owner));
-                    boolean ownedOrBackup = partition.isOwnerOrBackup(thisAddress, getTotalBackupCount());
-                    if (owner != null && !partitionManager.isPartitionMigrating(partition.getPartitionId())) {
+                    if (owner == null || partitionManager.isPartitionMigrating(partitionId)) {
+                        continue;
+                    }
+                    boolean owned = thisAddress.equals(owner);
+                    if (!owned && !partition.isOwnerOrBackup(thisAddress, getTotalBackupCount())) {
+                        // neither owner nor backup of the partition, all of its records are unknown
+                        recordsUnknown.addAll(records);
+                        continue;
+                    }
+                    for (Record record : records) {
                         if (owned) {
                             if (store != null && writeDelayMillis > 0 && record.isDirty()) {
-                                if (now > record.getWriteTime()) {
-                                    recordsDirty.add(record);
-                                    record.setDirty(false);   // set dirty to false, we will store these soon
-                                } else {
-                                    dirty = true;
-                                }
+                                // waiting in the write-behind queue, do not purge or evict
                             } else if (shouldPurgeRecord(record, now)) {
                                 recordsToPurge.add(record);  // removed records
                             } else if (record.isActive() && !record.isValid(now)) {
                                 recordsToEvict.add(record);  // expired records
                             } else if (evictionAware && record.isActive() && record.isEvictable()) {
-                                sortedRecords.add(record);   // sorting for eviction
+                                if (!sampled) {
+                                    sortedRecords.add(record);   // sorting for eviction
+                                }
                                 recordsStillOwned++;
                             }
-                        } else if (ownedOrBackup) {
-                            if (shouldPurgeRecord(record, now)) {
-                                recordsToPurge.add(record);
-                                backupPurgeCount++;
-                            }
-                        } else {
-                            recordsUnknown.add(record);
+                        } else if (shouldPurgeRecord(record, now)
+                                && (backupWriteBehindQueues == null
+                                || !backupWriteBehindQueues[partitionId].contains(record.getKeyData()))) {
+                            // removed records waiting for the owner to delete them are kept for a failover
+                            recordsToPurge.add(record);
+                            backupPurgeCount++;
                         }
                     }
                 }
+                cleanupPartitionId = (cleanupPartitionId + visitedPartitions) % PARTITION_COUNT;
                 if (evictionAware && (forced || overCapacity)) {
-                    int numberOfRecordsToEvict = (int) (recordsStillOwned * evictionRate);
-                    int evictedCount = 0;
-                    for (Record record : sortedRecords) {
-                        if (record.isActive() && record.isEvictable()) {
-                            recordsToEvict.add(record);
-                            if (++evictedCount >= numberOfRecordsToEvict) {
-                                break;
+                    // sampling doesn't need the scan, the owned records are counted by the index service
+                    final int ownedCount = (sampled) ? mapIndexService.size() : recordsStillOwned;
+                    int numberOfRecordsToEvict = (int) (ownedCount * evictionRate);
+                    if (sampled) {
+                        selectSampledRecordsToEvict(numberOfRecordsToEvict, now, recordsToEvict);
+                    } else {
+                        int evictedCount = 0;
+                        for (Record record : sortedRecords) {
+                            if (record.isActive() && record.isEvictable()) {
+                                recordsToEvict.add(record);
+                                if (++evictedCount >= numberOfRecordsToEvict) {
+                                    break;
+                                }
                             }
                         }
                     }
@@ -1353,7 +1713,7 @@ public class CMap {
                 Level levelLog = (concurrentMapManager.LOG_STATE) ? Level.INFO : Level.FINEST;
                 if (logger.isLoggable(levelLog)) {
                     logger.log(levelLog, name + " Cleanup "
-                            + ", dirty:" + recordsDirty.size()
+                            + ", writeBehind:" + getWriteBehindQueueSize(writeBehindQueues)
                             + ", purge:" + recordsToPurge.size()
                             + ", evict:" + recordsToEvict.size()
                             + ", unknown:" + recordsUnknown.size()
@@ -1363,7 +1723,6 @@ public class CMap {
                     logger.log(levelLog, thisAddress + " mapRecords: " + mapRecords.size()
                             + "  indexes: " + mapIndexService.getOwnedRecords().size());
                 }
-                executeStoreUpdate(recordsDirty);
                 executeEviction(recordsToEvict);
                 executePurge(recordsToPurge);
                 executePurgeUnknowns(recordsUnknown);
@@ -1376,9 +1735,90 @@ public class CMap {
         }
     }
 
+    boolean isSampledEviction() {
+        return recordSampler != null && evictionSampleSize > 0;
+    }
+
+    /**
+     * Picks the records to evict by sampling random records instead of sorting
+     * all records of the map. Each round samples evictionSampleSize records into
+     * a small pool of candidates and evicts the best one, so cost is bounded by
+     * count * evictionSampleSize.
+     */
+    void selectSampledRecordsToEvict(int count, long now, Set<Record> recordsToEvict) {
+        final int sampleSize = evictionSampleSize;
+        final EvictionPool pool = new EvictionPool(EVICTION_POOL_SIZE);
+        final Random random = new Random();
+        final long maxSamples = 2L * count * sampleSize;
+        long samples = 0;
+        int evictedCount = 0;
+        while (evictedCount < count && samples < maxSamples) {
+            for (int i = 0; i < sampleSize; i++) {
+                final Record record = recordSampler.sample(random);
+                if (record == null) {
+                    return;
+                }
+                samples++;
+                if (!recordsToEvict.contains(record) && isEvictionCandidate(record, now)) {
+                    pool.offer(record, evictionScore(record));
+                }
+            }
+            final Record record = pool.poll();
+            if (record != null) {
+                recordsToEvict.add(record);
+                evictedCount++;
+            }
+        }
+    }
+
+    private boolean isEvictionCandidate(Record record, long now) {
+        final PartitionManager partitionManager = concurrentMapManager.partitionManager;
+        final PartitionInfo partition = partitionManager.getPartition(record.getBlockId());
+        final Address owner = partition.getOwner();
+        if (owner == null || !thisAddress.equals(owner)
+                || partitionManager.isPartitionMigrating(partition.getPartitionId())) {
+            return false;
+        }
+        if (store != null && writeDelayMillis > 0 && record.isDirty()) {
+            return false;   // record should be stored, do not evict!
+        }
+        return record.isActive() && record.isValid(now) && record.isEvictable();
+    }
+
+    /**
+     * Lower score is evicted first. LFU scores by the estimated access frequency
+     * and breaks ties by the last usage time, counted from the creation of the map so
+     * it fits in the bits below the frequency.
+     */
+    private long evictionScore(Record record) {
+        final long lastUsed = Math.max(record.getLastAccessTime(),
+                Math.max(record.getLastUpdateTime(), record.getCreationTime()));
+        if (evictionPolicy != EvictionPolicy.LFU) {
+            return lastUsed;
+        }
+        final FrequencySketch sketch = frequencySketch;
+        final long frequency = (sketch != null)
+                ? sketch.frequency(record.getKeyData().hashCode())
+                : Math.min(record.getHits(), 0xFFFFF);
+        // 2^42 ms is more than a century, records migrated from older members count as oldest
+        final long lastUsedSinceCreation = Math.min(Math.max(0, lastUsed - creationTime), (1L << 42) - 1);
+        return (frequency << 42) + lastUsedSinceCreation;
+    }
+
+    void onRecordAccess(Record record) {
+        final FrequencySketch sketch = frequencySketch;
+        if (sketch != null && sketch.increment(record.getKeyData().hashCode())) {
+            node.executorManager.executeNow(new Runnable() {
+                public void run() {
+                    sketch.age();
+                }
+            });
+        }
+    }
+
     private void executePurgeUnknowns(final Set<Record> recordsUnknown) {
         if (recordsUnknown.size() > 0) {
-            concurrentMapManager.enqueueAndReturn(new Processable() {
+            concurrentMapManager.enqueueRecordAware(this, new Processable() {
                 public void process() {
                     purgeIfNotOwnedOrBackup(recordsUnknown);
                 }
@@ -1388,11 +1828,12 @@ public class CMap {
 
     private void executePurge(final Set<Record> recordsToPurge) {
         if (recordsToPurge.size() > 0) {
-            concurrentMapManager.enqueueAndReturn(new Processable() {
+            concurrentMapManager.enqueueRecordAware(this, new Processable() {
                 public void process() {
                     final long now = Clock.currentTimeMillis();
                     for (Record recordToPurge : recordsToPurge) {
-                        if (shouldPurgeRecord(recordToPurge, now)) {
+                        if (concurrentMapManager.isRecordOwnerThread(CMap.this, recordToPurge)
+                                && shouldPurgeRecord(recordToPurge, now)) {
                             removeAndPurgeRecord(recordToPurge);
                         }
                     }
@@ -1500,7 +1941,7 @@ public class CMap {
         Record record = getRecord(req.key);
         long now = Clock.currentTimeMillis();
         if (record != null && record.isActive() && record.valueCount() > 0) {
-            concurrentMapManager.checkServiceThread();
+            concurrentMapManager.checkServiceOrPartitionThread();
             fireInvalidation(record);
             concurrentMapManager.fireMapEvent(mapListeners, EntryEvent.TYPE_EVICTED, null, record, req.caller);
             record.incrementVersion();
@@ -1580,10 +2021,15 @@ public class CMap {
         }
         mapRecords.clear();
         mapIndexService.clear();
+        if (recordSampler != null) {
+            recordSampler.clear();
+        }
     }
 
     void destroy() {
         reset(true);
+        // events published before the destroy are sent before the listeners are removed
+        node.listenerManager.eventBatcher.flush();
         node.listenerManager.removeAllRegisteredListeners(getName());
         if (mapStoreWrapper != null) {
             try {
@@ -1592,17 +2038,22 @@ public class CMap {
                 logger.log(Level.WARNING, e.getMessage(), e);
             }
         }
+        if (storage != null) {
+            storage.destroy();
+        }
     }
 
     void markAsDirty(Record record, boolean force) {
-        if (!record.isDirty()) {
-            if (store != null && (force || writeDelayMillis > 0)) {
-                dirty = true;
+        if (store != null && (force || writeDelayMillis > 0)) {
+            if (!record.isDirty()) {
                 record.setDirty(true);
                 if (writeDelayMillis > 0) {
                     record.setWriteTime(Clock.currentTimeMillis() + writeDelayMillis);
                 }
             }
+            if (writeBehindQueues != null) {
+                writeBehindQueues[record.getBlockId()].offer(record, record.getWriteTime());
+            }
         }
     }
 
@@ -1642,6 +2093,20 @@ public class CMap {
     void removeAndPurgeRecord(Record record) {
         mapRecords.remove(record.getKeyData());
         mapIndexService.remove(record);
+        removeFromSampler(record);
+        releaseStorage(record);
+    }
+
+    private void removeFromSampler(Record record) {
+        if (recordSampler != null) {
+            recordSampler.remove(record);
+        }
+    }
+
+    private void releaseStorage(Record record) {
+        if (storage != null) {
+            record.invalidate();
+        }
     }
 
     void updateIndexes(Record record) {
@@ -1655,7 +2120,13 @@ public class CMap {
         int blockId = concurrentMapManager.getPartitionId(key);
         Record record = concurrentMapManager.recordFactory.createNewRecord(this, blockId, key, value,
                 ttl, maxIdle, concurrentMapManager.newRecordId());
-        mapRecords.put(key, record);
+        final Record oldRecord = mapRecords.put(key, record);
+        if (recordSampler != null) {
+            if (oldRecord != null) {
+                recordSampler.remove(oldRecord);
+            }
+            recordSampler.add(record);
+        }
         return record;
     }
 
@@ -1691,6 +2162,62 @@ public class CMap {
         }
     }
 
+    public void addPredicateListener(Address address, Data predicate) {
+        Map<Data, Predicate> predicates = mapPredicateListeners.get(address);
+        if (predicates == null) {
+            predicates = new ConcurrentHashMap<Data, Predicate>(1, 0.75f, 1);
+            mapPredicateListeners.put(address, predicates);
+        }
+        predicates.put(predicate, (Predicate) toObject(predicate));
+    }
+
+    public void removePredicateListener(Address address, Data predicate) {
+        final Map<Data, Predicate> predicates = mapPredicateListeners.get(address);
+        if (predicates != null) {
+            predicates.remove(predicate);
+            if (predicates.isEmpty()) {
+                mapPredicateListeners.remove(address);
+            }
+        }
+    }
+
+    /**
+     * Matches the old value too, so the query caches of a member learn about the entries
+     * updated out of their predicate.
+     *
+     * @return members having a predicate listener matching the entry, with include-value true
+     *         so they can evaluate the predicate again for each of their listeners; null if there is none
+     */
+    Map<Address, Boolean> getMatchingPredicateListeners(Data key, Data value, Data oldValue) {
+        if (mapPredicateListeners.isEmpty()) {
+            return null;
+        }
+        final MapEntry entry = new DataMapEntry(key, value);
+        final MapEntry oldEntry = (oldValue == null) ? null : new DataMapEntry(key, oldValue);
+        Map<Address, Boolean> matching = null;
+        for (Map.Entry<Address, Map<Data, Predicate>> listeners : mapPredicateListeners.entrySet()) {
+            for (Predicate predicate : listeners.getValue().values()) {
+                if (matches(predicate, entry) || (oldEntry != null && matches(predicate, oldEntry))) {
+                    if (matching == null) {
+                        matching = new HashMap<Address, Boolean>();
+                    }
+                    matching.put(listeners.getKey(), Boolean.TRUE);
+                    break;
+                }
+            }
+        }
+        return matching;
+    }
+
+    private boolean matches(Predicate predicate, MapEntry entry) {
+        try {
+            return predicate.apply(entry);
+        } catch (Exception e) {
+            logger.log(Level.FINEST, "Listener predicate " + predicate + " failed for " + entry.getKey(), e);
+            return false;
+        }
+    }
+
     public void appendState(StringBuffer sbState) {
         sbState.append("\nCMap [");
         sbState.append(name);
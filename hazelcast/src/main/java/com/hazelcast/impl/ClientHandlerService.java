@@ -25,6 +25,7 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.*;
 import com.hazelcast.partition.Partition;
 import com.hazelcast.partition.PartitionService;
+import com.hazelcast.query.Aggregator;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.security.Credentials;
 import com.hazelcast.security.UsernamePasswordCredentials;
@@ -96,6 +97,9 @@ public class ClientHandlerService implements ConnectionListener {
         registerHandler(CONCURRENT_MAP_ITERATE_KEYS.getValue(), new MapIterateKeysHandler());
         registerHandler(CONCURRENT_MAP_ITERATE_ENTRIES.getValue(), new MapIterateEntriesHandler());
         registerHandler(CONCURRENT_MAP_VALUE_COUNT.getValue(), new MapValueCountHandler());
+        registerHandler(CONCURRENT_MAP_EXECUTE_ON_KEY.getValue(), new MapExecuteOnKeyHandler());
+        registerHandler(CONCURRENT_MAP_EXECUTE_ON_ENTRIES.getValue(), new MapExecuteOnEntriesHandler());
+        registerHandler(CONCURRENT_MAP_AGGREGATE.getValue(), new MapAggregateHandler());
         registerHandler(TOPIC_PUBLISH.getValue(), new TopicPublishHandler());
         registerHandler(BLOCKING_QUEUE_OFFER.getValue(), new QueueOfferHandler());
         registerHandler(BLOCKING_QUEUE_POLL.getValue(), new QueuePollHandler());
@@ -1039,6 +1043,33 @@ public class ClientHandlerService implements ConnectionListener {
         }
     }
 
+    private class MapExecuteOnKeyHandler extends ClientOperationHandler {
+
+        public void processCall(Node node, Packet packet) {
+            Data result = node.concurrentMapManager.executeOnKey(packet.name, packet.getKeyData(), packet.getValueData());
+            packet.clearForResponse();
+            packet.setValue(result);
+        }
+    }
+
+    private class MapExecuteOnEntriesHandler extends ClientOperationHandler {
+
+        public void processCall(Node node, Packet packet) {
+            Pairs pairs = node.concurrentMapManager.executeOnEntriesPairs(packet.name, packet.getKeyData(), packet.getValueData());
+            packet.clearForResponse();
+            packet.setValue(toData(pairs));
+        }
+    }
+
+    private class MapAggregateHandler extends ClientOperationHandler {
+
+        public void processCall(Node node, Packet packet) {
+            Aggregator aggregator = node.concurrentMapManager.aggregate(packet.name, packet.getKeyData(), packet.getValueData());
+            packet.clearForResponse();
+            packet.setValue(toData(aggregator.reduce()));
+        }
+    }
+
     private class GetMapEntryHandler extends ClientMapOperationHandler {
         public Data processMapOp(IMap<Object, Object> map, Data key, Data value) {
             return toData(map.getMapEntry(key));
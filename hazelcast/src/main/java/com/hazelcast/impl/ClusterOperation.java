@@ -31,6 +31,7 @@ public enum ClusterOperation {
     EVENT(12),
     EXECUTE(13),
     CANCEL_EXECUTION(14),
+    EVENT_BATCH(15),
     //EVENT LISTENER
     ADD_LISTENER(17),
     ADD_LISTENER_NO_RESPONSE(18),
@@ -107,6 +108,12 @@ public enum ClusterOperation {
     CONCURRENT_MAP_INVALIDATE(98),
     CONCURRENT_MAP_EVICT(99),
     CONCURRENT_MAP_FLUSH(100),
+    CONCURRENT_MAP_EXECUTE_ON_KEY(101),
+    CONCURRENT_MAP_EXECUTE_ON_ENTRIES(102),
+    CONCURRENT_MAP_AGGREGATE(103),
+    CONCURRENT_MAP_BACKUP_BATCH(104),
+    CONCURRENT_MAP_MULTI_KEY(105),
+    CONCURRENT_MAP_BACKUP_EVICT(106),
     //TOPIC
     TOPIC_PUBLISH(111),
     //ATOMIC NUMBER
@@ -29,6 +29,9 @@ import com.hazelcast.impl.monitor.SemaphoreOperationsCounter;
 import com.hazelcast.impl.partition.MigrationNotification;
 import com.hazelcast.impl.partition.MigrationRequestTask;
 import com.hazelcast.impl.partition.PartitionInfo;
+import com.hazelcast.impl.storage.OffHeapStorage;
+import com.hazelcast.impl.storage.Storage;
+import com.hazelcast.impl.storage.StorageFullException;
 import com.hazelcast.impl.wan.WanMergeListener;
 import com.hazelcast.merge.MergePolicy;
 import com.hazelcast.nio.Address;
@@ -36,8 +39,10 @@ import com.hazelcast.nio.Data;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.nio.Serializer;
 import com.hazelcast.partition.Partition;
+import com.hazelcast.query.Aggregator;
 import com.hazelcast.query.Index;
 import com.hazelcast.query.MapIndexService;
+import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.QueryContext;
 import com.hazelcast.util.Clock;
@@ -45,10 +50,14 @@ import com.hazelcast.util.DistributedTimeoutException;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import static com.hazelcast.core.Instance.InstanceType;
 import static com.hazelcast.impl.ClusterOperation.*;
+import static com.hazelcast.impl.Constants.Objects.OBJECT_REDO;
 import static com.hazelcast.impl.TransactionImpl.DEFAULT_TXN_TIMEOUT;
 import static com.hazelcast.impl.base.SystemLogService.Level.CS_INFO;
 import static com.hazelcast.impl.base.SystemLogService.Level.CS_TRACE;
@@ -66,12 +75,13 @@ public class ConcurrentMapManager extends BaseManager {
     final ConcurrentMap<String, NearCache> mapCaches;
     final PartitionServiceImpl partitionServiceImpl;
     final PartitionManager partitionManager;
-    long newRecordId = 0;
+    final AtomicLong newRecordId = new AtomicLong();
     final ParallelExecutor storeExecutor;
     final ParallelExecutor evictionExecutor;
     private static final String BATCH_OPS_EXECUTOR_NAME = "hz_batch";
     final RecordFactory recordFactory;
     final Collection<WanMergeListener> colWanMergeListeners = new CopyOnWriteArrayList<WanMergeListener>();
+    final BackupBatcher backupBatcher;
 
     ConcurrentMapManager(final Node node) {
         super(node);
@@ -87,6 +97,10 @@ public class ConcurrentMapManager extends BaseManager {
         mapCaches = new ConcurrentHashMap<String, NearCache>(10, 0.75f, 1);
         partitionManager = new PartitionManager(this);
         partitionServiceImpl = new PartitionServiceImpl(this);
+        final int backupBatchSize = node.groupProperties.BACKUP_BATCH_SIZE.getInteger();
+        backupBatcher = (backupBatchSize > 1)
+                ? new BackupBatcher(backupBatchSize, node.groupProperties.BACKUP_BATCH_BYTES.getInteger())
+                : null;
         node.executorManager.getScheduledExecutorService().scheduleAtFixedRate(new Runnable() {
             public void run() {
                 for (CMap cMap : maps.values()) {
@@ -94,43 +108,47 @@ public class ConcurrentMapManager extends BaseManager {
                 }
             }
         }, 1, 1, TimeUnit.SECONDS);
-        registerPacketProcessor(CONCURRENT_MAP_GET_MAP_ENTRY, new GetMapEntryOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_GET_DATA_RECORD_ENTRY, new GetDataRecordEntryOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_GET, new GetOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_GET_MAP_ENTRY, new GetMapEntryOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_GET_DATA_RECORD_ENTRY, new GetDataRecordEntryOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_GET, new GetOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_ASYNC_MERGE, new AsyncMergePacketProcessor());
         registerPacketProcessor(CONCURRENT_MAP_WAN_MERGE, new WanMergePacketProcessor());
-        registerPacketProcessor(CONCURRENT_MAP_MERGE, new MergeOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_TRY_PUT, new PutOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_SET, new PutOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_PUT, new PutOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_PUT_AND_UNLOCK, new PutOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_PUT_IF_ABSENT, new PutOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_REPLACE_IF_NOT_NULL, new PutOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_PUT_TRANSIENT, new PutTransientOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_REPLACE_IF_SAME, new ReplaceOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_PUT_MULTI, new PutMultiOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_REMOVE, new RemoveOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_EVICT, new EvictOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_REMOVE_IF_SAME, new RemoveIfSameOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_REMOVE_ITEM, new RemoveItemOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_BACKUP_PUT, new BackupPacketProcessor());
-        registerPacketProcessor(CONCURRENT_MAP_BACKUP_ADD, new BackupPacketProcessor());
-        registerPacketProcessor(CONCURRENT_MAP_BACKUP_REMOVE_MULTI, new BackupPacketProcessor());
-        registerPacketProcessor(CONCURRENT_MAP_BACKUP_REMOVE, new BackupPacketProcessor());
-        registerPacketProcessor(CONCURRENT_MAP_BACKUP_LOCK, new BackupPacketProcessor());
-        registerPacketProcessor(CONCURRENT_MAP_LOCK, new LockOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_TRY_LOCK_AND_GET, new LockOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_UNLOCK, new UnlockOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_FORCE_UNLOCK, new ForceUnlockOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_MERGE, new MergeOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_TRY_PUT, new PutOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_SET, new PutOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_PUT, new PutOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_PUT_AND_UNLOCK, new PutOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_PUT_IF_ABSENT, new PutOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_REPLACE_IF_NOT_NULL, new PutOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_PUT_TRANSIENT, new PutTransientOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_REPLACE_IF_SAME, new ReplaceOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_PUT_MULTI, new PutMultiOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_REMOVE, new RemoveOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_EVICT, new EvictOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_REMOVE_IF_SAME, new RemoveIfSameOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_REMOVE_ITEM, new RemoveItemOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_EXECUTE_ON_KEY, new ExecuteOnKeyOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_BACKUP_PUT, new BackupPacketProcessor());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_BACKUP_ADD, new BackupPacketProcessor());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_BACKUP_REMOVE_MULTI, new BackupPacketProcessor());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_BACKUP_REMOVE, new BackupPacketProcessor());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_BACKUP_EVICT, new BackupPacketProcessor());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_BACKUP_LOCK, new BackupPacketProcessor());
+        registerPacketProcessor(CONCURRENT_MAP_BACKUP_BATCH, new BackupBatchPacketProcessor());
+        registerPacketProcessor(CONCURRENT_MAP_MULTI_KEY, new MultiKeyOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_LOCK, new LockOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_TRY_LOCK_AND_GET, new LockOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_UNLOCK, new UnlockOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_FORCE_UNLOCK, new ForceUnlockOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_LOCK_MAP, new LockMapOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_UNLOCK_MAP, new LockMapOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_REMOVE_MULTI, new RemoveMultiOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_ADD_TO_LIST, new AddOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_ADD_TO_SET, new AddOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_CONTAINS_KEY, new ContainsKeyOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_CONTAINS_ENTRY, new ContainsEntryOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_REMOVE_MULTI, new RemoveMultiOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_ADD_TO_LIST, new AddOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_ADD_TO_SET, new AddOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_CONTAINS_KEY, new ContainsKeyOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_CONTAINS_ENTRY, new ContainsEntryOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_CONTAINS_VALUE, new ContainsValueOperationHandler());
-        registerPacketProcessor(CONCURRENT_MAP_VALUE_COUNT, new ValueCountOperationHandler());
+        registerPartitionAwarePacketProcessor(CONCURRENT_MAP_VALUE_COUNT, new ValueCountOperationHandler());
         registerPacketProcessor(CONCURRENT_MAP_INVALIDATE, new InvalidateOperationHandler());
         registerPacketProcessor(ATOMIC_NUMBER_ADD_AND_GET, new AtomicNumberAddAndGetOperationHandler());
         registerPacketProcessor(ATOMIC_NUMBER_COMPARE_AND_SET, new AtomicNumberCompareAndSetOperationHandler());
@@ -184,6 +202,19 @@ public class ConcurrentMapManager extends BaseManager {
         partitionManager.reset();
     }
 
+    /**
+     * Creates the storage of an off-heap map, sized by hazelcast.elastic.memory.total.size
+     * and hazelcast.elastic.memory.chunk.size. Each map has its own storage so its max size
+     * limits apply to its own values only; buffers are allocated as the values are stored.
+     */
+    Storage createOffHeapStorage(String name) {
+        final long totalSize = node.groupProperties.ELASTIC_MEMORY_TOTAL_SIZE.getMemorySize();
+        final int chunkSize = (int) node.groupProperties.ELASTIC_MEMORY_CHUNK_SIZE.getMemorySize();
+        final Storage storage = new OffHeapStorage(totalSize, chunkSize);
+        logger.log(Level.FINEST, "Created " + storage + " for " + name);
+        return storage;
+    }
+
     public void shutdown() {
         for (CMap cmap : maps.values()) {
             try {
@@ -202,20 +233,8 @@ public class ConcurrentMapManager extends BaseManager {
 
     public void flush(String name) {
         CMap cmap = getMap(name);
-        if (cmap != null && cmap.store != null && cmap.writeDelayMillis > 0) {
-            Map mapDirtyEntries = new HashMap();
-            for (Record record : cmap.mapRecords.values()) {
-                if (record.isDirty()) {
-                    Object key = record.getKey();
-                    Object value = record.getValue();
-                    if (key != null && value != null) {
-                        mapDirtyEntries.put(key, value);
-                    }
-                }
-            }
-            if (mapDirtyEntries.size() > 0) {
-                cmap.store.storeAll(mapDirtyEntries);
-            }
+        if (cmap != null) {
+            cmap.flushWriteBehindNow();
         }
     }
 
@@ -282,6 +301,9 @@ public class ConcurrentMapManager extends BaseManager {
             node.connectionManager.appendState(sbState);
             node.executorManager.appendState(sbState);
             node.clusterManager.appendState(sbState);
+            if (backupBatcher != null) {
+                backupBatcher.appendState(sbState);
+            }
             long total = Runtime.getRuntime().totalMemory();
             long free = Runtime.getRuntime().freeMemory();
             sbState.append("\nCluster Size:").append(lsMembers.size());
@@ -377,16 +399,28 @@ public class ConcurrentMapManager extends BaseManager {
         mput.clearRequest();
     }
 
-    public void destroyEndpointThreads(Address endpoint, Set<Integer> threadIds) {
+    public void destroyEndpointThreads(final Address endpoint, final Set<Integer> threadIds) {
         node.clusterManager.invalidateScheduledActionsFor(endpoint, threadIds);
-        for (CMap cmap : maps.values()) {
-            for (Record record : cmap.mapRecords.values()) {
-                DistributedLock lock = record.getLock();
-                if (lock != null && lock.isLocked()) {
-                    if (endpoint.equals(record.getLockAddress()) && threadIds.contains(record.getLock().getLockThreadId())) {
-                        record.setLock(null);
-                        cmap.fireScheduledActions(record);
+        for (final CMap cmap : maps.values()) {
+            if (cmap.isPartitionThreaded()) {
+                enqueueRecordAware(cmap, new Processable() {
+                    public void process() {
+                        releaseLocksOf(cmap, endpoint, threadIds);
                     }
+                });
+            } else {
+                releaseLocksOf(cmap, endpoint, threadIds);
+            }
+        }
+    }
+
+    private void releaseLocksOf(CMap cmap, Address endpoint, Set<Integer> threadIds) {
+        for (Record record : cmap.mapRecords.values()) {
+            DistributedLock lock = record.getLock();
+            if (lock != null && lock.isLocked() && isRecordOwnerThread(cmap, record)) {
+                if (endpoint.equals(record.getLockAddress()) && threadIds.contains(record.getLock().getLockThreadId())) {
+                    record.setLock(null);
+                    cmap.fireScheduledActions(record);
                 }
             }
         }
@@ -591,7 +625,7 @@ public class ConcurrentMapManager extends BaseManager {
             doOp();
             boolean result = getResultAsBoolean();
             if (result) {
-                backup(CONCURRENT_MAP_BACKUP_REMOVE);
+                backup(CONCURRENT_MAP_BACKUP_EVICT);
             }
             return result;
         }
@@ -722,16 +756,12 @@ public class ConcurrentMapManager extends BaseManager {
                     for (KeyValue keyValue : lsKeyValues) {
                         keyObjects.put(keyValue.getKeyData(), keyValue.getKey());
                     }
-                    enqueueAndReturn(new Processable() {
-                        public void process() {
-                            for (KeyValue keyValue : lsKeyValues) {
-                                final Object key = keyObjects.get(keyValue.getKeyData());
-                                if (key != null) {
-                                    nearCache.put(key, keyValue.getKeyData(), keyValue.getValueData());
-                                }
-                            }
+                    for (KeyValue keyValue : lsKeyValues) {
+                        final Object key = keyObjects.get(keyValue.getKeyData());
+                        if (key != null) {
+                            nearCache.put(key, keyValue.getKeyData(), keyValue.getValueData());
                         }
-                    });
+                    }
                 }
             }
             for (KeyValue keyValue : lsKeyValues) {
@@ -856,12 +886,167 @@ public class ConcurrentMapManager extends BaseManager {
         return totalSize;
     }
 
+    Object executeOnKey(String name, Object key, EntryProcessor processor) {
+        return toObject(executeOnKey(name, toData(key), toData(processor)));
+    }
+
+    public Data executeOnKey(String name, Data key, Data processor) {
+        return new MExecuteOnKey().execute(name, key, processor);
+    }
+
+    Map executeOnEntries(String name, EntryProcessor processor, Predicate predicate) {
+        Pairs pairs = executeOnEntriesPairs(name, toData(processor), toData(predicate));
+        Map map = new HashMap(pairs.size());
+        if (pairs.getKeyValues() != null) {
+            for (KeyValue keyValue : pairs.getKeyValues()) {
+                map.put(keyValue.getKey(), keyValue.getValue());
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Each partition is sent to the member owning it. Partitions their member does not
+     * own any more are sent again to their new owners, so each entry is processed once.
+     * Not retried if a member leaves during the call as some of the entries of its
+     * partitions might be processed already, the exception is thrown to the caller instead.
+     */
+    public Pairs executeOnEntriesPairs(String name, Data processor, Data predicate) {
+        try {
+            Pairs results = new Pairs();
+            List<Integer> pendingPartitions = new ArrayList<Integer>(PARTITION_COUNT);
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                pendingPartitions.add(i);
+            }
+            while (true) {
+                Map<Address, List<Integer>> partitionsByOwner = new HashMap<Address, List<Integer>>();
+                List<Integer> notOwnedPartitions = new ArrayList<Integer>();
+                for (Integer partitionId : pendingPartitions) {
+                    Address owner = partitionManager.getPartition(partitionId).getOwner();
+                    if (owner == null) {
+                        notOwnedPartitions.add(partitionId);
+                        continue;
+                    }
+                    List<Integer> partitions = partitionsByOwner.get(owner);
+                    if (partitions == null) {
+                        partitions = new ArrayList<Integer>();
+                        partitionsByOwner.put(owner, partitions);
+                    }
+                    partitions.add(partitionId);
+                }
+                List<Future<ExecuteOnEntriesResult>> lsFutures = new ArrayList<Future<ExecuteOnEntriesResult>>();
+                for (Map.Entry<Address, List<Integer>> entry : partitionsByOwner.entrySet()) {
+                    MemberImpl member = getMember(entry.getKey());
+                    if (member == null) {
+                        notOwnedPartitions.addAll(entry.getValue());
+                        continue;
+                    }
+                    ExecuteOnEntriesCallable callable = new ExecuteOnEntriesCallable(name, processor, predicate,
+                            entry.getValue());
+                    DistributedTask<ExecuteOnEntriesResult> dt = new DistributedTask<ExecuteOnEntriesResult>(callable, member);
+                    lsFutures.add(dt);
+                    node.factory.getExecutorService(BATCH_OPS_EXECUTOR_NAME).execute(dt);
+                }
+                for (Future<ExecuteOnEntriesResult> future : lsFutures) {
+                    ExecuteOnEntriesResult result = future.get();
+                    if (result.getPairs().getKeyValues() != null) {
+                        for (KeyValue keyValue : result.getPairs().getKeyValues()) {
+                            results.addKeyValue(keyValue);
+                        }
+                    }
+                    notOwnedPartitions.addAll(result.getNotOwnedPartitions());
+                }
+                if (notOwnedPartitions.isEmpty()) {
+                    return results;
+                }
+                pendingPartitions = notOwnedPartitions;
+                Thread.sleep(redoWaitMillis);
+                node.checkNodeState();
+            }
+        } catch (InterruptedException e) {
+            handleInterruptedException();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause != null && cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    Object aggregate(String name, Aggregator aggregator, Predicate predicate) {
+        return aggregate(name, toData(aggregator), toData(predicate)).reduce();
+    }
+
+    /**
+     * Combines the partial results of the members. Retried if a member leaves or the
+     * partitions change during the call, as the partial results may be incomplete.
+     */
+    public Aggregator aggregate(String name, Data aggregatorData, Data predicateData) {
+        while (true) {
+            try {
+                return tryAggregate(name, aggregatorData, predicateData);
+            } catch (Throwable e) {
+                if (e instanceof MemberLeftException || e instanceof IllegalPartitionState) {
+                    try {
+                        Thread.sleep(redoWaitMillis);
+                    } catch (InterruptedException e1) {
+                        handleInterruptedException();
+                    }
+                } else if (e instanceof InterruptedException) {
+                    handleInterruptedException();
+                } else if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                } else if (e instanceof ExecutionException) {
+                    Throwable cause = e.getCause();
+                    if (cause != null && cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else {
+                        throw new RuntimeException(e);
+                    }
+                } else {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    Aggregator tryAggregate(String name, Data aggregatorData, Data predicateData) throws ExecutionException, InterruptedException {
+        List<Future<Aggregator>> lsFutures = new ArrayList<Future<Aggregator>>();
+        int expectedPartitionVersion = partitionManager.getVersion();
+        for (Member member : node.getClusterImpl().getMembers()) {
+            if (!member.isLiteMember()) {
+                Callable callable = new MapAggregateCallable(name, aggregatorData, predicateData, expectedPartitionVersion);
+                DistributedTask<Aggregator> dt = new DistributedTask<Aggregator>(callable, member);
+                lsFutures.add(dt);
+                node.factory.getExecutorService(BATCH_OPS_EXECUTOR_NAME).execute(dt);
+            }
+        }
+        Aggregator aggregator = (Aggregator) toObject(aggregatorData);
+        for (Future<Aggregator> future : lsFutures) {
+            Aggregator partial = future.get();
+            if (partial == null) {
+                throw new IllegalPartitionState("Unexpected partition version!");
+            }
+            aggregator.combine(partial);
+        }
+        return aggregator;
+    }
+
     Entries query(String name, ClusterOperation operation, Predicate predicate) {
         Data predicateData = toData(predicate);
+        // pages are sorted by the caller, so values are needed even if only keys are returned
+        boolean paging = predicate instanceof PagingPredicate;
+        ClusterOperation queryOperation = paging ? CONCURRENT_MAP_ITERATE_ENTRIES : operation;
         while (true) {
             try {
                 Entries entries = new Entries(this, name, operation, predicate);
-                tryQuery(entries, name, operation, predicateData);
+                tryQuery(entries, name, queryOperation, predicateData);
+                if (paging) {
+                    entries.applyPaging();
+                }
                 return entries;
             } catch (Throwable e) {
                 if (e instanceof MemberLeftException || e instanceof IllegalPartitionState) {
@@ -915,11 +1100,16 @@ public class ConcurrentMapManager extends BaseManager {
         CMap cmap = getMap(name);
         if (cmap == null) return entries;
         PartitionManager partitionManager = getPartitionManager();
+        boolean paging = predicate instanceof PagingPredicate;
+        ClusterOperation queryOperation = paging ? CONCURRENT_MAP_ITERATE_ENTRIES : operation;
         while (true) {
             int partitionVersion = partitionManager.getVersion();
-            Pairs pairs = queryMap(cmap, operation, predicate);
+            Pairs pairs = queryMap(cmap, queryOperation, predicate);
             if (partitionManager.getVersion() == partitionVersion) {
                 entries.addEntries(pairs);
+                if (paging) {
+                    entries.applyPaging();
+                }
                 return entries;
             }
             entries.clearEntries();
@@ -927,60 +1117,86 @@ public class ConcurrentMapManager extends BaseManager {
     }
 
     void doPutAll(String name, Map entries) {
-        Pairs pairs = new Pairs(entries.size());
-        for (Object key : entries.keySet()) {
-            Object value = entries.get(key);
-            pairs.addKeyValue(new KeyValue(toData(key), toData(value)));
-        }
-        while (true) {
-            try {
-                doPutAll(name, pairs);
-                return;
-            } catch (Exception e) {
-                if (e instanceof MemberLeftException) {
-                    try {
-                        Thread.sleep(redoWaitMillis);
-                    } catch (InterruptedException e1) {
-                        handleInterruptedException();
-                    }
-                } else if (e instanceof InterruptedException) {
-                    handleInterruptedException();
-                } else if (e instanceof RuntimeException) {
-                    throw (RuntimeException) e;
-                } else {
-                    throw new RuntimeException(e);
-                }
-            }
+        final MultiKeyCall call = new MultiKeyCall();
+        for (Object entry : entries.entrySet()) {
+            final Map.Entry mapEntry = (Map.Entry) entry;
+            call.add(new PutKeyOp(CONCURRENT_MAP_SET, name, mapEntry.getKey(), mapEntry.getValue(), -1, null));
         }
+        call.call();
     }
 
-    void doPutAll(String name, Pairs pairs) throws ExecutionException, InterruptedException {
-        final Map<Member, Pairs> targetMembers = new HashMap<Member, Pairs>(10);
+    void doPutAll(String name, Pairs pairs) {
+        final MultiKeyCall call = new MultiKeyCall();
         for (KeyValue keyValue : pairs.getKeyValues()) {
-            Member owner = partitionServiceImpl.getPartition(keyValue.getKeyData()).getOwner();
-            if (owner == null) {
-                owner = thisMember;
-            }
-            Pairs targetPairs = targetMembers.get(owner);
-            if (targetPairs == null) {
-                targetPairs = new Pairs();
-                targetMembers.put(owner, targetPairs);
+            call.add(new PutKeyOp(CONCURRENT_MAP_SET, name, keyValue.getKeyData(), keyValue.getValueData(), -1, null));
+        }
+        call.call();
+    }
+
+    void removeAll(String name, Set keys) {
+        final MultiKeyCall call = new MultiKeyCall();
+        for (Object key : keys) {
+            call.add(new RemoveKeyOp(name, key));
+        }
+        call.call();
+    }
+
+    Set containsKeys(String name, Set keys) {
+        final MultiKeyCall call = new MultiKeyCall();
+        final Map<Object, BooleanKeyOp> ops = new HashMap<Object, BooleanKeyOp>(keys.size());
+        for (Object key : keys) {
+            ops.put(key, call.add(new BooleanKeyOp(CONCURRENT_MAP_CONTAINS_KEY, name, key, null, null)));
+        }
+        call.call();
+        final Set containing = new HashSet();
+        for (Map.Entry<Object, BooleanKeyOp> entry : ops.entrySet()) {
+            if (entry.getValue().result) {
+                containing.add(entry.getKey());
             }
-            targetPairs.addKeyValue(keyValue);
         }
-        List<Future<Boolean>> lsFutures = new ArrayList<Future<Boolean>>(targetMembers.size());
-        for (Member member : targetMembers.keySet()) {
-            Pairs targetPairs = targetMembers.get(member);
-            if (targetPairs != null && targetMembers.size() > 0) {
-                PutAllCallable callable = new PutAllCallable(name, targetPairs);
-                DistributedTask<Boolean> dt = new DistributedTask<Boolean>(callable, member);
-                lsFutures.add(dt);
-                node.factory.getExecutorService(BATCH_OPS_EXECUTOR_NAME).execute(dt);
+        return containing;
+    }
+
+    /**
+     * Locks the keys waiting at most timeout for each of them. Either all of the keys
+     * are locked or the ones locked by this call are unlocked again. Keys locked by
+     * others are waited for at the same time, so a call waiting for a key held by
+     * another caller, itself waiting for this one, gives up on timeout.
+     */
+    boolean tryLockAll(String name, Set keys, long timeout) {
+        final MultiKeyCall call = new MultiKeyCall();
+        final List<LockKeyOp> ops = new ArrayList<LockKeyOp>(keys.size());
+        for (Object key : keys) {
+            ops.add(call.add(new LockKeyOp(name, key, timeout)));
+        }
+        call.call();
+        final Set lockedKeys = new HashSet();
+        for (LockKeyOp op : ops) {
+            if (op.locked) {
+                lockedKeys.add(op.request.key);
             }
         }
-        for (Future<Boolean> future : lsFutures) {
-            future.get();
+        if (lockedKeys.size() == ops.size()) {
+            return true;
+        }
+        unlockAll(name, lockedKeys);
+        return false;
+    }
+
+    void unlockAll(String name, Set keys) {
+        final CMap cmap = getMap(name);
+        if (cmap == null) return;
+        final ThreadContext tc = ThreadContext.get();
+        final MultiKeyCall call = new MultiKeyCall();
+        for (Object key : keys) {
+            final Data dataKey = toData(key);
+            final LocalLock localLock = cmap.mapLocalLocks.get(dataKey);
+            if (localLock != null && localLock.getThreadId() == tc.getThreadId()
+                    && localLock.decrementAndGet() == 0) {
+                call.add(new UnlockKeyOp(name, dataKey, localLock));
+            }
         }
+        call.call();
     }
 
     class MGet extends MTargetAwareOp {
@@ -1012,54 +1228,102 @@ public class ConcurrentMapManager extends BaseManager {
                 }
             }
             final CMap cMap = maps.get(name);
-            Data dataKey = null;
+            final NearCache nearCache = (cMap == null) ? null : cMap.nearCache;
+            if (nearCache != null) {
+                Object value = nearCache.get(key);
+                if (value != null) {
+                    return value;
+                }
+            }
+            final Data dataKey = toData(key);
             if (cMap != null) {
-                NearCache nearCache = cMap.nearCache;
+                Object value = getLocally(cMap, dataKey, tc);
+                if (value != null) {
+                    return value;
+                }
+            }
+            Object value = objectCall(CONCURRENT_MAP_GET, name, dataKey, null, timeout, -1);
+            if (value instanceof AddressAwareException) {
+                rethrowException(request.operation, (AddressAwareException) value);
+            }
+            return value;
+        }
+
+        /**
+         * Gets the value without blocking, the future is completed from the response path.
+         * Transactional gets and the values found on this member complete it before
+         * returning.
+         */
+        public void getAsync(String name, Object key, ResponseFuture future) {
+            this.keyObject = key;
+            try {
+                final ThreadContext tc = ThreadContext.get();
+                final TransactionImpl txn = tc.getCallContext().getTransaction();
+                if (txn != null && txn.getStatus() == Transaction.TXN_STATUS_ACTIVE) {
+                    future.handleResponse(get(name, key, -1));
+                    return;
+                }
+                final CMap cMap = maps.get(name);
+                final NearCache nearCache = (cMap == null) ? null : cMap.nearCache;
                 if (nearCache != null) {
                     Object value = nearCache.get(key);
                     if (value != null) {
-                        return value;
-                    }
-                }
-                dataKey = toData(key);
-                Record ownedRecord = cMap.getOwnedRecord(dataKey);
-                if (ownedRecord != null && ownedRecord.isActive() && ownedRecord.isValid()) {
-                    long version = ownedRecord.getVersion();
-                    Object result = null;
-                    if (tc.isClient()) {
-                        final Data valueData = ownedRecord.getValueData();
-                        if (valueData != null && valueData.size() > 0) {
-                            result = valueData;
-                        }
-                    } else {
-                        final Object value = ownedRecord.getValue();
-                        if (value != null) {
-                            result = value;
-                        }
+                        future.handleResponse(value);
+                        return;
                     }
-                    if (result != null && ownedRecord.getVersion() == version) {
-                        ownedRecord.setLastAccessed();
-                        return result;
+                }
+                final Data dataKey = toData(key);
+                if (cMap != null) {
+                    Object value = getLocally(cMap, dataKey, tc);
+                    if (value != null) {
+                        future.handleResponse(value);
+                        return;
                     }
                 }
-                if (cMap.readBackupData) {
-                    final Record record = cMap.mapRecords.get(dataKey);
-                    if (record != null && record.isActive() && record.isValid()) {
-                        final Data valueData = record.getValueData();
-                        if (valueData != null && valueData.size() > 0) {
-                            return tc.isClient() ? valueData : toObject(valueData);
-                        }
+                setLocal(CONCURRENT_MAP_GET, name, dataKey, null, -1, -1);
+                request.setObjectRequest();
+                setResponseHandler(future);
+                doOp();
+            } catch (Throwable e) {
+                future.handleResponse(e);
+            }
+        }
+
+        /**
+         * Returns the value if this member owns the entry or has its backup and the map
+         * reads backups, null otherwise.
+         */
+        private Object getLocally(CMap cMap, Data dataKey, ThreadContext tc) {
+            Record ownedRecord = cMap.getOwnedRecord(dataKey);
+            if (ownedRecord != null && ownedRecord.isActive() && ownedRecord.isValid()) {
+                long version = ownedRecord.getVersion();
+                Object result = null;
+                if (tc.isClient()) {
+                    final Data valueData = ownedRecord.getValueData();
+                    if (valueData != null && valueData.size() > 0) {
+                        result = valueData;
+                    }
+                } else {
+                    final Object value = ownedRecord.getValue();
+                    if (value != null) {
+                        result = value;
                     }
                 }
+                if (result != null && ownedRecord.getVersion() == version) {
+                    ownedRecord.setLastAccessed();
+                    return result;
+                }
             }
-            if (dataKey == null) {
-                dataKey = toData(key);
-            }
-            Object value = objectCall(CONCURRENT_MAP_GET, name, dataKey, null, timeout, -1);
-            if (value instanceof AddressAwareException) {
-                rethrowException(request.operation, (AddressAwareException) value);
+            if (cMap.readBackupData) {
+                final Record record = cMap.mapRecords.get(dataKey);
+                if (record != null && record.isActive() && record.isValid()) {
+                    final Data valueData = record.getValueData();
+                    if (valueData != null && valueData.size() > 0) {
+                        return tc.isClient() ? valueData : toObject(valueData);
+                    }
+                }
             }
-            return value;
+            return null;
         }
 
         @Override
@@ -1149,6 +1413,34 @@ public class ConcurrentMapManager extends BaseManager {
             return txnalRemove(CONCURRENT_MAP_REMOVE, name, key, null, timeout, -1L);
         }
 
+        /**
+         * Removes without blocking, the future is completed from the response path once
+         * the sync backups are applied. Transactional removes complete it before returning.
+         */
+        public void removeAsync(String name, Object key, final ResponseFuture future) {
+            try {
+                final TransactionImpl txn = ThreadContext.get().getCallContext().getTransaction();
+                if (txn != null && txn.getStatus() == Transaction.TXN_STATUS_ACTIVE) {
+                    future.handleResponse(remove(name, key, -1));
+                    return;
+                }
+                setLocal(CONCURRENT_MAP_REMOVE, name, key, null, -1, -1);
+                request.setObjectRequest();
+                setResponseHandler(new ResponseHandler() {
+                    public void handleResponse(Object response) {
+                        if (response instanceof Data && ((Data) response).size() > 0) {
+                            backupAndComplete(CONCURRENT_MAP_BACKUP_REMOVE, response, future);
+                        } else {
+                            future.handleResponse(response);
+                        }
+                    }
+                });
+                doOp();
+            } catch (Throwable e) {
+                future.handleResponse(e);
+            }
+        }
+
         public boolean removeIfSame(String name, Object key, Object value, long timeout) {
             return txnalRemove(CONCURRENT_MAP_REMOVE_IF_SAME, name, key, value, timeout, -1L) == Boolean.TRUE;
         }
@@ -1312,7 +1604,7 @@ public class ConcurrentMapManager extends BaseManager {
     void setIndexValues(Request request, Object value) {
         CMap cmap = getMap(request.name);
         if (cmap != null) {
-            Long[] indexes = cmap.getMapIndexService().getIndexValues(value);
+            Object[] indexes = cmap.getMapIndexService().getIndexValues(value);
             if (indexes != null) {
                 byte[] indexTypes = cmap.getMapIndexService().getIndexTypes();
                 request.setIndexes(indexes, indexTypes);
@@ -1371,6 +1663,41 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    class MExecuteOnKey extends MBackupAndMigrationAwareOp {
+
+        public Data execute(String name, Data key, Data processor) {
+            setLocal(CONCURRENT_MAP_EXECUTE_ON_KEY, name, key, processor, -1, -1);
+            request.setObjectRequest();
+            doOp();
+            Object response = getResultAsObject(false);
+            if (response instanceof AddressAwareException) {
+                rethrowException(CONCURRENT_MAP_EXECUTE_ON_KEY, (AddressAwareException) response);
+            }
+            if (!(response instanceof MultiData)) {
+                return null;
+            }
+            MultiData resultAndValue = (MultiData) response;
+            if (request.longValue == EXECUTE_ON_KEY_UPDATED) {
+                request.value = resultAndValue.getData(1);
+                backup(CONCURRENT_MAP_BACKUP_PUT);
+            } else if (request.longValue == EXECUTE_ON_KEY_REMOVED) {
+                request.value = null;
+                backup(CONCURRENT_MAP_BACKUP_REMOVE);
+            }
+            Data result = resultAndValue.getData(0);
+            return (result.size() == 0) ? null : result;
+        }
+
+        @Override
+        public void handleNoneRedoResponse(Packet packet) {
+            NearCache nearCache = mapCaches.get(request.name);
+            if (nearCache != null) {
+                nearCache.invalidate(request.key);
+            }
+            super.handleNoneRedoResponse(packet);
+        }
+    }
+
     class MCountDownLatch extends MDefaultBackupAndMigrationAwareOp {
         CountDownLatchOperationsCounter operationsCounter;
         long begin;
@@ -1565,6 +1892,36 @@ public class ConcurrentMapManager extends BaseManager {
             return txnalPut(CONCURRENT_MAP_PUT, name, key, value, timeout, ttl);
         }
 
+        /**
+         * Puts without blocking, the future is completed from the response path once the
+         * sync backups are applied. Transactional puts complete it before returning.
+         */
+        public void putAsync(String name, Object key, Object value, long ttl, final ResponseFuture future) {
+            try {
+                final TransactionImpl txn = ThreadContext.get().getTransaction();
+                if (txn != null && txn.getStatus() == Transaction.TXN_STATUS_ACTIVE) {
+                    future.handleResponse(put(name, key, value, -1, ttl));
+                    return;
+                }
+                setLocal(CONCURRENT_MAP_PUT, name, key, value, -1, ttl);
+                setIndexValues(request, value);
+                request.setObjectRequest();
+                setResponseHandler(new ResponseHandler() {
+                    public void handleResponse(Object response) {
+                        if (response instanceof Throwable) {
+                            future.handleResponse(response);
+                        } else {
+                            request.longValue = Long.MIN_VALUE;
+                            backupAndComplete(CONCURRENT_MAP_BACKUP_PUT, response, future);
+                        }
+                    }
+                });
+                doOp();
+            } catch (Throwable e) {
+                future.handleResponse(e);
+            }
+        }
+
         public Object putAfterCommit(String name, Object key, Object value, long timeout, long ttl, long txnId) {
             Object result = null;
             if (txnId != -1) {
@@ -1929,7 +2286,16 @@ public class ConcurrentMapManager extends BaseManager {
             final Address target = getBackupMember(request.blockId, replicaIndex);
             if (target != null) {
                 if (target.equals(thisAddress)) {
-                    processBackupRequest(request);
+                    final int partitionId = getPartitionIdForThreading(request);
+                    if (partitionId == -1) {
+                        processBackupRequest(request);
+                    } else {
+                        node.clusterService.enqueuePartitionAndReturn(partitionId, new Processable() {
+                            public void process() {
+                                processBackupRequest(request);
+                            }
+                        });
+                    }
                 } else {
                     final Packet packet = obtainPacket();
                     packet.setFromRequest(request);
@@ -1947,40 +2313,49 @@ public class ConcurrentMapManager extends BaseManager {
         protected volatile int asyncBackupCount = 0;
 
         protected void backup(ClusterOperation operation) {
-            final int localBackupCount = backupCount;
-            final int localAsyncBackupCount = asyncBackupCount;
-            final int totalBackupCount = localBackupCount + localAsyncBackupCount;
-            if (localBackupCount <= 0 && localAsyncBackupCount <= 0) {
-                return;
-            }
-            if (thisAddress.equals(target) &&
-                    (operation == CONCURRENT_MAP_LOCK || operation == CONCURRENT_MAP_UNLOCK)) {
-                return;
-            }
-            if (totalBackupCount > MAX_BACKUP_COUNT) {
-                String msg = "Max backup is " + MAX_BACKUP_COUNT + " but total backupCount is " + totalBackupCount;
-                logger.log(Level.SEVERE, msg);
-                throw new RuntimeException(msg);
-            }
-            if (request.key == null || request.key.size() == 0) {
-                throw new RuntimeException("Key is null! " + request.key);
-            }
-            final MBackup[] backupOps = new MBackup[localBackupCount];
-            for (int i = 0; i < totalBackupCount; i++) {
-                int replicaIndex = i + 1;
-                if (i < localBackupCount) {
-                    MBackup backupOp = new MBackup();
-                    backupOps[i] = backupOp;
-                    backupOp.sendBackup(operation, replicaIndex, request);
-                } else {
-                    final Request reqBackup = Request.copyFromRequest(request);
-                    reqBackup.operation = operation;
-                    enqueueAndReturn(new AsyncBackupProcessable(reqBackup, replicaIndex));
+            final SyncBackups syncBackups = new SyncBackups(null);
+            sendBackups(operation, syncBackups);
+            syncBackups.await();
+        }
+
+        /**
+         * Sends the backups of the operation without waiting for them, each sync backup
+         * counts syncBackups down once it is applied.
+         */
+        protected void sendBackups(ClusterOperation operation, SyncBackups syncBackups) {
+            try {
+                ConcurrentMapManager.this.sendBackups(request, operation, backupCount, asyncBackupCount,
+                        target, syncBackups);
+            } finally {
+                syncBackups.sent();
+            }
+        }
+
+        /**
+         * Sends the backups of an asynchronous operation answered by its owner and
+         * completes it with the response once the sync backups are applied. Called on
+         * the response path. Responses of write-through maps may be store failures,
+         * they are deserialized to skip the backups then.
+         */
+        protected void backupAndComplete(ClusterOperation operation, final Object response,
+                                         final ResponseHandler responseHandler) {
+            if (response instanceof Data) {
+                final CMap cmap = maps.get(request.name);
+                if (cmap != null && cmap.store != null && cmap.writeDelayMillis == 0
+                        && toObject((Data) response) instanceof AddressAwareException) {
+                    responseHandler.handleResponse(response);
+                    return;
                 }
             }
-            for (int i = 0; i < localBackupCount; i++) {
-                MBackup backupOp = backupOps[i];
-                backupOp.getResultAsBoolean();
+            final SyncBackups syncBackups = new SyncBackups(new Runnable() {
+                public void run() {
+                    responseHandler.handleResponse(response);
+                }
+            });
+            try {
+                sendBackups(operation, syncBackups);
+            } catch (Throwable e) {
+                logger.log(Level.WARNING, "Backups cannot be sent for " + request, e);
             }
         }
 
@@ -2018,12 +2393,694 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
-    abstract class MigrationAwareSubCall extends SubCall {
-
-        protected MigrationAwareSubCall(Address target) {
-            super(target);
-        }
-
+    /**
+     * Sends the backups of the request to its replicas without waiting for them,
+     * each sync backup counts syncBackups down once it is applied.
+     */
+    void sendBackups(Request request, ClusterOperation operation, int backupCount, int asyncBackupCount,
+                     Address target, SyncBackups syncBackups) {
+        final int totalBackupCount = backupCount + asyncBackupCount;
+        if (backupCount <= 0 && asyncBackupCount <= 0) {
+            return;
+        }
+        if (thisAddress.equals(target) &&
+                (operation == CONCURRENT_MAP_LOCK || operation == CONCURRENT_MAP_UNLOCK)) {
+            return;
+        }
+        if (totalBackupCount > MAX_BACKUP_COUNT) {
+            String msg = "Max backup is " + MAX_BACKUP_COUNT + " but total backupCount is " + totalBackupCount;
+            logger.log(Level.SEVERE, msg);
+            throw new RuntimeException(msg);
+        }
+        if (request.key == null || request.key.size() == 0) {
+            throw new RuntimeException("Key is null! " + request.key);
+        }
+        for (int i = 0; i < totalBackupCount; i++) {
+            final int replicaIndex = i + 1;
+            final boolean sync = (i < backupCount);
+            if (backupBatcher != null) {
+                final Request reqBackup = Request.copyFromRequest(request);
+                reqBackup.operation = operation;
+                reqBackup.caller = thisAddress;
+                reqBackup.attachment = null;
+                reqBackup.response = null;
+                backupBatcher.add(new BackupEntry(reqBackup, replicaIndex, sync ? syncBackups.add() : null));
+            } else if (sync) {
+                MBackup backupOp = new MBackup();
+                backupOp.setResponseHandler(syncBackups.add());
+                backupOp.sendBackup(operation, replicaIndex, request);
+            } else {
+                final Request reqBackup = Request.copyFromRequest(request);
+                reqBackup.operation = operation;
+                enqueueAndReturn(new AsyncBackupProcessable(reqBackup, replicaIndex));
+            }
+        }
+    }
+
+    /**
+     * Sync backups of an operation, counted down as they are applied. The caller either
+     * waits for them or gives a completion, run by the thread applying the last one.
+     * Starts with a count for the sender, so the completion doesn't run before all
+     * the backups are sent.
+     */
+    class SyncBackups implements ResponseHandler {
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final Runnable completion;
+
+        SyncBackups(Runnable completion) {
+            this.completion = completion;
+        }
+
+        SyncBackups add() {
+            pending.incrementAndGet();
+            return this;
+        }
+
+        void sent() {
+            handleResponse(null);
+        }
+
+        public void handleResponse(Object response) {
+            if (pending.decrementAndGet() == 0) {
+                latch.countDown();
+                if (completion != null) {
+                    completion.run();
+                }
+            }
+        }
+
+        void await() {
+            try {
+                while (!latch.await(10, TimeUnit.SECONDS)) {
+                    node.checkNodeState();
+                }
+            } catch (InterruptedException e) {
+                handleInterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Backup of an operation to one replica. Sync backups tell their handler
+     * once they are applied.
+     */
+    static class BackupEntry {
+        final Request request;
+        final int replicaIndex;
+        final ResponseHandler handler;
+
+        BackupEntry(Request request, int replicaIndex, ResponseHandler handler) {
+            this.request = request;
+            this.replicaIndex = replicaIndex;
+            this.handler = handler;
+        }
+
+        int size() {
+            return request.key.size() + ((request.value == null) ? 0 : request.value.size());
+        }
+
+        void done() {
+            if (handler != null) {
+                handler.handleResponse(Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Coalesces the backups headed to the same replica member into batch packets.
+     * Callers queue the backups and the ServiceThread drains the queue, so the backups
+     * queued while the ServiceThread is busy go together. A batch is sent when it has
+     * batchSize backups or batchBytes of keys and values, or when the queue is drained.
+     * Backups of a record are sent in order but may be applied out of order after a
+     * redo, backup versions take care of that as they do for single backups.
+     */
+    class BackupBatcher {
+        private final Queue<BackupEntry> entries = new ConcurrentLinkedQueue<BackupEntry>();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+        private final int batchSize;
+        private final int batchBytes;
+        private final AtomicLong batchCount = new AtomicLong();
+        private final AtomicLong backupCount = new AtomicLong();
+        private volatile int maxBatchSize = 0;
+        private final Processable drain = new Processable() {
+            public void process() {
+                drain();
+            }
+        };
+
+        BackupBatcher(int batchSize, int batchBytes) {
+            this.batchSize = batchSize;
+            this.batchBytes = batchBytes;
+        }
+
+        void add(BackupEntry entry) {
+            entries.offer(entry);
+            if (drainScheduled.compareAndSet(false, true)) {
+                enqueueAndReturn(drain);
+            }
+        }
+
+        void redo(final List<BackupEntry> redoEntries) {
+            node.executorManager.getScheduledExecutorService().schedule(new Runnable() {
+                public void run() {
+                    for (BackupEntry entry : redoEntries) {
+                        add(entry);
+                    }
+                }
+            }, redoWaitMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Should be called by only ServiceThread
+         */
+        void drain() {
+            drainScheduled.set(false);
+            final Map<Address, MBackupBatch> batches = new HashMap<Address, MBackupBatch>();
+            // leave the rest to the next drain, not to hold the ServiceThread for too long
+            int remaining = batchSize * 10;
+            BackupEntry entry;
+            while (remaining-- > 0 && (entry = entries.poll()) != null) {
+                final Address target = getBackupMember(entry.request.blockId, entry.replicaIndex);
+                if (target == null) {
+                    entry.done();
+                } else if (target.equals(thisAddress)) {
+                    backupLocally(entry);
+                } else {
+                    MBackupBatch batch = batches.get(target);
+                    if (batch == null) {
+                        batch = new MBackupBatch(target);
+                        batches.put(target, batch);
+                    }
+                    batch.add(entry);
+                    if (batch.entries.size() >= batchSize || batch.bytes >= batchBytes) {
+                        batches.remove(target);
+                        send(batch);
+                    }
+                }
+            }
+            for (MBackupBatch batch : batches.values()) {
+                send(batch);
+            }
+            if (!entries.isEmpty() && drainScheduled.compareAndSet(false, true)) {
+                enqueueAndReturn(drain);
+            }
+        }
+
+        private void backupLocally(final BackupEntry entry) {
+            final int partitionId = getPartitionIdForThreading(entry.request);
+            if (partitionId == -1) {
+                try {
+                    processBackupRequest(entry.request);
+                } finally {
+                    entry.done();
+                }
+            } else {
+                node.clusterService.enqueuePartitionAndReturn(partitionId, new Processable() {
+                    public void process() {
+                        try {
+                            processBackupRequest(entry.request);
+                        } finally {
+                            entry.done();
+                        }
+                    }
+                });
+            }
+        }
+
+        private void send(MBackupBatch batch) {
+            final int size = batch.entries.size();
+            batchCount.incrementAndGet();
+            backupCount.addAndGet(size);
+            if (size > maxBatchSize) {
+                maxBatchSize = size;
+            }
+            batch.send();
+        }
+
+        long getBatchCount() {
+            return batchCount.get();
+        }
+
+        long getBackupCount() {
+            return backupCount.get();
+        }
+
+        int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        void appendState(StringBuffer sbState) {
+            final long batches = batchCount.get();
+            sbState.append("\nBackup batches: ").append(batches);
+            sbState.append(", backups: ").append(backupCount.get());
+            sbState.append(", avg batch size: ").append((batches == 0) ? 0 : backupCount.get() / batches);
+            sbState.append(", max batch size: ").append(maxBatchSize);
+            sbState.append(", queued: ").append(entries.size());
+        }
+    }
+
+    /**
+     * Batch of backups sent to one member. If it has sync backups it is a call, its
+     * response acknowledges all of them. The backups are queued again to be sent to
+     * the current replicas if the member leaves before responding.
+     */
+    class MBackupBatch extends TargetAwareOp {
+        final List<BackupEntry> entries = new ArrayList<BackupEntry>();
+        int bytes = 0;
+        boolean sync = false;
+
+        MBackupBatch(Address target) {
+            this.target = target;
+        }
+
+        void add(BackupEntry entry) {
+            entries.add(entry);
+            bytes += entry.size();
+            sync |= (entry.handler != null);
+        }
+
+        /**
+         * Should be called by only ServiceThread
+         */
+        void send() {
+            final RequestBatch batch = new RequestBatch(entries.size());
+            for (BackupEntry entry : entries) {
+                batch.add(entry.request);
+            }
+            request.setLocal(CONCURRENT_MAP_BACKUP_BATCH, entries.get(0).request.name, null, toData(batch),
+                    -1, -1, -1, thisAddress);
+            if (sync) {
+                request.setBooleanRequest();
+                process();
+            } else {
+                // this is not a call! we do not expect any response!
+                // @see BackupBatchPacketProcessor
+                final Packet packet = obtainPacket();
+                packet.setFromRequest(request);
+                packet.callId = -1L;
+                sendOrReleasePacket(packet, target);
+            }
+        }
+
+        @Override
+        public void setTarget() {
+        }
+
+        @Override
+        protected void setResult(Object obj) {
+            if (obj == OBJECT_REDO) {
+                backupBatcher.redo(entries);
+            } else {
+                for (BackupEntry entry : entries) {
+                    entry.done();
+                }
+            }
+        }
+    }
+
+    /**
+     * Operations on many keys, possibly of different maps. Each round groups the
+     * operations by the owners of their keys and sends each owner one {@link MMultiKey}
+     * with all of its operations, then the backups of all the answered operations are
+     * sent together, so the backup batcher packs them into a few batches per replica.
+     * Operations the owners ask to redo, because their keys are migrating or have
+     * moved, are sent again in the next round after the redo wait.
+     * <p/>
+     * Operations on the same key are run by its owner in the order they are added.
+     * All of the operations are run even if some of them fail, the first failure is
+     * thrown once the call is done.
+     */
+    class MultiKeyCall implements Processable {
+        private final List<KeyOp> ops = new ArrayList<KeyOp>();
+        private final AtomicInteger remainingCalls = new AtomicInteger();
+        // operations of the current round, read by the ServiceThread
+        private volatile List<KeyOp> roundOps;
+        private volatile CountDownLatch roundLatch;
+
+        <T extends KeyOp> T add(T op) {
+            ops.add(op);
+            return op;
+        }
+
+        boolean isEmpty() {
+            return ops.isEmpty();
+        }
+
+        void call() {
+            RuntimeException failure = null;
+            List<KeyOp> pending = ops;
+            while (!pending.isEmpty()) {
+                final CountDownLatch latch = new CountDownLatch(1);
+                roundOps = pending;
+                roundLatch = latch;
+                enqueueAndReturn(this);
+                awaitRound(latch);
+                final List<KeyOp> redoOps = new ArrayList<KeyOp>();
+                final SyncBackups syncBackups = new SyncBackups(null);
+                try {
+                    for (KeyOp op : pending) {
+                        if (op.redo) {
+                            op.redo = false;
+                            redoOps.add(op);
+                            continue;
+                        }
+                        try {
+                            op.checkStoreFailure();
+                            final ClusterOperation backupOperation = op.onResponse(op.response);
+                            if (backupOperation != null) {
+                                sendBackups(op.request, backupOperation, op.backupCount, op.asyncBackupCount,
+                                        op.target, syncBackups);
+                            }
+                        } catch (RuntimeException e) {
+                            if (failure == null) {
+                                failure = e;
+                            }
+                        }
+                    }
+                } finally {
+                    syncBackups.sent();
+                }
+                syncBackups.await();
+                pending = redoOps;
+                if (!pending.isEmpty()) {
+                    try {
+                        Thread.sleep(redoWaitMillis);
+                    } catch (InterruptedException e) {
+                        handleInterruptedException();
+                    }
+                    node.checkNodeState();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void awaitRound(CountDownLatch latch) {
+            while (true) {
+                try {
+                    if (latch.await(10, TimeUnit.SECONDS)) {
+                        return;
+                    }
+                    if (node.isActive()) {
+                        logger.log(Level.FINEST, "Still no response! " + roundOps.size() + " operations");
+                    }
+                    node.checkNodeState();
+                    if (Thread.interrupted()) {
+                        handleInterruptedException();
+                    }
+                } catch (InterruptedException e) {
+                    handleInterruptedException();
+                }
+            }
+        }
+
+        /**
+         * Should be called by only ServiceThread
+         */
+        public void process() {
+            final Map<Address, List<KeyOp>> targetOps = new HashMap<Address, List<KeyOp>>();
+            final int members = lsMembers.size();
+            for (KeyOp op : roundOps) {
+                final Address owner = getKeyOwner(op.request);
+                if (owner == null) {
+                    op.redo = true;
+                    continue;
+                }
+                op.target = owner;
+                op.prepareForBackup(members);
+                List<KeyOp> ownerOps = targetOps.get(owner);
+                if (ownerOps == null) {
+                    ownerOps = new ArrayList<KeyOp>();
+                    targetOps.put(owner, ownerOps);
+                }
+                ownerOps.add(op);
+            }
+            remainingCalls.set(targetOps.size() + 1);
+            for (Map.Entry<Address, List<KeyOp>> entry : targetOps.entrySet()) {
+                new MMultiKey(entry.getKey(), this, entry.getValue()).send();
+            }
+            callDone();
+        }
+
+        void callDone() {
+            if (remainingCalls.decrementAndGet() == 0) {
+                roundLatch.countDown();
+            }
+        }
+    }
+
+    /**
+     * Operations of a {@link MultiKeyCall} sent to the owner of their keys in one packet.
+     * The owner answers each of them with a {@link MultiKeyResponses} entry. All of them
+     * are redone if the owner leaves before responding.
+     */
+    class MMultiKey extends TargetAwareOp {
+        final MultiKeyCall call;
+        final List<KeyOp> ops;
+        final AtomicBoolean responded = new AtomicBoolean(false);
+
+        MMultiKey(Address target, MultiKeyCall call, List<KeyOp> ops) {
+            this.target = target;
+            this.call = call;
+            this.ops = ops;
+        }
+
+        /**
+         * Should be called by only ServiceThread
+         */
+        void send() {
+            final RequestBatch batch = new RequestBatch(ops.size());
+            for (KeyOp op : ops) {
+                batch.add(op.request);
+            }
+            request.setLocal(CONCURRENT_MAP_MULTI_KEY, ops.get(0).request.name, null, toData(batch),
+                    -1, -1, -1, thisAddress);
+            request.setObjectRequest();
+            process();
+        }
+
+        @Override
+        public void setTarget() {
+        }
+
+        @Override
+        protected void setResult(Object obj) {
+            if (!responded.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (obj instanceof MultiKeyResponses || obj instanceof Data) {
+                    final MultiKeyResponses responses = (obj instanceof Data)
+                            ? (MultiKeyResponses) toObject((Data) obj) : (MultiKeyResponses) obj;
+                    for (int i = 0; i < ops.size(); i++) {
+                        final KeyOp op = ops.get(i);
+                        if (responses.isRedo(i)) {
+                            op.redo = true;
+                        } else {
+                            op.response = responses.getResponse(i);
+                            op.request.version = responses.getVersion(i);
+                            op.request.lockCount = responses.getLockCount(i);
+                            op.request.longValue = responses.getLongValue(i);
+                        }
+                    }
+                } else {
+                    for (KeyOp op : ops) {
+                        op.redo = true;
+                    }
+                }
+            } finally {
+                call.callDone();
+            }
+        }
+    }
+
+    /**
+     * Operation on one key run by a {@link MultiKeyCall}. Its owner runs it as if it was
+     * sent alone, the operation then tells which backup should be sent for the response.
+     */
+    abstract class KeyOp {
+        final Request request = new Request();
+        volatile Object response;
+        volatile boolean redo = false;
+        volatile Address target;
+        volatile int backupCount = 0;
+        volatile int asyncBackupCount = 0;
+
+        KeyOp(ClusterOperation operation, String name, Object key, Object value, long timeout, long ttl) {
+            final Data keyData = toData(key);
+            if (keyData == null || keyData.size() == 0) {
+                throw new RuntimeException(name + " Key with zero-size " + operation);
+            }
+            request.setLocal(operation, name, keyData, (value == null) ? null : toData(value),
+                    -1, timeout, ttl, thisAddress);
+        }
+
+        /**
+         * Should be called by only ServiceThread
+         */
+        void prepareForBackup(int members) {
+            backupCount = 0;
+            asyncBackupCount = 0;
+            if (members > 1) {
+                final CMap map = getOrCreateMap(request.name);
+                backupCount = Math.max(0, Math.min(map.getBackupCount(), members));
+                asyncBackupCount = Math.max(0, Math.min(map.getAsyncBackupCount(), members - backupCount));
+            }
+        }
+
+        /**
+         * Store failures of write-through maps are answered as serialized exceptions.
+         */
+        void checkStoreFailure() {
+            if (response instanceof Data) {
+                final CMap cmap = maps.get(request.name);
+                if (cmap != null && cmap.store != null && cmap.writeDelayMillis == 0) {
+                    final Object value = toObject((Data) response);
+                    if (value instanceof AddressAwareException) {
+                        rethrowException(request.operation, (AddressAwareException) value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Called by the caller thread once the owner answers.
+         *
+         * @return the backup operation to send, null if nothing should be backed up
+         */
+        abstract ClusterOperation onResponse(Object response);
+    }
+
+    /**
+     * Operation answered with true or false, backed up if it succeeds.
+     */
+    class BooleanKeyOp extends KeyOp {
+        final ClusterOperation backupOperation;
+        boolean result = false;
+
+        BooleanKeyOp(ClusterOperation operation, String name, Object key, Object value,
+                     ClusterOperation backupOperation) {
+            super(operation, name, key, value, -1, -1);
+            this.backupOperation = backupOperation;
+        }
+
+        ClusterOperation onResponse(Object response) {
+            result = Boolean.TRUE.equals(response);
+            return result ? backupOperation : null;
+        }
+    }
+
+    /**
+     * Put of a value without the old value, or with it when a transaction commits.
+     * The lock of a committed key is released by the put, the local lock is released
+     * once the put is answered.
+     */
+    class PutKeyOp extends KeyOp {
+        final LocalLock localLock;
+
+        PutKeyOp(ClusterOperation operation, String name, Object key, Object value, long ttl, LocalLock localLock) {
+            super(operation, name, key, value, -1, ttl);
+            this.localLock = localLock;
+            request.txnId = -1;
+            setIndexValues(request, value);
+        }
+
+        ClusterOperation onResponse(Object response) {
+            if (request.operation == CONCURRENT_MAP_PUT) {
+                if (localLock != null) {
+                    localLock.decrementAndGet();
+                }
+                request.longValue = Long.MIN_VALUE;
+                return CONCURRENT_MAP_BACKUP_PUT;
+            }
+            if (localLock != null) {
+                // remove if current LocalLock is not changed
+                getMap(request.name).mapLocalLocks.remove(request.key, localLock);
+            }
+            return Boolean.TRUE.equals(response) ? CONCURRENT_MAP_BACKUP_PUT : null;
+        }
+    }
+
+    /**
+     * Remove of a key, answered with the removed value.
+     */
+    class RemoveKeyOp extends KeyOp {
+
+        RemoveKeyOp(String name, Object key) {
+            super(CONCURRENT_MAP_REMOVE, name, key, null, -1, -1);
+        }
+
+        ClusterOperation onResponse(Object response) {
+            if (response instanceof Data && ((Data) response).size() > 0) {
+                return CONCURRENT_MAP_BACKUP_REMOVE;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Lock of a key for the calling thread, answered with the lock count or -1 if the
+     * key couldn't be locked in time. Counts the local lock like {@link MLock}.
+     */
+    class LockKeyOp extends KeyOp {
+        boolean locked = false;
+
+        LockKeyOp(String name, Object key, long timeout) {
+            super(CONCURRENT_MAP_LOCK, name, key, null, timeout, -1);
+            request.setLongRequest();
+        }
+
+        ClusterOperation onResponse(Object response) {
+            final long result = (response instanceof Long) ? (Long) response : -1L;
+            if (result == -1L) {
+                return null;
+            }
+            locked = true;
+            final ThreadContext tc = ThreadContext.get();
+            final CMap cmap = getMap(request.name);
+            if (result == 0) {
+                cmap.mapLocalLocks.remove(request.key);
+            }
+            LocalLock localLock = cmap.mapLocalLocks.get(request.key);
+            if (localLock == null || localLock.getThreadId() != tc.getThreadId()) {
+                localLock = new LocalLock(tc.getThreadId());
+                cmap.mapLocalLocks.put(request.key, localLock);
+            }
+            return (localLock.incrementAndGet() == 1) ? CONCURRENT_MAP_BACKUP_LOCK : null;
+        }
+    }
+
+    /**
+     * Unlock of a key whose local lock is released by this unlock.
+     */
+    class UnlockKeyOp extends KeyOp {
+        final LocalLock localLock;
+
+        UnlockKeyOp(String name, Object key, LocalLock localLock) {
+            super(CONCURRENT_MAP_UNLOCK, name, key, null, -1, -1);
+            this.localLock = localLock;
+        }
+
+        ClusterOperation onResponse(Object response) {
+            // remove if current LocalLock is not changed
+            getMap(request.name).mapLocalLocks.remove(request.key, localLock);
+            if (Boolean.TRUE.equals(response)) {
+                request.lockAddress = null;
+                request.lockCount = 0;
+                return CONCURRENT_MAP_BACKUP_LOCK;
+            }
+            return null;
+        }
+    }
+
+    abstract class MigrationAwareSubCall extends SubCall {
+
+        protected MigrationAwareSubCall(Address target) {
+            super(target);
+        }
+
         @Override
         public void process() {
             request.blockId = -1;
@@ -2038,13 +3095,25 @@ public class ConcurrentMapManager extends BaseManager {
 
     final void fireMapEvent(Map<Address, Boolean> mapListeners, int eventType,
                             Data oldValue, Record record, Address callerAddress) {
-        if (record.getListeners() == null && (mapListeners == null || mapListeners.size() == 0)) {
+        if (record.getListeners() == null && (mapListeners == null || mapListeners.size() == 0)
+                && !hasPredicateListeners(record.getName())) {
             return;
         }
         fireMapEvent(mapListeners, record.getName(), eventType, record.getKeyData(),
                 oldValue, record.getValueData(), record.getListeners(), callerAddress);
     }
 
+    private boolean hasPredicateListeners(String name) {
+        final CMap cmap = maps.get(name);
+        return cmap != null && !cmap.mapPredicateListeners.isEmpty();
+    }
+
+    @Override
+    Map<Address, Boolean> getMatchingPredicateListeners(String name, Data key, Data value, Data oldValue) {
+        final CMap cmap = maps.get(name);
+        return (cmap == null) ? null : cmap.getMatchingPredicateListeners(key, value, oldValue);
+    }
+
     public class MContainsValue extends MultiCall<Boolean> {
         boolean contains = false;
         final String name;
@@ -2203,8 +3272,7 @@ public class ConcurrentMapManager extends BaseManager {
     }
 
     public long newRecordId() {
-        checkServiceThread();
-        return newRecordId++;
+        return newRecordId.getAndIncrement();
     }
 
     void evict(final String name, final Data key) {
@@ -2228,25 +3296,109 @@ public class ConcurrentMapManager extends BaseManager {
     }
 
     public CMap getOrCreateMap(String name) {
-        checkServiceThread();
+        checkServiceOrPartitionThread();
         CMap map = maps.get(name);
         if (map == null) {
-            map = new CMap(this, name);
-            maps.put(name, map);
+            synchronized (maps) {
+                map = maps.get(name);
+                if (map == null) {
+                    map = new CMap(this, name);
+                    maps.put(name, map);
+                }
+            }
+        }
+        return map;
+    }
+
+    @Override
+    void registerListener(final boolean add, String name, final Data key, final Address address, final boolean includeValue) {
+        final CMap cmap = getOrCreateMap(name);
+        if (key != null && key.size() > 0 && cmap.isPartitionThreaded()) {
+            // key listeners are kept on the record,
+            // so they are registered by the thread owning the record
+            node.clusterService.enqueuePartitionAndReturn(getPartitionId(key), new Processable() {
+                public void process() {
+                    if (add) {
+                        cmap.addListener(key, address, includeValue);
+                    } else {
+                        cmap.removeListener(key, address);
+                    }
+                }
+            });
+        } else if (add) {
+            cmap.addListener(key, address, includeValue);
+        } else {
+            cmap.removeListener(key, address);
+        }
+    }
+
+    void registerPredicateListener(boolean add, String name, Address address, Data predicate) {
+        final CMap cmap = getOrCreateMap(name);
+        if (add) {
+            cmap.addPredicateListener(address, predicate);
+        } else {
+            cmap.removePredicateListener(address, predicate);
+        }
+    }
+
+    /**
+     * Checks if operations on records of the given map are executed by partition threads.
+     * Queue backing maps and internal maps (atomic numbers, semaphores, latches) are always
+     * handled by the ServiceThread since their records are also touched outside of map operations.
+     */
+    boolean isPartitionThreadedMap(String name) {
+        if (!node.clusterService.isPartitionThreadingEnabled()) {
+            return false;
+        }
+        if (name.startsWith(Prefix.MAP)) {
+            return !name.startsWith(Prefix.MAP_FOR_QUEUE) && !name.startsWith(Prefix.MAP_HAZELCAST);
+        }
+        return name.startsWith(Prefix.MAP_BASED);
+    }
+
+    public int getPartitionIdForThreading(ClusterOperation operation, String name, Data key) {
+        if (key == null || key.size() == 0 || name == null
+                || !node.clusterService.isPartitionAware(operation) || !isPartitionThreadedMap(name)) {
+            return -1;
+        }
+        return getPartitionId(key);
+    }
+
+    @Override
+    protected int getPartitionIdForThreading(Request req) {
+        return getPartitionIdForThreading(req.operation, req.name, req.key);
+    }
+
+    /**
+     * Enqueues the processable to the thread which handles the request;
+     * partition thread of the key if the request is partition threaded, ServiceThread otherwise.
+     */
+    void enqueuePartitionAware(Request request, Processable processable) {
+        final int partitionId = getPartitionIdForThreading(request);
+        if (partitionId == -1) {
+            enqueueAndReturn(processable);
+        } else {
+            node.clusterService.enqueuePartitionAndReturn(partitionId, processable);
         }
-        return map;
     }
 
-    @Override
-    void registerListener(boolean add, String name, Data key, Address address, boolean includeValue) {
-        CMap cmap = getOrCreateMap(name);
-        if (add) {
-            cmap.addListener(key, address, includeValue);
+    /**
+     * Enqueues the processable to the thread(s) owning the records of the map.
+     * If the map is partition threaded, processable runs on every partition thread
+     * and should only touch records passing {@link #isRecordOwnerThread(CMap, Record)}.
+     */
+    void enqueueRecordAware(CMap cmap, Processable processable) {
+        if (cmap.isPartitionThreaded()) {
+            node.clusterService.enqueueToPartitionThreads(processable);
         } else {
-            cmap.removeListener(key, address);
+            enqueueAndReturn(processable);
         }
     }
 
+    boolean isRecordOwnerThread(CMap cmap, Record record) {
+        return !cmap.isPartitionThreaded() || node.clusterService.isPartitionOwnerThread(record.getBlockId());
+    }
+
     class LockMapOperationHandler extends MigrationAwareOperationHandler {
         void doOperation(Request request) {
             CMap cmap = getOrCreateMap(request.name);
@@ -2271,12 +3423,152 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    /**
+     * Runs the requests of a {@link MMultiKey} as if they were sent one by one, each on
+     * the thread owning its partition, and responds once all of them are answered.
+     * Requests of the same key run one after the other, as some of them are answered
+     * asynchronously. Requests whose keys are migrating or owned by another member are
+     * answered with redo.
+     */
+    class MultiKeyOperationHandler implements PacketProcessor, RequestHandler {
+        public void process(Packet packet) {
+            final Request request = Request.copyFromPacket(packet);
+            releasePacket(packet);
+            if (getMember(request.caller) == null) {
+                request.clearForResponse();
+                returnRedoResponse(request);
+            } else {
+                handle(request);
+            }
+        }
+
+        public void handle(final Request request) {
+            final List<Request> requests = ((RequestBatch) toObject(request.value)).getRequests();
+            final MultiKeyResponses responses = new MultiKeyResponses(requests.size());
+            final AtomicInteger remaining = new AtomicInteger(requests.size());
+            final int[] nextOfKey = new int[requests.size()];
+            final Map<Data, Integer> lastOfKey = new HashMap<Data, Integer>();
+            final List<Request> firstOfKeys = new ArrayList<Request>();
+            for (int i = 0; i < requests.size(); i++) {
+                final Request keyRequest = requests.get(i);
+                final int index = i;
+                nextOfKey[i] = -1;
+                final Integer previous = lastOfKey.put(keyRequest.key, i);
+                if (previous == null) {
+                    firstOfKeys.add(keyRequest);
+                } else {
+                    nextOfKey[previous] = i;
+                }
+                keyRequest.caller = request.caller;
+                keyRequest.local = true;
+                keyRequest.attachment = new ResponseHandler() {
+                    public void handleResponse(Object response) {
+                        if (response == OBJECT_REDO) {
+                            responses.setRedo(index);
+                        } else {
+                            if (response != null && !(response instanceof Boolean)
+                                    && !(response instanceof Long) && !(response instanceof Data)) {
+                                response = toData(response);
+                            }
+                            responses.setResponse(index, response, keyRequest.version,
+                                    keyRequest.lockCount, keyRequest.longValue);
+                        }
+                        if (nextOfKey[index] != -1) {
+                            final Request next = requests.get(nextOfKey[index]);
+                            if (response == OBJECT_REDO) {
+                                // keeps the order of the key when the caller redoes them
+                                returnRedoResponse(next);
+                            } else {
+                                enqueuePartitionAware(next, new Processable() {
+                                    public void process() {
+                                        handleKeyRequest(next);
+                                    }
+                                });
+                            }
+                        }
+                        if (remaining.decrementAndGet() == 0) {
+                            request.clearForResponse();
+                            request.response = responses;
+                            returnResponse(request);
+                        }
+                    }
+                };
+            }
+            for (final Request keyRequest : firstOfKeys) {
+                final int partitionId = getPartitionIdForThreading(keyRequest);
+                if (partitionId == -1) {
+                    handleKeyRequest(keyRequest);
+                } else {
+                    node.clusterService.enqueuePartitionAndReturn(partitionId, new Processable() {
+                        public void process() {
+                            handleKeyRequest(keyRequest);
+                        }
+                    });
+                }
+            }
+        }
+
+        private void handleKeyRequest(Request request) {
+            if (isMigrating(request) || !thisAddress.equals(getKeyOwner(request))) {
+                returnRedoResponse(request);
+            } else {
+                ((RequestHandler) getPacketProcessor(request.operation)).handle(request);
+            }
+        }
+    }
+
+    /**
+     * Applies the backups of a batch in order, each one by the thread owning its
+     * partition, and acknowledges the batch when all of them are applied.
+     *
+     * @see MBackupBatch
+     */
+    class BackupBatchPacketProcessor implements PacketProcessor {
+        public void process(Packet packet) {
+            final RequestBatch batch = (RequestBatch) toObject(packet.getValueData());
+            final Request response = (packet.callId == -1) ? null : Request.copyFromPacket(packet);
+            final Address caller = packet.conn.getEndPoint();
+            releasePacket(packet);
+            final AtomicInteger remaining = new AtomicInteger(batch.size());
+            for (final Request request : batch.getRequests()) {
+                request.caller = caller;
+                final int partitionId = getPartitionIdForThreading(request);
+                if (partitionId == -1) {
+                    applyBackup(request, remaining, response);
+                } else {
+                    node.clusterService.enqueuePartitionAndReturn(partitionId, new Processable() {
+                        public void process() {
+                            applyBackup(request, remaining, response);
+                        }
+                    });
+                }
+            }
+        }
+
+        private void applyBackup(Request request, AtomicInteger remaining, Request response) {
+            try {
+                processBackupRequest(request);
+            } finally {
+                if (remaining.decrementAndGet() == 0 && response != null) {
+                    response.clearForResponse();
+                    response.response = Boolean.TRUE;
+                    returnResponse(response);
+                }
+            }
+        }
+    }
+
     /**
      * Should be called by only ServiceThread
      */
     private boolean processBackupRequest(Request request) {
         CMap cmap = getOrCreateMap(request.name);
-        return cmap.backup(request);
+        try {
+            return cmap.backup(request);
+        } catch (StorageFullException e) {
+            logger.log(Level.WARNING, "Backup of " + request.name + " failed! " + e.getMessage());
+            return false;
+        }
     }
 
     class AsyncMergePacketProcessor implements PacketProcessor {
@@ -2484,7 +3776,7 @@ public class ConcurrentMapManager extends BaseManager {
                     returnResponse(request);
                 } else {
                     request.response = multiValues.remove(new ValueHolder(request.value));
-                    enqueueAndReturn(RemoveMultiSetMapTask.this);
+                    enqueuePartitionAware(request, RemoveMultiSetMapTask.this);
                 }
             }
 
@@ -2546,7 +3838,7 @@ public class ConcurrentMapManager extends BaseManager {
                 if (multiValues != null) {
                     request.response = !multiValues.contains(new ValueHolder(request.value));
                 }
-                enqueueAndReturn(PutMultiSetMapTask.this);
+                enqueuePartitionAware(request, PutMultiSetMapTask.this);
             }
 
             public void process() {
@@ -2603,8 +3895,7 @@ public class ConcurrentMapManager extends BaseManager {
             }
 
             public void process() {
-                if (request.response == Boolean.TRUE) {
-                    cmap.put(request);
+                if (request.response == Boolean.TRUE && putOrSetError(cmap, request)) {
                     request.response = Boolean.TRUE;
                 }
                 request.value = null;
@@ -2679,7 +3970,9 @@ public class ConcurrentMapManager extends BaseManager {
             CMap cmap = getOrCreateMap(request.name);
             Record record = ensureRecord(request);
             boolean dirty = (record == null) ? false : record.isDirty();
-            cmap.put(request);
+            if (!putOrSetError(cmap, request)) {
+                return;
+            }
             if (record != null) {
                 record.setDirty(dirty);
                 if (!dirty) {
@@ -2691,6 +3984,24 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    /**
+     * Puts the request value; if the off-heap storage of the map has no room left
+     * for it, the map is left unchanged and the error is set as the response.
+     *
+     * @return true if the value is put
+     */
+    boolean putOrSetError(CMap cmap, Request request) {
+        try {
+            cmap.put(request);
+            return true;
+        } catch (StorageFullException e) {
+            logger.log(Level.FINEST, "Put to " + request.name + " failed!", e);
+            request.clearForResponse();
+            request.response = toData(new AddressAwareException(e, thisAddress));
+            return false;
+        }
+    }
+
     class PutOperationHandler extends SchedulableOperationHandler {
         @Override
         protected void onNoTimeToSchedule(Request request) {
@@ -2709,7 +4020,9 @@ public class ConcurrentMapManager extends BaseManager {
             if (css.shouldLog(CS_TRACE)) {
                 css.logObject(request, CS_TRACE, "Calling cmap.put");
             }
-            cmap.put(request);
+            if (!putOrSetError(cmap, request)) {
+                return;
+            }
             if (request.operation == CONCURRENT_MAP_TRY_PUT
                     || request.operation == CONCURRENT_MAP_PUT_AND_UNLOCK) {
                 request.response = Boolean.TRUE;
@@ -2838,6 +4151,168 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    static final long EXECUTE_ON_KEY_UPDATED = 1;
+    static final long EXECUTE_ON_KEY_REMOVED = 2;
+
+    /**
+     * Runs the entry processor on the owner. The response carries the result and
+     * the new value, request.longValue tells the caller which backup to send.
+     */
+    class ExecuteOnKeyOperationHandler extends SchedulableOperationHandler {
+
+        public void handle(Request request) {
+            CMap cmap = getOrCreateMap(request.name);
+            if (cmap.isNotLocked(request)) {
+                if (shouldSchedule(request)) {
+                    if (request.hasEnoughTimeToSchedule()) {
+                        schedule(request);
+                    } else {
+                        onNoTimeToSchedule(request);
+                    }
+                    return;
+                }
+                Record record = cmap.getRecord(request);
+                if ((record == null || record.isLoadable()) && cmap.loader != null) {
+                    storeExecutor.execute(new ProcessorLoader(cmap, request), request.key.hashCode());
+                } else {
+                    doOperation(request);
+                }
+            } else {
+                returnRedoResponse(request);
+            }
+        }
+
+        @Override
+        protected void schedule(Request request) {
+            // request.value is the processor, it shouldn't become the value of the record created for scheduling
+            Data processor = request.value;
+            request.value = null;
+            super.schedule(request);
+            request.value = processor;
+        }
+
+        /**
+         * Returns the response itself as the MapStore may need to be called first.
+         */
+        void doOperation(Request request) {
+            CMap cmap = getOrCreateMap(request.name);
+            ProcessedEntry entry;
+            Data result;
+            try {
+                EntryProcessor processor = (EntryProcessor) toObject(request.value);
+                Record record = cmap.getRecord(request);
+                Data valueData = null;
+                if (record != null && record.isActive() && record.isValid() && record.hasValueData()) {
+                    valueData = record.getValueData();
+                }
+                entry = new ProcessedEntry(request.key, valueData);
+                result = toData(processor.process(entry));
+            } catch (Exception e) {
+                logger.log(Level.FINEST, "Entry processor failed for " + request.name, e);
+                request.response = toData(new AddressAwareException(e, thisAddress));
+                request.value = null;
+                request.longValue = 0;
+                returnResponse(request);
+                return;
+            }
+            if (entry.isModified() && cmap.store != null && cmap.writeDelayMillis == 0) {
+                storeExecutor.execute(new ProcessorStorer(cmap, request, entry, result), request.key.hashCode());
+            } else {
+                applyEntry(cmap, request, entry, result);
+                returnResponse(request);
+            }
+        }
+
+        void applyEntry(CMap cmap, Request request, ProcessedEntry entry, Data result) {
+            Data newValue = entry.getValueData();
+            long response = 0;
+            if (entry.isModified()) {
+                if (newValue != null) {
+                    request.operation = CONCURRENT_MAP_PUT;
+                    request.value = newValue;
+                    cmap.put(request);
+                    response = EXECUTE_ON_KEY_UPDATED;
+                } else {
+                    request.operation = CONCURRENT_MAP_REMOVE;
+                    request.value = null;
+                    cmap.remove(request);
+                    if (request.response != null) {
+                        response = EXECUTE_ON_KEY_REMOVED;
+                    }
+                }
+                request.operation = CONCURRENT_MAP_EXECUTE_ON_KEY;
+            } else {
+                request.clearForResponse();
+            }
+            request.value = null;
+            request.longValue = response;
+            request.response = new MultiData(result == null ? new Data() : result,
+                    response == EXECUTE_ON_KEY_UPDATED ? newValue : new Data());
+        }
+
+        class ProcessorLoader extends AbstractMapStoreOperation {
+            Data valueData = null;
+
+            ProcessorLoader(CMap cmap, Request request) {
+                super(cmap, request);
+            }
+
+            @Override
+            void doMapStoreOperation() {
+                Object key = toObject(request.key);
+                Object value = cmap.loader.load(key);
+                valueData = toData(value);
+            }
+
+            public void process() {
+                if (!success) {
+                    returnResponse(request);
+                    return;
+                }
+                if (valueData != null) {
+                    Record record = cmap.getRecord(request);
+                    if (record == null) {
+                        record = cmap.createAndAddNewRecord(request.key, valueData);
+                    } else {
+                        record.setValueData(valueData);
+                    }
+                    record.setActive();
+                }
+                doOperation(request);
+            }
+        }
+
+        class ProcessorStorer extends AbstractMapStoreOperation {
+            final ProcessedEntry entry;
+            final Data result;
+
+            ProcessorStorer(CMap cmap, Request request, ProcessedEntry entry, Data result) {
+                super(cmap, request);
+                this.entry = entry;
+                this.result = result;
+            }
+
+            @Override
+            void doMapStoreOperation() {
+                Object key = toObject(request.key);
+                Object value = entry.getValue();
+                if (value != null) {
+                    cmap.store.store(key, value);
+                } else {
+                    cmap.store.delete(key);
+                }
+                afterMapStore();
+            }
+
+            public void process() {
+                if (success) {
+                    applyEntry(cmap, request, entry, result);
+                }
+                returnResponse(request);
+            }
+        }
+    }
+
     abstract class AtomicNumberOperationHandler extends MTargetAwareOperationHandler {
         abstract long getNewValue(long oldValue, long value);
 
@@ -3546,7 +5021,7 @@ public class ConcurrentMapManager extends BaseManager {
                 logger.log(Level.WARNING, "Store thrown exception for " + request.operation, e);
                 request.response = toData(new AddressAwareException(e, thisAddress));
             } finally {
-                enqueueAndReturn(AbstractMapStoreOperation.this);
+                enqueuePartitionAware(request, AbstractMapStoreOperation.this);
             }
         }
 
@@ -3683,7 +5158,7 @@ public class ConcurrentMapManager extends BaseManager {
                 if (!values.contains(new ValueHolder(request.value))) {
                     request.value = null;
                 }
-                enqueueAndReturn(MultiMapContainsTask.this);
+                enqueuePartitionAware(request, MultiMapContainsTask.this);
             }
 
             public void process() {
@@ -3926,29 +5401,174 @@ public class ConcurrentMapManager extends BaseManager {
         }
     }
 
+    /**
+     * Runs the query on the records of this member. If the predicate has to be evaluated on
+     * many records, the partitions are split between the query threads and evaluated in
+     * parallel. If the predicate is a {@link PagingPredicate}, only the entries of the
+     * requested page are returned, in page order.
+     */
     public Pairs queryMap(CMap cmap, ClusterOperation operation, Predicate predicate) throws QueryException {
         try {
+            PagingPredicate pagingPredicate = null;
+            if (predicate instanceof PagingPredicate) {
+                pagingPredicate = (PagingPredicate) predicate;
+                predicate = pagingPredicate.getPredicate();
+            }
             final QueryContext queryContext = new QueryContext(cmap.getName(), predicate, cmap.getMapIndexService());
             Set<MapEntry> results = cmap.getMapIndexService().doQuery(queryContext);
             boolean evaluateValues = (predicate != null && !queryContext.isStrong());
-            return createResultPairs(operation, results, evaluateValues, predicate);
+            int chunkCount = node.groupProperties.EXECUTOR_QUERY_THREAD_COUNT.getInteger();
+            if (results == null || chunkCount < 2 || (!evaluateValues && pagingPredicate == null)
+                    || results.size() < node.groupProperties.QUERY_PARALLEL_MIN_RECORDS.getInteger()) {
+                return createResultPairs(operation, results, 0, 1, evaluateValues, predicate, pagingPredicate);
+            }
+            return queryInParallel(operation, results, chunkCount, evaluateValues, predicate, pagingPredicate);
+        } catch (Throwable e) {
+            throw new QueryException(e);
+        }
+    }
+
+    private Pairs queryInParallel(final ClusterOperation operation, final Collection<MapEntry> colRecords, final int chunkCount,
+                                  final boolean evaluateEntries, final Predicate predicate,
+                                  final PagingPredicate pagingPredicate) throws Exception {
+        final List<FutureTask<Pairs>> tasks = new ArrayList<FutureTask<Pairs>>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            final int chunk = i;
+            tasks.add(new FutureTask<Pairs>(new Callable<Pairs>() {
+                public Pairs call() throws Exception {
+                    return createResultPairs(operation, colRecords, chunk, chunkCount, evaluateEntries, predicate, pagingPredicate);
+                }
+            }));
+        }
+        final Pairs pairs = new Pairs();
+        for (Pairs chunkPairs : executeQueryTasks(tasks)) {
+            final List<KeyValue> keyValues = chunkPairs.getKeyValues();
+            if (keyValues != null) {
+                for (KeyValue keyValue : keyValues) {
+                    pairs.addKeyValue(keyValue);
+                }
+            }
+        }
+        if (pagingPredicate != null && pairs.getKeyValues() != null) {
+            final List<KeyValue> keyValues = pairs.getKeyValues();
+            Collections.sort(keyValues, pagingPredicate.getEntryComparator());
+            final int fetchSize = pagingPredicate.getFetchSize();
+            if (keyValues.size() > fetchSize) {
+                keyValues.subList(fetchSize, keyValues.size()).clear();
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Runs the tasks on the query threads and returns their results in order. Tasks not
+     * picked up by the query threads yet are run by the calling thread, run() does
+     * nothing if the task is already running or done.
+     */
+    private <T> List<T> executeQueryTasks(List<FutureTask<T>> tasks) throws Exception {
+        for (int i = 1; i < tasks.size(); i++) {
+            node.executorManager.executeQueryTask(tasks.get(i));
+        }
+        for (FutureTask<T> task : tasks) {
+            task.run();
+        }
+        final List<T> results = new ArrayList<T>(tasks.size());
+        for (FutureTask<T> task : tasks) {
+            results.add(task.get());
+        }
+        return results;
+    }
+
+    /**
+     * Aggregates the records of this member matching the predicate. Like queries, the
+     * partitions are split between the query threads if there are many records to
+     * evaluate and the partial results of the threads are combined.
+     */
+    public Aggregator aggregateMap(CMap cmap, final Data aggregatorData, final Predicate predicate) throws QueryException {
+        try {
+            final QueryContext queryContext = new QueryContext(cmap.getName(), predicate, cmap.getMapIndexService());
+            final Set<MapEntry> results = cmap.getMapIndexService().doQuery(queryContext);
+            final boolean evaluateValues = (predicate != null && !queryContext.isStrong());
+            int chunkCount = node.groupProperties.EXECUTOR_QUERY_THREAD_COUNT.getInteger();
+            if (results == null || chunkCount < 2
+                    || results.size() < node.groupProperties.QUERY_PARALLEL_MIN_RECORDS.getInteger()) {
+                return aggregateRecords((Aggregator) toObject(aggregatorData), results, 0, 1, evaluateValues, predicate);
+            }
+            final List<FutureTask<Aggregator>> tasks = new ArrayList<FutureTask<Aggregator>>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                final int chunk = i;
+                final int count = chunkCount;
+                tasks.add(new FutureTask<Aggregator>(new Callable<Aggregator>() {
+                    public Aggregator call() throws Exception {
+                        return aggregateRecords((Aggregator) toObject(aggregatorData), results, chunk, count, evaluateValues, predicate);
+                    }
+                }));
+            }
+            Aggregator aggregator = null;
+            for (Aggregator partial : executeQueryTasks(tasks)) {
+                if (aggregator == null) {
+                    aggregator = partial;
+                } else {
+                    aggregator.combine(partial);
+                }
+            }
+            return aggregator;
         } catch (Throwable e) {
             throw new QueryException(e);
         }
     }
 
-    private Pairs createResultPairs(ClusterOperation operation, Collection<MapEntry> colRecords, boolean evaluateEntries, Predicate predicate) {
+    private Aggregator aggregateRecords(Aggregator aggregator, Collection<MapEntry> colRecords, int chunk, int chunkCount,
+                                        boolean evaluateEntries, Predicate predicate) {
+        if (colRecords != null) {
+            long now = currentTimeMillis();
+            for (MapEntry mapEntry : colRecords) {
+                Record record = (Record) mapEntry;
+                if (chunkCount > 1 && record.getBlockId() % chunkCount != chunk) {
+                    continue;
+                }
+                if (record.isActive() && record.isValid(now) && record.hasValueData()
+                        && (!evaluateEntries || predicate.apply(record))) {
+                    aggregator.accumulate(record);
+                }
+            }
+        }
+        return aggregator;
+    }
+
+    /**
+     * Creates the result of the records whose partition id modulo chunkCount is chunk.
+     */
+    private Pairs createResultPairs(ClusterOperation operation, Collection<MapEntry> colRecords, int chunk, int chunkCount,
+                                    boolean evaluateEntries, Predicate predicate, PagingPredicate pagingPredicate) {
         Pairs pairs = new Pairs();
         if (colRecords != null) {
+            PriorityQueue<Record> page = null;
+            int fetchSize = 0;
+            if (pagingPredicate != null) {
+                fetchSize = pagingPredicate.getFetchSize();
+                page = new PriorityQueue<Record>(Math.min(fetchSize, 1024) + 1,
+                        Collections.reverseOrder(pagingPredicate.getEntryComparator()));
+            }
             long now = currentTimeMillis();
             for (MapEntry mapEntry : colRecords) {
                 Record record = (Record) mapEntry;
+                if (chunkCount > 1 && record.getBlockId() % chunkCount != chunk) {
+                    continue;
+                }
                 if (record.isActive() && record.isValid(now)) {
                     if (record.getKeyData() == null || record.getKeyData().size() == 0) {
                         throw new RuntimeException("Key cannot be null or zero-size: " + record.getKeyData());
                     }
                     boolean match = (!evaluateEntries) || predicate.apply(record);
-                    if (match) {
+                    if (match && page != null) {
+                        if (record.hasValueData() && pagingPredicate.isAfterAnchor(record)) {
+                            page.offer(record);
+                            if (page.size() > fetchSize) {
+                                page.poll();
+                            }
+                        }
+                    } else if (match) {
                         boolean onlyKeys = (operation == CONCURRENT_MAP_ITERATE_KEYS_ALL ||
                                 operation == CONCURRENT_MAP_ITERATE_KEYS);
                         Data key = record.getKeyData();
@@ -3971,6 +5591,16 @@ public class ConcurrentMapManager extends BaseManager {
                     }
                 }
             }
+            if (page != null) {
+                final Record[] records = page.toArray(new Record[page.size()]);
+                Arrays.sort(records, pagingPredicate.getEntryComparator());
+                for (Record record : records) {
+                    final Data value = record.getValueData();
+                    if (value != null) {
+                        pairs.addKeyValue(new KeyValue(record.getKeyData(), value));
+                    }
+                }
+            }
         }
         return pairs;
     }
@@ -3987,7 +5617,7 @@ public class ConcurrentMapManager extends BaseManager {
     }
 
     Record ensureRecord(Request req, Data defaultValue) {
-        checkServiceThread();
+        checkServiceOrPartitionThread();
         CMap cmap = getOrCreateMap(req.name);
         Record record = cmap.getRecord(req);
         if (record == null || !record.isActive() || !record.isValid()) {
@@ -31,14 +31,23 @@ public class DataAwareEntryEvent extends EntryEvent {
 
     protected final boolean firedLocally;
 
+    protected final long creationTime;
+
     public DataAwareEntryEvent(Member from, int eventType,
                                String name, Data dataKey,
                                Data dataNewValue, Data dataOldValue, boolean firedLocally) {
+        this(from, eventType, name, dataKey, dataNewValue, dataOldValue, firedLocally, 0);
+    }
+
+    public DataAwareEntryEvent(Member from, int eventType,
+                               String name, Data dataKey,
+                               Data dataNewValue, Data dataOldValue, boolean firedLocally, long creationTime) {
         super(name, from, eventType, null, null);
         this.dataKey = dataKey;
         this.dataNewValue = dataNewValue;
         this.dataOldValue = dataOldValue;
         this.firedLocally = firedLocally;
+        this.creationTime = creationTime;
     }
 
     public Data getKeyData() {
@@ -74,6 +83,13 @@ public class DataAwareEntryEvent extends EntryEvent {
         return value;
     }
 
+    /**
+     * @return cluster time the event was fired at by the owner of the entry, 0 if it is not known
+     */
+    public long getCreationTime() {
+        return creationTime;
+    }
+
     public String getLongName() {
         return name;
     }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.nio.Data;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Key and value of an entry event, deserialized when they are first asked for.
+ * Used to evaluate the predicates of the entry listeners.
+ */
+class DataMapEntry implements MapEntry {
+    private final Data keyData;
+    private final Data valueData;
+    private Object key;
+    private Object value;
+
+    DataMapEntry(Data keyData, Data valueData) {
+        this.keyData = keyData;
+        this.valueData = valueData;
+    }
+
+    DataMapEntry(DataAwareEntryEvent event) {
+        this(event.getKeyData(), event.getNewValueData());
+        this.key = event.getKey();
+        this.value = event.getValue();
+    }
+
+    public Object getKey() {
+        if (key == null && keyData != null) {
+            key = toObject(keyData);
+        }
+        return key;
+    }
+
+    public Object getValue() {
+        if (value == null && valueData != null) {
+            value = toObject(valueData);
+        }
+        return value;
+    }
+
+    public Object setValue(Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public long getCost() {
+        return 0;
+    }
+
+    public long getCreationTime() {
+        return 0;
+    }
+
+    public long getExpirationTime() {
+        return 0;
+    }
+
+    public int getHits() {
+        return 0;
+    }
+
+    public long getLastAccessTime() {
+        return 0;
+    }
+
+    public long getLastStoredTime() {
+        return 0;
+    }
+
+    public long getLastUpdateTime() {
+        return 0;
+    }
+
+    public long getVersion() {
+        return 0;
+    }
+
+    public boolean isValid() {
+        return true;
+    }
+}
@@ -60,7 +60,8 @@ public final class DefaultRecord extends AbstractRecord {
                 return valueObject;
             }
             Object v = toObject(value);
-            if (cmap.cacheValue) {
+            // records of query caches have no cmap, they always keep the value object
+            if (cmap == null || cmap.cacheValue) {
                 valueObject = v;
             }
             return v;
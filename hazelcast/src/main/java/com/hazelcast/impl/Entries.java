@@ -23,6 +23,7 @@ import com.hazelcast.core.Prefix;
 import com.hazelcast.impl.base.KeyValue;
 import com.hazelcast.impl.base.Pairs;
 import com.hazelcast.nio.Data;
+import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 
 import java.util.*;
@@ -42,7 +43,9 @@ public class Entries extends AbstractSet {
         this.name = name;
         this.operation = operation;
         this.predicate = predicate;
-        if (name.startsWith(Prefix.MULTIMAP)) {
+        if (predicate instanceof PagingPredicate) {
+            colKeyValues = new ArrayList<Map.Entry>();
+        } else if (name.startsWith(Prefix.MULTIMAP)) {
             colKeyValues = new LinkedList<Map.Entry>();
         } else {
             colKeyValues = new HashSet<Map.Entry>();
@@ -51,7 +54,7 @@ public class Entries extends AbstractSet {
         this.checkValue = (Instance.InstanceType.MAP == BaseManager.getInstanceType(name)) &&
                 (operation == CONCURRENT_MAP_ITERATE_VALUES
                         || operation == CONCURRENT_MAP_ITERATE_ENTRIES);
-        if (txn != null) {
+        if (txn != null && !(predicate instanceof PagingPredicate)) {
             List<Map.Entry> entriesUnderTxn = txn.newEntries(name);
             if (entriesUnderTxn != null) {
                 if (predicate != null) {
@@ -82,7 +85,8 @@ public class Entries extends AbstractSet {
     public void addEntries(Pairs pairs) {
         if (pairs == null) return;
         if (pairs.getKeyValues() == null) return;
-        TransactionImpl txn = ThreadContext.get().getCallContext().getTransaction();
+        TransactionImpl txn = (predicate instanceof PagingPredicate) ? null
+                : ThreadContext.get().getCallContext().getTransaction();
         for (KeyValue entry : pairs.getKeyValues()) {
             if (txn != null) {
                 Object key = entry.getKey();
@@ -102,6 +106,32 @@ public class Entries extends AbstractSet {
         }
     }
 
+    /**
+     * Sorts the entries returned by the members, keeps the entries of the requested page
+     * and sets the anchors of the pages read.
+     */
+    void applyPaging() {
+        final PagingPredicate pagingPredicate = (PagingPredicate) predicate;
+        final List<Map.Entry> entries = (List<Map.Entry>) colKeyValues;
+        Collections.sort(entries, pagingPredicate.getEntryComparator());
+        final int pageSize = pagingPredicate.getPageSize();
+        final int page = pagingPredicate.getPage();
+        int readPage = pagingPredicate.getAnchorPage() + 1;
+        // pages between the anchor and the requested page are read to find their anchors
+        while (readPage < page && entries.size() >= pageSize) {
+            pagingPredicate.setAnchor(readPage++, entries.get(pageSize - 1));
+            entries.subList(0, pageSize).clear();
+        }
+        if (readPage < page) {
+            entries.clear();
+        } else if (entries.size() > pageSize) {
+            entries.subList(pageSize, entries.size()).clear();
+        }
+        if (!entries.isEmpty()) {
+            pagingPredicate.setAnchor(page, entries.get(entries.size() - 1));
+        }
+    }
+
     public Collection<Map.Entry> getKeyValues() {
         return colKeyValues;
     }
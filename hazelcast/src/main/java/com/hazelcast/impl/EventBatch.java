@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Events sent to a member in one EVENT_BATCH packet. The new and old values of an
+ * entry event are written as they are, they are not wrapped into Keys.
+ */
+public class EventBatch implements DataSerializable {
+
+    private List<Event> events;
+
+    public EventBatch() {
+    }
+
+    public EventBatch(List<Event> events) {
+        this.events = events;
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeInt(events.size());
+        for (Event event : events) {
+            out.writeInt(event.eventType);
+            out.writeUTF(event.name);
+            out.writeLong(event.creationTime);
+            writeNullableData(out, event.key);
+            writeNullableData(out, event.newValue);
+            writeNullableData(out, event.oldValue);
+            out.writeBoolean(event.from != null);
+            if (event.from != null) {
+                event.from.writeData(out);
+            }
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        int size = in.readInt();
+        events = new ArrayList<Event>(size);
+        for (int i = 0; i < size; i++) {
+            int eventType = in.readInt();
+            String name = in.readUTF();
+            long creationTime = in.readLong();
+            Data key = readNullableData(in);
+            Data newValue = readNullableData(in);
+            Data oldValue = readNullableData(in);
+            Address from = null;
+            if (in.readBoolean()) {
+                from = new Address();
+                from.readData(in);
+            }
+            events.add(new Event(eventType, name, key, newValue, oldValue, from, creationTime));
+        }
+    }
+
+    private static void writeNullableData(DataOutput out, Data data) throws IOException {
+        out.writeBoolean(data != null);
+        if (data != null) {
+            data.writeData(out);
+        }
+    }
+
+    private static Data readNullableData(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Data data = new Data();
+        data.readData(in);
+        return data;
+    }
+
+    public static class Event {
+        final int eventType;
+        final String name;
+        final Data key;
+        final Data newValue;
+        final Data oldValue;
+        final Address from;
+        final long creationTime;
+
+        public Event(int eventType, String name, Data key, Data newValue, Data oldValue, Address from,
+                     long creationTime) {
+            this.eventType = eventType;
+            this.name = name;
+            this.key = key;
+            this.newValue = newValue;
+            this.oldValue = oldValue;
+            this.from = from;
+            this.creationTime = creationTime;
+        }
+    }
+}
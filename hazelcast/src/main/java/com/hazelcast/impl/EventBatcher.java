@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.Packet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static com.hazelcast.nio.IOUtil.toData;
+
+/**
+ * Collects the events sent to each member into EVENT_BATCH packets. A batch is sent when it
+ * has hazelcast.event.batch.size events or hazelcast.event.batch.linger.millis after its first
+ * event, whichever comes first. With no linger, the batch is sent as soon as the scheduler
+ * thread picks it up and the events published meanwhile are sent with it. Events are sent to
+ * a member in the order they are published.
+ */
+class EventBatcher {
+
+    private final ListenerManager listenerManager;
+
+    private final ILogger logger;
+
+    private final int maxBatchSize;
+
+    private final long lingerMillis;
+
+    private final ConcurrentMap<Address, Batch> batches = new ConcurrentHashMap<Address, Batch>();
+
+    EventBatcher(ListenerManager listenerManager, int maxBatchSize, long lingerMillis) {
+        this.listenerManager = listenerManager;
+        this.logger = listenerManager.node.getLogger(EventBatcher.class.getName());
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerMillis = lingerMillis;
+    }
+
+    void publish(Address target, int eventType, String name, Data key, Data newValue, Data oldValue, Address from,
+                 long creationTime) {
+        Batch batch = batches.get(target);
+        if (batch == null) {
+            batch = new Batch(target);
+            Batch existing = batches.putIfAbsent(target, batch);
+            if (existing != null) {
+                batch = existing;
+            }
+        }
+        batch.add(new EventBatch.Event(eventType, name, key, newValue, oldValue, from, creationTime));
+    }
+
+    /**
+     * Sends the events waiting in the batches without waiting for the linger time.
+     */
+    void flush() {
+        for (Batch batch : batches.values()) {
+            batch.run();
+        }
+    }
+
+    /**
+     * Drops the events waiting to be sent to a member that left the cluster.
+     */
+    void remove(Address target) {
+        Batch batch = batches.remove(target);
+        if (batch != null) {
+            batch.clear();
+        }
+    }
+
+    private class Batch implements Runnable {
+        final Address target;
+        List<EventBatch.Event> events = new ArrayList<EventBatch.Event>();
+        boolean scheduled = false;
+
+        Batch(Address target) {
+            this.target = target;
+        }
+
+        synchronized void add(EventBatch.Event event) {
+            events.add(event);
+            if (events.size() >= maxBatchSize) {
+                flush();
+            } else if (!scheduled) {
+                scheduled = true;
+                try {
+                    listenerManager.node.executorManager.getScheduledExecutorService()
+                            .schedule(this, lingerMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    scheduled = false;
+                    flush();
+                }
+            }
+        }
+
+        public synchronized void run() {
+            scheduled = false;
+            flush();
+        }
+
+        synchronized void clear() {
+            events.clear();
+        }
+
+        private void flush() {
+            if (events.isEmpty()) {
+                return;
+            }
+            final EventBatch eventBatch = new EventBatch(events);
+            events = new ArrayList<EventBatch.Event>();
+            try {
+                final Packet packet = listenerManager.obtainPacket();
+                packet.set(null, ClusterOperation.EVENT_BATCH, null, toData(eventBatch));
+                listenerManager.sendOrReleasePacket(packet, target);
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Could not send " + eventBatch.getEvents().size()
+                        + " events to " + target, e);
+            }
+        }
+    }
+}
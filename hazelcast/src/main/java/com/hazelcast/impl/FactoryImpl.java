@@ -25,15 +25,16 @@ import com.hazelcast.core.*;
 import com.hazelcast.impl.CMap.InitializationState;
 import com.hazelcast.impl.base.HazelcastManagedContext;
 import com.hazelcast.core.ManagedContext;
-import com.hazelcast.impl.executor.ParallelExecutor;
 import com.hazelcast.jmx.ManagementService;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.LoggingService;
 import com.hazelcast.nio.DataSerializable;
 import com.hazelcast.nio.SerializationHelper;
+import com.hazelcast.partition.Partition;
 import com.hazelcast.partition.PartitionService;
 import com.hazelcast.util.ResponseQueueFactory;
 
+import java.io.Closeable;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
@@ -586,26 +587,13 @@ public class FactoryImpl implements HazelcastInstance {
                                 final MultiTask task = new MultiTask(new InitializeMap(mProxy.getName()), members);
                                 es.execute(task);
                                 if (cmap.loader != null) {
-                                    Set keys = cmap.loader.loadAllKeys();
-                                    if (keys != null) {
-                                        int count = 0;
-                                        Queue<Set> chunks = new LinkedList<Set>();
-                                        Set ownedKeys = new HashSet();
-                                        PartitionService partitionService = getPartitionService();
-                                        for (Object key : keys) {
-                                            Member owner = partitionService.getPartition(key).getOwner();
-                                            if (owner == null || owner.localMember()) {
-                                                ownedKeys.add(key);
-                                                count++;
-                                                if (ownedKeys.size() >= node.groupProperties.MAP_LOAD_CHUNK_SIZE.getInteger()) {
-                                                    chunks.add(ownedKeys);
-                                                    ownedKeys = new HashSet();
-                                                }
-                                            }
-                                        }
-                                        chunks.add(ownedKeys);
-                                        loadChunks(mProxy, cmap, chunks);
-                                        logger.log(Level.INFO, node.address + "[" + mProxy.getName() + "] loaded " + count + " in total.");
+                                    cmap.loadProgress.start();
+                                    try {
+                                        int count = loadAllKeys(mProxy, cmap);
+                                        logger.log(Level.INFO, node.address + "[" + mProxy.getName() + "] loaded " + count
+                                                + " in total in " + cmap.loadProgress.getDuration() + " ms.");
+                                    } finally {
+                                        cmap.loadProgress.complete();
                                     }
                                 }
                                 task.get();
@@ -622,35 +610,87 @@ public class FactoryImpl implements HazelcastInstance {
         }
     }
 
-    private void loadChunks(final MProxy mProxy, final CMap cmap, final Queue<Set> chunks) throws InterruptedException {
-        if (chunks.size() > 0) {
-            ParallelExecutor es = node.executorManager.getMapLoaderExecutorService();
-            final CountDownLatch latch = new CountDownLatch(chunks.size());
-            for (final Set chunk : chunks) {
-                es.execute(new Runnable() {
-                    public void run() {
-                        if (chunk == null) return;
-                        try {
-                            loadKeys(mProxy, cmap, chunk);
-                        } catch (Exception e) {
-                            logger.log(Level.SEVERE, "Initial loading failed.", e);
-                        } finally {
-                            latch.countDown();
-                        }
+    /**
+     * Iterates over the keys of the loader for the partitions owned by this member and loads
+     * the ones of these partitions, in chunks of MAP_LOAD_CHUNK_SIZE keys. At most MAP_LOAD_PARALLELISM chunks are
+     * loaded at the same time, so the keys are not iterated faster than they are loaded.
+     *
+     * @return number of keys to load
+     */
+    private int loadAllKeys(final MProxy mProxy, final CMap cmap) throws InterruptedException {
+        final PartitionService partitionService = getPartitionService();
+        final Set<Integer> ownedPartitionIds = new HashSet<Integer>();
+        for (Partition partition : partitionService.getPartitions()) {
+            final Member owner = partition.getOwner();
+            if (owner == null || owner.localMember()) {
+                ownedPartitionIds.add(partition.getPartitionId());
+            }
+        }
+        final Iterator keys = cmap.iterateLoaderKeys(ownedPartitionIds);
+        if (keys == null) {
+            return 0;
+        }
+        final int chunkSize = node.groupProperties.MAP_LOAD_CHUNK_SIZE.getInteger();
+        final int parallelism = node.groupProperties.MAP_LOAD_PARALLELISM.getInteger();
+        final Semaphore chunkPermits = new Semaphore(parallelism);
+        int count = 0;
+        try {
+            Map<Object, Integer> chunk = new HashMap<Object, Integer>();
+            while (keys.hasNext()) {
+                final Object key = keys.next();
+                final Partition partition = partitionService.getPartition(key);
+                final Member owner = partition.getOwner();
+                if (owner == null || owner.localMember()) {
+                    chunk.put(key, partition.getPartitionId());
+                    count++;
+                    if (chunk.size() >= chunkSize) {
+                        loadChunk(mProxy, cmap, chunk, chunkPermits);
+                        chunk = new HashMap<Object, Integer>();
                     }
-                });
+                }
             }
-            latch.await();
+            if (chunk.size() > 0) {
+                loadChunk(mProxy, cmap, chunk, chunkPermits);
+            }
+        } finally {
+            if (keys instanceof Closeable) {
+                try {
+                    ((Closeable) keys).close();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Could not close the key iterator of " + mProxy.getName(), e);
+                }
+            }
+            // wait for the chunks being loaded
+            chunkPermits.acquire(parallelism);
         }
+        return count;
     }
 
-    private void loadKeys(MProxy mProxy, CMap cmap, Set keys) {
-        if (keys.size() > 0) {
-            Map map = cmap.loader.loadAll(keys);
-            if (map != null && map.size() > 0) {
-                Set<Map.Entry> entries = map.entrySet();
-                for (Map.Entry entry : entries) {
-                    mProxy.putTransient(entry.getKey(), entry.getValue(), 0, null);
+    private void loadChunk(final MProxy mProxy, final CMap cmap, final Map<Object, Integer> chunk,
+                           final Semaphore chunkPermits) throws InterruptedException {
+        chunkPermits.acquire();
+        node.executorManager.getMapLoaderExecutorService().execute(new Runnable() {
+            public void run() {
+                try {
+                    loadKeys(mProxy, cmap, chunk);
+                } catch (Exception e) {
+                    logger.log(Level.SEVERE, "Initial loading failed.", e);
+                } finally {
+                    chunkPermits.release();
+                }
+            }
+        });
+    }
+
+    private void loadKeys(MProxy mProxy, CMap cmap, Map<Object, Integer> keyPartitions) {
+        Map map = cmap.loader.loadAll(keyPartitions.keySet());
+        if (map != null && map.size() > 0) {
+            Set<Map.Entry> entries = map.entrySet();
+            for (Map.Entry entry : entries) {
+                mProxy.putTransient(entry.getKey(), entry.getValue(), 0, null);
+                final Integer partitionId = keyPartitions.get(entry.getKey());
+                if (partitionId != null) {
+                    cmap.loadProgress.onLoaded(partitionId, 1);
                 }
             }
         }
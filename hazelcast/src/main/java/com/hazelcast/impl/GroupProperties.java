@@ -29,6 +29,7 @@ public class GroupProperties {
     public static final String PROP_REST_ENABLED = "hazelcast.rest.enabled";
     public static final String PROP_MAP_LOAD_CHUNK_SIZE = "hazelcast.map.load.chunk.size";
     public static final String PROP_MAP_LOAD_THREAD_COUNT = "hazelcast.map.load.thread.count";
+    public static final String PROP_MAP_LOAD_PARALLELISM = "hazelcast.map.load.parallelism";
     public static final String PROP_IN_THREAD_PRIORITY = "hazelcast.in.thread.priority";
     public static final String PROP_OUT_THREAD_PRIORITY = "hazelcast.out.thread.priority";
     public static final String PROP_SERVICE_THREAD_PRIORITY = "hazelcast.service.thread.priority";
@@ -41,9 +42,11 @@ public class GroupProperties {
     public static final String PROP_SOCKET_LINGER_SECONDS = "hazelcast.socket.linger.seconds";
     public static final String PROP_SOCKET_KEEP_ALIVE = "hazelcast.socket.keep.alive";
     public static final String PROP_SOCKET_NO_DELAY = "hazelcast.socket.no.delay";
+    public static final String PROP_SOCKET_DIRECT_BUFFER = "hazelcast.socket.direct.buffer";
     public static final String PROP_SERIALIZER_GZIP_ENABLED = "hazelcast.serializer.gzip.enabled";
     public static final String PROP_SERIALIZER_SHARED = "hazelcast.serializer.shared";
     public static final String PROP_PACKET_VERSION = "hazelcast.packet.version";
+    public static final String PROP_DATA_HASH = "hazelcast.data.hash";
     public static final String PROP_SHUTDOWNHOOK_ENABLED = "hazelcast.shutdownhook.enabled";
     public static final String PROP_WAIT_SECONDS_BEFORE_JOIN = "hazelcast.wait.seconds.before.join";
     public static final String PROP_MAX_WAIT_SECONDS_BEFORE_JOIN = "hazelcast.max.wait.seconds.before.join";
@@ -55,10 +58,17 @@ public class GroupProperties {
     public static final String PROP_INITIAL_WAIT_SECONDS = "hazelcast.initial.wait.seconds";
     public static final String PROP_RESTART_ON_MAX_IDLE = "hazelcast.restart.on.max.idle";
     public static final String PROP_CONCURRENT_MAP_PARTITION_COUNT = "hazelcast.map.partition.count";
+    public static final String PROP_PARTITION_THREAD_COUNT = "hazelcast.partition.thread.count";
+    public static final String PROP_BACKUP_BATCH_SIZE = "hazelcast.map.backup.batch.size";
+    public static final String PROP_BACKUP_BATCH_BYTES = "hazelcast.map.backup.batch.bytes";
+    public static final String PROP_MAP_WRITE_BEHIND_BATCH_SIZE = "hazelcast.map.write.behind.batch.size";
     public static final String PROP_REMOVE_DELAY_SECONDS = "hazelcast.map.remove.delay.seconds";
     public static final String PROP_CLEANUP_DELAY_SECONDS = "hazelcast.map.cleanup.delay.seconds";
     public static final String PROP_EXECUTOR_QUERY_THREAD_COUNT = "hazelcast.executor.query.thread.count";
+    public static final String PROP_QUERY_PARALLEL_MIN_RECORDS = "hazelcast.query.parallel.min.records";
     public static final String PROP_EXECUTOR_EVENT_THREAD_COUNT = "hazelcast.executor.event.thread.count";
+    public static final String PROP_EVENT_BATCH_SIZE = "hazelcast.event.batch.size";
+    public static final String PROP_EVENT_BATCH_LINGER_MILLIS = "hazelcast.event.batch.linger.millis";
     public static final String PROP_EXECUTOR_CLIENT_THREAD_COUNT = "hazelcast.executor.client.thread.count";
     public static final String PROP_EXECUTOR_STORE_THREAD_COUNT = "hazelcast.executor.store.thread.count";
     public static final String PROP_LOGGING_TYPE = "hazelcast.logging.type";
@@ -77,6 +87,10 @@ public class GroupProperties {
     public static final String PROP_CONNECTION_MONITOR_INTERVAL = "hazelcast.connection.monitor.interval";
     public static final String PROP_CONNECTION_MONITOR_MAX_FAULTS = "hazelcast.connection.monitor.max.faults";
     public static final String PROP_PARTITION_MIGRATION_INTERVAL = "hazelcast.partition.migration.interval";
+    public static final String PROP_PARTITION_MIGRATION_CHUNK_SIZE = "hazelcast.partition.migration.chunk.size";
+    public static final String PROP_PARTITION_MIGRATION_CHUNKS_IN_FLIGHT = "hazelcast.partition.migration.chunks.in.flight";
+    public static final String PROP_PARTITION_MIGRATION_MAX_BANDWIDTH = "hazelcast.partition.migration.max.bandwidth";
+    public static final String PROP_PARTITION_MIGRATION_MAX_CONCURRENT = "hazelcast.partition.migration.max.concurrent";
     public static final String PROP_IMMEDIATE_BACKUP_INTERVAL = "hazelcast.immediate.backup.interval";
     public static final String PROP_PARTITION_TABLE_SEND_INTERVAL = "hazelcast.partition.table.send.interval";
     public static final String PROP_GRACEFUL_SHUTDOWN_MAX_WAIT = "hazelcast.graceful.shutdown.max.wait";
@@ -90,7 +104,14 @@ public class GroupProperties {
 
     public static final GroupProperty SERIALIZER_SHARED = new GroupProperty(null, PROP_SERIALIZER_SHARED, "false");
 
-    public static final GroupProperty PACKET_VERSION = new GroupProperty(null, PROP_PACKET_VERSION, "8");
+    public static final GroupProperty PACKET_VERSION = new GroupProperty(null, PROP_PACKET_VERSION, "9");
+
+    /**
+     * Hash of serialized keys, used for partitioning and hash buckets; "murmur3" or "fnv".
+     * Members and clients of a cluster should all use the same hash, "fnv" is the hash
+     * of the previous versions.
+     */
+    public static final GroupProperty DATA_HASH = new GroupProperty(null, PROP_DATA_HASH, "murmur3");
 
     public final GroupProperty IO_THREAD_COUNT;
 
@@ -116,6 +137,8 @@ public class GroupProperties {
 
     public final GroupProperty MAP_LOAD_THREAD_COUNT;
 
+    public final GroupProperty MAP_LOAD_PARALLELISM;
+
     public final GroupProperty MERGE_FIRST_RUN_DELAY_SECONDS;
 
     public final GroupProperty MERGE_NEXT_RUN_DELAY_SECONDS;
@@ -134,6 +157,8 @@ public class GroupProperties {
 
     public final GroupProperty SOCKET_NO_DELAY;
 
+    public final GroupProperty SOCKET_DIRECT_BUFFER;
+
     public final GroupProperty SHUTDOWNHOOK_ENABLED;
 
     public final GroupProperty WAIT_SECONDS_BEFORE_JOIN;
@@ -156,14 +181,28 @@ public class GroupProperties {
 
     public final GroupProperty CONCURRENT_MAP_PARTITION_COUNT;
 
+    public final GroupProperty PARTITION_THREAD_COUNT;
+
+    public final GroupProperty BACKUP_BATCH_SIZE;
+
+    public final GroupProperty BACKUP_BATCH_BYTES;
+
+    public final GroupProperty MAP_WRITE_BEHIND_BATCH_SIZE;
+
     public final GroupProperty REMOVE_DELAY_SECONDS;
 
     public final GroupProperty CLEANUP_DELAY_SECONDS;
 
     public final GroupProperty EXECUTOR_QUERY_THREAD_COUNT;
 
+    public final GroupProperty QUERY_PARALLEL_MIN_RECORDS;
+
     public final GroupProperty EXECUTOR_EVENT_THREAD_COUNT;
 
+    public final GroupProperty EVENT_BATCH_SIZE;
+
+    public final GroupProperty EVENT_BATCH_LINGER_MILLIS;
+
     public final GroupProperty EXECUTOR_CLIENT_THREAD_COUNT;
 
     public final GroupProperty EXECUTOR_STORE_THREAD_COUNT;
@@ -202,6 +241,14 @@ public class GroupProperties {
 
     public final GroupProperty PARTITION_MIGRATION_INTERVAL;
 
+    public final GroupProperty PARTITION_MIGRATION_CHUNK_SIZE;
+
+    public final GroupProperty PARTITION_MIGRATION_CHUNKS_IN_FLIGHT;
+
+    public final GroupProperty PARTITION_MIGRATION_MAX_BANDWIDTH;
+
+    public final GroupProperty PARTITION_MIGRATION_MAX_CONCURRENT;
+
     public final GroupProperty PARTITION_TABLE_SEND_INTERVAL;
 
     public final GroupProperty GRACEFUL_SHUTDOWN_MAX_WAIT;
@@ -226,6 +273,7 @@ public class GroupProperties {
         REST_ENABLED = new GroupProperty(config, PROP_REST_ENABLED, "true");
         MAP_LOAD_CHUNK_SIZE = new GroupProperty(config, PROP_MAP_LOAD_CHUNK_SIZE, "1000");
         MAP_LOAD_THREAD_COUNT = new GroupProperty(config, PROP_MAP_LOAD_THREAD_COUNT, "40");
+        MAP_LOAD_PARALLELISM = new GroupProperty(config, PROP_MAP_LOAD_PARALLELISM, "16");
         IN_THREAD_PRIORITY = new GroupProperty(config, PROP_IN_THREAD_PRIORITY, "7");
         OUT_THREAD_PRIORITY = new GroupProperty(config, PROP_OUT_THREAD_PRIORITY, "7");
         SERVICE_THREAD_PRIORITY = new GroupProperty(config, PROP_SERVICE_THREAD_PRIORITY, "8");
@@ -238,6 +286,7 @@ public class GroupProperties {
         SOCKET_LINGER_SECONDS = new GroupProperty(config, PROP_SOCKET_LINGER_SECONDS, "0");
         SOCKET_KEEP_ALIVE = new GroupProperty(config, PROP_SOCKET_KEEP_ALIVE, "true");
         SOCKET_NO_DELAY = new GroupProperty(config, PROP_SOCKET_NO_DELAY, "true");
+        SOCKET_DIRECT_BUFFER = new GroupProperty(config, PROP_SOCKET_DIRECT_BUFFER, "false");
         SHUTDOWNHOOK_ENABLED = new GroupProperty(config, PROP_SHUTDOWNHOOK_ENABLED, "true");
         WAIT_SECONDS_BEFORE_JOIN = new GroupProperty(config, PROP_WAIT_SECONDS_BEFORE_JOIN, "5");
         MAX_WAIT_SECONDS_BEFORE_JOIN = new GroupProperty(config, PROP_MAX_WAIT_SECONDS_BEFORE_JOIN, "20");
@@ -249,10 +298,17 @@ public class GroupProperties {
         INITIAL_WAIT_SECONDS = new GroupProperty(config, PROP_INITIAL_WAIT_SECONDS, "0");
         RESTART_ON_MAX_IDLE = new GroupProperty(config, PROP_RESTART_ON_MAX_IDLE, "false");
         CONCURRENT_MAP_PARTITION_COUNT = new GroupProperty(config, PROP_CONCURRENT_MAP_PARTITION_COUNT, "271");
+        PARTITION_THREAD_COUNT = new GroupProperty(config, PROP_PARTITION_THREAD_COUNT, "0");
+        BACKUP_BATCH_SIZE = new GroupProperty(config, PROP_BACKUP_BATCH_SIZE, "100");
+        BACKUP_BATCH_BYTES = new GroupProperty(config, PROP_BACKUP_BATCH_BYTES, "65536");
+        MAP_WRITE_BEHIND_BATCH_SIZE = new GroupProperty(config, PROP_MAP_WRITE_BEHIND_BATCH_SIZE, "1000");
         REMOVE_DELAY_SECONDS = new GroupProperty(config, PROP_REMOVE_DELAY_SECONDS, "5");
         CLEANUP_DELAY_SECONDS = new GroupProperty(config, PROP_CLEANUP_DELAY_SECONDS, "10");
         EXECUTOR_QUERY_THREAD_COUNT = new GroupProperty(config, PROP_EXECUTOR_QUERY_THREAD_COUNT, "8");
+        QUERY_PARALLEL_MIN_RECORDS = new GroupProperty(config, PROP_QUERY_PARALLEL_MIN_RECORDS, "1000");
         EXECUTOR_EVENT_THREAD_COUNT = new GroupProperty(config, PROP_EXECUTOR_EVENT_THREAD_COUNT, "16");
+        EVENT_BATCH_SIZE = new GroupProperty(config, PROP_EVENT_BATCH_SIZE, "100");
+        EVENT_BATCH_LINGER_MILLIS = new GroupProperty(config, PROP_EVENT_BATCH_LINGER_MILLIS, "0");
         EXECUTOR_CLIENT_THREAD_COUNT = new GroupProperty(config, PROP_EXECUTOR_CLIENT_THREAD_COUNT, "40");
         EXECUTOR_STORE_THREAD_COUNT = new GroupProperty(config, PROP_EXECUTOR_STORE_THREAD_COUNT, "16");
         LOG_STATE = new GroupProperty(config, PROP_LOG_STATE, "false");
@@ -271,6 +327,10 @@ public class GroupProperties {
         CONNECTION_MONITOR_INTERVAL = new GroupProperty(config, PROP_CONNECTION_MONITOR_INTERVAL, "100");
         CONNECTION_MONITOR_MAX_FAULTS = new GroupProperty(config, PROP_CONNECTION_MONITOR_MAX_FAULTS, "3");
         PARTITION_MIGRATION_INTERVAL = new GroupProperty(config, PROP_PARTITION_MIGRATION_INTERVAL, "1");
+        PARTITION_MIGRATION_CHUNK_SIZE = new GroupProperty(config, PROP_PARTITION_MIGRATION_CHUNK_SIZE, "1048576");
+        PARTITION_MIGRATION_CHUNKS_IN_FLIGHT = new GroupProperty(config, PROP_PARTITION_MIGRATION_CHUNKS_IN_FLIGHT, "2");
+        PARTITION_MIGRATION_MAX_BANDWIDTH = new GroupProperty(config, PROP_PARTITION_MIGRATION_MAX_BANDWIDTH, "0");
+        PARTITION_MIGRATION_MAX_CONCURRENT = new GroupProperty(config, PROP_PARTITION_MIGRATION_MAX_CONCURRENT, "1");
         IMMEDIATE_BACKUP_INTERVAL = new GroupProperty(config, PROP_IMMEDIATE_BACKUP_INTERVAL, "0");
         PARTITION_TABLE_SEND_INTERVAL = new GroupProperty(config, PROP_PARTITION_TABLE_SEND_INTERVAL, "10");
         GRACEFUL_SHUTDOWN_MAX_WAIT = new GroupProperty(config, PROP_GRACEFUL_SHUTDOWN_MAX_WAIT, "600");
@@ -326,6 +386,24 @@ public class GroupProperties {
             return Long.parseLong(this.value);
         }
 
+        /**
+         * @return size in bytes; value may end with K, M or G (ie. 128M)
+         */
+        public long getMemorySize() {
+            final String size = value.trim().toUpperCase();
+            final char unit = size.charAt(size.length() - 1);
+            long factor = 1;
+            if (unit == 'K') {
+                factor = 1024L;
+            } else if (unit == 'M') {
+                factor = 1024L * 1024L;
+            } else if (unit == 'G') {
+                factor = 1024L * 1024L * 1024L;
+            }
+            final String number = (factor == 1) ? size : size.substring(0, size.length() - 1);
+            return Long.parseLong(number.trim()) * factor;
+        }
+
         @Override
         public String toString() {
             return "GroupProperty [name=" + this.name + ", value=" + this.value + "]";
@@ -21,10 +21,12 @@ import com.hazelcast.config.ListenerConfig;
 import com.hazelcast.core.*;
 import com.hazelcast.impl.base.PacketProcessor;
 import com.hazelcast.nio.*;
+import com.hazelcast.query.Predicate;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -33,17 +35,27 @@ import java.util.logging.Level;
 
 import static com.hazelcast.impl.ClusterOperation.*;
 import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
 
 public class ListenerManager extends BaseManager {
     final ConcurrentMap<String, List<ListenerItem>> namedListeners = new ConcurrentHashMap<String, List<ListenerItem>>(100);
 
+    final EventBatcher eventBatcher;
+
     ListenerManager(Node node) {
         super(node);
+        eventBatcher = new EventBatcher(this, node.groupProperties.EVENT_BATCH_SIZE.getInteger(),
+                node.groupProperties.EVENT_BATCH_LINGER_MILLIS.getLong());
         registerPacketProcessor(ClusterOperation.EVENT, new PacketProcessor() {
             public void process(Packet packet) {
                 handleEvent(packet);
             }
         });
+        registerPacketProcessor(ClusterOperation.EVENT_BATCH, new PacketProcessor() {
+            public void process(Packet packet) {
+                handleEventBatch(packet);
+            }
+        });
         registerPacketProcessor(ADD_LISTENER, new AddRemoveListenerOperationHandler());
         registerPacketProcessor(REMOVE_LISTENER, new AddRemoveListenerOperationHandler());
         registerPacketProcessor(ADD_LISTENER_NO_RESPONSE, new PacketProcessor() {
@@ -63,16 +75,27 @@ public class ListenerManager extends BaseManager {
         enqueueEvent(eventType, name, key, value, from, false);
     }
 
+    private void handleEventBatch(Packet packet) {
+        final EventBatch eventBatch = (EventBatch) toObject(packet.getValueData());
+        releasePacket(packet);
+        for (EventBatch.Event event : eventBatch.getEvents()) {
+            enqueueEvent(event.eventType, event.name, event.key, event.newValue, event.oldValue, event.from, false,
+                    event.creationTime);
+        }
+    }
+
     private void handleAddRemoveListener(boolean add, Packet packet) {
         Data key = packet.getKeyData();
+        Data predicate = packet.getValueData();
         boolean returnValue = (packet.longValue == 1);
         String name = packet.name;
         Address address = packet.conn.getEndPoint();
         releasePacket(packet);
-        registerListener(add, name, key, address, returnValue);
+        registerListener(add, name, key, address, returnValue, predicate);
     }
 
     public void syncForDead(Address deadAddress) {
+        eventBatcher.remove(deadAddress);
         syncForAdd();
     }
 
@@ -80,7 +103,8 @@ public class ListenerManager extends BaseManager {
         for (List<ListenerItem> listeners : namedListeners.values()) {
             for (ListenerItem listenerItem : listeners) {
                 if (!listenerItem.localListener) {
-                    registerListenerWithNoResponse(listenerItem.name, listenerItem.key, listenerItem.includeValue);
+                    registerListenerWithNoResponse(listenerItem.name, listenerItem.key, listenerItem.includeValue,
+                            listenerItem.predicate);
                 }
             }
         }
@@ -94,7 +118,8 @@ public class ListenerManager extends BaseManager {
                     if (listenerItem.key != null) {
                         dataKey = ThreadContext.get().toData(listenerItem.key);
                     }
-                    sendAddListener(newAddress, listenerItem.name, dataKey, listenerItem.includeValue);
+                    sendAddListener(newAddress, listenerItem.name, dataKey, listenerItem.includeValue,
+                            toData(listenerItem.predicate));
                 }
             }
         }
@@ -111,7 +136,7 @@ public class ListenerManager extends BaseManager {
             if (from == null) throw new RuntimeException("Listener origin is not known!");
             boolean add = (request.operation == ADD_LISTENER);
             boolean includeValue = (request.longValue == 1);
-            registerListener(add, request.name, request.key, request.caller, includeValue);
+            registerListener(add, request.name, request.key, request.caller, includeValue, request.value);
             request.response = Boolean.TRUE;
         }
     }
@@ -120,11 +145,17 @@ public class ListenerManager extends BaseManager {
         final String name;
         final boolean add;
         final boolean includeValue;
+        final Predicate predicate;
 
         public AddRemoveListener(String name, boolean add, boolean includeValue) {
+            this(name, add, includeValue, null);
+        }
+
+        public AddRemoveListener(String name, boolean add, boolean includeValue, Predicate predicate) {
             this.name = name;
             this.add = add;
             this.includeValue = includeValue;
+            this.predicate = predicate;
         }
 
         SubCall createNewTargetAwareOp(Address target) {
@@ -147,7 +178,7 @@ public class ListenerManager extends BaseManager {
             public AddListenerAtTarget(Address target) {
                 super(target);
                 ClusterOperation operation = (add) ? ADD_LISTENER : REMOVE_LISTENER;
-                setLocal(operation, name, null, null, -1, -1);
+                setLocal(operation, name, null, predicate, -1, -1);
                 request.setBooleanRequest();
                 request.longValue = (includeValue) ? 1 : 0;
             }
@@ -155,32 +186,38 @@ public class ListenerManager extends BaseManager {
     }
 
     private void registerListener(String name, Object key, boolean add, boolean includeValue) {
+        registerListener(name, key, add, includeValue, null);
+    }
+
+    private void registerListener(String name, Object key, boolean add, boolean includeValue, Predicate predicate) {
         if (key == null) {
-            AddRemoveListener addRemoveListener = new AddRemoveListener(name, add, includeValue);
+            AddRemoveListener addRemoveListener = new AddRemoveListener(name, add, includeValue, predicate);
             addRemoveListener.call();
         } else {
             node.concurrentMapManager.new MAddKeyListener().addListener(name, add, key, includeValue);
         }
     }
 
-    private void registerListenerWithNoResponse(String name, Object key, boolean includeValue) {
+    private void registerListenerWithNoResponse(String name, Object key, boolean includeValue, Predicate predicate) {
         Data dataKey = null;
         if (key != null) {
             dataKey = ThreadContext.get().toData(key);
         }
-        enqueueAndReturn(new ListenerRegistrationProcess(name, dataKey, includeValue));
+        enqueueAndReturn(new ListenerRegistrationProcess(name, dataKey, includeValue, toData(predicate)));
     }
 
     final class ListenerRegistrationProcess implements Processable {
         final String name;
         final Data key;
         final boolean includeValue;
+        final Data predicate;
 
-        public ListenerRegistrationProcess(String name, Data key, boolean includeValue) {
+        public ListenerRegistrationProcess(String name, Data key, boolean includeValue, Data predicate) {
             super();
             this.key = key;
             this.name = name;
             this.includeValue = includeValue;
+            this.predicate = predicate;
         }
 
         public void process() {
@@ -206,18 +243,18 @@ public class ListenerManager extends BaseManager {
         private void processWithoutKey() {
             for (MemberImpl member : lsMembers) {
                 if (member.localMember()) {
-                    registerListener(true, name, null, thisAddress, includeValue);
+                    registerListener(true, name, null, thisAddress, includeValue, predicate);
                 } else {
-                    sendAddListener(member.getAddress(), name, null, includeValue);
+                    sendAddListener(member.getAddress(), name, null, includeValue, predicate);
                 }
             }
         }
     }
 
     void sendAddListener(Address toAddress, String name, Data key,
-                         boolean includeValue) {
+                         boolean includeValue, Data predicate) {
         Packet packet = obtainPacket();
-        packet.set(name, ClusterOperation.ADD_LISTENER_NO_RESPONSE, key, null);
+        packet.set(name, ClusterOperation.ADD_LISTENER_NO_RESPONSE, key, predicate);
         packet.longValue = (includeValue) ? 1 : 0;
         sendOrReleasePacket(packet, toAddress);
     }
@@ -273,13 +310,50 @@ public class ListenerManager extends BaseManager {
         listeners.add(listenerItem);
     }
 
+    /**
+     * Adds a listener getting only the events of the entries matching the predicate.
+     * The predicate is registered on every member and evaluated by the owner of the entry.
+     */
+    public synchronized void addListener(String name, Object listener, Predicate predicate, boolean includeValue,
+                                         Instance.InstanceType instanceType) {
+        addListener(name, listener, predicate, includeValue, instanceType, false);
+    }
+
+    /**
+     * @param matchOldValue true if the listener also gets the updates of the entries whose
+     *                      old value matches the predicate, as query caches do to remove them
+     */
+    synchronized void addListener(String name, Object listener, Predicate predicate, boolean includeValue,
+                                  Instance.InstanceType instanceType, boolean matchOldValue) {
+        List<ListenerItem> listeners = getOrCreateListenerList(name);
+        if (!isPredicateRegistered(listeners, toData(predicate))) {
+            registerListener(name, null, true, includeValue, predicate);
+        }
+        ListenerItem listenerItem = new ListenerItem(name, null, listener, includeValue, instanceType);
+        listenerItem.predicate = predicate;
+        listenerItem.matchOldValue = matchOldValue;
+        listeners.add(listenerItem);
+    }
+
     public void removeListener(String name, Object listener, Object key) {
         List<ListenerItem> listeners = namedListeners.get(name);
         if (listeners == null) return;
+        boolean removedFiltered = false;
+        boolean removedUnfiltered = false;
+        List<Predicate> removedPredicates = null;
         for (ListenerItem listenerItem : listeners) {
             if (listener == listenerItem.listener && listenerItem.name.equals(name)) {
                 if (key == null && listenerItem.key == null) {
                     listeners.remove(listenerItem);
+                    if (listenerItem.predicate != null) {
+                        if (removedPredicates == null) {
+                            removedPredicates = new ArrayList<Predicate>(1);
+                        }
+                        removedPredicates.add(listenerItem.predicate);
+                        removedFiltered = true;
+                    } else {
+                        removedUnfiltered = true;
+                    }
                 } else if (key != null && key.equals(listenerItem.key)) {
                     listeners.remove(listenerItem);
                 }
@@ -287,15 +361,36 @@ public class ListenerManager extends BaseManager {
         }
         boolean left = false;
         for (ListenerItem listenerItem : listeners) {
-            if (key == null && listenerItem.key == null) {
+            if (key == null && listenerItem.key == null && listenerItem.predicate == null) {
                 left = true;
             } else if (key != null && key.equals(listenerItem.key)) {
                 left = true;
             }
         }
-        if (!left) {
+        if (!left && (removedUnfiltered || !removedFiltered)) {
             registerListener(name, key, false, false);
         }
+        if (removedPredicates != null) {
+            for (Predicate predicate : removedPredicates) {
+                if (!isPredicateRegistered(listeners, toData(predicate))) {
+                    registerListener(name, null, false, false, predicate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Members keep one registration per serialized predicate for all the listeners of
+     * this member, predicates do not need to implement equals.
+     */
+    private boolean isPredicateRegistered(List<ListenerItem> listeners, Data predicate) {
+        for (ListenerItem listenerItem : listeners) {
+            if (!listenerItem.localListener && listenerItem.predicate != null
+                    && predicate.equals(toData(listenerItem.predicate))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     void removeAllRegisteredListeners(String name) {
@@ -430,6 +525,8 @@ public class ListenerManager extends BaseManager {
         public boolean includeValue;
         public Instance.InstanceType instanceType;
         public boolean localListener = false;
+        public Predicate predicate;
+        public boolean matchOldValue = false;
 
         public ListenerItem() {
         }
@@ -452,23 +549,40 @@ public class ListenerManager extends BaseManager {
 
         public boolean listens(DataAwareEntryEvent dataAwareEntryEvent) {
             String name = dataAwareEntryEvent.getLongName();
-            return this.name.equals(name) && (this.key == null || dataAwareEntryEvent.getKey().equals(this.key));
+            return this.name.equals(name) && (this.key == null || dataAwareEntryEvent.getKey().equals(this.key))
+                    && (this.predicate == null || matches(dataAwareEntryEvent));
+        }
+
+        private boolean matches(DataAwareEntryEvent dataAwareEntryEvent) {
+            try {
+                if (predicate.apply(new DataMapEntry(dataAwareEntryEvent))) {
+                    return true;
+                }
+                final Data oldValue = dataAwareEntryEvent.getOldValueData();
+                return matchOldValue && oldValue != null
+                        && predicate.apply(new DataMapEntry(dataAwareEntryEvent.getKeyData(), oldValue));
+            } catch (Exception e) {
+                return false;
+            }
         }
 
         public void writeData(DataOutput out) throws IOException {
             out.writeUTF(name);
             writeObject(out, key);
             out.writeBoolean(includeValue);
+            writeObject(out, predicate);
         }
 
         public void readData(DataInput in) throws IOException {
             name = in.readUTF();
             key = readObject(in);
             includeValue = in.readBoolean();
+            predicate = (Predicate) readObject(in);
         }
 
         public void process() {
-            getNode().listenerManager.registerListener(true, name, toData(key), getConnection().getEndPoint(), includeValue);
+            getNode().listenerManager.registerListener(true, name, toData(key), getConnection().getEndPoint(), includeValue,
+                    toData(predicate));
         }
     }
 }
@@ -25,7 +25,9 @@ import com.hazelcast.impl.monitor.MapOperationsCounter;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.nio.Data;
 import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Aggregator;
 import com.hazelcast.query.Expression;
+import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.Predicates;
 import com.hazelcast.util.Clock;
@@ -35,10 +37,10 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -124,47 +126,40 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
         return put(key, value, 0, TimeUnit.SECONDS);
     }
 
-    public Future getAsync(Object key) {
+    public AsyncFuture getAsync(Object key) {
         beforeCall();
-        final MProxyImpl mProxy = MProxyImpl.this;
-        final Data dataKey = toData(key);
-        AsyncCall call = new AsyncCall() {
-            @Override
-            protected void call() {
-                setResult(mProxy.get(dataKey));
-            }
-        };
-        factory.node.executorManager.executeAsync(call);
-        return call;
+        try {
+            return mproxyReal.getAsync(key);
+        } catch (Throwable e) {
+            Util.throwUncheckedException(e);
+            return null;
+        } finally {
+            afterCall();
+        }
     }
 
-    public Future putAsync(Object key, Object value) {
+    public AsyncFuture putAsync(Object key, Object value) {
         beforeCall();
-        final MProxyImpl mProxy = MProxyImpl.this;
-        final Data dataKey = toData(key);
-        final Data dataValue = toData(value);
-        AsyncCall call = new AsyncCall() {
-            @Override
-            protected void call() {
-                setResult(mProxy.put(dataKey, dataValue));
-            }
-        };
-        factory.node.executorManager.executeAsync(call);
-        return call;
+        try {
+            return mproxyReal.putAsync(key, value);
+        } catch (Throwable e) {
+            Util.throwUncheckedException(e);
+            return null;
+        } finally {
+            afterCall();
+        }
     }
 
-    public Future removeAsync(Object key) {
+    public AsyncFuture removeAsync(Object key) {
         beforeCall();
-        final MProxyImpl mProxy = MProxyImpl.this;
-        final Data dataKey = toData(key);
-        AsyncCall call = new AsyncCall() {
-            @Override
-            protected void call() {
-                setResult(mProxy.remove(dataKey));
-            }
-        };
-        factory.node.executorManager.executeAsync(call);
-        return call;
+        try {
+            return mproxyReal.removeAsync(key);
+        } catch (Throwable e) {
+            Util.throwUncheckedException(e);
+            return null;
+        } finally {
+            afterCall();
+        }
     }
 
     public Object put(Object key, Object value, long ttl, TimeUnit timeunit) {
@@ -224,6 +219,34 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
         return dynamicProxy.getAll(keys);
     }
 
+    public void removeAll(Set keys) {
+        dynamicProxy.removeAll(keys);
+    }
+
+    public Set containsKeys(Set keys) {
+        return dynamicProxy.containsKeys(keys);
+    }
+
+    public Object executeOnKey(Object key, EntryProcessor processor) {
+        return dynamicProxy.executeOnKey(key, processor);
+    }
+
+    public Map executeOnEntries(EntryProcessor processor) {
+        return dynamicProxy.executeOnEntries(processor);
+    }
+
+    public Map executeOnEntries(EntryProcessor processor, Predicate predicate) {
+        return dynamicProxy.executeOnEntries(processor, predicate);
+    }
+
+    public Object aggregate(Aggregator aggregator) {
+        return dynamicProxy.aggregate(aggregator);
+    }
+
+    public Object aggregate(Aggregator aggregator, Predicate predicate) {
+        return dynamicProxy.aggregate(aggregator, predicate);
+    }
+
     public void flush() {
         dynamicProxy.flush();
     }
@@ -268,6 +291,10 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
         dynamicProxy.addIndex(expression, ordered);
     }
 
+    public QueryCache getQueryCache(Predicate predicate) {
+        return dynamicProxy.getQueryCache(predicate);
+    }
+
     public Object getId() {
         return dynamicProxy.getId();
     }
@@ -406,6 +433,14 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
         return dynamicProxy.tryLock(key, time, timeunit);
     }
 
+    public boolean tryLockAll(Set keys, long time, TimeUnit timeunit) {
+        return dynamicProxy.tryLockAll(keys, time, timeunit);
+    }
+
+    public void unlockAll(Set keys) {
+        dynamicProxy.unlockAll(keys);
+    }
+
     public void unlock(Object key) {
         dynamicProxy.unlock(key);
     }
@@ -439,6 +474,10 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
         dynamicProxy.addEntryListener(listener, key, includeValue);
     }
 
+    public void addEntryListener(EntryListener listener, Predicate predicate, boolean includeValue) {
+        dynamicProxy.addEntryListener(listener, predicate, includeValue);
+    }
+
     public void removeEntryListener(EntryListener listener) {
         dynamicProxy.removeEntryListener(listener);
     }
@@ -528,6 +567,15 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             }
         }
 
+        public QueryCache getQueryCache(Predicate predicate) {
+            if (predicate == null)
+                throw new IllegalArgumentException("Predicate cannot be null");
+            if (predicate instanceof PagingPredicate)
+                throw new IllegalArgumentException("Query cache doesn't support paging predicates");
+            mapOperationCounter.incrementOtherOperations();
+            return new QueryCacheImpl(factory, name, predicate);
+        }
+
         public void flush() {
             concurrentMapManager.flush(name);
         }
@@ -578,16 +626,111 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             return concurrentMapManager.getAll(name, keys);
         }
 
-        public Future getAsync(Object key) {
-            throw new UnsupportedOperationException();
+        public void removeAll(Set keys) {
+            if (keys == null) {
+                throw new NullPointerException();
+            }
+            TransactionImpl txn = ThreadContext.get().getCallContext().getTransaction();
+            if (txn != null && txn.getStatus() == Transaction.TXN_STATUS_ACTIVE) {
+                for (Object key : keys) {
+                    remove(key);
+                }
+            } else {
+                long begin = Clock.currentTimeMillis();
+                for (Object key : keys) {
+                    check(key);
+                }
+                concurrentMapManager.removeAll(name, keys);
+                mapOperationCounter.incrementRemoves(Clock.currentTimeMillis() - begin);
+            }
         }
 
-        public Future putAsync(Object key, Object value) {
-            throw new UnsupportedOperationException();
+        public Set containsKeys(Set keys) {
+            if (keys == null) {
+                throw new NullPointerException();
+            }
+            TransactionImpl txn = ThreadContext.get().getCallContext().getTransaction();
+            if (txn != null && txn.getStatus() == Transaction.TXN_STATUS_ACTIVE) {
+                Set containing = new HashSet();
+                for (Object key : keys) {
+                    if (containsKey(key)) {
+                        containing.add(key);
+                    }
+                }
+                return containing;
+            }
+            for (Object key : keys) {
+                check(key);
+            }
+            mapOperationCounter.incrementOtherOperations();
+            return concurrentMapManager.containsKeys(name, keys);
         }
 
-        public Future removeAsync(Object key) {
-            throw new UnsupportedOperationException();
+        public Object executeOnKey(Object key, EntryProcessor processor) {
+            check(key);
+            check(processor);
+            mapOperationCounter.incrementOtherOperations();
+            return concurrentMapManager.executeOnKey(name, key, processor);
+        }
+
+        public Map executeOnEntries(EntryProcessor processor) {
+            return executeOnEntries(processor, null);
+        }
+
+        public Map executeOnEntries(EntryProcessor processor, Predicate predicate) {
+            check(processor);
+            mapOperationCounter.incrementOtherOperations();
+            return concurrentMapManager.executeOnEntries(name, processor, predicate);
+        }
+
+        public Object aggregate(Aggregator aggregator) {
+            return aggregate(aggregator, null);
+        }
+
+        public Object aggregate(Aggregator aggregator, Predicate predicate) {
+            check(aggregator);
+            mapOperationCounter.incrementOtherOperations();
+            return concurrentMapManager.aggregate(name, aggregator, predicate);
+        }
+
+        public AsyncFuture getAsync(Object key) {
+            check(key);
+            final long begin = Clock.currentTimeMillis();
+            final ResponseFuture future = new ResponseFuture() {
+                @Override
+                protected void onDone() {
+                    mapOperationCounter.incrementGets(Clock.currentTimeMillis() - begin);
+                }
+            };
+            concurrentMapManager.new MGet().getAsync(name, key, future);
+            return future;
+        }
+
+        public AsyncFuture putAsync(Object key, Object value) {
+            check(key);
+            check(value);
+            final long begin = Clock.currentTimeMillis();
+            final ResponseFuture future = new ResponseFuture() {
+                @Override
+                protected void onDone() {
+                    mapOperationCounter.incrementPuts(Clock.currentTimeMillis() - begin);
+                }
+            };
+            concurrentMapManager.new MPut().putAsync(name, key, value, -1, future);
+            return future;
+        }
+
+        public AsyncFuture removeAsync(Object key) {
+            check(key);
+            final long begin = Clock.currentTimeMillis();
+            final ResponseFuture future = new ResponseFuture() {
+                @Override
+                protected void onDone() {
+                    mapOperationCounter.incrementRemoves(Clock.currentTimeMillis() - begin);
+                }
+            };
+            concurrentMapManager.new MRemove().removeAsync(name, key, future);
+            return future;
         }
 
         public Object put(Object key, Object value, long ttl, TimeUnit timeunit) {
@@ -707,6 +850,30 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             return concurrentMapManager.lock(name, key, timeoutMillis);
         }
 
+        public boolean tryLockAll(Set keys, long time, TimeUnit timeunit) {
+            if (keys == null) {
+                throw new NullPointerException();
+            }
+            if (time < 0)
+                throw new IllegalArgumentException("Time cannot be negative. time = " + time);
+            for (Object key : keys) {
+                check(key);
+            }
+            mapOperationCounter.incrementOtherOperations();
+            return concurrentMapManager.tryLockAll(name, keys, toMillis(time, timeunit));
+        }
+
+        public void unlockAll(Set keys) {
+            if (keys == null) {
+                throw new NullPointerException();
+            }
+            for (Object key : keys) {
+                check(key);
+            }
+            mapOperationCounter.incrementOtherOperations();
+            concurrentMapManager.unlockAll(name, keys);
+        }
+
         public void unlock(Object key) {
             check(key);
             mapOperationCounter.incrementOtherOperations();
@@ -876,6 +1043,14 @@ public class MProxyImpl extends FactoryAwareNamedProxy implements MProxy, DataSe
             addGenericListener(listener, key, includeValue, getInstanceType());
         }
 
+        public void addEntryListener(EntryListener listener, Predicate predicate, boolean includeValue) {
+            if (listener == null)
+                throw new IllegalArgumentException("Listener cannot be null");
+            if (predicate == null)
+                throw new IllegalArgumentException("Predicate cannot be null");
+            listenerManager.addListener(name, listener, predicate, includeValue, getInstanceType());
+        }
+
         public void removeEntryListener(EntryListener listener) {
             if (listener == null)
                 throw new IllegalArgumentException("Listener cannot be null");
@@ -20,17 +20,35 @@ import com.hazelcast.impl.concurrentmap.RecordFactory;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Data;
 import com.hazelcast.util.Clock;
+import com.hazelcast.util.SampledEviction;
 import com.hazelcast.util.SortedHashMap;
 
-import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
+/**
+ * Near cache of a map, can be read and updated by any thread.
+ * <p/>
+ * Reads are lock-free and never enqueue work to the ServiceThread. Updates and invalidations
+ * of the same key are serialized by striped locks. When the cache is full, a quarter of the
+ * entries are evicted; eviction threshold of LRU/LFU is estimated from a random sample
+ * of the entries instead of keeping the entries sorted on every read.
+ */
 public class NearCache {
+    private static final int LOCK_STRIPE_COUNT = 32;
+
     private final ILogger logger;
-    private final Map<Data, Object> sortedMap;
     private final ConcurrentMap<Object, CacheEntry> cache;
+    private final ConcurrentMap<Data, Object> keys;
+    private final Object[] locks = new Object[LOCK_STRIPE_COUNT];
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
     private final CMap cmap;
     private final SortedHashMap.OrderingType orderingType;
     private final int maxSize;        // 0 means infinite
@@ -48,10 +66,11 @@ public class NearCache {
         this.maxIdleTime = maxIdleTime;
         this.invalidateOnChange = invalidateOnChange;
         int size = (maxSize == 0 || maxSize > 50000) ? 10000 : maxSize;
-        this.sortedMap = (orderingType == SortedHashMap.OrderingType.NONE)
-                ? new HashMap<Data, Object>()
-                : new SortedHashMap<Data, Object>(size, orderingType);
-        this.cache = new ConcurrentHashMap<Object, CacheEntry>(size, 0.75f, 1);
+        this.cache = new ConcurrentHashMap<Object, CacheEntry>(size);
+        this.keys = new ConcurrentHashMap<Data, Object>(size);
+        for (int i = 0; i < LOCK_STRIPE_COUNT; i++) {
+            locks[i] = new Object();
+        }
         this.recordFactory = cmap.concurrentMapManager.recordFactory;
     }
 
@@ -62,7 +81,7 @@ public class NearCache {
     public boolean containsKey(Object key) {
         long now = Clock.currentTimeMillis();
         CacheEntry entry = cache.get(key);
-        return !(entry == null || entry.isValid(now));
+        return entry != null && entry.isValid(now);
     }
 
     public void setContainsKey(Object key, Data dataKey) {
@@ -73,130 +92,99 @@ public class NearCache {
     }
 
     public Object get(Object key) {
-        long now = Clock.currentTimeMillis();
-        CacheEntry entry = cache.get(key);
-        if (entry == null) {
-            return null;
-        } else {
+        final CacheEntry entry = cache.get(key);
+        if (entry != null) {
+            final long now = Clock.currentTimeMillis();
             if (entry.isValid(now)) {
-                Object value = null;
-                if (ThreadContext.get().isClient()) {
-                    value = entry.getValueData();
-                } else {
-                    value = entry.getValue();
-                }
-                if (orderingType != SortedHashMap.OrderingType.NONE) {
-                    cmap.concurrentMapManager.enqueueAndReturn(entry);
-                }
-                entry.touch(now);
-                return value;
-            } else {
-                return null;
-            }
-        }
-    }
-
-    private List<Data> getInvalidEntries(long now) {
-        List<Data> lsKeysToInvalidate = null;
-        if (ttl != 0 || maxIdleTime != 0) {
-            lsKeysToInvalidate = new ArrayList<Data>();
-            Collection<CacheEntry> entries = cache.values();
-            for (CacheEntry entry : entries) {
-                if (!entry.isValid(now)) {
-                    lsKeysToInvalidate.add(entry.record.getKeyData());
+                final Object value = ThreadContext.get().isClient() ? entry.getValueData() : entry.getValue();
+                if (value != null) {
+                    entry.touch(now);
+                    hits.incrementAndGet();
+                    return value;
                 }
             }
         }
-        return lsKeysToInvalidate;
+        misses.incrementAndGet();
+        return null;
     }
 
-    public void evict(long now, boolean serviceThread) {
-        if (serviceThread) {
-            checkThread();
-        }
-        if (maxSize == Integer.MAX_VALUE && maxIdleTime == 0 && ttl == 0) return;
-        final List<Data> lsKeysToInvalidate = getInvalidEntries(now);
-        if (lsKeysToInvalidate != null && lsKeysToInvalidate.size() > 0) {
-            if (serviceThread) {
-                for (Data key : lsKeysToInvalidate) {
-                    invalidate(key);
-                }
-            } else {
-                cmap.concurrentMapManager.enqueueAndReturn(new Processable() {
-                    public void process() {
-                        for (Data key : lsKeysToInvalidate) {
-                            invalidate(key);
-                        }
-                    }
-                });
+    public void evict(long now) {
+        if (ttl == 0 && maxIdleTime == 0) return;
+        for (CacheEntry entry : cache.values()) {
+            if (!entry.isValid(now) && remove(entry.record.getKeyData())) {
+                evictions.incrementAndGet();
             }
         }
     }
 
     public void put(Object key, Data keyData, Data value) {
-        checkThread();
-        if (cache.size() != sortedMap.size()) {
-            logger.log(Level.WARNING, cmap.getName() + " cache and sorted map size should be the same: "
-                    + cache.size() + " vs. " + sortedMap.size()
-                    + "/nCheck equals and hashCode of key object!");
-        }
         if (cache.size() + 1 >= maxSize) {
             startEviction();
         }
         if (cache.size() + 1 >= maxSize) {
             return;
         }
-        if (!sortedMap.containsKey(keyData)) {
-            sortedMap.put(keyData, key);
-        }
-        CacheEntry cacheEntry = cache.get(key);
-        if (cacheEntry == null) {
-            cacheEntry = new CacheEntry(key, keyData, value);
-        } else {
-            cacheEntry.setValue(value);
+        final CacheEntry cacheEntry = new CacheEntry(key, keyData, value);
+        synchronized (lockFor(keyData)) {
+            final Object oldKey = keys.put(keyData, key);
+            if (oldKey != null && !oldKey.equals(key)) {
+                logger.log(Level.WARNING, cmap.getName() + " same key data for different key objects: "
+                        + oldKey + " vs. " + key + "/nCheck equals and hashCode of key object!");
+                cache.remove(oldKey);
+            }
+            final CacheEntry oldEntry = cache.put(key, cacheEntry);
+            if (oldEntry != null) {
+                oldEntry.invalidate();
+            }
         }
-        cache.put(key, cacheEntry);
     }
 
     void startEviction() {
-        checkThread();
-        int evictionCount = (int) (cache.size() * 0.25);
-        List<Data> lsRemoves = new ArrayList<Data>(evictionCount);
-        int count = 0;
-        for (Data key : sortedMap.keySet()) {
-            lsRemoves.add(key);
-            if (count++ >= evictionCount) {
-                break;
-            }
+        if (!evicting.compareAndSet(false, true)) {
+            return;
         }
-        for (Data key : lsRemoves) {
-            invalidate(key);
+        try {
+            final boolean scored = orderingType == SortedHashMap.OrderingType.LRU
+                    || orderingType == SortedHashMap.OrderingType.LFU;
+            final int count = SampledEviction.evict(cache, scored, new SampledEviction.Remover<Object, CacheEntry>() {
+                public boolean remove(Object key, CacheEntry entry) {
+                    return NearCache.this.remove(entry.record.getKeyData());
+                }
+            });
+            evictions.addAndGet(count);
+        } finally {
+            evicting.set(false);
         }
-        lsRemoves.clear();
     }
 
     public void invalidate(Data key) {
-        checkThread();
-        final Object theKey = sortedMap.remove(key);
-        if (theKey != null) {
+        if (remove(key)) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private boolean remove(Data key) {
+        synchronized (lockFor(key)) {
+            final Object theKey = keys.remove(key);
+            if (theKey == null) {
+                return false;
+            }
             final CacheEntry removedCacheEntry = cache.remove(theKey);
-            if (removedCacheEntry != null) {
-                removedCacheEntry.invalidate();
-            } else {
+            if (removedCacheEntry == null) {
                 logger.log(Level.WARNING, cmap.name + " removed CacheEntry cannot be null");
+                return false;
             }
+            removedCacheEntry.invalidate();
+            return true;
         }
     }
 
-    void checkThread() {
-        if (cmap.concurrentMapManager.node.serviceThread != Thread.currentThread()) {
-            throw new RuntimeException("Only ServiceThread can update the cache! "
-                    + Thread.currentThread().getName());
-        }
+    private Object lockFor(Data keyData) {
+        return locks[(keyData.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPE_COUNT];
     }
 
     public void appendState(StringBuffer sbState) {
-        sbState.append(", n.sorted:").append(sortedMap.size());
+        sbState.append(", n.keys:").append(keys.size());
         sbState.append(", n.cache:").append(cache.size());
     }
 
@@ -208,19 +196,40 @@ public class NearCache {
         return cache.isEmpty();
     }
 
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
     public void reset() {
-        sortedMap.clear();
+        keys.clear();
         for (CacheEntry entry : cache.values()) {
             entry.invalidate();
         }
         cache.clear();
     }
 
-    private class CacheEntry implements Processable {
+    private class CacheEntry implements SampledEviction.Entry {
         private final NearCacheRecord record;
         private final long createTime;
         @SuppressWarnings("VolatileLongOrDoubleField")
         private volatile long lastAccessTime;
+        private volatile int hits;
 
         private CacheEntry(Object key, Data keyData, Data valueData) {
             if (key == null) {
@@ -231,11 +240,20 @@ public class NearCache {
             }
             this.record = recordFactory.createNewNearCacheRecord(cmap, keyData, valueData);
             this.createTime = Clock.currentTimeMillis();
-            touch(createTime);
+            this.lastAccessTime = createTime;
         }
 
         public void touch(long now) {
-            lastAccessTime = now;
+            if (lastAccessTime != now) {
+                lastAccessTime = now;
+            }
+            if (orderingType == SortedHashMap.OrderingType.LFU) {
+                hits++;
+            }
+        }
+
+        public long getEvictionScore() {
+            return (orderingType == SortedHashMap.OrderingType.LFU) ? hits : lastAccessTime;
         }
 
         public boolean isValid(long now) {
@@ -252,10 +270,6 @@ public class NearCache {
             return true;
         }
 
-        public void setValue(Data valueData) {
-            record.setValueData(valueData);
-        }
-
         public Object getValue() {
             return record.getValue();
         }
@@ -264,10 +278,6 @@ public class NearCache {
             return record.getValueData();
         }
 
-        public void process() {
-            sortedMap.get(record.getKeyData());
-        }
-
         public void invalidate() {
             record.invalidate();
         }
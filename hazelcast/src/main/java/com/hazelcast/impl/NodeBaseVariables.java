@@ -23,12 +23,13 @@ import com.hazelcast.util.SimpleBoundedQueue;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class NodeBaseVariables {
-    final List<MemberImpl> lsMembers = new ArrayList<MemberImpl>(10);
+    final List<MemberImpl> lsMembers = new CopyOnWriteArrayList<MemberImpl>();
 
-    final Map<Address, MemberImpl> mapMembers = new HashMap<Address, MemberImpl>(200);
+    final Map<Address, MemberImpl> mapMembers = new ConcurrentHashMap<Address, MemberImpl>(200);
 
     final Map<Long, Call> mapCalls = new ConcurrentHashMap<Long, Call>(500);
 
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.impl.base.DistributedLock;
+import com.hazelcast.impl.concurrentmap.ValueHolder;
+import com.hazelcast.impl.storage.DataRef;
+import com.hazelcast.impl.storage.Storage;
+import com.hazelcast.nio.Data;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Record keeping its value bytes in an off-heap {@link Storage}.
+ * Value is never cached as object, each read returns a fresh on-heap copy.
+ */
+@SuppressWarnings("SynchronizeOnThis")
+public final class OffHeapRecord extends AbstractRecord {
+
+    private final Storage storage;
+    private volatile DataRef valueRef;
+
+    public OffHeapRecord(CMap cmap, int blockId, Data key, Data value, long ttl, long maxIdleMillis, long id) {
+        super(cmap, blockId, key, ttl, maxIdleMillis, id);
+        this.storage = cmap.getStorage();
+        setValueData(value);
+    }
+
+    public Record copy() {
+        Record recordCopy = new DefaultRecord(cmap, blockId, key, getValueData(), getRemainingTTL(), getRemainingIdle(), id);
+        if (optionalInfo != null) {
+            recordCopy.setIndexes(getOptionalInfo().indexes, getOptionalInfo().indexTypes);
+            recordCopy.setMultiValues(getOptionalInfo().lsMultiValues);
+        }
+        if (lock != null) {
+            recordCopy.setLock(new DistributedLock(lock));
+        }
+        recordCopy.setVersion(getVersion());
+        return recordCopy;
+    }
+
+    public Data getValueData() {
+        // storage may reuse the chunks as soon as they are removed,
+        // so reading and releasing the value are done under the same lock.
+        synchronized (OffHeapRecord.this) {
+            final DataRef ref = valueRef;
+            if (ref == null) {
+                return null;
+            }
+            return new Data(storage.get(ref));
+        }
+    }
+
+    public Object getValue() {
+        return toObject(getValueData());
+    }
+
+    public Object setValue(Object value) {
+        return getValue();
+    }
+
+    public void setValueData(Data value) {
+        synchronized (OffHeapRecord.this) {
+            final DataRef oldRef = valueRef;
+            if (value == null) {
+                valueRef = null;
+            } else {
+                valueRef = storage.put(value.buffer == null ? new byte[0] : value.buffer);
+            }
+            if (oldRef != null) {
+                storage.remove(oldRef);
+            }
+        }
+    }
+
+    public int valueCount() {
+        int count = 0;
+        if (hasValueData()) {
+            count = 1;
+        } else if (getMultiValues() != null) {
+            count = getMultiValues().size();
+        }
+        return count;
+    }
+
+    public long getCost() {
+        long cost = 0;
+        final DataRef ref = valueRef;
+        if (ref != null) {
+            cost = ref.size();
+        } else if (getMultiValues() != null && getMultiValues().size() > 0) {
+            for (ValueHolder valueHolder : getMultiValues()) {
+                if (valueHolder != null) {
+                    cost += valueHolder.getData().size();
+                }
+            }
+        }
+        return cost + getKeyData().size() + 312;
+    }
+
+    public boolean hasValueData() {
+        return valueRef != null;
+    }
+
+    public void invalidate() {
+        setValueData(null);
+    }
+}
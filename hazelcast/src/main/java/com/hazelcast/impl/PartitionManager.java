@@ -25,7 +25,6 @@ import com.hazelcast.core.Member;
 import com.hazelcast.impl.base.DataRecordEntry;
 import com.hazelcast.impl.base.RecordSet;
 import com.hazelcast.impl.base.SystemLogService;
-import com.hazelcast.impl.concurrentmap.CostAwareRecordList;
 import com.hazelcast.impl.concurrentmap.ValueHolder;
 import com.hazelcast.impl.partition.*;
 import com.hazelcast.logging.ILogger;
@@ -55,15 +54,20 @@ public class PartitionManager {
     private final int PARTITION_COUNT;
     private final PartitionInfo[] partitions;
 
+    // partitions being migrated, by partition id.
     // updates will come from ServiceThread (one exception is PartitionManager.reset())
     // but reads will be multithreaded.
-    private volatile MigratingPartition migratingPartition;
+    private final ConcurrentMap<Integer, MigratingPartition> migratingPartitions =
+            new ConcurrentHashMap<Integer, MigratingPartition>();
     private volatile boolean initialized = false;
     private final AtomicInteger version = new AtomicInteger();
     private final List<PartitionListener> lsPartitionListeners = new CopyOnWriteArrayList<PartitionListener>();
     private final int partitionMigrationInterval;
     private final int immediateBackupInterval;
     private final MigrationService migrationService;
+    private final int maxConcurrentMigrations;
+    private final Semaphore migrationPermits;
+    private final Set<Integer> runningMigrations = new HashSet<Integer>(); // guarded by itself
     private boolean running = true; // accessed only by MigrationService thread
     private final BlockingQueue<Runnable> immediateTasksQueue = new LinkedBlockingQueue<Runnable>();
     private final Queue<Runnable> scheduledTasksQueue = new LinkedBlockingQueue<Runnable>();
@@ -101,6 +105,8 @@ public class PartitionManager {
         }
         partitionMigrationInterval = node.groupProperties.PARTITION_MIGRATION_INTERVAL.getInteger() * 1000;
         immediateBackupInterval = node.groupProperties.IMMEDIATE_BACKUP_INTERVAL.getInteger() * 1000;
+        maxConcurrentMigrations = Math.max(1, node.groupProperties.PARTITION_MIGRATION_MAX_CONCURRENT.getInteger());
+        migrationPermits = new Semaphore(maxConcurrentMigrations);
         migrationService = new MigrationService(node);
         migrationService.start();
         int partitionTableSendInterval = node.groupProperties.PARTITION_TABLE_SEND_INTERVAL.getInteger();
@@ -130,7 +136,7 @@ public class PartitionManager {
     // for testing purposes only
     public boolean inactivateMigration() {
         migrationActive.getAndSet(false);
-        while (migratingPartition != null) {
+        while (!migratingPartitions.isEmpty()) {
             try {
                 Thread.sleep(250);
             } catch (InterruptedException e) {
@@ -176,8 +182,20 @@ public class PartitionManager {
         }
     }
 
-    public MigratingPartition getMigratingPartition() {
-        return migratingPartition;
+    // for testing purposes only
+    int getRunningMigrationCount() {
+        synchronized (runningMigrations) {
+            return runningMigrations.size();
+        }
+    }
+
+    // for testing purposes only
+    boolean isMigrationQueueEmpty() {
+        return immediateTasksQueue.isEmpty() && scheduledTasksQueue.isEmpty();
+    }
+
+    public MigratingPartition getMigratingPartition(int partitionId) {
+        return migratingPartitions.get(partitionId);
     }
 
     public void addPartitionListener(PartitionListener partitionListener) {
@@ -189,8 +207,13 @@ public class PartitionManager {
     }
 
     public Address getOwner(int partitionId) {
-        concurrentMapManager.checkServiceThread();
+        concurrentMapManager.checkServiceOrPartitionThread();
         if (!initialized) {
+            if (!concurrentMapManager.node.isServiceThread()) {
+                // partition table is arranged by the ServiceThread,
+                // caller will redo the operation.
+                return null;
+            }
             firstArrangement();
         }
         Address owner = partitions[partitionId].getOwner();
@@ -223,46 +246,105 @@ public class PartitionManager {
                 concurrentMapManager.node.getConfig().getPartitionGroupConfig());
     }
 
-    public CostAwareRecordList getActivePartitionRecords(final int partitionId, final int replicaIndex,
-                                                         final Address newAddress, boolean diffOnly) {
+    /**
+     * Marks the partition as migrating and waits for the operations already queued for it.
+     * The records are read while iterating, so they are never all copied at once.
+     *
+     * @return iterator over the active records of the partition to send to newAddress
+     */
+    public Iterator<Record> iterateActivePartitionRecords(final int partitionId, final int replicaIndex,
+                                                          final Address newAddress, final boolean diffOnly) {
         final Address thisAddress = concurrentMapManager.node.getThisAddress();
         concurrentMapManager.enqueueAndWait(new Processable() {
             public void process() {
                 addActiveMigration(partitionId, replicaIndex, thisAddress, newAddress);
             }
         });
-        long now = Clock.currentTimeMillis();
-        final Collection<CMap> cmaps = concurrentMapManager.maps.values();
-        CostAwareRecordList lsResultSet = new CostAwareRecordList(1000);
-        for (final CMap cmap : cmaps) {
-            boolean includeCMap = diffOnly
-                    ? cmap.getTotalBackupCount() == replicaIndex
-                    : cmap.getTotalBackupCount() >= replicaIndex;
-            if (includeCMap) {
-                for (Record rec : cmap.mapRecords.values()) {
+        if (concurrentMapManager.node.clusterService.isPartitionThreadingEnabled()) {
+            // wait for the operations already queued for the partition
+            concurrentMapManager.node.clusterService.enqueuePartitionAndWait(partitionId, new Processable() {
+                public void process() {
+                }
+            });
+        }
+        return new ActivePartitionRecordIterator(partitionId, replicaIndex, diffOnly);
+    }
+
+    private class ActivePartitionRecordIterator implements Iterator<Record> {
+        final int partitionId;
+        final int replicaIndex;
+        final boolean diffOnly;
+        final long now = Clock.currentTimeMillis();
+        final Iterator<CMap> cmaps = concurrentMapManager.maps.values().iterator();
+        CMap cmap;
+        Iterator<Record> records;
+        Record multiRecord;
+        Iterator<ValueHolder> multiValues;
+        Record next;
+
+        ActivePartitionRecordIterator(final int partitionId, final int replicaIndex, final boolean diffOnly) {
+            this.partitionId = partitionId;
+            this.replicaIndex = replicaIndex;
+            this.diffOnly = diffOnly;
+            advance();
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Record next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final Record record = next;
+            advance();
+            return record;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void advance() {
+            while (true) {
+                if (multiValues != null && multiValues.hasNext()) {
+                    next = multiRecord.copy();
+                    next.setValueData(multiValues.next().getData());
+                    return;
+                }
+                multiValues = null;
+                if (records != null && records.hasNext()) {
+                    final Record rec = records.next();
                     if (rec.isActive() && rec.isValid(now)) {
                         if (rec.getKeyData() == null || rec.getKeyData().size() == 0) {
                             throw new RuntimeException("Record.key is null or empty " + rec.getKeyData());
                         }
-                        if (rec.getBlockId() == partitionId) {
-                            cmap.onMigrate(rec);
-                            if (cmap.isMultiMap()) {
-                                Collection<ValueHolder> colValues = rec.getMultiValues();
-                                for (ValueHolder valueHolder : colValues) {
-                                    Record record = rec.copy();
-                                    record.setValueData(valueHolder.getData());
-                                    lsResultSet.add(record);
-                                }
-                            } else {
-                                lsResultSet.add(rec);
-                            }
-                            lsResultSet.addCost(rec.getCost());
+                        cmap.onMigrate(rec);
+                        if (cmap.isMultiMap()) {
+                            multiRecord = rec;
+                            multiValues = rec.getMultiValues().iterator();
+                        } else {
+                            next = rec;
+                            return;
                         }
                     }
+                    continue;
+                }
+                records = null;
+                if (!cmaps.hasNext()) {
+                    next = null;
+                    return;
+                }
+                cmap = cmaps.next();
+                boolean includeCMap = diffOnly
+                        ? cmap.getTotalBackupCount() == replicaIndex
+                        : cmap.getTotalBackupCount() >= replicaIndex;
+                if (includeCMap) {
+                    records = cmap.mapRecords.getPartition(partitionId).values().iterator();
                 }
             }
         }
-        return lsResultSet;
     }
 
     private void addActiveMigration(final MigratingPartition migrationRequestTask) {
@@ -273,7 +355,7 @@ public class PartitionManager {
     private void addActiveMigration(final int partitionId, final int replicaIndex,
                                     final Address currentAddress, final Address newAddress) {
         concurrentMapManager.checkServiceThread();
-        final MigratingPartition currentMigratingPartition = migratingPartition;
+        final MigratingPartition currentMigratingPartition = migratingPartitions.get(partitionId);
         final MigratingPartition newMigratingPartition = new MigratingPartition(partitionId,
                 replicaIndex, currentAddress, newAddress);
         if (!newMigratingPartition.equals(currentMigratingPartition)) {
@@ -281,38 +363,49 @@ public class PartitionManager {
                 logger.log(Level.FINEST, "Replacing current " + currentMigratingPartition
                         + " with " + newMigratingPartition);
             }
-            migratingPartition = newMigratingPartition;
+            migratingPartitions.put(partitionId, newMigratingPartition);
         }
     }
 
-    private void compareAndSetActiveMigratingPartition(final MigratingPartition expectedMigratingPartition,
-                                                       final MigratingPartition newMigratingPartition) {
+    private void removeActiveMigration(final MigratingPartition expectedMigratingPartition) {
         concurrentMapManager.checkServiceThread();
-        if (expectedMigratingPartition == null) {
-            if (migratingPartition == null) {
-                migratingPartition = newMigratingPartition;
-            }
-        } else if (expectedMigratingPartition.equals(migratingPartition)) {
-            migratingPartition = newMigratingPartition;
+        final int partitionId = expectedMigratingPartition.getPartitionId();
+        if (expectedMigratingPartition.equals(migratingPartitions.get(partitionId))) {
+            migratingPartitions.remove(partitionId);
         }
     }
 
     public void doMigrate(final int partitionId, final int replicaIndex, final RecordSet recordSet, final Address from) {
+        final boolean partitionThreading = concurrentMapManager.node.clusterService.isPartitionThreadingEnabled();
         concurrentMapManager.enqueueAndWait(new Processable() {
             public void process() {
                 addActiveMigration(partitionId, replicaIndex, from, concurrentMapManager.thisAddress);
-                for (DataRecordEntry dataRecordEntry : recordSet.getRecords()) {
-                    CMap cmap = concurrentMapManager.getOrCreateMap(dataRecordEntry.getName());
-                    if (replicaIndex == 0) {
-                        // owner
-                        cmap.own(dataRecordEntry);
-                    } else {
-                        // backup
-                        cmap.storeAsBackup(dataRecordEntry);
-                    }
-                }
+                storeMigratedRecords(replicaIndex, recordSet, false);
             }
         });
+        if (partitionThreading) {
+            concurrentMapManager.node.clusterService.enqueuePartitionAndWait(partitionId, new Processable() {
+                public void process() {
+                    storeMigratedRecords(replicaIndex, recordSet, true);
+                }
+            });
+        }
+    }
+
+    private void storeMigratedRecords(int replicaIndex, RecordSet recordSet, boolean partitionThreaded) {
+        for (DataRecordEntry dataRecordEntry : recordSet.getRecords()) {
+            if (concurrentMapManager.isPartitionThreadedMap(dataRecordEntry.getName()) != partitionThreaded) {
+                continue;
+            }
+            CMap cmap = concurrentMapManager.getOrCreateMap(dataRecordEntry.getName());
+            if (replicaIndex == 0) {
+                // owner
+                cmap.own(dataRecordEntry);
+            } else {
+                // backup
+                cmap.storeAsBackup(dataRecordEntry);
+            }
+        }
     }
 
     public MemberImpl getMember(Address address) {
@@ -328,7 +421,7 @@ public class PartitionManager {
     public void reset() {
         initialized = false;
         clearTaskQueues();
-        migratingPartition = null;
+        migratingPartitions.clear();
         for (PartitionInfo partition : partitions) {
             for (int i = 0; i < PartitionInfo.MAX_REPLICA_COUNT; i++) {
                 partition.setReplicaAddress(i, null);
@@ -455,36 +548,59 @@ public class PartitionManager {
     }
 
     private void checkMigratingPartitionForDead(final Address deadAddress) {
-        if (migratingPartition != null) {
-            if (deadAddress.equals(migratingPartition.getFromAddress())
-                    || deadAddress.equals(migratingPartition.getToAddress())) {
-                migratingPartition = null;
+        final Iterator<MigratingPartition> it = migratingPartitions.values().iterator();
+        while (it.hasNext()) {
+            final MigratingPartition mPartition = it.next();
+            if (deadAddress.equals(mPartition.getFromAddress())
+                    || deadAddress.equals(mPartition.getToAddress())) {
+                it.remove();
             }
         }
     }
 
     private void fixCMapsForDead(final Address deadAddress, final int[] indexesOfDead) {
-        Address thisAddress = concurrentMapManager.getThisAddress();
-        for (CMap cmap : concurrentMapManager.maps.values()) {
+        final Address[] owners = new Address[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            owners[i] = partitions[i].getOwner();
+        }
+        for (final CMap cmap : concurrentMapManager.maps.values()) {
             cmap.onDisconnect(deadAddress);
-            Object[] records = cmap.mapRecords.values().toArray();
-            for (Object recordObject : records) {
-                if (recordObject != null) {
-                    Record record = (Record) recordObject;
-                    if (record.isLocked() && cmap.isMapForQueue()) {
-                        if (deadAddress.equals(record.getLock().getLockAddress())) {
-                            cmap.sendKeyToMaster(record.getKeyData());
-                        }
+            if (cmap.isPartitionThreaded()) {
+                concurrentMapManager.enqueueRecordAware(cmap, new Processable() {
+                    public void process() {
+                        fixRecordsForDead(cmap, deadAddress, indexesOfDead, owners);
+                    }
+                });
+            } else {
+                fixRecordsForDead(cmap, deadAddress, indexesOfDead, owners);
+            }
+        }
+    }
+
+    private void fixRecordsForDead(final CMap cmap, final Address deadAddress,
+                                   final int[] indexesOfDead, final Address[] owners) {
+        Address thisAddress = concurrentMapManager.getThisAddress();
+        Object[] records = cmap.mapRecords.values().toArray();
+        for (Object recordObject : records) {
+            if (recordObject != null) {
+                Record record = (Record) recordObject;
+                if (!concurrentMapManager.isRecordOwnerThread(cmap, record)) {
+                    continue;
+                }
+                if (record.isLocked() && cmap.isMapForQueue()) {
+                    if (deadAddress.equals(record.getLock().getLockAddress())) {
+                        cmap.sendKeyToMaster(record.getKeyData());
                     }
-                    cmap.onDisconnect(record, deadAddress);
-                    final int partitionId = record.getBlockId();
-                    // owner of the partition is dead
-                    // and record is active
-                    // and new owner of partition is this member.
-                    if (indexesOfDead[partitionId] == 0
-                            && record.isActive()
-                            && thisAddress.equals(partitions[partitionId].getOwner())) {
-                        cmap.markAsDirty(record, true);
+                }
+                cmap.onDisconnect(record, deadAddress);
+                final int partitionId = record.getBlockId();
+                // owner of the partition is dead
+                // and new owner of partition is this member.
+                if (indexesOfDead[partitionId] == 0
+                        && thisAddress.equals(owners[partitionId])) {
+                    // removed records too, their deletes may not be stored yet
+                    cmap.promoteWriteBehind(record);
+                    if (record.isActive()) {
                         // update the indexes
                         cmap.updateIndexes(record);
                     }
@@ -565,12 +681,12 @@ public class PartitionManager {
 
     private void checkMigratingPartitionFor(PartitionInfo partition) {
         concurrentMapManager.checkServiceThread();
-        final MigratingPartition mPartition = migratingPartition;
-        if (mPartition != null && partition.getPartitionId() == mPartition.getPartitionId()) {
+        final MigratingPartition mPartition = migratingPartitions.get(partition.getPartitionId());
+        if (mPartition != null) {
             final Address targetAddress = mPartition.getToAddress();
             if (targetAddress != null
                     && targetAddress.equals(partition.getReplicaAddress(mPartition.getReplicaIndex()))) {
-                migratingPartition = null;
+                migratingPartitions.remove(partition.getPartitionId());
             }
         }
     }
@@ -587,10 +703,7 @@ public class PartitionManager {
      * @return true if any replica of partition is migrating, false otherwise
      */
     public boolean isPartitionMigrating(int partitionId) {
-        // volatile read
-        final MigratingPartition currentMigratingPartition = migratingPartition;
-        return currentMigratingPartition != null
-                && currentMigratingPartition.getPartitionId() == partitionId;
+        return migratingPartitions.containsKey(partitionId);
     }
 
     /**
@@ -598,10 +711,8 @@ public class PartitionManager {
      * @return true if owned replica (0) of partition is migrating, false otherwise
      */
     public boolean isOwnedPartitionMigrating(int partitionId) {
-        // volatile read
-        final MigratingPartition currentMigratingPartition = migratingPartition;
+        final MigratingPartition currentMigratingPartition = migratingPartitions.get(partitionId);
         return currentMigratingPartition != null
-                && currentMigratingPartition.getPartitionId() == partitionId
                 && currentMigratingPartition.getReplicaIndex() == 0;
     }
 
@@ -635,10 +746,12 @@ public class PartitionManager {
         return needBackup || !immediateTasksQueue.isEmpty();
     }
 
-    public void fireMigrationEvent(final boolean started, int partitionId, Address from, Address to) {
+    public void fireMigrationEvent(final boolean started, int partitionId, Address from, Address to,
+                                   MigrationStats stats) {
         final MemberImpl current = concurrentMapManager.getMember(from);
         final MemberImpl newOwner = concurrentMapManager.getMember(to);
-        final MigrationEvent migrationEvent = new MigrationEvent(concurrentMapManager.node, partitionId, current, newOwner);
+        final MigrationEvent migrationEvent = new MigrationEvent(concurrentMapManager.node, partitionId, current, newOwner,
+                stats.getRecordCount(), stats.getByteCount(), stats.getDuration());
         systemLogService.logPartition("MigrationEvent [" + started + "] " + migrationEvent);
         concurrentMapManager.partitionServiceImpl.doFireMigrationEvent(started, migrationEvent);
     }
@@ -646,7 +759,7 @@ public class PartitionManager {
     private boolean shouldCheckRepartitioning() {
         return immediateTasksQueue.isEmpty() && scheduledTasksQueue.isEmpty()
                 && lastRepartitionTime.get() < (Clock.currentTimeMillis() - REPARTITIONING_CHECK_INTERVAL)
-                && migratingPartition == null;
+                && migratingPartitions.isEmpty();
     }
 
     public static class AssignPartitions extends AbstractRemotelyProcessable {
@@ -667,8 +780,8 @@ public class PartitionManager {
 
         public Boolean call() throws Exception {
             if (migratingPartition != null) {
-                final MigratingPartition masterMigratingPartition = node
-                        .concurrentMapManager.getPartitionManager().migratingPartition;
+                final MigratingPartition masterMigratingPartition = node.concurrentMapManager
+                        .getPartitionManager().getMigratingPartition(migratingPartition.getPartitionId());
                 return migratingPartition.equals(masterMigratingPartition);
             }
             return Boolean.FALSE;
@@ -711,34 +824,38 @@ public class PartitionManager {
     private class CheckMigratingPartitionTask implements Runnable {
         public void run() {
             if (!concurrentMapManager.isMaster()) {
-                final MigratingPartition currentMigratingPartition = migratingPartition;
-                if (currentMigratingPartition != null
-                        && (Clock.currentTimeMillis() - currentMigratingPartition.getCreationTime())
-                        > MIGRATING_PARTITION_CHECK_INTERVAL) {
-                    try {
-                        final Node node = concurrentMapManager.node;
-                        AsyncRemotelyBooleanCallable rrp = node.clusterManager.new AsyncRemotelyBooleanCallable();
-                        rrp.executeProcess(node.getMasterAddress(),
-                                new RemotelyCheckMigratingPartition(currentMigratingPartition));
-                        boolean valid = rrp.getResultAsBoolean(1);
-                        if (valid) {
-                            logger.log(Level.FINEST, "Master has confirmed current " + currentMigratingPartition);
-                        } else {
-                            logger.log(Level.INFO, currentMigratingPartition +
-                                    " could not be validated with master! " +
-                                    "Removing current MigratingPartition...");
-                            concurrentMapManager.enqueueAndReturn(new Processable() {
-                                public void process() {
-                                    migratingPartition = null;
-                                }
-                            });
-                        }
-                    } catch (Throwable t) {
-                        logger.log(Level.WARNING, t.getMessage(), t);
+                for (MigratingPartition migratingPartition : migratingPartitions.values()) {
+                    if ((Clock.currentTimeMillis() - migratingPartition.getCreationTime())
+                            > MIGRATING_PARTITION_CHECK_INTERVAL) {
+                        check(migratingPartition);
                     }
                 }
             }
         }
+
+        private void check(final MigratingPartition currentMigratingPartition) {
+            try {
+                final Node node = concurrentMapManager.node;
+                AsyncRemotelyBooleanCallable rrp = node.clusterManager.new AsyncRemotelyBooleanCallable();
+                rrp.executeProcess(node.getMasterAddress(),
+                        new RemotelyCheckMigratingPartition(currentMigratingPartition));
+                boolean valid = rrp.getResultAsBoolean(1);
+                if (valid) {
+                    logger.log(Level.FINEST, "Master has confirmed current " + currentMigratingPartition);
+                } else {
+                    logger.log(Level.INFO, currentMigratingPartition +
+                            " could not be validated with master! " +
+                            "Removing current MigratingPartition...");
+                    concurrentMapManager.enqueueAndReturn(new Processable() {
+                        public void process() {
+                            removeActiveMigration(currentMigratingPartition);
+                        }
+                    });
+                }
+            } catch (Throwable t) {
+                logger.log(Level.WARNING, t.getMessage(), t);
+            }
+        }
     }
 
     private class PrepareRepartitioningTask implements Runnable {
@@ -880,7 +997,7 @@ public class PartitionManager {
                             int replicaIndex = migrationRequestTask.getReplicaIndex();
                             PartitionInfo partition = partitions[partitionId];
                             partition.setReplicaAddress(replicaIndex, null);
-                            migratingPartition = null;
+                            migratingPartitions.remove(partitionId);
                         }
                     });
                 } else {
@@ -911,11 +1028,14 @@ public class PartitionManager {
                         }
                     } else {
                         // Partition is lost! Assign new owner and exit.
-                        result = Boolean.TRUE;
+                        result = new MigrationStats();
+                    }
+                    if (result instanceof MigrationStats) {
+                        migrationRequestTask.setStats((MigrationStats) result);
                     }
                     logger.log(Level.FINEST, "Finished Migration : " + migrationRequestTask);
                     systemLogService.logPartition("Finished Migration : " + migrationRequestTask);
-                    if (Boolean.TRUE.equals(result)) {
+                    if (result instanceof MigrationStats) {
                         concurrentMapManager.enqueueAndWait(new ProcessMigrationResult(migrationRequestTask), 10000);
                     } else {
                         // remove active partition migration
@@ -923,7 +1043,7 @@ public class PartitionManager {
                         systemLogService.logPartition("Migration task has failed => " + migrationRequestTask);
                         concurrentMapManager.enqueueAndWait(new Processable() {
                             public void process() {
-                                compareAndSetActiveMigratingPartition(migrationRequestTask, null);
+                                removeActiveMigration(migrationRequestTask);
                             }
                         });
                     }
@@ -968,7 +1088,7 @@ public class PartitionManager {
                             migrationRequestTask.getFromAddress());
                 }
                 sendClusterRuntimeState();
-                compareAndSetActiveMigratingPartition(migrationRequestTask, null);
+                removeActiveMigration(migrationRequestTask);
             }
         }
     }
@@ -1023,16 +1143,62 @@ public class PartitionManager {
             return migrationActive.get() && running;
         }
 
-        boolean safeRun(final Runnable r) {
+        boolean safeRun(final Runnable r) throws InterruptedException {
             if (r == null || !running) return false;
+            if (r instanceof Migrator) {
+                runMigrator((Migrator) r);
+                return true;
+            }
+            // other tasks change the task queues or the partition table,
+            // they wait for the running migrations
+            migrationPermits.acquire(maxConcurrentMigrations);
             try {
                 r.run();
             } catch (Throwable t) {
                 logger.log(Level.WARNING, t.getMessage(), t);
+            } finally {
+                migrationPermits.release(maxConcurrentMigrations);
             }
             return true;
         }
 
+        /**
+         * Runs the migrator on another thread once less than PARTITION_MIGRATION_MAX_CONCURRENT
+         * migrations are running and no other replica of its partition is migrating.
+         */
+        private void runMigrator(final Migrator migrator) throws InterruptedException {
+            final Integer partitionId = migrator.migrationRequestTask.getPartitionId();
+            migrationPermits.acquire();
+            synchronized (runningMigrations) {
+                while (runningMigrations.contains(partitionId)) {
+                    runningMigrations.wait();
+                }
+                runningMigrations.add(partitionId);
+            }
+            try {
+                concurrentMapManager.node.executorManager.executeNow(new Runnable() {
+                    public void run() {
+                        try {
+                            migrator.run();
+                        } finally {
+                            onMigratorDone(partitionId);
+                        }
+                    }
+                });
+            } catch (Throwable t) {
+                logger.log(Level.WARNING, t.getMessage(), t);
+                onMigratorDone(partitionId);
+            }
+        }
+
+        private void onMigratorDone(final Integer partitionId) {
+            synchronized (runningMigrations) {
+                runningMigrations.remove(partitionId);
+                runningMigrations.notifyAll();
+            }
+            migrationPermits.release();
+        }
+
         void safeRunImmediate(final Runnable r) throws InterruptedException {
             if (safeRun(r) && immediateBackupInterval > 0) {
                 Thread.sleep(immediateBackupInterval);
@@ -1043,7 +1209,7 @@ public class PartitionManager {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("PartitionManager[" + version + "] {\n");
-        sb.append("migratingPartition: " + migratingPartition);
+        sb.append("migratingPartitions: " + migratingPartitions.values());
         sb.append("\n");
         sb.append("immediateQ:" + immediateTasksQueue.size());
         sb.append(", scheduledQ:" + scheduledTasksQueue.size());
@@ -23,6 +23,7 @@ import com.hazelcast.impl.monitor.LocalQueueStatsImpl;
 import com.hazelcast.impl.monitor.QueueOperationsCounter;
 import com.hazelcast.monitor.LocalQueueStats;
 import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.util.Clock;
 
 import java.io.*;
 import java.util.AbstractQueue;
@@ -236,18 +237,20 @@ public class QProxyImpl extends AbstractQueue implements QProxy, HazelcastInstan
             if (timeout < 0) {
                 timeout = 0;
             }
+            long begin = Clock.currentTimeMillis();
             boolean result = blockingQueueManager.offer(name, obj, unit.toMillis(timeout));
             if (!result) {
                 operationsCounter.incrementRejectedOffers();
             }
-            operationsCounter.incrementOffers();
+            operationsCounter.incrementOffers(Clock.currentTimeMillis() - begin);
             return result;
         }
 
         public void put(Object obj) throws InterruptedException {
             check(obj);
+            long begin = Clock.currentTimeMillis();
             blockingQueueManager.offer(name, obj, -1);
-            operationsCounter.incrementOffers();
+            operationsCounter.incrementOffers(Clock.currentTimeMillis() - begin);
         }
 
         public Object peek() {
@@ -257,11 +260,12 @@ public class QProxyImpl extends AbstractQueue implements QProxy, HazelcastInstan
 
         public Object poll() {
             try {
+                long begin = Clock.currentTimeMillis();
                 Object result = blockingQueueManager.poll(name, 0);
                 if (result == null) {
                     operationsCounter.incrementEmptyPolls();
                 }
-                operationsCounter.incrementPolls();
+                operationsCounter.incrementPolls(Clock.currentTimeMillis() - begin);
                 return result;
             } catch (InterruptedException e) {
                 return null;
@@ -272,20 +276,22 @@ public class QProxyImpl extends AbstractQueue implements QProxy, HazelcastInstan
             if (timeout < 0) {
                 timeout = 0;
             }
+            long begin = Clock.currentTimeMillis();
             Object result = blockingQueueManager.poll(name, unit.toMillis(timeout));
             if (result == null) {
                 operationsCounter.incrementEmptyPolls();
             }
-            operationsCounter.incrementPolls();
+            operationsCounter.incrementPolls(Clock.currentTimeMillis() - begin);
             return result;
         }
 
         public Object take() throws InterruptedException {
+            long begin = Clock.currentTimeMillis();
             Object result = blockingQueueManager.poll(name, -1);
             if (result == null) {
                 operationsCounter.incrementEmptyPolls();
             }
-            operationsCounter.incrementPolls();
+            operationsCounter.incrementPolls(Clock.currentTimeMillis() - begin);
             return result;
         }
 
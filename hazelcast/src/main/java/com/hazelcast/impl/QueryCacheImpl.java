@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryListener;
+import com.hazelcast.core.Instance;
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.core.Prefix;
+import com.hazelcast.core.QueryCache;
+import com.hazelcast.impl.base.KeyValue;
+import com.hazelcast.impl.monitor.LocalQueryCacheStatsImpl;
+import com.hazelcast.monitor.LocalQueryCacheStats;
+import com.hazelcast.nio.Data;
+import com.hazelcast.query.Index;
+import com.hazelcast.query.MapIndexService;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.QueryContext;
+import com.hazelcast.util.AbstractMap;
+import com.hazelcast.util.Clock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.impl.ClusterOperation.CONCURRENT_MAP_ITERATE_ENTRIES;
+import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Query cache of a map kept on this member. The entries matching the predicate are
+ * queried once, then the cache applies the entry events of the map sent by the owners
+ * of the entries. Owners send the events of the entries whose new or old value
+ * matches the predicate, so the entries updated out of the predicate are removed.
+ * <p/>
+ * Events arriving while the entries are queried are held back and applied after them.
+ * The records of the cache are indexed by a {@link MapIndexService} of its own, so
+ * the cache is queried the same way as the owned records of a map.
+ */
+public class QueryCacheImpl<K, V> implements QueryCache<K, V> {
+
+    private final FactoryImpl factory;
+
+    private final String name;
+
+    private final Predicate predicate;
+
+    private final ConcurrentMap<Data, Record> records = new ConcurrentHashMap<Data, Record>();
+
+    private final MapIndexService mapIndexService = new MapIndexService(false);
+
+    private final AtomicLong recordIds = new AtomicLong();
+
+    private final EntryListener listener = new QueryCacheListener();
+
+    private final Object loadLock = new Object();
+
+    // events received while the entries are queried, guarded by loadLock
+    private List<DataAwareEntryEvent> pendingEvents = new ArrayList<DataAwareEntryEvent>();
+
+    private volatile boolean loaded = false;
+
+    private final long creationTime;
+
+    private final long loadMillis;
+
+    private final AtomicLong eventCount = new AtomicLong();
+
+    private final AtomicLong totalEventLag = new AtomicLong();
+
+    private final AtomicLong maxEventLag = new AtomicLong();
+
+    private final AtomicLong lagEventCount = new AtomicLong();
+
+    private volatile long lastUpdateTime = 0;
+
+    private volatile long staleness = 0;
+
+    QueryCacheImpl(FactoryImpl factory, String name, Predicate predicate) {
+        this.factory = factory;
+        this.name = name;
+        this.predicate = predicate;
+        this.creationTime = Clock.currentTimeMillis();
+        factory.node.listenerManager.addListener(name, listener, predicate, true, Instance.InstanceType.MAP, true);
+        try {
+            load();
+        } catch (RuntimeException e) {
+            factory.node.listenerManager.removeListener(name, listener, null);
+            throw e;
+        }
+        this.loadMillis = Clock.currentTimeMillis() - creationTime;
+    }
+
+    private void load() {
+        final Entries entries = factory.node.concurrentMapManager.query(name, CONCURRENT_MAP_ITERATE_ENTRIES, predicate);
+        for (Map.Entry entry : entries.getKeyValues()) {
+            if (entry instanceof KeyValue) {
+                final KeyValue keyValue = (KeyValue) entry;
+                put(keyValue.getKeyData(), keyValue.getValueData());
+            } else {
+                // entry updated by the current transaction
+                put(toData(entry.getKey()), toData(entry.getValue()));
+            }
+        }
+        synchronized (loadLock) {
+            for (DataAwareEntryEvent event : pendingEvents) {
+                apply(event);
+            }
+            pendingEvents = null;
+            loaded = true;
+        }
+    }
+
+    private void onEvent(EntryEvent entryEvent) {
+        final DataAwareEntryEvent event = (DataAwareEntryEvent) entryEvent;
+        if (!loaded) {
+            synchronized (loadLock) {
+                if (!loaded) {
+                    pendingEvents.add(event);
+                    return;
+                }
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(DataAwareEntryEvent event) {
+        final Data key = event.getKeyData();
+        switch (event.getEventType()) {
+            case ADDED:
+            case UPDATED:
+                if (matches(event)) {
+                    put(key, event.getNewValueData());
+                } else {
+                    remove(key);
+                }
+                break;
+            default:
+                remove(key);
+        }
+        updateStats(event.getCreationTime());
+    }
+
+    private boolean matches(DataAwareEntryEvent event) {
+        try {
+            return event.getNewValueData() != null && predicate.apply(new DataMapEntry(event));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void updateStats(long eventCreationTime) {
+        eventCount.incrementAndGet();
+        final long now = Clock.currentTimeMillis();
+        lastUpdateTime = now;
+        if (eventCreationTime <= 0) return;
+        final long lag = Math.max(0, factory.node.getClusterImpl().getClusterTime() - eventCreationTime);
+        staleness = lag;
+        lagEventCount.incrementAndGet();
+        totalEventLag.addAndGet(lag);
+        long max = maxEventLag.get();
+        while (lag > max && !maxEventLag.compareAndSet(max, lag)) {
+            max = maxEventLag.get();
+        }
+    }
+
+    private void put(Data key, Data value) {
+        final Record record = new DefaultRecord(null, 0, key, value, 0, 0, recordIds.incrementAndGet());
+        final Record oldRecord = records.put(key, record);
+        if (oldRecord != null) {
+            removeIndex(oldRecord);
+        }
+        mapIndexService.index(record);
+    }
+
+    private void remove(Data key) {
+        final Record oldRecord = records.remove(key);
+        if (oldRecord != null) {
+            removeIndex(oldRecord);
+        }
+    }
+
+    private void removeIndex(Record record) {
+        record.setActive(false);
+        mapIndexService.index(record);
+    }
+
+    public String getName() {
+        return name.substring(Prefix.MAP.length());
+    }
+
+    public Predicate<K, V> getPredicate() {
+        return predicate;
+    }
+
+    public V get(Object key) {
+        final Record record = records.get(toData(key));
+        return (record == null) ? null : (V) record.getValue();
+    }
+
+    public boolean containsKey(Object key) {
+        return records.containsKey(toData(key));
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    public boolean isEmpty() {
+        return records.isEmpty();
+    }
+
+    public Set<K> keySet() {
+        final Set<K> keys = new HashSet<K>(records.size());
+        for (Record record : records.values()) {
+            keys.add((K) record.getKey());
+        }
+        return keys;
+    }
+
+    public Collection<V> values() {
+        final List<V> values = new ArrayList<V>(records.size());
+        for (Record record : records.values()) {
+            values.add((V) record.getValue());
+        }
+        return values;
+    }
+
+    public Set<Map.Entry<K, V>> entrySet() {
+        return toEntries(records.values());
+    }
+
+    public Set<K> keySet(Predicate predicate) {
+        final Set<K> keys = new HashSet<K>();
+        for (Record record : query(predicate)) {
+            keys.add((K) record.getKey());
+        }
+        return keys;
+    }
+
+    public Collection<V> values(Predicate predicate) {
+        final List<V> values = new ArrayList<V>();
+        for (Record record : query(predicate)) {
+            values.add((V) record.getValue());
+        }
+        return values;
+    }
+
+    public Set<Map.Entry<K, V>> entrySet(Predicate predicate) {
+        return toEntries(query(predicate));
+    }
+
+    private Set<Map.Entry<K, V>> toEntries(Collection<Record> records) {
+        final Set<Map.Entry<K, V>> entries = new HashSet<Map.Entry<K, V>>(records.size());
+        for (Record record : records) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<K, V>((K) record.getKey(), (V) record.getValue()));
+        }
+        return entries;
+    }
+
+    private List<Record> query(Predicate predicate) {
+        final QueryContext queryContext = new QueryContext(name, predicate, mapIndexService);
+        final Set<MapEntry> results = mapIndexService.doQuery(queryContext);
+        final List<Record> matching = new ArrayList<Record>();
+        if (results == null) return matching;
+        final boolean evaluateValues = (predicate != null && !queryContext.isStrong());
+        for (MapEntry entry : results) {
+            final Record record = (Record) entry;
+            if (record.isActive() && (!evaluateValues || predicate.apply(record))) {
+                matching.add(record);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Adds the index and builds it for the records of the cache before returning,
+     * records put meanwhile are indexed as usual.
+     */
+    public synchronized void addIndex(String attribute, boolean ordered) {
+        final Index index = mapIndexService.addIndex(Predicates.get(attribute), ordered, -1);
+        if (index.isReady()) return;
+        for (Record record : mapIndexService.getOwnedRecords()) {
+            final Data valueData = record.getValueData();
+            if (valueData != null) {
+                mapIndexService.buildIndex(index, record, valueData, index.extractIndexValue(toObject(valueData)));
+            }
+        }
+        mapIndexService.markIndexReady(index);
+    }
+
+    public LocalQueryCacheStats getLocalQueryCacheStats() {
+        final LocalQueryCacheStatsImpl stats = new LocalQueryCacheStatsImpl();
+        stats.setEntryCount(records.size());
+        stats.setCreationTime(creationTime);
+        stats.setLoadMillis(loadMillis);
+        stats.setEventCount(eventCount.get());
+        stats.setLastUpdateTime(lastUpdateTime);
+        stats.setStalenessMillis(staleness);
+        final long lagEvents = lagEventCount.get();
+        stats.setAverageEventLagMillis((lagEvents == 0) ? 0 : totalEventLag.get() / lagEvents);
+        stats.setMaxEventLagMillis(maxEventLag.get());
+        return stats;
+    }
+
+    public void destroy() {
+        factory.node.listenerManager.removeListener(name, listener, null);
+        records.clear();
+        mapIndexService.clear();
+    }
+
+    private class QueryCacheListener implements EntryListener {
+        public void entryAdded(EntryEvent event) {
+            onEvent(event);
+        }
+
+        public void entryRemoved(EntryEvent event) {
+            onEvent(event);
+        }
+
+        public void entryUpdated(EntryEvent event) {
+            onEvent(event);
+        }
+
+        public void entryEvicted(EntryEvent event) {
+            onEvent(event);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCache{name=" + getName() + ", predicate=" + predicate + ", size=" + records.size() + "}";
+    }
+}
@@ -53,11 +53,11 @@ public interface Record extends MapEntry {
 
     void setValueData(Data value);
 
-    Long[] getIndexes();
+    Object[] getIndexes();
 
     byte[] getIndexTypes();
 
-    void setIndexes(Long[] indexes, byte[] indexTypes);
+    void setIndexes(Object[] indexes, byte[] indexTypes);
 
     int valueCount();
 
@@ -204,4 +204,8 @@ public interface Record extends MapEntry {
     boolean isRemoved();
 
     boolean isLoadable();
+
+    int getSamplingIndex();
+
+    void setSamplingIndex(int samplingIndex);
 }
@@ -61,7 +61,7 @@ public class Request implements CallStateAware {
     public long longValue = Long.MIN_VALUE;
     public long version = DEFAULT_VERSION;
     public long txnId = DEFAULT_TXN_ID;
-    public Long[] indexes;
+    public Object[] indexes;
     public byte[] indexTypes;
     public Object attachment = null;
     public Object response = null;
@@ -125,7 +125,7 @@ public class Request implements CallStateAware {
         this.response = null;
     }
 
-    public void setIndexes(Long[] newIndexes, byte[] indexTypes) {
+    public void setIndexes(Object[] newIndexes, byte[] indexTypes) {
         this.indexes = newIndexes;
         this.indexTypes = indexTypes;
         if (indexes.length != indexTypes.length) {
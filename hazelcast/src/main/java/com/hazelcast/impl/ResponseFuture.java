@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.core.AsyncFuture;
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.impl.base.AddressAwareException;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+import static com.hazelcast.impl.Constants.Objects.OBJECT_NULL;
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Future completed by the response of a call, see
+ * {@link BaseManager.ResponseQueueCall#setResponseHandler(ResponseHandler)}.
+ * The response is kept as it arrives and deserialized by the first caller
+ * of get, so the response path doesn't deserialize values.
+ */
+public class ResponseFuture<V> implements AsyncFuture<V>, ResponseHandler {
+
+    private volatile Object response = null;
+
+    // callbacks registered before the response arrived, guarded by this
+    private List<Runnable> callbacks = null;
+
+    public void handleResponse(Object response) {
+        final List<Runnable> callbacksToRun;
+        synchronized (this) {
+            if (this.response != null) return;
+            this.response = (response == null) ? OBJECT_NULL : response;
+            callbacksToRun = callbacks;
+            callbacks = null;
+            notifyAll();
+        }
+        onDone();
+        if (callbacksToRun != null) {
+            for (Runnable callback : callbacksToRun) {
+                callback.run();
+            }
+        }
+    }
+
+    /**
+     * Called on the response path once the response is set.
+     */
+    protected void onDone() {
+    }
+
+    public void andThen(final ExecutionCallback<V> callback, final Executor executor) {
+        final Runnable runCallback = new Runnable() {
+            public void run() {
+                try {
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            callback.done(ResponseFuture.this);
+                        }
+                    });
+                } catch (Throwable e) {
+                    Logger.getLogger(ResponseFuture.class.getName()).log(Level.WARNING,
+                            "Callback cannot be executed: " + callback, e);
+                }
+            }
+        };
+        synchronized (this) {
+            if (response == null) {
+                if (callbacks == null) {
+                    callbacks = new ArrayList<Runnable>(1);
+                }
+                callbacks.add(runCallback);
+                return;
+            }
+        }
+        runCallback.run();
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    public boolean isCancelled() {
+        return false;
+    }
+
+    public boolean isDone() {
+        return response != null;
+    }
+
+    public V get() throws InterruptedException, ExecutionException {
+        synchronized (this) {
+            while (response == null) {
+                wait();
+            }
+        }
+        return resolve();
+    }
+
+    public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        final long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        synchronized (this) {
+            while (response == null) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new TimeoutException();
+                }
+                wait(remaining);
+            }
+        }
+        return resolve();
+    }
+
+    private V resolve() throws ExecutionException {
+        Object result;
+        synchronized (this) {
+            result = response;
+            if (result instanceof Data) {
+                final Data data = (Data) result;
+                try {
+                    result = (data.size() == 0) ? OBJECT_NULL : toObject(data);
+                } catch (Throwable e) {
+                    result = e;
+                }
+                response = result;
+            }
+        }
+        if (result == OBJECT_NULL) {
+            return null;
+        } else if (result instanceof AddressAwareException) {
+            throw new ExecutionException(((AddressAwareException) result).getException());
+        } else if (result instanceof Throwable) {
+            throw new ExecutionException((Throwable) result);
+        }
+        return (V) result;
+    }
+}
@@ -24,6 +24,7 @@ import com.hazelcast.impl.monitor.LocalTopicStatsImpl;
 import com.hazelcast.impl.monitor.TopicOperationsCounter;
 import com.hazelcast.monitor.LocalTopicStats;
 import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.util.Clock;
 
 public class TopicProxyImpl extends FactoryAwareNamedProxy implements TopicProxy, DataSerializable {
     private transient TopicProxy base = null;
@@ -128,8 +129,9 @@ public class TopicProxyImpl extends FactoryAwareNamedProxy implements TopicProxy
 
         public void publish(Object msg) {
             Util.checkSerializable(msg);
-            topicOperationsCounter.incrementPublishes();
+            long begin = Clock.currentTimeMillis();
             topicManager.doPublish(name, msg);
+            topicOperationsCounter.incrementPublishes(Clock.currentTimeMillis() - begin);
         }
 
         public void addMessageListener(MessageListener listener) {
@@ -20,6 +20,7 @@ import com.hazelcast.core.Instance;
 import com.hazelcast.core.Instance.InstanceType;
 import com.hazelcast.core.Prefix;
 import com.hazelcast.core.Transaction;
+import com.hazelcast.impl.concurrentmap.LocalLock;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Data;
 import com.hazelcast.util.Clock;
@@ -28,6 +29,8 @@ import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
+import static com.hazelcast.impl.ClusterOperation.*;
+import static com.hazelcast.nio.IOUtil.toData;
 import static com.hazelcast.nio.IOUtil.toObject;
 
 public class TransactionImpl implements Transaction {
@@ -112,9 +115,21 @@ public class TransactionImpl implements Transaction {
         status = TXN_STATUS_COMMITTING;
         try {
             ThreadContext.get().setCurrentFactory(factory);
+            final ConcurrentMapManager concurrentMapManager = factory.node.concurrentMapManager;
+            ConcurrentMapManager.MultiKeyCall call = concurrentMapManager.new MultiKeyCall();
             for (TransactionRecord transactionRecord : transactionRecords) {
-                transactionRecord.commit();
+                if (transactionRecord.instanceType == Instance.InstanceType.QUEUE) {
+                    // map records before the queue record are committed first
+                    if (!call.isEmpty()) {
+                        call.call();
+                        call = concurrentMapManager.new MultiKeyCall();
+                    }
+                    transactionRecord.commitQueue();
+                } else {
+                    transactionRecord.commitMap(call);
+                }
             }
+            call.call();
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -388,41 +403,55 @@ public class TransactionImpl implements Transaction {
             instanceType = ConcurrentMapManager.getInstanceType(name);
         }
 
-        public void commit() {
-            if (instanceType == Instance.InstanceType.QUEUE) {
-                commitQueue();
-            } else {
-                commitMap();
-            }
-        }
-
-        public void commitMap() {
+        /**
+         * Adds the operation committing this record to the call, the lock the transaction
+         * holds on the key is released with it.
+         */
+        public void commitMap(ConcurrentMapManager.MultiKeyCall call) {
+            final ConcurrentMapManager concurrentMapManager = factory.node.concurrentMapManager;
+            final ThreadContext tc = ThreadContext.get();
             if (removed) {
                 if (instanceType.isSet()) {
-                    ConcurrentMapManager.MRemoveItem mRemoveItem = factory.node.concurrentMapManager.new MRemoveItem();
-                    mRemoveItem.removeItem(name, key);
+                    call.add(concurrentMapManager.new BooleanKeyOp(CONCURRENT_MAP_REMOVE_ITEM, name, key, null,
+                            CONCURRENT_MAP_BACKUP_REMOVE));
                 } else if (!newRecord) {
-                    if (instanceType.isMap()) {
-                        factory.node.concurrentMapManager.new MRemove().remove(name, key, -1);
-                    } else if (instanceType.isMultiMap()) {
-                        if (value == null) {
-                            factory.node.concurrentMapManager.new MRemove().remove(name, key, -1);
-                        } else {
-                            factory.node.concurrentMapManager.new MRemoveMulti().remove(name, key, value);
-                        }
+                    if (instanceType.isMultiMap() && value != null) {
+                        call.add(concurrentMapManager.new BooleanKeyOp(CONCURRENT_MAP_REMOVE_MULTI, name, key, value,
+                                CONCURRENT_MAP_BACKUP_REMOVE_MULTI));
+                    } else if (instanceType.isMap() || instanceType.isMultiMap()) {
+                        call.add(concurrentMapManager.new RemoveKeyOp(name, key));
                     }
                 } else {
-                    factory.node.concurrentMapManager.new MLock().unlock(name, key, -1);
+                    final LocalLock localLock = getLocalLock();
+                    if (localLock != null && localLock.getThreadId() == tc.getThreadId()
+                            && localLock.decrementAndGet() == 0) {
+                        call.add(concurrentMapManager.new UnlockKeyOp(name, key, localLock));
+                    }
                 }
             } else {
                 if (instanceType.isMultiMap()) {
-                    factory.node.concurrentMapManager.new MPutMulti().put(name, key, value);
+                    call.add(concurrentMapManager.new BooleanKeyOp(CONCURRENT_MAP_PUT_MULTI, name, key, value,
+                            CONCURRENT_MAP_BACKUP_PUT));
                 } else {
-                    factory.node.concurrentMapManager.new MPut().putAfterCommit(name, key, value, -1, ttl, id);
+                    final LocalLock localLock = getLocalLock();
+                    if (localLock == null || localLock.getThreadId() != tc.getThreadId()) {
+                        final String error = "Could not commit put operation! Current thread is not owner of " +
+                                "transaction lock! Thread-Id: " + tc.getThreadId() + ", LocalLock: " + localLock;
+                        logger.log(Level.WARNING, error);
+                        throw new IllegalStateException(error);
+                    }
+                    final ClusterOperation operation = (localLock.getCount() == 1)
+                            ? CONCURRENT_MAP_PUT_AND_UNLOCK : CONCURRENT_MAP_PUT;
+                    call.add(concurrentMapManager.new PutKeyOp(operation, name, key, value, ttl, localLock));
                 }
             }
         }
 
+        private LocalLock getLocalLock() {
+            final CMap cmap = factory.node.concurrentMapManager.getMap(name);
+            return (cmap == null) ? null : cmap.mapLocalLocks.get(toData(key));
+        }
+
         public void commitQueue() {
             if (!removed) {
                 factory.node.blockingQueueManager.offerCommit(name, key, value);
@@ -52,8 +52,23 @@ public class Util {
         }
     }
 
+    private static final boolean FNV_HASH = "fnv".equalsIgnoreCase(GroupProperties.DATA_HASH.getValue());
+
+    /**
+     * Id of the hash used by {@link #hashCode(byte[])}, sent next to the key hashes so
+     * the receiver uses them only if it hashes keys the same way.
+     */
+    public static final byte DATA_HASH_ID = FNV_HASH ? (byte) 1 : (byte) 2;
+
+    /**
+     * Hash of the serialized keys, see GroupProperties.DATA_HASH
+     */
     public static int hashCode(final byte[] data) {
         if (data == null) return Integer.MIN_VALUE;
+        return FNV_HASH ? fnvHash(data) : murmurHash3(data, 0x01000193);
+    }
+
+    public static int fnvHash(final byte[] data) {
         // FNV (Fowler/Noll/Vo) Hash "1a"
         final int prime = 0x01000193;
         int hash = 0x811c9dc5;
@@ -61,7 +76,47 @@ public class Util {
             hash = (hash ^ data[i]) * prime;
         }
         return hash;
-//	    return Arrays.hashCode(data);
+    }
+
+    /**
+     * MurmurHash3 x86 32-bit, reads four bytes at a time.
+     */
+    public static int murmurHash3(final byte[] data, final int seed) {
+        final int c1 = 0xcc9e2d51;
+        final int c2 = 0x1b873593;
+        final int length = data.length;
+        final int blockEnd = length & ~3;
+        int h = seed;
+        for (int i = 0; i < blockEnd; i += 4) {
+            int k = (data[i] & 0xff) | ((data[i + 1] & 0xff) << 8)
+                    | ((data[i + 2] & 0xff) << 16) | (data[i + 3] << 24);
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+            h ^= k;
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xe6546b64;
+        }
+        int k = 0;
+        switch (length & 3) {
+            case 3:
+                k = (data[blockEnd + 2] & 0xff) << 16;
+            case 2:
+                k |= (data[blockEnd + 1] & 0xff) << 8;
+            case 1:
+                k |= (data[blockEnd] & 0xff);
+                k *= c1;
+                k = Integer.rotateLeft(k, 15);
+                k *= c2;
+                h ^= k;
+        }
+        h ^= length;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
     }
 
     /**
@@ -22,6 +22,7 @@ import com.hazelcast.impl.Record;
 import com.hazelcast.nio.Address;
 import com.hazelcast.nio.Data;
 import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Index;
 
 import java.io.DataInput;
 import java.io.DataOutput;
@@ -45,7 +46,7 @@ public class DataRecordEntry implements DataSerializable, MapEntry {
     private String name = null;
     private Data keyData = null;
     private Data valueData = null;
-    private Long[] indexes;
+    private Object[] indexes;
     private byte[] indexTypes;
     private Object key = null;
     private Object value = null;
@@ -117,7 +118,7 @@ public class DataRecordEntry implements DataSerializable, MapEntry {
         byte indexCount = (indexes == null) ? 0 : (byte) indexes.length;
         out.write(indexCount);
         for (byte i = 0; i < indexCount; i++) {
-            out.writeLong(indexes[i]);
+            Index.writeIndexValue(out, indexes[i]);
             out.write(indexTypes[i]);
         }
         out.writeInt(lockThreadId);
@@ -158,10 +159,10 @@ public class DataRecordEntry implements DataSerializable, MapEntry {
         }
         byte indexCount = in.readByte();
         if (indexCount > 0) {
-            indexes = new Long[indexCount];
+            indexes = new Object[indexCount];
             indexTypes = new byte[indexCount];
             for (byte i = 0; i < indexCount; i++) {
-                indexes[i] = in.readLong();
+                indexes[i] = Index.readIndexValue(in);
                 indexTypes[i] = in.readByte();
             }
         }
@@ -256,7 +257,7 @@ public class DataRecordEntry implements DataSerializable, MapEntry {
         return valueData;
     }
 
-    public Long[] getIndexes() {
+    public Object[] getIndexes() {
         return indexes;
     }
 
@@ -29,7 +29,7 @@ public abstract class ScheduledAction {
 
     protected long timeout;
 
-    protected boolean valid = true;
+    protected volatile boolean valid = true;
 
     protected final Request request;
 
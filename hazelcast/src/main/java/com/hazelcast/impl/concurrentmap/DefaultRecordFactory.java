@@ -30,6 +30,9 @@ public class DefaultRecordFactory implements RecordFactory {
 
     public Record createNewRecord(CMap cmap, int blockId, Data key, Data value,
                                   long ttl, long maxIdleMillis, long id) {
+        if (cmap.getStorage() != null) {
+            return new OffHeapRecord(cmap, blockId, key, value, ttl, maxIdleMillis, id);
+        }
         if (simple) {
             return new SimpleRecord(blockId, cmap, id, key, value);
         }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.Record;
+
+/**
+ * Small pool of the best eviction candidates seen so far, ordered by score
+ * (lowest score is evicted first). Candidates not evicted in one round stay in the pool
+ * and compete with the records sampled in the next rounds.
+ * <p/>
+ * Not thread safe, used by a single eviction run.
+ */
+public class EvictionPool {
+
+    private final Record[] records;
+
+    private final long[] scores;
+
+    private int size;
+
+    public EvictionPool(int capacity) {
+        records = new Record[capacity];
+        scores = new long[capacity];
+    }
+
+    /**
+     * Adds the record if the pool is not full or the record has a lower score than the worst candidate.
+     */
+    public void offer(Record record, long score) {
+        for (int i = 0; i < size; i++) {
+            if (records[i] == record) {
+                return;
+            }
+        }
+        if (size == records.length) {
+            if (score >= scores[size - 1]) {
+                return;
+            }
+            size--;
+        }
+        int index = size;
+        while (index > 0 && scores[index - 1] > score) {
+            records[index] = records[index - 1];
+            scores[index] = scores[index - 1];
+            index--;
+        }
+        records[index] = record;
+        scores[index] = score;
+        size++;
+    }
+
+    /**
+     * @return the candidate with the lowest score or null if the pool is empty
+     */
+    public Record poll() {
+        if (size == 0) {
+            return null;
+        }
+        final Record record = records[0];
+        size--;
+        System.arraycopy(records, 1, records, 0, size);
+        System.arraycopy(scores, 1, scores, 0, size);
+        records[size] = null;
+        return record;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.impl.CMap;
+import com.hazelcast.impl.ConcurrentMapManager;
+import com.hazelcast.impl.FactoryImpl;
+import com.hazelcast.impl.PartitionManager;
+import com.hazelcast.impl.Record;
+import com.hazelcast.impl.base.KeyValue;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.util.Clock;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Applies an entry processor to the entries of the given partitions, which the caller
+ * expects the member it runs on to own. The keys of a partition are collected only if
+ * the member owns it before and after collecting them, otherwise the partition is
+ * returned as not owned so every partition is processed by exactly one member. Each
+ * entry is processed by its own executeOnKey call so locks, backups and migrations
+ * are handled the same way as for a single key.
+ */
+public class ExecuteOnEntriesCallable implements Callable<ExecuteOnEntriesResult>, HazelcastInstanceAware, DataSerializable {
+
+    private String mapName;
+    private Data processor;
+    private Data predicateData;
+    private List<Integer> partitionIds;
+    private FactoryImpl factory = null;
+
+    public ExecuteOnEntriesCallable() {
+    }
+
+    public ExecuteOnEntriesCallable(String mapName, Data processor, Data predicateData, List<Integer> partitionIds) {
+        this.mapName = mapName;
+        this.processor = processor;
+        this.predicateData = predicateData;
+        this.partitionIds = partitionIds;
+    }
+
+    public ExecuteOnEntriesResult call() throws Exception {
+        final ConcurrentMapManager c = factory.node.concurrentMapManager;
+        final ExecuteOnEntriesResult result = new ExecuteOnEntriesResult();
+        final CMap cmap = c.getMap(mapName);
+        final Predicate predicate = (Predicate) toObject(predicateData);
+        final long now = Clock.currentTimeMillis();
+        final Map<Integer, List<Data>> keysByPartition = new HashMap<Integer, List<Data>>(partitionIds.size());
+        for (Integer partitionId : partitionIds) {
+            if (isOwned(c, partitionId)) {
+                keysByPartition.put(partitionId, new ArrayList<Data>());
+            } else {
+                result.getNotOwnedPartitions().add(partitionId);
+            }
+        }
+        if (cmap != null && !keysByPartition.isEmpty()) {
+            for (Record record : cmap.getMapIndexService().getOwnedRecords()) {
+                final List<Data> keys = keysByPartition.get(record.getBlockId());
+                if (keys != null && record.isActive() && record.isValid(now) && record.hasValueData()
+                        && (predicate == null || predicate.apply(record))) {
+                    keys.add(record.getKeyData());
+                }
+            }
+        }
+        for (Map.Entry<Integer, List<Data>> entry : keysByPartition.entrySet()) {
+            if (!isOwned(c, entry.getKey())) {
+                // migrated while the keys were collected, its keys may be missing
+                result.getNotOwnedPartitions().add(entry.getKey());
+                continue;
+            }
+            for (Data key : entry.getValue()) {
+                final Data value = c.executeOnKey(mapName, key, processor);
+                if (value != null) {
+                    result.getPairs().addKeyValue(new KeyValue(key, value));
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean isOwned(ConcurrentMapManager c, int partitionId) {
+        final PartitionManager partitionManager = c.getPartitionManager();
+        return c.getThisAddress().equals(partitionManager.getPartition(partitionId).getOwner())
+                && !partitionManager.isPartitionMigrating(partitionId);
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeUTF(mapName);
+        processor.writeData(out);
+        boolean hasPredicate = predicateData != null;
+        out.writeBoolean(hasPredicate);
+        if (hasPredicate) {
+            predicateData.writeData(out);
+        }
+        out.writeInt(partitionIds.size());
+        for (Integer partitionId : partitionIds) {
+            out.writeInt(partitionId);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        mapName = in.readUTF();
+        processor = new Data();
+        processor.readData(in);
+        boolean hasPredicate = in.readBoolean();
+        if (hasPredicate) {
+            predicateData = new Data();
+            predicateData.readData(in);
+        }
+        final int partitionCount = in.readInt();
+        partitionIds = new ArrayList<Integer>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitionIds.add(in.readInt());
+        }
+    }
+
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.factory = (FactoryImpl) hazelcastInstance;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.base.Pairs;
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results of an {@link ExecuteOnEntriesCallable} and the partitions it did not process
+ * because the member did not own them, to be sent to their new owners.
+ */
+public class ExecuteOnEntriesResult implements DataSerializable {
+
+    private Pairs pairs = new Pairs();
+    private List<Integer> notOwnedPartitions = new ArrayList<Integer>();
+
+    public Pairs getPairs() {
+        return pairs;
+    }
+
+    public List<Integer> getNotOwnedPartitions() {
+        return notOwnedPartitions;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        pairs.writeData(out);
+        out.writeInt(notOwnedPartitions.size());
+        for (Integer partitionId : notOwnedPartitions) {
+            out.writeInt(partitionId);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        pairs.readData(in);
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            notOwnedPartitions.add(in.readInt());
+        }
+    }
+}
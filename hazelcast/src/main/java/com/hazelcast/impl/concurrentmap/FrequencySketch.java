@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch estimating the access frequency of keys, used as approximate LFU.
+ * Each key has four 4-bit counters (max 15) packed in a long[] table. All counters
+ * are halved once the number of increments reaches ten times the table capacity,
+ * so old popularity fades away.
+ * <p/>
+ * Shared by the partition threads. Counters are updated by compare-and-set, and the
+ * halving is not done by {@link #increment(int)}: the thread whose increment makes it
+ * due gets true and runs {@link #age()} off the access path.
+ */
+public class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final AtomicLongArray table;
+
+    private final int tableMask;
+
+    private final int sampleSize;
+
+    private final AtomicInteger additions = new AtomicInteger();
+
+    private final AtomicBoolean agingDue = new AtomicBoolean();
+
+    public FrequencySketch(int expectedSize) {
+        int capacity = Math.min(Math.max(expectedSize, 16), MAX_CAPACITY);
+        int tableSize = Integer.highestOneBit(capacity - 1) << 1;
+        table = new AtomicLongArray(tableSize);
+        tableMask = tableSize - 1;
+        sampleSize = 10 * tableSize;
+    }
+
+    /**
+     * @return true if the counters should be halved, the caller then calls {@link #age()}
+     */
+    public boolean increment(int hash) {
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        return added && additions.incrementAndGet() >= sampleSize && agingDue.compareAndSet(false, true);
+    }
+
+    public int frequency(int hash) {
+        final int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            final int count = (int) ((table.get(indexOf(hash, i)) >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        while (true) {
+            final long value = table.get(index);
+            if ((value & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, value, value + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    /**
+     * Halves all the counters. Increments done meanwhile are halved or not,
+     * depending on whether they reach a counter before it is halved.
+     */
+    public void age() {
+        for (int i = 0; i < table.length(); i++) {
+            long value;
+            do {
+                value = table.get(i);
+            } while (!table.compareAndSet(i, value, (value >>> 1) & RESET_MASK));
+        }
+        int count;
+        do {
+            count = additions.get();
+        } while (!additions.compareAndSet(count, count >>> 1));
+        agingDue.set(false);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.impl.CMap;
+import com.hazelcast.impl.ConcurrentMapManager;
+import com.hazelcast.impl.FactoryImpl;
+import com.hazelcast.impl.PartitionManager;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Aggregator;
+import com.hazelcast.query.Predicate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Aggregates the entries owned by the member it runs on and returns the partial
+ * result, null if the partitions changed during the aggregation.
+ */
+public class MapAggregateCallable implements Callable<Aggregator>, DataSerializable, HazelcastInstanceAware {
+    private String mapName;
+    private Data aggregatorData;
+    private Data predicateData;
+    private int partitionVersion;
+    private transient HazelcastInstance hazelcast;
+
+    public MapAggregateCallable() {
+    }
+
+    public MapAggregateCallable(String mapName, Data aggregatorData, Data predicateData, int partitionVersion) {
+        this.mapName = mapName;
+        this.aggregatorData = aggregatorData;
+        this.predicateData = predicateData;
+        this.partitionVersion = partitionVersion;
+    }
+
+    public Aggregator call() throws Exception {
+        FactoryImpl factory = (FactoryImpl) hazelcast;
+        ConcurrentMapManager concurrentMapManager = factory.node.concurrentMapManager;
+        CMap cmap = concurrentMapManager.getMap(mapName);
+        if (cmap == null) return (Aggregator) toObject(aggregatorData);
+        PartitionManager partitionManager = concurrentMapManager.getPartitionManager();
+        if (partitionManager.getVersion() != partitionVersion) return null;
+        Aggregator aggregator = concurrentMapManager.aggregateMap(cmap, aggregatorData, (Predicate) toObject(predicateData));
+        if (partitionManager.getVersion() != partitionVersion) return null;
+        return aggregator;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeUTF(mapName);
+        out.writeInt(partitionVersion);
+        aggregatorData.writeData(out);
+        boolean hasPredicate = predicateData != null;
+        out.writeBoolean(hasPredicate);
+        if (hasPredicate) {
+            predicateData.writeData(out);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        mapName = in.readUTF();
+        partitionVersion = in.readInt();
+        aggregatorData = new Data();
+        aggregatorData.readData(in);
+        boolean hasPredicate = in.readBoolean();
+        if (hasPredicate) {
+            predicateData = new Data();
+            predicateData.readData(in);
+        }
+    }
+
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.hazelcast = hazelcastInstance;
+    }
+}
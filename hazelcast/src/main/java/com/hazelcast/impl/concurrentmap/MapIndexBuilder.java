@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.CMap;
+import com.hazelcast.impl.Node;
+import com.hazelcast.impl.Processable;
+import com.hazelcast.impl.Record;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Data;
+import com.hazelcast.query.Index;
+import com.hazelcast.query.MapIndexService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Builds an index added to a populated map for the records owned by this member.
+ * Runs on the query executor and goes partition by partition: the index values are
+ * extracted on the executor thread, then the records of the partition are indexed by
+ * the thread owning the partition. The index is marked ready when all the partitions are done,
+ * queries don't use it until then.
+ */
+public class MapIndexBuilder implements Runnable {
+    private final CMap cmap;
+    private final Index index;
+    private final Node node;
+    private final ILogger logger;
+
+    public MapIndexBuilder(CMap cmap, Index index) {
+        this.cmap = cmap;
+        this.index = index;
+        this.node = cmap.getNode();
+        this.logger = node.getLogger(MapIndexBuilder.class.getName());
+    }
+
+    public void run() {
+        final MapIndexService mapIndexService = cmap.getMapIndexService();
+        final List<Record>[] partitionRecords = groupByPartition(mapIndexService);
+        for (int partitionId = 0; partitionId < partitionRecords.length; partitionId++) {
+            final List<Record> records = partitionRecords[partitionId];
+            if (records == null) continue;
+            if (!node.isActive() || mapIndexService.getIndexes().get(index.getExpression()) != index) {
+                // node is shutting down or map is destroyed
+                return;
+            }
+            final int size = records.size();
+            final Data[] values = new Data[size];
+            final Object[] indexValues = new Object[size];
+            try {
+                for (int i = 0; i < size; i++) {
+                    final Data valueData = records.get(i).getValueData();
+                    if (valueData != null) {
+                        values[i] = valueData;
+                        indexValues[i] = index.extractIndexValue(toObject(valueData));
+                    }
+                }
+            } catch (Throwable e) {
+                logger.log(Level.WARNING, cmap.getName() + " index " + index.getExpression()
+                        + " cannot be built, queries will not use it", e);
+                return;
+            }
+            node.clusterService.enqueuePartitionAndWait(partitionId, new Processable() {
+                public void process() {
+                    for (int i = 0; i < size; i++) {
+                        mapIndexService.buildIndex(index, records.get(i), values[i], indexValues[i]);
+                    }
+                }
+            });
+        }
+        node.concurrentMapManager.enqueueAndWait(new Processable() {
+            public void process() {
+                if (mapIndexService.getIndexes().get(index.getExpression()) == index) {
+                    mapIndexService.markIndexReady(index);
+                }
+            }
+        });
+        logger.log(Level.FINEST, cmap.getName() + " index " + index.getExpression() + " is ready");
+    }
+
+    /**
+     * Records put after the index was added are indexed as usual, the records
+     * in the snapshot that were updated or removed meanwhile are skipped while building.
+     */
+    private List<Record>[] groupByPartition(MapIndexService mapIndexService) {
+        final List<Record>[] partitionRecords = new List[node.concurrentMapManager.getPartitionCount()];
+        for (Record record : mapIndexService.getOwnedRecords()) {
+            final int partitionId = record.getBlockId();
+            List<Record> records = partitionRecords[partitionId];
+            if (records == null) {
+                records = new ArrayList<Record>();
+                partitionRecords[partitionId] = records;
+            }
+            records.add(record);
+        }
+        return partitionRecords;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.util.Clock;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of entries loaded by this member from the MapLoader for each partition,
+ * during the initial load of a map.
+ */
+public class MapLoadProgress {
+
+    private final AtomicIntegerArray loadedCounts;
+
+    private final AtomicLong loadedCount = new AtomicLong();
+
+    private volatile long startTime = 0;
+
+    private volatile long endTime = 0;
+
+    public MapLoadProgress(int partitionCount) {
+        this.loadedCounts = new AtomicIntegerArray(partitionCount);
+    }
+
+    public void start() {
+        startTime = Clock.currentTimeMillis();
+    }
+
+    public void complete() {
+        endTime = Clock.currentTimeMillis();
+    }
+
+    public void onLoaded(int partitionId, int count) {
+        loadedCounts.addAndGet(partitionId, count);
+        loadedCount.addAndGet(count);
+    }
+
+    public boolean isCompleted() {
+        return endTime != 0;
+    }
+
+    public long getLoadedCount() {
+        return loadedCount.get();
+    }
+
+    public int getLoadedCount(int partitionId) {
+        return loadedCounts.get(partitionId);
+    }
+
+    public int[] getLoadedCounts() {
+        final int[] counts = new int[loadedCounts.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = loadedCounts.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * @return duration of the load in milliseconds, so far if it is not completed
+     */
+    public long getDuration() {
+        if (startTime == 0) return 0;
+        return (endTime == 0 ? Clock.currentTimeMillis() : endTime) - startTime;
+    }
+
+    @Override
+    public String toString() {
+        return "MapLoadProgress{loaded=" + loadedCount.get()
+                + ", completed=" + isCompleted()
+                + ", duration=" + getDuration() + "}";
+    }
+}
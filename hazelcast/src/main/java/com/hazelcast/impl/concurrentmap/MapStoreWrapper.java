@@ -18,10 +18,12 @@ package com.hazelcast.impl.concurrentmap;
 
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.MapLoader;
+import com.hazelcast.core.MapKeyStreamingLoader;
 import com.hazelcast.core.MapLoaderLifecycleSupport;
 import com.hazelcast.core.MapStore;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -133,6 +135,23 @@ public class MapStoreWrapper implements MapStore {
         return null;
     }
 
+    /**
+     * @param partitionIds partitions whose keys are streamed if the loader is a MapKeyStreamingLoader
+     * @return iterator over the keys of the loader, streamed for the partitions if the loader
+     *         is a MapKeyStreamingLoader, otherwise over all the keys, null if there are no keys
+     */
+    public Iterator iterateKeys(Set<Integer> partitionIds) {
+        if (enabled.get()) {
+            checkInit();
+            if (mapLoader instanceof MapKeyStreamingLoader) {
+                return ((MapKeyStreamingLoader) mapLoader).iterateKeys(partitionIds);
+            }
+            final Set keys = mapLoader.loadAllKeys();
+            return (keys == null) ? null : keys.iterator();
+        }
+        return null;
+    }
+
     public Object load(Object key) {
         if (enabled.get()) {
             checkInit();
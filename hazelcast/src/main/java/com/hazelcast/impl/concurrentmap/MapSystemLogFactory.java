@@ -50,7 +50,8 @@ public class MapSystemLogFactory {
             targetConnected = (targetConnection != null && targetConnection.live());
         }
         return new RedoLog(key, request.operation, target, targetConnected,
-                members, partitionInfo, request.redoCount, pm.getMigratingPartition());
+                members, partitionInfo, request.redoCount,
+                (partitionInfo == null) ? null : pm.getMigratingPartition(partitionInfo.getPartitionId()));
     }
 
     static class RedoLog extends SystemLog {
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Responses of the requests of a {@link RequestBatch} sent to the owner of their keys,
+ * in the order of the requests. Each response carries the record version, lock count
+ * and long value the caller needs to back up the request. Requests which should be
+ * redone, because their keys are migrating or owned by another member, are marked.
+ */
+public class MultiKeyResponses implements DataSerializable {
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_REDO = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DATA = 4;
+
+    private byte[] types;
+    private Object[] responses;
+    private long[] versions;
+    private int[] lockCounts;
+    private long[] longValues;
+
+    public MultiKeyResponses() {
+    }
+
+    public MultiKeyResponses(int size) {
+        types = new byte[size];
+        responses = new Object[size];
+        versions = new long[size];
+        lockCounts = new int[size];
+        longValues = new long[size];
+    }
+
+    /**
+     * @param response Boolean, Long, Data or null
+     */
+    public void setResponse(int index, Object response, long version, int lockCount, long longValue) {
+        if (response == null) {
+            types[index] = TYPE_NULL;
+        } else if (response instanceof Boolean) {
+            types[index] = TYPE_BOOLEAN;
+        } else if (response instanceof Long) {
+            types[index] = TYPE_LONG;
+        } else if (response instanceof Data) {
+            types[index] = TYPE_DATA;
+        } else {
+            throw new IllegalArgumentException("Unexpected response " + response);
+        }
+        responses[index] = response;
+        versions[index] = version;
+        lockCounts[index] = lockCount;
+        longValues[index] = longValue;
+    }
+
+    public void setRedo(int index) {
+        types[index] = TYPE_REDO;
+    }
+
+    public boolean isRedo(int index) {
+        return types[index] == TYPE_REDO;
+    }
+
+    public Object getResponse(int index) {
+        return responses[index];
+    }
+
+    public long getVersion(int index) {
+        return versions[index];
+    }
+
+    public int getLockCount(int index) {
+        return lockCounts[index];
+    }
+
+    public long getLongValue(int index) {
+        return longValues[index];
+    }
+
+    public int size() {
+        return (types == null) ? 0 : types.length;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeInt(types.length);
+        for (int i = 0; i < types.length; i++) {
+            final byte type = types[i];
+            out.writeByte(type);
+            if (type == TYPE_REDO) {
+                continue;
+            }
+            if (type == TYPE_BOOLEAN) {
+                out.writeBoolean((Boolean) responses[i]);
+            } else if (type == TYPE_LONG) {
+                out.writeLong((Long) responses[i]);
+            } else if (type == TYPE_DATA) {
+                ((Data) responses[i]).writeData(out);
+            }
+            out.writeLong(versions[i]);
+            out.writeInt(lockCounts[i]);
+            out.writeLong(longValues[i]);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        final int size = in.readInt();
+        types = new byte[size];
+        responses = new Object[size];
+        versions = new long[size];
+        lockCounts = new int[size];
+        longValues = new long[size];
+        for (int i = 0; i < size; i++) {
+            final byte type = in.readByte();
+            types[i] = type;
+            if (type == TYPE_REDO) {
+                continue;
+            }
+            if (type == TYPE_BOOLEAN) {
+                responses[i] = in.readBoolean();
+            } else if (type == TYPE_LONG) {
+                responses[i] = in.readLong();
+            } else if (type == TYPE_DATA) {
+                final Data data = new Data();
+                data.readData(in);
+                responses[i] = data;
+            }
+            versions[i] = in.readLong();
+            lockCounts[i] = in.readInt();
+            longValues[i] = in.readLong();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MultiKeyResponses{size=" + size() + '}';
+    }
+}
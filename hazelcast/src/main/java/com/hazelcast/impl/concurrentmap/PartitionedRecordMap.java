@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.Record;
+import com.hazelcast.nio.Data;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records of a map kept in a separate ConcurrentMap for each partition, so the records
+ * of one partition can be collected for migration, or skipped during cleanup, without
+ * going over the records of all the other partitions.
+ * <p/>
+ * Keys are routed to their partition the same way ConcurrentMapManager.getPartitionId does.
+ * The values and entry views iterate the partitions one after another, they are weakly
+ * consistent like the views of a ConcurrentHashMap.
+ */
+public class PartitionedRecordMap extends AbstractMap<Data, Record> implements ConcurrentMap<Data, Record> {
+
+    private final ConcurrentMap<Data, Record>[] partitions;
+
+    private final Collection<Record> values = new Values();
+
+    private final Set<Map.Entry<Data, Record>> entrySet = new EntrySet();
+
+    @SuppressWarnings("unchecked")
+    public PartitionedRecordMap(int partitionCount) {
+        partitions = new ConcurrentMap[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new ConcurrentHashMap<Data, Record>(16, 0.75f, 1);
+        }
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    public int getPartitionId(Data key) {
+        int hash = key.getPartitionHash();
+        return (hash == Integer.MIN_VALUE) ? 0 : Math.abs(hash) % partitions.length;
+    }
+
+    /**
+     * @return live map of the records of the given partition
+     */
+    public ConcurrentMap<Data, Record> getPartition(int partitionId) {
+        return partitions[partitionId];
+    }
+
+    private ConcurrentMap<Data, Record> partitionOf(Object key) {
+        return (key instanceof Data) ? partitions[getPartitionId((Data) key)] : null;
+    }
+
+    @Override
+    public Record get(Object key) {
+        final ConcurrentMap<Data, Record> partition = partitionOf(key);
+        return (partition == null) ? null : partition.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        final ConcurrentMap<Data, Record> partition = partitionOf(key);
+        return partition != null && partition.containsKey(key);
+    }
+
+    @Override
+    public Record put(Data key, Record record) {
+        return partitions[getPartitionId(key)].put(key, record);
+    }
+
+    public Record putIfAbsent(Data key, Record record) {
+        return partitions[getPartitionId(key)].putIfAbsent(key, record);
+    }
+
+    @Override
+    public Record remove(Object key) {
+        final ConcurrentMap<Data, Record> partition = partitionOf(key);
+        return (partition == null) ? null : partition.remove(key);
+    }
+
+    public boolean remove(Object key, Object record) {
+        final ConcurrentMap<Data, Record> partition = partitionOf(key);
+        return partition != null && partition.remove(key, record);
+    }
+
+    public boolean replace(Data key, Record oldRecord, Record newRecord) {
+        return partitions[getPartitionId(key)].replace(key, oldRecord, newRecord);
+    }
+
+    public Record replace(Data key, Record record) {
+        return partitions[getPartitionId(key)].replace(key, record);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ConcurrentMap<Data, Record> partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (ConcurrentMap<Data, Record> partition : partitions) {
+            if (!partition.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (ConcurrentMap<Data, Record> partition : partitions) {
+            partition.clear();
+        }
+    }
+
+    @Override
+    public Collection<Record> values() {
+        return values;
+    }
+
+    @Override
+    public Set<Map.Entry<Data, Record>> entrySet() {
+        return entrySet;
+    }
+
+    private class Values extends AbstractCollection<Record> {
+        @Override
+        public Iterator<Record> iterator() {
+            return new PartitionsIterator<Record>() {
+                Iterator<Record> iterator(ConcurrentMap<Data, Record> partition) {
+                    return partition.values().iterator();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return PartitionedRecordMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return PartitionedRecordMap.this.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            PartitionedRecordMap.this.clear();
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<Data, Record>> {
+        @Override
+        public Iterator<Map.Entry<Data, Record>> iterator() {
+            return new PartitionsIterator<Map.Entry<Data, Record>>() {
+                Iterator<Map.Entry<Data, Record>> iterator(ConcurrentMap<Data, Record> partition) {
+                    return partition.entrySet().iterator();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return PartitionedRecordMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return PartitionedRecordMap.this.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            PartitionedRecordMap.this.clear();
+        }
+    }
+
+    private abstract class PartitionsIterator<T> implements Iterator<T> {
+        private int partitionId = -1;
+        private Iterator<T> current = Collections.<T>emptyList().iterator();
+        private Iterator<T> last = null;
+
+        abstract Iterator<T> iterator(ConcurrentMap<Data, Record> partition);
+
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (++partitionId >= partitions.length) {
+                    return false;
+                }
+                current = iterator(partitions[partitionId]);
+            }
+            return true;
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = current;
+            return current.next();
+        }
+
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            last.remove();
+            last = null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.nio.Data;
+
+import java.util.Map;
+
+import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
+
+/**
+ * Entry given to an {@link com.hazelcast.core.EntryProcessor}. Key and value are
+ * deserialized only if the processor asks for them.
+ */
+public class ProcessedEntry implements Map.Entry {
+    private final Data keyData;
+    private Data valueData;
+    private Object key;
+    private Object value;
+    private boolean modified = false;
+
+    public ProcessedEntry(Data keyData, Data valueData) {
+        this.keyData = keyData;
+        this.valueData = valueData;
+    }
+
+    public Object getKey() {
+        if (key == null) {
+            key = toObject(keyData);
+        }
+        return key;
+    }
+
+    public Object getValue() {
+        if (value == null && valueData != null) {
+            value = toObject(valueData);
+        }
+        return value;
+    }
+
+    public Object setValue(Object newValue) {
+        Object oldValue = getValue();
+        value = newValue;
+        valueData = null;
+        modified = true;
+        return oldValue;
+    }
+
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * @return serialized value of the entry, null if the entry doesn't exist
+     */
+    public Data getValueData() {
+        if (valueData == null && value != null) {
+            valueData = toData(value);
+        }
+        return valueData;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessedEntry{key=" + getKey() + ", modified=" + modified + '}';
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.Record;
+
+import java.util.Random;
+
+/**
+ * Records of a map kept in arrays so that a random record can be picked in constant time.
+ * Arrays are striped by partition id to keep contention of partition threads low.
+ * A record knows its position in its stripe ({@link Record#getSamplingIndex()})
+ * so removal is a constant time swap with the last record.
+ */
+public class RecordSampler {
+
+    private static final int STRIPE_COUNT = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    public RecordSampler() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void add(Record record) {
+        stripeOf(record).add(record);
+    }
+
+    public void remove(Record record) {
+        stripeOf(record).remove(record);
+    }
+
+    /**
+     * @return a random record or null if there is none
+     */
+    public Record sample(Random random) {
+        final int start = random.nextInt(STRIPE_COUNT);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            final Record record = stripes[(start + i) % STRIPE_COUNT].sample(random);
+            if (record != null) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    private Stripe stripeOf(Record record) {
+        return stripes[record.getBlockId() % STRIPE_COUNT];
+    }
+
+    private static class Stripe {
+
+        private Record[] records = new Record[16];
+
+        private int size;
+
+        synchronized void add(Record record) {
+            if (record.getSamplingIndex() != -1) {
+                return;
+            }
+            if (size == records.length) {
+                final Record[] newRecords = new Record[size * 2];
+                System.arraycopy(records, 0, newRecords, 0, size);
+                records = newRecords;
+            }
+            record.setSamplingIndex(size);
+            records[size++] = record;
+        }
+
+        synchronized void remove(Record record) {
+            final int index = record.getSamplingIndex();
+            if (index < 0 || index >= size || records[index] != record) {
+                return;
+            }
+            final Record last = records[--size];
+            records[index] = last;
+            last.setSamplingIndex(index);
+            records[size] = null;
+            record.setSamplingIndex(-1);
+            if (records.length > 16 && size < records.length / 4) {
+                final Record[] newRecords = new Record[records.length / 2];
+                System.arraycopy(records, 0, newRecords, 0, size);
+                records = newRecords;
+            }
+        }
+
+        synchronized Record sample(Random random) {
+            return (size == 0) ? null : records[random.nextInt(size)];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            for (int i = 0; i < size; i++) {
+                records[i].setSamplingIndex(-1);
+                records[i] = null;
+            }
+            size = 0;
+        }
+    }
+}
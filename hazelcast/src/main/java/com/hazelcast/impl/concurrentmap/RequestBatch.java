@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.ClusterOperation;
+import com.hazelcast.impl.Request;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.query.Index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Requests sent to the same member in one packet; backups to a replica or
+ * operations on many keys to their owner. Requests are handled in the order
+ * they are added.
+ */
+public class RequestBatch implements DataSerializable {
+    private List<Request> requests;
+
+    public RequestBatch() {
+    }
+
+    public RequestBatch(int capacity) {
+        requests = new ArrayList<Request>(capacity);
+    }
+
+    public void add(Request request) {
+        requests.add(request);
+    }
+
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    public int size() {
+        return (requests == null) ? 0 : requests.size();
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeInt(requests.size());
+        for (Request request : requests) {
+            out.writeShort(request.operation.getValue());
+            out.writeUTF(request.name);
+            request.key.writeData(out);
+            boolean valueNull = (request.value == null);
+            out.writeBoolean(valueNull);
+            if (!valueNull) {
+                request.value.writeData(out);
+            }
+            out.writeInt(request.blockId);
+            out.writeLong(request.timeout);
+            out.writeLong(request.ttl);
+            out.writeLong(request.txnId);
+            out.writeInt(request.lockThreadId);
+            out.writeInt(request.lockCount);
+            boolean hasLockAddress = (request.lockAddress != null);
+            out.writeBoolean(hasLockAddress);
+            if (hasLockAddress) {
+                request.lockAddress.writeData(out);
+            }
+            out.writeLong(request.longValue);
+            out.writeLong(request.version);
+            byte indexCount = (request.indexes == null) ? 0 : (byte) request.indexes.length;
+            out.write(indexCount);
+            for (byte i = 0; i < indexCount; i++) {
+                Index.writeIndexValue(out, request.indexes[i]);
+                out.write(request.indexTypes[i]);
+            }
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        int size = in.readInt();
+        requests = new ArrayList<Request>(size);
+        for (int i = 0; i < size; i++) {
+            Request request = new Request();
+            request.local = false;
+            request.operation = ClusterOperation.create(in.readShort());
+            request.name = in.readUTF();
+            request.key = new Data();
+            request.key.readData(in);
+            boolean valueNull = in.readBoolean();
+            if (!valueNull) {
+                request.value = new Data();
+                request.value.readData(in);
+            }
+            request.blockId = in.readInt();
+            request.timeout = in.readLong();
+            request.ttl = in.readLong();
+            request.txnId = in.readLong();
+            request.lockThreadId = in.readInt();
+            request.lockCount = in.readInt();
+            boolean hasLockAddress = in.readBoolean();
+            if (hasLockAddress) {
+                request.lockAddress = new Address();
+                request.lockAddress.readData(in);
+            }
+            request.longValue = in.readLong();
+            request.version = in.readLong();
+            byte indexCount = in.readByte();
+            if (indexCount > 0) {
+                Object[] indexes = new Object[indexCount];
+                byte[] indexTypes = new byte[indexCount];
+                for (byte j = 0; j < indexCount; j++) {
+                    indexes[j] = Index.readIndexValue(in);
+                    indexTypes[j] = in.readByte();
+                }
+                request.setIndexes(indexes, indexTypes);
+            }
+            requests.add(request);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RequestBatch{size=" + size() + '}';
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.Record;
+import com.hazelcast.nio.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Records of one partition waiting to be written to the MapStore, in the order of
+ * their store times. Repeated updates of a key are coalesced into one entry that keeps
+ * the store time of the first update, the latest value is stored. Entries queued again
+ * with a later store time after a failed store don't hold back the entries due before.
+ */
+public class WriteBehindQueue {
+
+    private final Map<Data, DelayedEntry> entries = new HashMap<Data, DelayedEntry>();
+
+    private final TreeSet<DelayedEntry> entriesByStoreTime = new TreeSet<DelayedEntry>();
+
+    // orders the entries with the same store time by arrival
+    private long sequence = 0;
+
+    public synchronized void offer(Record record, long storeTime) {
+        final Data key = record.getKeyData();
+        final DelayedEntry entry = entries.get(key);
+        if (entry == null) {
+            final DelayedEntry newEntry = new DelayedEntry(key, record, storeTime, sequence++);
+            entries.put(key, newEntry);
+            entriesByStoreTime.add(newEntry);
+        } else {
+            entry.record = record;
+        }
+    }
+
+    /**
+     * @return records whose store time has come, at most maxCount of them
+     */
+    public synchronized List<Record> poll(long now, int maxCount) {
+        List<Record> records = null;
+        final Iterator<DelayedEntry> it = entriesByStoreTime.iterator();
+        while (it.hasNext()) {
+            final DelayedEntry entry = it.next();
+            if (entry.storeTime > now) {
+                break;
+            }
+            it.remove();
+            entries.remove(entry.key);
+            if (records == null) {
+                records = new ArrayList<Record>(Math.min(maxCount, entries.size() + 1));
+            }
+            records.add(entry.record);
+            if (records.size() >= maxCount) {
+                break;
+            }
+        }
+        return records;
+    }
+
+    public synchronized Record remove(Data key) {
+        final DelayedEntry entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        entriesByStoreTime.remove(entry);
+        return entry.record;
+    }
+
+    /**
+     * Removes the entry of the key if its record is not newer than the stored version.
+     */
+    public synchronized void removeStored(Data key, long version) {
+        final DelayedEntry entry = entries.get(key);
+        if (entry != null && entry.record.getVersion() <= version) {
+            entries.remove(key);
+            entriesByStoreTime.remove(entry);
+        }
+    }
+
+    public synchronized boolean contains(Data key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        entriesByStoreTime.clear();
+    }
+
+    private static class DelayedEntry implements Comparable<DelayedEntry> {
+        final Data key;
+        Record record;
+        final long storeTime;
+        final long sequence;
+
+        DelayedEntry(Data key, Record record, long storeTime, long sequence) {
+            this.key = key;
+            this.record = record;
+            this.storeTime = storeTime;
+            this.sequence = sequence;
+        }
+
+        public int compareTo(DelayedEntry other) {
+            if (storeTime != other.storeTime) {
+                return storeTime < other.storeTime ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+}
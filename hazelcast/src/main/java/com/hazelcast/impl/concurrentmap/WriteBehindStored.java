@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.cluster.AbstractRemotelyProcessable;
+import com.hazelcast.impl.CMap;
+import com.hazelcast.nio.Data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sent by the owner of a partition to its backups when write-behind entries are
+ * stored, so the backups stop keeping them for a failover.
+ */
+public class WriteBehindStored extends AbstractRemotelyProcessable {
+
+    private String mapName;
+    private List<Data> keys;
+    private long[] versions;
+
+    public WriteBehindStored() {
+    }
+
+    public WriteBehindStored(String mapName, List<Data> keys, long[] versions) {
+        this.mapName = mapName;
+        this.keys = keys;
+        this.versions = versions;
+    }
+
+    public void process() {
+        final CMap cmap = getNode().concurrentMapManager.getMap(mapName);
+        if (cmap != null) {
+            cmap.onWriteBehindStored(keys, versions);
+        }
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeUTF(mapName);
+        out.writeInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            keys.get(i).writeData(out);
+            out.writeLong(versions[i]);
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        mapName = in.readUTF();
+        final int size = in.readInt();
+        keys = new ArrayList<Data>(size);
+        versions = new long[size];
+        for (int i = 0; i < size; i++) {
+            final Data key = new Data();
+            key.readData(in);
+            keys.add(key);
+            versions[i] = in.readLong();
+        }
+    }
+}
@@ -48,8 +48,8 @@ public class AtomicNumberOperationsCounter extends OperationsCounterSupport<Loca
         stats.periodStart = ((AtomicNumberOperationsCounter) listOfSubCounters.get(0)).startTime;
         for (Object obj : listOfSubCounters) {
             AtomicNumberOperationsCounter sub = (AtomicNumberOperationsCounter) obj;
-            stats.modified.add(sub.modified.count.get(), sub.modified.totalLatency.get());
-            stats.nonModified.add(sub.nonModified.count.get(), sub.nonModified.totalLatency.get());
+            stats.modified.add(sub.modified.count.get(), sub.modified.totalLatency.get(), sub.modified.latencies);
+            stats.nonModified.add(sub.nonModified.count.get(), sub.nonModified.totalLatency.get(), sub.nonModified.latencies);
             stats.periodEnd = sub.endTime;
         }
         return stats;
@@ -68,8 +68,8 @@ public class AtomicNumberOperationsCounter extends OperationsCounterSupport<Loca
     LocalAtomicNumberOperationStats getThis() {
         LocalAtomicNumberOperationStatsImpl stats = new LocalAtomicNumberOperationStatsImpl();
         stats.periodStart = this.startTime;
-        stats.modified = stats.new OperationStat(this.modified.count.get(), this.modified.totalLatency.get());
-        stats.nonModified = stats.new OperationStat(this.nonModified.count.get(), this.nonModified.totalLatency.get());
+        stats.modified = stats.new OperationStat(this.modified.count.get(), this.modified.totalLatency.get(), this.modified.latencies);
+        stats.nonModified = stats.new OperationStat(this.nonModified.count.get(), this.nonModified.totalLatency.get(), this.nonModified.latencies);
         stats.periodEnd = now();
         return stats;
     }
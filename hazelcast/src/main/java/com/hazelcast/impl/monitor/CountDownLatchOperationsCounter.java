@@ -62,9 +62,9 @@ public class CountDownLatchOperationsCounter extends OperationsCounterSupport<Lo
         stats.periodStart = ((CountDownLatchOperationsCounter) listOfSubCounters.get(0)).startTime;
         for (Object obj : listOfSubCounters) {
             CountDownLatchOperationsCounter sub = (CountDownLatchOperationsCounter) obj;
-            stats.await.add(sub.await.count.get(), sub.await.totalLatency.get());
-            stats.countdown.add(sub.countdown.count.get(), sub.countdown.totalLatency.get());
-            stats.other.add(sub.other.count.get(), sub.other.totalLatency.get());
+            stats.await.add(sub.await.count.get(), sub.await.totalLatency.get(), sub.await.latencies);
+            stats.countdown.add(sub.countdown.count.get(), sub.countdown.totalLatency.get(), sub.countdown.latencies);
+            stats.other.add(sub.other.count.get(), sub.other.totalLatency.get(), sub.other.latencies);
             stats.numberOfAwaitsReleased += sub.awaitsReleased.get();
             stats.numberOfGatesOpened += sub.gatesOpened.get();
             stats.periodEnd = sub.endTime;
@@ -88,9 +88,9 @@ public class CountDownLatchOperationsCounter extends OperationsCounterSupport<Lo
     LocalCountDownLatchOperationStats getThis() {
         LocalCountDownLatchOperationStatsImpl stats = new LocalCountDownLatchOperationStatsImpl();
         stats.periodStart = this.startTime;
-        stats.await = stats.new OperationStat(this.await.count.get(), this.await.totalLatency.get());
-        stats.countdown = stats.new OperationStat(this.countdown.count.get(), this.countdown.totalLatency.get());
-        stats.other = stats.new OperationStat(this.other.count.get(), this.other.totalLatency.get());
+        stats.await = stats.new OperationStat(this.await.count.get(), this.await.totalLatency.get(), this.await.latencies);
+        stats.countdown = stats.new OperationStat(this.countdown.count.get(), this.countdown.totalLatency.get(), this.countdown.latencies);
+        stats.other = stats.new OperationStat(this.other.count.get(), this.other.totalLatency.get(), this.other.latencies);
         stats.numberOfAwaitsReleased = this.awaitsReleased.get();
         stats.numberOfGatesOpened = this.gatesOpened.get();
         stats.periodEnd = now();
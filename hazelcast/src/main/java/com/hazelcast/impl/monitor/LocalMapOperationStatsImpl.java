@@ -73,6 +73,18 @@ public class LocalMapOperationStatsImpl extends LocalOperationStatsSupport imple
         return removes.totalLatency;
     }
 
+    public long getPutLatencyPercentile(double percentile) {
+        return puts.getLatencyPercentile(percentile);
+    }
+
+    public long getGetLatencyPercentile(double percentile) {
+        return gets.getLatencyPercentile(percentile);
+    }
+
+    public long getRemoveLatencyPercentile(double percentile) {
+        return removes.getLatencyPercentile(percentile);
+    }
+
     public long getNumberOfRemoves() {
         return removes.count;
     }
@@ -39,6 +39,17 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
     private long lockedEntryCount;
     private long lockWaitCount;
     private long dirtyEntryCount;
+    private long nearCacheEntryCount;
+    private long nearCacheHits;
+    private long nearCacheMisses;
+    private long nearCacheEvictions;
+    private long nearCacheInvalidations;
+    private long writeBehindQueueSize;
+    private long writeBehindBackupQueueSize;
+    private long writeBehindFailureCount;
+    private long initialLoadedEntryCount;
+    private int[] initialLoadedEntryCounts = new int[0];
+    private boolean initialLoadCompleted = true;
 
     enum Op {
         CREATE,
@@ -69,6 +80,20 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
         out.writeLong(lockedEntryCount);
         out.writeLong(lockWaitCount);
         out.writeLong(dirtyEntryCount);
+        out.writeLong(nearCacheEntryCount);
+        out.writeLong(nearCacheHits);
+        out.writeLong(nearCacheMisses);
+        out.writeLong(nearCacheEvictions);
+        out.writeLong(nearCacheInvalidations);
+        out.writeLong(writeBehindQueueSize);
+        out.writeLong(writeBehindBackupQueueSize);
+        out.writeLong(writeBehindFailureCount);
+        out.writeLong(initialLoadedEntryCount);
+        out.writeInt(initialLoadedEntryCounts.length);
+        for (int count : initialLoadedEntryCounts) {
+            out.writeInt(count);
+        }
+        out.writeBoolean(initialLoadCompleted);
     }
 
     void readDataInternal(DataInput in) throws IOException {
@@ -86,6 +111,20 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
         lockedEntryCount = in.readLong();
         lockWaitCount = in.readLong();
         dirtyEntryCount = in.readLong();
+        nearCacheEntryCount = in.readLong();
+        nearCacheHits = in.readLong();
+        nearCacheMisses = in.readLong();
+        nearCacheEvictions = in.readLong();
+        nearCacheInvalidations = in.readLong();
+        writeBehindQueueSize = in.readLong();
+        writeBehindBackupQueueSize = in.readLong();
+        writeBehindFailureCount = in.readLong();
+        initialLoadedEntryCount = in.readLong();
+        initialLoadedEntryCounts = new int[in.readInt()];
+        for (int i = 0; i < initialLoadedEntryCounts.length; i++) {
+            initialLoadedEntryCounts[i] = in.readInt();
+        }
+        initialLoadCompleted = in.readBoolean();
     }
 
     @Override
@@ -205,6 +244,94 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
         this.dirtyEntryCount = l;
     }
 
+    public long getNearCacheEntryCount() {
+        return nearCacheEntryCount;
+    }
+
+    public void setNearCacheEntryCount(long nearCacheEntryCount) {
+        this.nearCacheEntryCount = nearCacheEntryCount;
+    }
+
+    public long getNearCacheHits() {
+        return nearCacheHits;
+    }
+
+    public void setNearCacheHits(long nearCacheHits) {
+        this.nearCacheHits = nearCacheHits;
+    }
+
+    public long getNearCacheMisses() {
+        return nearCacheMisses;
+    }
+
+    public void setNearCacheMisses(long nearCacheMisses) {
+        this.nearCacheMisses = nearCacheMisses;
+    }
+
+    public long getNearCacheEvictions() {
+        return nearCacheEvictions;
+    }
+
+    public void setNearCacheEvictions(long nearCacheEvictions) {
+        this.nearCacheEvictions = nearCacheEvictions;
+    }
+
+    public long getNearCacheInvalidations() {
+        return nearCacheInvalidations;
+    }
+
+    public void setNearCacheInvalidations(long nearCacheInvalidations) {
+        this.nearCacheInvalidations = nearCacheInvalidations;
+    }
+
+    public long getWriteBehindQueueSize() {
+        return writeBehindQueueSize;
+    }
+
+    public void setWriteBehindQueueSize(long writeBehindQueueSize) {
+        this.writeBehindQueueSize = writeBehindQueueSize;
+    }
+
+    public long getWriteBehindBackupQueueSize() {
+        return writeBehindBackupQueueSize;
+    }
+
+    public void setWriteBehindBackupQueueSize(long writeBehindBackupQueueSize) {
+        this.writeBehindBackupQueueSize = writeBehindBackupQueueSize;
+    }
+
+    public long getWriteBehindFailureCount() {
+        return writeBehindFailureCount;
+    }
+
+    public void setWriteBehindFailureCount(long writeBehindFailureCount) {
+        this.writeBehindFailureCount = writeBehindFailureCount;
+    }
+
+    public long getInitialLoadedEntryCount() {
+        return initialLoadedEntryCount;
+    }
+
+    public void setInitialLoadedEntryCount(long initialLoadedEntryCount) {
+        this.initialLoadedEntryCount = initialLoadedEntryCount;
+    }
+
+    public int[] getInitialLoadedEntryCounts() {
+        return initialLoadedEntryCounts;
+    }
+
+    public void setInitialLoadedEntryCounts(int[] initialLoadedEntryCounts) {
+        this.initialLoadedEntryCounts = initialLoadedEntryCounts;
+    }
+
+    public boolean isInitialLoadCompleted() {
+        return initialLoadCompleted;
+    }
+
+    public void setInitialLoadCompleted(boolean initialLoadCompleted) {
+        this.initialLoadCompleted = initialLoadCompleted;
+    }
+
     @Override
     public String toString() {
         return "LocalMapStatsImpl{" +
@@ -222,6 +349,16 @@ public class LocalMapStatsImpl extends LocalInstanceStatsSupport<LocalMapOperati
                 ", lockedEntryCount=" + lockedEntryCount +
                 ", lockWaitCount=" + lockWaitCount +
                 ", dirtyEntryCount=" + dirtyEntryCount +
+                ", nearCacheEntryCount=" + nearCacheEntryCount +
+                ", nearCacheHits=" + nearCacheHits +
+                ", nearCacheMisses=" + nearCacheMisses +
+                ", nearCacheEvictions=" + nearCacheEvictions +
+                ", nearCacheInvalidations=" + nearCacheInvalidations +
+                ", writeBehindQueueSize=" + writeBehindQueueSize +
+                ", writeBehindBackupQueueSize=" + writeBehindBackupQueueSize +
+                ", writeBehindFailureCount=" + writeBehindFailureCount +
+                ", initialLoadedEntryCount=" + initialLoadedEntryCount +
+                ", initialLoadCompleted=" + initialLoadCompleted +
                 ", " + operationStats +
                 '}';
     }
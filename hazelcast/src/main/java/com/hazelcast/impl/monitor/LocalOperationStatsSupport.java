@@ -55,6 +55,7 @@ abstract class LocalOperationStatsSupport implements LocalInstanceOperationStats
     class OperationStat implements DataSerializable {
         long count;
         long totalLatency;
+        final LatencyHistogram latencies = new LatencyHistogram();
 
         public OperationStat() {
             this(0, 0);
@@ -65,25 +66,41 @@ abstract class LocalOperationStatsSupport implements LocalInstanceOperationStats
             this.totalLatency = l;
         }
 
+        public OperationStat(long c, long l, LatencyHistogram latencies) {
+            this(c, l);
+            this.latencies.add(latencies);
+        }
+
+        long getLatencyPercentile(double percentile) {
+            return latencies.getPercentile(percentile);
+        }
+
         @Override
         public String toString() {
             return "OperationStat{" + "count=" + count + ", averageLatency="
-                    + ((count == 0) ? 0 : totalLatency / count) + '}';
+                    + ((count == 0) ? 0 : totalLatency / count) + ", latencies=" + latencies + '}';
         }
 
         public void writeData(DataOutput out) throws IOException {
             out.writeLong(count);
             out.writeLong(totalLatency);
+            latencies.writeData(out);
         }
 
         public void readData(DataInput in) throws IOException {
             count = in.readLong();
             totalLatency = in.readLong();
+            latencies.readData(in);
         }
 
         public void add(long c, long l) {
             count += c;
             totalLatency += l;
         }
+
+        public void add(long c, long l, LatencyHistogram latencies) {
+            add(c, l);
+            this.latencies.add(latencies);
+        }
     }
 }
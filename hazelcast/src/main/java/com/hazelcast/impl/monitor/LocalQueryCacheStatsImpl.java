@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.monitor;
+
+import com.hazelcast.monitor.LocalQueryCacheStats;
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class LocalQueryCacheStatsImpl implements LocalQueryCacheStats, DataSerializable {
+    private long entryCount;
+    private long creationTime;
+    private long loadMillis;
+    private long eventCount;
+    private long lastUpdateTime;
+    private long stalenessMillis;
+    private long averageEventLagMillis;
+    private long maxEventLagMillis;
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeLong(entryCount);
+        out.writeLong(creationTime);
+        out.writeLong(loadMillis);
+        out.writeLong(eventCount);
+        out.writeLong(lastUpdateTime);
+        out.writeLong(stalenessMillis);
+        out.writeLong(averageEventLagMillis);
+        out.writeLong(maxEventLagMillis);
+    }
+
+    public void readData(DataInput in) throws IOException {
+        entryCount = in.readLong();
+        creationTime = in.readLong();
+        loadMillis = in.readLong();
+        eventCount = in.readLong();
+        lastUpdateTime = in.readLong();
+        stalenessMillis = in.readLong();
+        averageEventLagMillis = in.readLong();
+        maxEventLagMillis = in.readLong();
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(long creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    public void setLoadMillis(long loadMillis) {
+        this.loadMillis = loadMillis;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(long eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public long getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public void setLastUpdateTime(long lastUpdateTime) {
+        this.lastUpdateTime = lastUpdateTime;
+    }
+
+    public long getStalenessMillis() {
+        return stalenessMillis;
+    }
+
+    public void setStalenessMillis(long stalenessMillis) {
+        this.stalenessMillis = stalenessMillis;
+    }
+
+    public long getAverageEventLagMillis() {
+        return averageEventLagMillis;
+    }
+
+    public void setAverageEventLagMillis(long averageEventLagMillis) {
+        this.averageEventLagMillis = averageEventLagMillis;
+    }
+
+    public long getMaxEventLagMillis() {
+        return maxEventLagMillis;
+    }
+
+    public void setMaxEventLagMillis(long maxEventLagMillis) {
+        this.maxEventLagMillis = maxEventLagMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalQueryCacheStatsImpl{" +
+                "entryCount=" + entryCount +
+                ", creationTime=" + creationTime +
+                ", loadMillis=" + loadMillis +
+                ", eventCount=" + eventCount +
+                ", lastUpdateTime=" + lastUpdateTime +
+                ", stalenessMillis=" + stalenessMillis +
+                ", averageEventLagMillis=" + averageEventLagMillis +
+                ", maxEventLagMillis=" + maxEventLagMillis +
+                '}';
+    }
+}
@@ -25,16 +25,16 @@ import java.io.IOException;
 public class LocalQueueOperationStatsImpl extends LocalOperationStatsSupport
         implements LocalQueueOperationStats {
 
-    long numberOfOffers;
+    OperationStat offers = new OperationStat(0, 0);
     long numberOfRejectedOffers;
-    long numberOfPolls;
+    OperationStat polls = new OperationStat(0, 0);
     long numberOfEmptyPolls;
     long numberOfOtherOperations;
     long numberOfEvents;
 
     void writeDataInternal(DataOutput out) throws IOException {
-        out.writeLong(numberOfOffers);
-        out.writeLong(numberOfPolls);
+        offers.writeData(out);
+        polls.writeData(out);
         out.writeLong(numberOfRejectedOffers);
         out.writeLong(numberOfEmptyPolls);
         out.writeLong(numberOfOtherOperations);
@@ -42,8 +42,8 @@ public class LocalQueueOperationStatsImpl extends LocalOperationStatsSupport
     }
 
     void readDataInternal(DataInput in) throws IOException {
-        numberOfOffers = in.readLong();
-        numberOfPolls = in.readLong();
+        (offers = new OperationStat()).readData(in);
+        (polls = new OperationStat()).readData(in);
         numberOfRejectedOffers = in.readLong();
         numberOfEmptyPolls = in.readLong();
         numberOfOtherOperations = in.readLong();
@@ -51,11 +51,15 @@ public class LocalQueueOperationStatsImpl extends LocalOperationStatsSupport
     }
 
     public long total() {
-        return numberOfOffers + numberOfPolls + numberOfOtherOperations;
+        return offers.count + polls.count + numberOfOtherOperations;
     }
 
     public long getNumberOfOffers() {
-        return numberOfOffers;
+        return offers.count;
+    }
+
+    public long getOfferLatencyPercentile(double percentile) {
+        return offers.getLatencyPercentile(percentile);
     }
 
     public long getNumberOfRejectedOffers() {
@@ -63,7 +67,11 @@ public class LocalQueueOperationStatsImpl extends LocalOperationStatsSupport
     }
 
     public long getNumberOfPolls() {
-        return numberOfPolls;
+        return polls.count;
+    }
+
+    public long getPollLatencyPercentile(double percentile) {
+        return polls.getLatencyPercentile(percentile);
     }
 
     public long getNumberOfEmptyPolls() {
@@ -81,8 +89,8 @@ public class LocalQueueOperationStatsImpl extends LocalOperationStatsSupport
     public String toString() {
         return "LocalQueueOperationStats{" +
                 "total= " + total() +
-                ", offers:" + numberOfOffers +
-                ", polls:" + numberOfPolls +
+                ", offers:" + offers +
+                ", polls:" + polls +
                 ", rejectedOffers:" + numberOfRejectedOffers +
                 ", emptyPolls:" + numberOfEmptyPolls +
                 ", others: " + numberOfOtherOperations +
@@ -25,21 +25,25 @@ import java.io.IOException;
 public class LocalTopicOperationStatsImpl extends LocalOperationStatsSupport
         implements LocalTopicOperationStats {
 
-    long numberOfPublishes;
+    OperationStat publishes = new OperationStat(0, 0);
     long numberOfReceives;
 
     void writeDataInternal(DataOutput out) throws IOException {
-        out.writeLong(numberOfPublishes);
+        publishes.writeData(out);
         out.writeLong(numberOfReceives);
     }
 
     void readDataInternal(DataInput in) throws IOException {
-        numberOfPublishes = in.readLong();
+        (publishes = new OperationStat()).readData(in);
         numberOfReceives = in.readLong();
     }
 
     public long getNumberOfPublishes() {
-        return numberOfPublishes;
+        return publishes.count;
+    }
+
+    public long getPublishLatencyPercentile(double percentile) {
+        return publishes.getLatencyPercentile(percentile);
     }
 
     public long getNumberOfReceivedMessages() {
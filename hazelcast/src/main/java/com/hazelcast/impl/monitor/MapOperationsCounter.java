@@ -86,9 +86,9 @@ public class MapOperationsCounter extends OperationsCounterSupport<LocalMapOpera
         stats.periodStart = ((MapOperationsCounter) listOfSubCounters.get(0)).startTime;
         for (int i = 0; i < listOfSubCounters.size(); i++) {
             MapOperationsCounter sub = (MapOperationsCounter) listOfSubCounters.get(i);
-            stats.gets.add(sub.gets.count.get(), sub.gets.totalLatency.get());
-            stats.puts.add(sub.puts.count.get(), sub.puts.totalLatency.get());
-            stats.removes.add(sub.removes.count.get(), sub.removes.totalLatency.get());
+            stats.gets.add(sub.gets.count.get(), sub.gets.totalLatency.get(), sub.gets.latencies);
+            stats.puts.add(sub.puts.count.get(), sub.puts.totalLatency.get(), sub.puts.latencies);
+            stats.removes.add(sub.removes.count.get(), sub.removes.totalLatency.get(), sub.removes.latencies);
             stats.numberOfOtherOperations += sub.others.get();
             stats.numberOfEvents += sub.events.get();
             stats.periodEnd = sub.endTime;
@@ -99,9 +99,9 @@ public class MapOperationsCounter extends OperationsCounterSupport<LocalMapOpera
     LocalMapOperationStats getThis() {
         LocalMapOperationStatsImpl stats = new LocalMapOperationStatsImpl();
         stats.periodStart = this.startTime;
-        stats.gets = stats.new OperationStat(this.gets.count.get(), this.gets.totalLatency.get());
-        stats.puts = stats.new OperationStat(this.puts.count.get(), this.puts.totalLatency.get());
-        stats.removes = stats.new OperationStat(this.removes.count.get(), this.removes.totalLatency.get());
+        stats.gets = stats.new OperationStat(this.gets.count.get(), this.gets.totalLatency.get(), this.gets.latencies);
+        stats.puts = stats.new OperationStat(this.puts.count.get(), this.puts.totalLatency.get(), this.puts.latencies);
+        stats.removes = stats.new OperationStat(this.removes.count.get(), this.removes.totalLatency.get(), this.removes.latencies);
         stats.numberOfEvents = this.events.get();
         stats.periodEnd = now();
         return stats;
@@ -88,19 +88,23 @@ abstract class OperationsCounterSupport<T extends LocalInstanceOperationStats> {
     class OperationCounter {
         final AtomicLong count;
         final AtomicLong totalLatency;
+        final LatencyHistogram latencies = new LatencyHistogram();
 
         public OperationCounter() {
-            this(0, 0);
+            this(0, 0, null);
         }
 
-        public OperationCounter(long c, long l) {
+        public OperationCounter(long c, long l, LatencyHistogram latencies) {
             this.count = new AtomicLong(c);
             totalLatency = new AtomicLong(l);
+            if (latencies != null) {
+                this.latencies.add(latencies);
+            }
         }
 
         public OperationCounter copyAndReset() {
             OperationCounter copy = new OperationCounter(count.get(),
-                    totalLatency.get());
+                    totalLatency.get(), latencies.copyAndReset());
             this.count.set(0);
             this.totalLatency.set(0);
             return copy;
@@ -109,18 +113,21 @@ abstract class OperationsCounterSupport<T extends LocalInstanceOperationStats> {
         public void set(OperationCounter now) {
             this.count.set(now.count.get());
             this.totalLatency.set(now.totalLatency.get());
+            this.latencies.copyAndReset();
+            this.latencies.add(now.latencies);
         }
 
         public void count(long elapsed) {
             this.count.incrementAndGet();
             this.totalLatency.addAndGet(elapsed);
+            this.latencies.record(elapsed);
         }
 
         @Override
         public String toString() {
             long count = this.count.get();
             return "OperationStat{" + "count=" + count + ", averageLatency="
-                    + ((count == 0) ? 0 : totalLatency.get() / count) + '}';
+                    + ((count == 0) ? 0 : totalLatency.get() / count) + ", latencies=" + latencies + '}';
         }
     }
 }
@@ -24,9 +24,9 @@ public class QueueOperationsCounter extends OperationsCounterSupport<LocalQueueO
 
     private static final LocalQueueOperationStats empty = new LocalQueueOperationStatsImpl();
 
-    private AtomicLong offers = new AtomicLong();
+    private OperationCounter offers = new OperationCounter();
     private AtomicLong rejectedOffers = new AtomicLong();
-    private AtomicLong polls = new AtomicLong();
+    private OperationCounter polls = new OperationCounter();
     private AtomicLong emptyPolls = new AtomicLong();
     private AtomicLong others = new AtomicLong();
     private AtomicLong events = new AtomicLong();
@@ -41,8 +41,8 @@ public class QueueOperationsCounter extends OperationsCounterSupport<LocalQueueO
 
     QueueOperationsCounter getAndReset() {
         QueueOperationsCounter newOne = new QueueOperationsCounter();
-        newOne.offers.set(offers.getAndSet(0));
-        newOne.polls.set(polls.getAndSet(0));
+        newOne.offers.set(offers.copyAndReset());
+        newOne.polls.set(polls.copyAndReset());
         newOne.rejectedOffers.set(rejectedOffers.getAndSet(0));
         newOne.emptyPolls.set(emptyPolls.getAndSet(0));
         newOne.others.set(others.getAndSet(0));
@@ -53,8 +53,8 @@ public class QueueOperationsCounter extends OperationsCounterSupport<LocalQueueO
         return newOne;
     }
 
-    public void incrementOffers() {
-        offers.incrementAndGet();
+    public void incrementOffers(long elapsed) {
+        offers.count(elapsed);
         publishSubResult();
     }
 
@@ -63,8 +63,8 @@ public class QueueOperationsCounter extends OperationsCounterSupport<LocalQueueO
         publishSubResult();
     }
 
-    public void incrementPolls() {
-        polls.incrementAndGet();
+    public void incrementPolls(long elapsed) {
+        polls.count(elapsed);
         publishSubResult();
     }
 
@@ -88,8 +88,8 @@ public class QueueOperationsCounter extends OperationsCounterSupport<LocalQueueO
         stats.periodStart = ((QueueOperationsCounter) listOfSubCounters.get(0)).startTime;
         for (int i = 0; i < listOfSubCounters.size(); i++) {
             QueueOperationsCounter sub = (QueueOperationsCounter) listOfSubCounters.get(i);
-            stats.numberOfPolls += sub.polls.get();
-            stats.numberOfOffers += sub.offers.get();
+            stats.polls.add(sub.polls.count.get(), sub.polls.totalLatency.get(), sub.polls.latencies);
+            stats.offers.add(sub.offers.count.get(), sub.offers.totalLatency.get(), sub.offers.latencies);
             stats.numberOfRejectedOffers += sub.rejectedOffers.get();
             stats.numberOfEmptyPolls += sub.emptyPolls.get();
             stats.numberOfOtherOperations += sub.others.get();
@@ -102,8 +102,8 @@ public class QueueOperationsCounter extends OperationsCounterSupport<LocalQueueO
     LocalQueueOperationStats getThis() {
         LocalQueueOperationStatsImpl stats = new LocalQueueOperationStatsImpl();
         stats.periodStart = this.startTime;
-        stats.numberOfPolls = this.polls.get();
-        stats.numberOfOffers = this.offers.get();
+        stats.polls = stats.new OperationStat(this.polls.count.get(), this.polls.totalLatency.get(), this.polls.latencies);
+        stats.offers = stats.new OperationStat(this.offers.count.get(), this.offers.totalLatency.get(), this.offers.latencies);
         stats.numberOfEmptyPolls = this.emptyPolls.get();
         stats.numberOfRejectedOffers = this.rejectedOffers.get();
         stats.numberOfEvents = this.events.get();
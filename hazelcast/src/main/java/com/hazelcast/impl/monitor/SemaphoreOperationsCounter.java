@@ -95,8 +95,8 @@ public class SemaphoreOperationsCounter extends OperationsCounterSupport<LocalSe
         stats.periodStart = ((SemaphoreOperationsCounter) listOfSubCounters.get(0)).startTime;
         for (Object obj : listOfSubCounters) {
             SemaphoreOperationsCounter sub = (SemaphoreOperationsCounter) obj;
-            stats.acquires.add(sub.acquires.count.get(), sub.acquires.totalLatency.get());
-            stats.nonAcquires.add(sub.nonAcquires.count.get(), sub.nonAcquires.totalLatency.get());
+            stats.acquires.add(sub.acquires.count.get(), sub.acquires.totalLatency.get(), sub.acquires.latencies);
+            stats.nonAcquires.add(sub.nonAcquires.count.get(), sub.nonAcquires.totalLatency.get(), sub.nonAcquires.latencies);
             stats.numberOfRejectedAcquires += sub.rejectedAcquires.get();
             stats.numberOfPermitsAcquired += sub.permitsAcquired.get();
             stats.numberOfPermitsReleased += sub.permitsReleased.get();
@@ -127,8 +127,8 @@ public class SemaphoreOperationsCounter extends OperationsCounterSupport<LocalSe
     LocalSemaphoreOperationStats getThis() {
         LocalSemaphoreOperationStatsImpl stats = new LocalSemaphoreOperationStatsImpl();
         stats.periodStart = this.startTime;
-        stats.acquires = stats.new OperationStat(this.acquires.count.get(), this.acquires.totalLatency.get());
-        stats.nonAcquires = stats.new OperationStat(this.nonAcquires.count.get(), this.nonAcquires.totalLatency.get());
+        stats.acquires = stats.new OperationStat(this.acquires.count.get(), this.acquires.totalLatency.get(), this.acquires.latencies);
+        stats.nonAcquires = stats.new OperationStat(this.nonAcquires.count.get(), this.nonAcquires.totalLatency.get(), this.nonAcquires.latencies);
         stats.numberOfRejectedAcquires = this.rejectedAcquires.get();
         stats.numberOfPermitsAcquired = this.permitsAcquired.get();
         stats.numberOfPermitsReleased = this.permitsReleased.get();
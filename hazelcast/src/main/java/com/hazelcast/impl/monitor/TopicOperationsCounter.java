@@ -23,7 +23,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class TopicOperationsCounter extends OperationsCounterSupport<LocalTopicOperationStats> {
     private static final LocalTopicOperationStats empty = new LocalTopicOperationStatsImpl();
 
-    private AtomicLong messagePublishes = new AtomicLong();
+    private OperationCounter messagePublishes = new OperationCounter();
     private AtomicLong receivedMessages = new AtomicLong();
 
     public TopicOperationsCounter() {
@@ -36,7 +36,7 @@ public class TopicOperationsCounter extends OperationsCounterSupport<LocalTopicO
 
     TopicOperationsCounter getAndReset() {
         TopicOperationsCounter newOne = new TopicOperationsCounter();
-        newOne.messagePublishes.set(messagePublishes.getAndSet(0));
+        newOne.messagePublishes.set(messagePublishes.copyAndReset());
         newOne.receivedMessages.set(receivedMessages.getAndSet(0));
         newOne.startTime = this.startTime;
         newOne.endTime = now();
@@ -44,8 +44,8 @@ public class TopicOperationsCounter extends OperationsCounterSupport<LocalTopicO
         return newOne;
     }
 
-    public void incrementPublishes() {
-        messagePublishes.incrementAndGet();
+    public void incrementPublishes(long elapsed) {
+        messagePublishes.count(elapsed);
         publishSubResult();
     }
 
@@ -59,7 +59,8 @@ public class TopicOperationsCounter extends OperationsCounterSupport<LocalTopicO
         stats.periodStart = ((TopicOperationsCounter) listOfSubCounters.get(0)).startTime;
         for (int i = 0; i < listOfSubCounters.size(); i++) {
             TopicOperationsCounter sub = (TopicOperationsCounter) listOfSubCounters.get(i);
-            stats.numberOfPublishes += sub.messagePublishes.get();
+            stats.publishes.add(sub.messagePublishes.count.get(), sub.messagePublishes.totalLatency.get(),
+                    sub.messagePublishes.latencies);
             stats.numberOfReceives += sub.receivedMessages.get();
             stats.periodEnd = sub.endTime;
         }
@@ -69,7 +70,8 @@ public class TopicOperationsCounter extends OperationsCounterSupport<LocalTopicO
     LocalTopicOperationStats getThis() {
         LocalTopicOperationStatsImpl stats = new LocalTopicOperationStatsImpl();
         stats.periodStart = this.startTime;
-        stats.numberOfPublishes = this.messagePublishes.get();
+        stats.publishes = stats.new OperationStat(this.messagePublishes.count.get(),
+                this.messagePublishes.totalLatency.get(), this.messagePublishes.latencies);
         stats.numberOfReceives = this.receivedMessages.get();
         stats.periodEnd = now();
         return stats;
@@ -39,7 +39,8 @@ public class MigrationNotification extends AbstractRemotelyProcessable {
         Address from = migrationRequestTask.getFromAddress();
         Address to = migrationRequestTask.getToAddress();
         int partitionId = migrationRequestTask.getPartitionId();
-        node.concurrentMapManager.getPartitionManager().fireMigrationEvent(started, partitionId, from, to);
+        node.concurrentMapManager.getPartitionManager().fireMigrationEvent(started, partitionId, from, to,
+                migrationRequestTask.getStats());
     }
 
     @Override
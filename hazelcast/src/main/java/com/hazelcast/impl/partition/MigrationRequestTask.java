@@ -20,24 +20,33 @@ import com.hazelcast.core.*;
 import com.hazelcast.impl.FactoryImpl;
 import com.hazelcast.impl.Node;
 import com.hazelcast.impl.PartitionManager;
-import com.hazelcast.impl.concurrentmap.CostAwareRecordList;
+import com.hazelcast.impl.Record;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
 import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.util.Clock;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
-public class MigrationRequestTask extends MigratingPartition implements Callable<Boolean>, DataSerializable, HazelcastInstanceAware {
+public class MigrationRequestTask extends MigratingPartition implements Callable<MigrationStats>, DataSerializable, HazelcastInstanceAware {
+    private static final long CHUNK_TIMEOUT_SECONDS = 400;
+
     private boolean migration; // migration or copy
     private boolean diffOnly;
     private int selfCopyReplicaIndex = -1;
+    private MigrationStats stats = new MigrationStats();
     private transient HazelcastInstance hazelcast;
 
     public MigrationRequestTask() {
@@ -70,10 +79,27 @@ public class MigrationRequestTask extends MigratingPartition implements Callable
         this.from = from;
     }
 
-    public Boolean call() throws Exception {
+    public MigrationStats getStats() {
+        return stats;
+    }
+
+    public void setStats(final MigrationStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Sends the records of the partition to the target member in chunks of about
+     * PARTITION_MIGRATION_CHUNK_SIZE bytes. The records are read chunk by chunk, so
+     * the partition is never copied in full. At most PARTITION_MIGRATION_CHUNKS_IN_FLIGHT
+     * chunks are sent before the target acknowledges the first of them, and the chunks
+     * are not sent faster than PARTITION_MIGRATION_MAX_BANDWIDTH bytes per second.
+     *
+     * @return stats of the migration, null if it has failed
+     */
+    public MigrationStats call() throws Exception {
         if (to.equals(from)) {
             getLogger().log(Level.FINEST, "To and from addresses are same! => " + toString());
-            return Boolean.TRUE;
+            return new MigrationStats();
         }
         if (from == null) {
             getLogger().log(Level.FINEST, "From address is null => " + toString());
@@ -84,13 +110,44 @@ public class MigrationRequestTask extends MigratingPartition implements Callable
             Member target = pm.getMember(to);
             if (target == null) {
                 getLogger().log(Level.WARNING, "Target member of task could not be found! => " + toString());
-                return Boolean.FALSE;
+                return null;
+            }
+            final long start = Clock.currentTimeMillis();
+            final long chunkSize = node.groupProperties.PARTITION_MIGRATION_CHUNK_SIZE.getLong();
+            final int chunksInFlight = Math.max(1, node.groupProperties.PARTITION_MIGRATION_CHUNKS_IN_FLIGHT.getInteger());
+            final long maxBandwidth = node.groupProperties.PARTITION_MIGRATION_MAX_BANDWIDTH.getLong();
+            final Iterator<Record> records = pm.iterateActivePartitionRecords(partitionId, replicaIndex, to, diffOnly);
+            final MigrationStats migrationStats = new MigrationStats();
+            final Queue<Future> sentChunks = new LinkedList<Future>();
+            do {
+                final List<Record> chunk = new ArrayList<Record>();
+                long cost = 0;
+                while (records.hasNext() && (chunk.isEmpty() || cost < chunkSize)) {
+                    final Record record = records.next();
+                    chunk.add(record);
+                    cost += record.getCost();
+                }
+                final MigrationTask migrationTask = new MigrationTask(partitionId, chunk, cost, replicaIndex, from);
+                if (sentChunks.size() >= chunksInFlight && !isAcknowledged(sentChunks.poll())) {
+                    return null;
+                }
+                sentChunks.add(node.factory.getExecutorService().submit(new DistributedTask(migrationTask, target)));
+                migrationStats.addChunk(migrationTask.getRecordCount(), migrationTask.getByteCount());
+                if (maxBandwidth > 0) {
+                    final long wait = migrationStats.getByteCount() * 1000 / maxBandwidth
+                            - (Clock.currentTimeMillis() - start);
+                    if (wait > 0) {
+                        Thread.sleep(wait);
+                    }
+                }
+            } while (records.hasNext());
+            while (!sentChunks.isEmpty()) {
+                if (!isAcknowledged(sentChunks.poll())) {
+                    return null;
+                }
             }
-            final CostAwareRecordList costAwareRecordList = pm.getActivePartitionRecords(partitionId, replicaIndex, to, diffOnly);
-            DistributedTask task = new DistributedTask(new MigrationTask(partitionId, costAwareRecordList,
-                    replicaIndex, from), target);
-            Future future = node.factory.getExecutorService().submit(task);
-            return (Boolean) future.get(400, TimeUnit.SECONDS);
+            migrationStats.setDuration(Clock.currentTimeMillis() - start);
+            return migrationStats;
         } catch (Throwable e) {
             Level level = Level.WARNING;
             if (e instanceof ExecutionException) {
@@ -101,7 +158,11 @@ public class MigrationRequestTask extends MigratingPartition implements Callable
             }
             getLogger().log(level, e.getMessage(), e);
         }
-        return Boolean.FALSE;
+        return null;
+    }
+
+    private boolean isAcknowledged(Future sentChunk) throws Exception {
+        return Boolean.TRUE.equals(sentChunk.get(CHUNK_TIMEOUT_SECONDS, TimeUnit.SECONDS));
     }
 
     private ILogger getLogger() {
@@ -113,6 +174,7 @@ public class MigrationRequestTask extends MigratingPartition implements Callable
         out.writeBoolean(migration);
         out.writeBoolean(diffOnly);
         out.writeInt(selfCopyReplicaIndex);
+        stats.writeData(out);
     }
 
     public void readData(DataInput in) throws IOException {
@@ -120,6 +182,8 @@ public class MigrationRequestTask extends MigratingPartition implements Callable
         migration = in.readBoolean();
         diffOnly = in.readBoolean();
         selfCopyReplicaIndex = in.readInt();
+        stats = new MigrationStats();
+        stats.readData(in);
     }
 
     public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
@@ -137,6 +201,7 @@ public class MigrationRequestTask extends MigratingPartition implements Callable
         sb.append(", migration=").append(migration);
         sb.append(", diffOnly=").append(diffOnly);
         sb.append(", selfCopyReplicaIndex=").append(selfCopyReplicaIndex);
+        sb.append(", stats=").append(stats);
         sb.append('}');
         return sb.toString();
     }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.partition;
+
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Records, compressed bytes and chunks sent by the source member of a partition migration.
+ */
+public class MigrationStats implements DataSerializable {
+    private long recordCount;
+    private long byteCount;
+    private int chunkCount;
+    private long duration;
+
+    public MigrationStats() {
+    }
+
+    void addChunk(int records, int bytes) {
+        recordCount += records;
+        byteCount += bytes;
+        chunkCount++;
+    }
+
+    void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * @return milliseconds passed from collecting the records to the last acknowledged chunk
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        out.writeLong(recordCount);
+        out.writeLong(byteCount);
+        out.writeInt(chunkCount);
+        out.writeLong(duration);
+    }
+
+    public void readData(DataInput in) throws IOException {
+        recordCount = in.readLong();
+        byteCount = in.readLong();
+        chunkCount = in.readInt();
+        duration = in.readLong();
+    }
+
+    @Override
+    public String toString() {
+        return "MigrationStats{records=" + recordCount
+                + ", bytes=" + byteCount
+                + ", chunks=" + chunkCount
+                + ", duration=" + duration + "}";
+    }
+}
@@ -24,7 +24,6 @@ import com.hazelcast.impl.PartitionManager;
 import com.hazelcast.impl.Record;
 import com.hazelcast.impl.base.DataRecordEntry;
 import com.hazelcast.impl.base.RecordSet;
-import com.hazelcast.impl.concurrentmap.CostAwareRecordList;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
 import com.hazelcast.nio.DataSerializable;
@@ -48,19 +47,22 @@ public class MigrationTask implements Callable<Boolean>, DataSerializable, Hazel
     public MigrationTask() {
     }
 
-    public MigrationTask(int partitionId, CostAwareRecordList costAwareRecordList,
+    /**
+     * @param records records of the partition to send in this task, one chunk of the partition
+     * @param cost    estimated size of the records
+     */
+    public MigrationTask(int partitionId, List<Record> records, long cost,
                          int replicaIndex, Address from) throws IOException {
         this.partitionId = partitionId;
         this.replicaIndex = replicaIndex;
         this.from = from;
-        this.recordCount = costAwareRecordList.getRecords().size();
-        ByteArrayOutputStream bos = new ByteArrayOutputStream((int) (costAwareRecordList.getCost() / 100));
+        this.recordCount = records.size();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream((int) Math.max(cost / 100, 32));
         DataOutputStream dos = null;
         try {
             dos = new DataOutputStream(new DeflaterOutputStream(bos));
-            List<Record> lsRecordsToMigrate = costAwareRecordList.getRecords();
-            dos.writeInt(lsRecordsToMigrate.size());
-            for (Record record : lsRecordsToMigrate) {
+            dos.writeInt(records.size());
+            for (Record record : records) {
                 new DataRecordEntry(record, true).writeData(dos);
             }
         } finally {
@@ -69,6 +71,17 @@ public class MigrationTask implements Callable<Boolean>, DataSerializable, Hazel
         bytesRecordSet = bos.toByteArray();
     }
 
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return size of the compressed records
+     */
+    public int getByteCount() {
+        return bytesRecordSet.length;
+    }
+
     public Boolean call() throws Exception {
         Node node = ((FactoryImpl) hazelcast).node;
         PartitionManager pm = node.concurrentMapManager.getPartitionManager();
@@ -14,39 +14,33 @@
  * limitations under the License.
  */
 
-package com.hazelcast.impl.concurrentmap;
+package com.hazelcast.impl.storage;
 
-import com.hazelcast.impl.Record;
-
-import java.util.ArrayList;
-import java.util.List;
-
-public class CostAwareRecordList {
-    private long cost;
-
-    private final List<Record> lsRecords;
+/**
+ * Location of a value in {@link OffHeapStorage}: the chunks holding the value
+ * and the value length.
+ */
+public final class DataRef {
 
-    public CostAwareRecordList(int size) {
-        lsRecords = new ArrayList<Record>(size);
-    }
+    final int[] chunks;
 
-    public List<Record> getRecords() {
-        return lsRecords;
-    }
+    final int length;
 
-    public void add(Record record) {
-        lsRecords.add(record);
+    DataRef(int[] chunks, int length) {
+        this.chunks = chunks;
+        this.length = length;
     }
 
-    public long getCost() {
-        return cost;
+    public int size() {
+        return length;
     }
 
-    public void setCost(long cost) {
-        this.cost = cost;
+    public int getChunkCount() {
+        return chunks.length;
     }
 
-    public void addCost(long cost) {
-        this.cost += cost;
+    @Override
+    public String toString() {
+        return "DataRef{chunks=" + chunks.length + ", length=" + length + "}";
     }
 }
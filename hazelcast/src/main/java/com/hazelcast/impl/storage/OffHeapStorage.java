@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Slab allocator over direct byte buffers. Memory is split into fixed size chunks,
+ * a value is written to as many chunks as it needs. Direct buffers (slabs) are
+ * allocated on demand up to the total size. Released chunks are kept in a free list
+ * which is linked through the chunks themselves, so no heap is used for bookkeeping.
+ */
+public class OffHeapStorage implements Storage {
+
+    private static final int MAX_SLAB_SIZE = 16 * 1024 * 1024;
+
+    private static final int NO_CHUNK = -1;
+
+    private final int chunkSize;
+
+    private final int chunkCount;
+
+    private final int chunksPerSlab;
+
+    private final ByteBuffer[] slabs;
+
+    // guarded by this
+    private int freeListHead = NO_CHUNK;
+
+    // guarded by this; chunks after this index are never used
+    private int nextUnusedChunk = 0;
+
+    // guarded by this
+    private int usedChunkCount = 0;
+
+    public OffHeapStorage(long totalSize, int chunkSize) {
+        if (chunkSize < 4) {
+            throw new IllegalArgumentException("Chunk size should be at least 4 bytes! -> " + chunkSize);
+        }
+        if (totalSize < chunkSize) {
+            throw new IllegalArgumentException("Total size [" + totalSize
+                    + "] should be greater than chunk size [" + chunkSize + "]!");
+        }
+        final long chunks = totalSize / chunkSize;
+        if (chunks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunk size [" + chunkSize + "] is too small for total size ["
+                    + totalSize + "]!");
+        }
+        this.chunkSize = chunkSize;
+        this.chunkCount = (int) chunks;
+        this.chunksPerSlab = Math.max(1, Math.min(chunkCount, MAX_SLAB_SIZE / chunkSize));
+        this.slabs = new ByteBuffer[(chunkCount + chunksPerSlab - 1) / chunksPerSlab];
+    }
+
+    public DataRef put(byte[] value) {
+        final int length = value.length;
+        final int[] chunks = allocate(Math.max(1, (length + chunkSize - 1) / chunkSize));
+        int offset = 0;
+        for (int chunk : chunks) {
+            final int len = Math.min(chunkSize, length - offset);
+            if (len <= 0) {
+                break;
+            }
+            final ByteBuffer buffer = buffer(chunk);
+            buffer.put(value, offset, len);
+            offset += len;
+        }
+        return new DataRef(chunks, length);
+    }
+
+    public byte[] get(DataRef ref) {
+        final byte[] value = new byte[ref.length];
+        int offset = 0;
+        for (int chunk : ref.chunks) {
+            final int len = Math.min(chunkSize, ref.length - offset);
+            if (len <= 0) {
+                break;
+            }
+            final ByteBuffer buffer = buffer(chunk);
+            buffer.get(value, offset, len);
+            offset += len;
+        }
+        return value;
+    }
+
+    public synchronized void remove(DataRef ref) {
+        for (int chunk : ref.chunks) {
+            buffer(chunk).putInt(freeListHead);
+            freeListHead = chunk;
+        }
+        usedChunkCount -= ref.chunks.length;
+    }
+
+    public long getTotalSize() {
+        return (long) chunkCount * chunkSize;
+    }
+
+    public synchronized long getUsedSize() {
+        return (long) usedChunkCount * chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public synchronized void destroy() {
+        for (int i = 0; i < slabs.length; i++) {
+            slabs[i] = null;
+        }
+        freeListHead = NO_CHUNK;
+        nextUnusedChunk = 0;
+        usedChunkCount = 0;
+    }
+
+    private synchronized int[] allocate(int count) {
+        if (chunkCount - usedChunkCount < count) {
+            throw new StorageFullException("Off-heap storage is full! total: " + getTotalSize()
+                    + ", used: " + getUsedSize() + ", requested: " + ((long) count * chunkSize));
+        }
+        final int[] chunks = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (freeListHead != NO_CHUNK) {
+                final int chunk = freeListHead;
+                freeListHead = buffer(chunk).getInt();
+                chunks[i] = chunk;
+            } else {
+                final int chunk = nextUnusedChunk++;
+                final int slab = chunk / chunksPerSlab;
+                if (slabs[slab] == null) {
+                    final int slabChunks = Math.min(chunksPerSlab, chunkCount - slab * chunksPerSlab);
+                    slabs[slab] = ByteBuffer.allocateDirect(slabChunks * chunkSize);
+                }
+                chunks[i] = chunk;
+            }
+        }
+        usedChunkCount += count;
+        return chunks;
+    }
+
+    /**
+     * @return buffer positioned at the beginning of the chunk,
+     *         independent of the other threads reading/writing the same slab
+     */
+    private ByteBuffer buffer(int chunk) {
+        final ByteBuffer buffer = slabs[chunk / chunksPerSlab].duplicate();
+        buffer.position((chunk % chunksPerSlab) * chunkSize);
+        return buffer;
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapStorage{total=" + getTotalSize() + ", used=" + getUsedSize() + ", chunkSize=" + chunkSize + "}";
+    }
+}
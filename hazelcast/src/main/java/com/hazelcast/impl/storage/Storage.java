@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.storage;
+
+/**
+ * Keeps byte arrays outside of the record objects, returning a {@link DataRef}
+ * which is the only thing a record has to hold.
+ */
+public interface Storage {
+
+    DataRef put(byte[] value);
+
+    /**
+     * @return on-heap copy of the stored bytes
+     */
+    byte[] get(DataRef ref);
+
+    void remove(DataRef ref);
+
+    long getTotalSize();
+
+    long getUsedSize();
+
+    void destroy();
+}
@@ -20,6 +20,8 @@ import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.EntryEvent;
 import com.hazelcast.core.EntryListener;
 import com.hazelcast.core.IMap;
+import com.hazelcast.impl.MProxy;
+import com.hazelcast.monitor.LocalMapOperationStats;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.SqlPredicate;
 
@@ -181,4 +183,44 @@ public class MapMBean extends AbstractMBean<IMap> {
     public int getSize() {
         return getManagedObject().size();
     }
+
+    private LocalMapOperationStats getOperationStats() {
+        return ((MProxy) getManagedObject()).getMapOperationCounter().getPublishedStats();
+    }
+
+    @JMXAttribute("PutLatency99")
+    @JMXDescription("99th percentile of put latencies in milliseconds in the last stats period")
+    public long getPutLatency99() {
+        return getOperationStats().getPutLatencyPercentile(99);
+    }
+
+    @JMXAttribute("PutLatency999")
+    @JMXDescription("99.9th percentile of put latencies in milliseconds in the last stats period")
+    public long getPutLatency999() {
+        return getOperationStats().getPutLatencyPercentile(99.9);
+    }
+
+    @JMXAttribute("GetLatency99")
+    @JMXDescription("99th percentile of get latencies in milliseconds in the last stats period")
+    public long getGetLatency99() {
+        return getOperationStats().getGetLatencyPercentile(99);
+    }
+
+    @JMXAttribute("GetLatency999")
+    @JMXDescription("99.9th percentile of get latencies in milliseconds in the last stats period")
+    public long getGetLatency999() {
+        return getOperationStats().getGetLatencyPercentile(99.9);
+    }
+
+    @JMXAttribute("RemoveLatency99")
+    @JMXDescription("99th percentile of remove latencies in milliseconds in the last stats period")
+    public long getRemoveLatency99() {
+        return getOperationStats().getRemoveLatencyPercentile(99);
+    }
+
+    @JMXAttribute("RemoveLatency999")
+    @JMXDescription("99.9th percentile of remove latencies in milliseconds in the last stats period")
+    public long getRemoveLatency999() {
+        return getOperationStats().getRemoveLatencyPercentile(99.9);
+    }
 }
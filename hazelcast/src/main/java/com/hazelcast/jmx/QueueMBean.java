@@ -20,6 +20,8 @@ import com.hazelcast.config.QueueConfig;
 import com.hazelcast.core.IQueue;
 import com.hazelcast.core.ItemEvent;
 import com.hazelcast.core.ItemListener;
+import com.hazelcast.impl.QProxy;
+import com.hazelcast.monitor.LocalQueueOperationStats;
 
 /**
  * Management bean for Hazelcst Queue
@@ -159,4 +161,32 @@ public class QueueMBean extends AbstractMBean<IQueue<?>> {
     public double getItemsServedMax() {
         return servedStats.getMax();
     }
+
+    private LocalQueueOperationStats getOperationStats() {
+        return ((QProxy) getManagedObject()).getQueueOperationCounter().getPublishedStats();
+    }
+
+    @JMXAttribute("OfferLatency99")
+    @JMXDescription("99th percentile of offer latencies in milliseconds in the last stats period")
+    public long getOfferLatency99() {
+        return getOperationStats().getOfferLatencyPercentile(99);
+    }
+
+    @JMXAttribute("OfferLatency999")
+    @JMXDescription("99.9th percentile of offer latencies in milliseconds in the last stats period")
+    public long getOfferLatency999() {
+        return getOperationStats().getOfferLatencyPercentile(99.9);
+    }
+
+    @JMXAttribute("PollLatency99")
+    @JMXDescription("99th percentile of poll latencies in milliseconds in the last stats period")
+    public long getPollLatency99() {
+        return getOperationStats().getPollLatencyPercentile(99);
+    }
+
+    @JMXAttribute("PollLatency999")
+    @JMXDescription("99.9th percentile of poll latencies in milliseconds in the last stats period")
+    public long getPollLatency999() {
+        return getOperationStats().getPollLatencyPercentile(99.9);
+    }
 }
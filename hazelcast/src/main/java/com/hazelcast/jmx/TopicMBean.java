@@ -20,6 +20,8 @@ import com.hazelcast.config.TopicConfig;
 import com.hazelcast.core.ITopic;
 import com.hazelcast.core.Message;
 import com.hazelcast.core.MessageListener;
+import com.hazelcast.impl.TopicProxy;
+import com.hazelcast.monitor.LocalTopicOperationStats;
 
 /**
  * Management bean for Hazelcst Topic
@@ -115,4 +117,20 @@ public class TopicMBean extends AbstractMBean<ITopic<?>> {
     public double getItemsReceivedMax() {
         return servedStats.getMax();
     }
+
+    private LocalTopicOperationStats getOperationStats() {
+        return ((TopicProxy) getManagedObject()).getTopicOperationCounter().getPublishedStats();
+    }
+
+    @JMXAttribute("PublishLatency99")
+    @JMXDescription("99th percentile of publish latencies in milliseconds in the last stats period")
+    public long getPublishLatency99() {
+        return getOperationStats().getPublishLatencyPercentile(99);
+    }
+
+    @JMXAttribute("PublishLatency999")
+    @JMXDescription("99.9th percentile of publish latencies in milliseconds in the last stats period")
+    public long getPublishLatency999() {
+        return getOperationStats().getPublishLatencyPercentile(99.9);
+    }
 }
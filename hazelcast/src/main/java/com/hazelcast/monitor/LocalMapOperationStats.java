@@ -58,6 +58,30 @@ public interface LocalMapOperationStats extends LocalInstanceOperationStats {
      */
     public long getTotalRemoveLatency();
 
+    /**
+     * Returns the given percentile of put latencies in this period, 0 if there are no puts.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9 for the 99.9th percentile
+     * @return latency in milliseconds
+     */
+    public long getPutLatencyPercentile(double percentile);
+
+    /**
+     * Returns the given percentile of get latencies in this period, 0 if there are no gets.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9 for the 99.9th percentile
+     * @return latency in milliseconds
+     */
+    public long getGetLatencyPercentile(double percentile);
+
+    /**
+     * Returns the given percentile of remove latencies in this period, 0 if there are no removes.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9 for the 99.9th percentile
+     * @return latency in milliseconds
+     */
+    public long getRemoveLatencyPercentile(double percentile);
+
     /**
      * Returns the number of Remove operations
      *
@@ -133,4 +133,91 @@ public interface LocalMapStats extends LocalInstanceStats<LocalMapOperationStats
      * @return
      */
     long getDirtyEntryCount();
+
+    /**
+     * Returns the number of entries in the near cache of this member.
+     *
+     * @return number of near cache entries, 0 if the map has no near cache.
+     */
+    long getNearCacheEntryCount();
+
+    /**
+     * Returns the number of reads served by the near cache of this member.
+     *
+     * @return number of near cache hits.
+     */
+    long getNearCacheHits();
+
+    /**
+     * Returns the number of reads that could not be served by the near cache of this member.
+     *
+     * @return number of near cache misses.
+     */
+    long getNearCacheMisses();
+
+    /**
+     * Returns the number of entries evicted from the near cache of this member
+     * because of max size, time to live or max idle.
+     *
+     * @return number of near cache evictions.
+     */
+    long getNearCacheEvictions();
+
+    /**
+     * Returns the number of near cache entries of this member
+     * invalidated because the entry is updated or removed.
+     *
+     * @return number of near cache invalidations.
+     */
+    long getNearCacheInvalidations();
+
+    /**
+     * Returns the number of entries of this member waiting in the write-behind
+     * queue to be stored to the MapStore.
+     *
+     * @return number of entries waiting to be stored, 0 if the map has no write-behind.
+     */
+    long getWriteBehindQueueSize();
+
+    /**
+     * Returns the number of entries this member keeps for its backup partitions,
+     * that the owner may not have stored yet. They are stored by this member if
+     * the owner dies.
+     *
+     * @return number of backup entries waiting to be stored by the owner.
+     */
+    long getWriteBehindBackupQueueSize();
+
+    /**
+     * Returns the number of write-behind batches of this member that could not be stored
+     * and are retried.
+     *
+     * @return number of failed write-behind batches.
+     */
+    long getWriteBehindFailureCount();
+
+    /**
+     * Returns the number of entries this member loaded from the MapLoader
+     * during the initial load of the map.
+     *
+     * @return number of entries loaded from the MapLoader.
+     */
+    long getInitialLoadedEntryCount();
+
+    /**
+     * Returns the number of entries this member loaded from the MapLoader
+     * for each partition during the initial load of the map, indexed by the
+     * partition id.
+     *
+     * @return number of entries loaded per partition, empty if the map has no MapLoader.
+     */
+    int[] getInitialLoadedEntryCounts();
+
+    /**
+     * Returns whether this member completed the initial load of the map from
+     * the MapLoader. Maps without a MapLoader are always loaded.
+     *
+     * @return true if the initial load is completed.
+     */
+    boolean isInitialLoadCompleted();
 }
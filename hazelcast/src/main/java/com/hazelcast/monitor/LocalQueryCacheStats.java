@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.monitor;
+
+/**
+ * Statistics of a query cache. Event lag is the time from an entry event being
+ * fired by the member owning the entry to the event being applied to the cache,
+ * measured in cluster time.
+ */
+public interface LocalQueryCacheStats {
+
+    /**
+     * Returns the number of entries in the query cache.
+     *
+     * @return number of entries.
+     */
+    long getEntryCount();
+
+    /**
+     * Returns the creation time of the query cache.
+     *
+     * @return creation time.
+     */
+    long getCreationTime();
+
+    /**
+     * Returns the time it took to load the entries matching the predicate
+     * when the query cache was created.
+     *
+     * @return initial load time in milliseconds.
+     */
+    long getLoadMillis();
+
+    /**
+     * Returns the number of entry events applied to the query cache.
+     *
+     * @return number of events.
+     */
+    long getEventCount();
+
+    /**
+     * Returns the time the last entry event was applied.
+     *
+     * @return last update time, 0 if no event was applied yet.
+     */
+    long getLastUpdateTime();
+
+    /**
+     * Returns how far the query cache was behind the map when it applied its
+     * last event, that is the event lag of the last event.
+     *
+     * @return staleness in milliseconds.
+     */
+    long getStalenessMillis();
+
+    /**
+     * Returns the average event lag.
+     *
+     * @return average event lag in milliseconds.
+     */
+    long getAverageEventLagMillis();
+
+    /**
+     * Returns the maximum event lag.
+     *
+     * @return maximum event lag in milliseconds.
+     */
+    long getMaxEventLagMillis();
+}
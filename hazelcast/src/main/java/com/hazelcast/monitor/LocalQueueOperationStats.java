@@ -52,6 +52,22 @@ public interface LocalQueueOperationStats extends LocalInstanceOperationStats {
      */
     public long getNumberOfPolls();
 
+    /**
+     * Returns the given percentile of offer latencies in this period, 0 if there are no offers.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9 for the 99.9th percentile
+     * @return latency in milliseconds
+     */
+    public long getOfferLatencyPercentile(double percentile);
+
+    /**
+     * Returns the given percentile of poll latencies in this period, 0 if there are no polls.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9 for the 99.9th percentile
+     * @return latency in milliseconds
+     */
+    public long getPollLatencyPercentile(double percentile);
+
     /**
      * Returns number of null returning poll operations.
      * Poll operation might return null, if the queue is empty.
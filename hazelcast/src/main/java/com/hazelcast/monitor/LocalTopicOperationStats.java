@@ -25,6 +25,14 @@ public interface LocalTopicOperationStats extends LocalInstanceOperationStats {
      */
     public long getNumberOfPublishes();
 
+    /**
+     * Returns the given percentile of publish latencies in this period, 0 if there are no publishes.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9 for the 99.9th percentile
+     * @return latency in milliseconds
+     */
+    public long getPublishLatencyPercentile(double percentile);
+
     /**
      * Returns the number of received messages
      *
@@ -20,6 +20,7 @@ import com.hazelcast.impl.base.SystemLogService;
 import com.hazelcast.logging.ILogger;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.logging.Level;
@@ -53,6 +54,21 @@ abstract class AbstractSelectionHandler implements SelectionHandler {
     protected void shutdown() {
     }
 
+    /**
+     * Gives a direct socket buffer back to the pool on the selector thread,
+     * after the last use of it by this handler.
+     */
+    final void releaseSocketBuffer(final ByteBuffer buffer) {
+        if (buffer.isDirect()) {
+            inOutSelector.addTask(new Runnable() {
+                public void run() {
+                    connectionManager.releaseSocketBuffer(buffer);
+                }
+            });
+            inOutSelector.selector.wakeup();
+        }
+    }
+
     final void handleSocketException(Throwable e) {
         if (e instanceof OutOfMemoryError) {
             connectionManager.ioService.onOutOfMemory((OutOfMemoryError) e);
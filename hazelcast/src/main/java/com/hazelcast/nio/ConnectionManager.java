@@ -30,6 +30,7 @@ import com.hazelcast.util.ConcurrentHashSet;
 
 import java.io.IOException;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Map;
@@ -54,6 +55,8 @@ public class ConnectionManager {
 
     final boolean SOCKET_NO_DELAY;
 
+    final boolean SOCKET_DIRECT_BUFFER;
+
     private final Map<Address, Connection> mapConnections = new ConcurrentHashMap<Address, Connection>(100);
 
     private final ConcurrentMap<Address, ConnectionMonitor> mapMonitors = new ConcurrentHashMap<Address, ConnectionMonitor>(100);
@@ -84,6 +87,8 @@ public class ConnectionManager {
 
     private final SocketChannelWrapperFactory socketChannelWrapperFactory;
 
+    private final DirectBufferPool directBufferPool = new DirectBufferPool(64);
+
     private Thread socketAcceptorThread; // accessed only in synchronized block
 
     public ConnectionManager(IOService ioService, ServerSocketChannel serverSocketChannel) {
@@ -95,6 +100,7 @@ public class ConnectionManager {
         this.SOCKET_LINGER_SECONDS = ioService.getSocketLingerSeconds();
         this.SOCKET_KEEP_ALIVE = ioService.getSocketKeepAlive();
         this.SOCKET_NO_DELAY = ioService.getSocketNoDelay();
+        this.SOCKET_DIRECT_BUFFER = ioService.isSocketDirectBuffer();
         int selectorCount = ioService.getSelectorThreadCount();
         selectors = new InOutSelector[selectorCount];
         SSLConfig sslConfig = ioService.getSSLConfig();
@@ -244,6 +250,14 @@ public class ConnectionManager {
         return connection;
     }
 
+    ByteBuffer allocateSocketBuffer(int capacity) {
+        return SOCKET_DIRECT_BUFFER ? directBufferPool.take(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    void releaseSocketBuffer(ByteBuffer buffer) {
+        directBufferPool.release(buffer);
+    }
+
     SocketChannelWrapper wrapSocketChannel(SocketChannel socketChannel, boolean client) throws Exception {
         return socketChannelWrapperFactory.wrapSocketChannel(socketChannel, client);
     }
@@ -26,6 +26,8 @@ public class Data implements DataSerializable {
 
     public byte[] buffer = null;
     public int partitionHash = -1;
+    // hash of the buffer, 0 until it is computed
+    transient int hash = 0;
 
     public Data() {
     }
@@ -44,6 +46,7 @@ public class Data implements DataSerializable {
             buffer = new byte[size];
             in.readFully(buffer);
         }
+        hash = 0;
         partitionHash = in.readInt();
     }
 
@@ -58,7 +61,12 @@ public class Data implements DataSerializable {
 
     @Override
     public int hashCode() {
-        return Util.hashCode(buffer);
+        int h = hash;
+        if (h == 0) {
+            h = Util.hashCode(buffer);
+            hash = h;
+        }
+        return h;
     }
 
     public int getPartitionHash() {
@@ -82,6 +90,8 @@ public class Data implements DataSerializable {
         if (this == obj)
             return true;
         Data data = (Data) obj;
+        if (hash != 0 && data.hash != 0 && hash != data.hash)
+            return false;
         return size() == data.size() && equals(buffer, data.buffer);
     }
 
@@ -22,6 +22,7 @@ public final class DataHolder {
     final ByteBuffer buffer;
     final int size;
     int partitionHash;
+    int hash;
 
     public DataHolder(int size) {
         this.size = size;
@@ -31,7 +32,8 @@ public final class DataHolder {
     public DataHolder(Data data) {
         this.size = data.size();
         this.buffer = ByteBuffer.wrap(data.buffer);
-        this.partitionHash = data.getPartitionHash();
+        this.partitionHash = data.partitionHash;
+        this.hash = data.hash;
     }
 
     public boolean shouldRead() {
@@ -59,6 +61,7 @@ public final class DataHolder {
     public Data toData() {
         Data data = new Data(buffer.array());
         data.setPartitionHash(partitionHash);
+        data.hash = hash;
         return data;
     }
 
@@ -20,10 +20,9 @@ import com.hazelcast.impl.GroupProperties;
 
 import java.io.*;
 import java.math.BigInteger;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.TreeSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -52,6 +51,29 @@ public class DefaultSerializer implements CustomSerializer {
 
     private static final byte SERIALIZER_TYPE_BOOLEAN = 9;
 
+    private static final byte SERIALIZER_TYPE_DATA_SERIALIZABLE_ID = 10;
+
+    private static final byte SERIALIZER_TYPE_DOUBLE = 11;
+
+    private static final byte SERIALIZER_TYPE_FLOAT = 12;
+
+    private static final byte SERIALIZER_TYPE_SHORT = 13;
+
+    private static final byte SERIALIZER_TYPE_BYTE = 14;
+
+    private static final byte SERIALIZER_TYPE_CHARACTER = 15;
+
+    private static final byte SERIALIZER_TYPE_UUID = 16;
+
+    private static final byte SERIALIZER_TYPE_PRIMITIVE_ARRAY = 17;
+
+    private static final byte SERIALIZER_TYPE_COLLECTION = 18;
+
+    private static final byte SERIALIZER_TYPE_MAP = 19;
+
+    // type of the null elements of collections and maps
+    private static final byte SERIALIZER_TYPE_NULL = -1;
+
     private static final int SERIALIZER_PRIORITY_OBJECT = Integer.MAX_VALUE;
 
     private static final int SERIALIZER_PRIORITY_BYTE_ARRAY = 100;
@@ -72,73 +94,210 @@ public class DefaultSerializer implements CustomSerializer {
 
     private static final int SERIALIZER_PRIORITY_EXTERNALIZABLE = 50;
 
+    private static final int SERIALIZER_PRIORITY_DATA_SERIALIZABLE_ID = 10;
+
+    private static final int SERIALIZER_PRIORITY_DOUBLE = 310;
+
+    private static final int SERIALIZER_PRIORITY_FLOAT = 320;
+
+    private static final int SERIALIZER_PRIORITY_SHORT = 330;
+
+    private static final int SERIALIZER_PRIORITY_BYTE = 340;
+
+    private static final int SERIALIZER_PRIORITY_CHARACTER = 350;
+
+    private static final int SERIALIZER_PRIORITY_UUID = 700;
+
+    private static final int SERIALIZER_PRIORITY_PRIMITIVE_ARRAY = 150;
+
+    private static final int SERIALIZER_PRIORITY_COLLECTION = 800;
+
+    private static final int SERIALIZER_PRIORITY_MAP = 900;
+
     private static final boolean shared = GroupProperties.SERIALIZER_SHARED.getBoolean();
     private static final boolean gzipEnabled = GroupProperties.SERIALIZER_GZIP_ENABLED.getBoolean();
 
-    private static final Collection<TypeSerializer> serializers = new TreeSet<TypeSerializer>(new Comparator<TypeSerializer>() {
+    private static final Comparator<TypeSerializer> PRIORITY_COMPARATOR = new Comparator<TypeSerializer>() {
         public int compare(TypeSerializer o1, TypeSerializer o2) {
             final int p1 = o1.priority();
             final int p2 = o2.priority();
             return p1 < p2 ? -1 : p1 == p2 ? (o1.getTypeId() - o2.getTypeId()) : 1;
         }
-    });
+    };
 
-    private TypeSerializer[] typeSerializer;
+    // collections nested deeper are written by Java serialization, which also handles cycles
+    private static final int MAX_COMPACT_NESTING = 32;
 
-    static {
+    private static final ConcurrentMap<Class, Integer> mapDataSerializableIds = new ConcurrentHashMap<Class, Integer>();
+
+    private static final ConcurrentMap<Integer, DataSerializableFactory> mapDataSerializableFactories = new ConcurrentHashMap<Integer, DataSerializableFactory>();
+
+    // serializers by priority, copied on registration
+    private volatile TypeSerializer[] serializers = new TypeSerializer[0];
+
+    // serializers by type id, copied on registration
+    private volatile TypeSerializer[] typeSerializers = new TypeSerializer[0];
+
+    public DefaultSerializer() {
+        registerSerializer(new DataSerializableIdSerializer());
         registerSerializer(new ByteArraySerializer());
+        registerSerializer(new PrimitiveArraySerializer());
         registerSerializer(new LongSerializer());
         registerSerializer(new IntegerSerializer());
         registerSerializer(new BooleanSerializer());
+        registerSerializer(new DoubleSerializer());
+        registerSerializer(new FloatSerializer());
+        registerSerializer(new ShortSerializer());
+        registerSerializer(new ByteSerializer());
+        registerSerializer(new CharacterSerializer());
         registerSerializer(new StringSerializer());
         registerSerializer(new ClassSerializer());
         registerSerializer(new DateSerializer());
         registerSerializer(new BigIntegerSerializer());
+        registerSerializer(new UUIDSerializer());
+        registerSerializer(new CollectionSerializer());
+        registerSerializer(new MapSerializer());
         registerSerializer(new Externalizer());
         registerSerializer(new ObjectSerializer());
     }
 
-    public static void registerSerializer(TypeSerializer ts) {
-        if (ts != null) {
-            serializers.add(ts);
+    /**
+     * Adds a serializer to this instance. A serializer with the same priority and
+     * type id as a registered one is ignored.
+     */
+    public synchronized void registerSerializer(TypeSerializer ts) {
+        if (ts == null) {
+            return;
+        }
+        final TypeSerializer[] current = serializers;
+        for (TypeSerializer registered : current) {
+            if (PRIORITY_COMPARATOR.compare(registered, ts) == 0) {
+                return;
+            }
         }
+        final TypeSerializer[] newSerializers = new TypeSerializer[current.length + 1];
+        System.arraycopy(current, 0, newSerializers, 0, current.length);
+        newSerializers[current.length] = ts;
+        Arrays.sort(newSerializers, PRIORITY_COMPARATOR);
+        final TypeSerializer[] newTypeSerializers = new TypeSerializer[Math.max(typeSerializers.length, ts.getTypeId() + 1)];
+        System.arraycopy(typeSerializers, 0, newTypeSerializers, 0, typeSerializers.length);
+        newTypeSerializers[ts.getTypeId()] = ts;
+        typeSerializers = newTypeSerializers;
+        serializers = newSerializers;
     }
 
-    public DefaultSerializer() {
-        this.typeSerializer = new TypeSerializer[serializers.size()];
-        for (TypeSerializer ts : serializers) {
-            this.typeSerializer[ts.getTypeId()] = ts;
-        }
+    /**
+     * Registers a DataSerializable class with a type id. Registered objects are written
+     * with their type id instead of their class name, and are read into an instance
+     * created by the factory. The same ids should be registered on all members and clients.
+     *
+     * @param typeId positive id, unique for each class
+     * @param type   class of the objects, subclasses have to be registered on their own
+     * @param factory creates the instances of the class
+     */
+    public static void registerDataSerializable(int typeId, Class<? extends DataSerializable> type,
+                                                DataSerializableFactory factory) {
+        if (typeId <= 0) {
+            throw new IllegalArgumentException("Type id should be positive: " + typeId);
+        }
+        final DataSerializableFactory existing = mapDataSerializableFactories.putIfAbsent(typeId, factory);
+        if (existing != null && existing != factory) {
+            throw new IllegalArgumentException("Type id " + typeId + " is already registered");
+        }
+        mapDataSerializableIds.put(type, typeId);
     }
 
-    public void write(OutputStream os, Object obj) throws Exception {
-        FastByteArrayOutputStream bos = (FastByteArrayOutputStream) os;
-        byte typeId = -1;
+    /**
+     * @return true if the class of the object is registered with a type id
+     */
+    public static boolean isDataSerializableIdRegistered(Object obj) {
+        return !mapDataSerializableIds.isEmpty() && mapDataSerializableIds.containsKey(obj.getClass());
+    }
+
+    private TypeSerializer findSerializer(final Object obj) {
         for (TypeSerializer ts : serializers) {
             if (ts.isSuitable(obj)) {
-                this.typeSerializer[ts.getTypeId()] = ts;
-                typeId = ts.getTypeId();
-                break;
+                return ts;
             }
         }
-        if (typeId == -1) {
+        return null;
+    }
+
+    /**
+     * Writes an element of a collection or a map.
+     *
+     * @throws NotCompactException if the element needs Java serialization
+     *                             or the collections are nested too deep
+     */
+    private void writeElement(final FastByteArrayOutputStream bbos, final Object obj, final int nesting) throws Exception {
+        if (obj == null) {
+            bbos.writeByte(SERIALIZER_TYPE_NULL);
+            return;
+        }
+        final TypeSerializer ts = findSerializer(obj);
+        if (ts == null || ts.getTypeId() == SERIALIZER_TYPE_OBJECT || ts.getTypeId() == SERIALIZER_TYPE_EXTERNALIZABLE
+                || nesting > MAX_COMPACT_NESTING) {
+            throw new NotCompactException();
+        }
+        bbos.writeByte(ts.getTypeId());
+        if (ts instanceof CollectionSerializer) {
+            ((CollectionSerializer) ts).write(bbos, (Collection) obj, nesting + 1);
+        } else if (ts instanceof MapSerializer) {
+            ((MapSerializer) ts).write(bbos, (Map) obj, nesting + 1);
+        } else {
+            ts.write(bbos, obj);
+        }
+    }
+
+    private Object readElement(final FastByteArrayInputStream bbis) throws Exception {
+        final byte typeId = bbis.readByte();
+        if (typeId == SERIALIZER_TYPE_NULL) {
+            return null;
+        }
+        return typeSerializers[typeId].read(bbis);
+    }
+
+    public void write(OutputStream os, Object obj) throws Exception {
+        FastByteArrayOutputStream bos = (FastByteArrayOutputStream) os;
+        final TypeSerializer ts = findSerializer(obj);
+        if (ts == null) {
             throw new NotSerializableException("There is no suitable serializer for " + obj.getClass().getName());
         }
-        bos.writeByte(typeId);
-        this.typeSerializer[typeId].write(bos, obj);
+        final int start = bos.getCount();
+        bos.writeByte(ts.getTypeId());
+        try {
+            ts.write(bos, obj);
+        } catch (NotCompactException e) {
+            // written again as a whole by Java serialization
+            bos.truncate(start);
+            bos.writeByte(SERIALIZER_TYPE_OBJECT);
+            typeSerializers[SERIALIZER_TYPE_OBJECT].write(bos, obj);
+        }
     }
 
     public Object read(InputStream is) throws Exception {
         FastByteArrayInputStream bis = (FastByteArrayInputStream) is;
         final byte typeId = bis.readByte();
-        if ((typeId < 0) || (typeId >= this.typeSerializer.length)) {
+        final TypeSerializer[] typeSerializer = typeSerializers;
+        if ((typeId < 0) || (typeId >= typeSerializer.length) || typeSerializer[typeId] == null) {
             throw new IllegalArgumentException("There is no suitable deserializer for type 0x"
                     + Integer.toHexString(typeId));
         }
-        Object result = this.typeSerializer[typeId].read(bis);
+        Object result = typeSerializer[typeId].read(bis);
         return result;
     }
 
+    /**
+     * Thrown while writing a collection or a map whose elements can not all be
+     * written by the compact serializers.
+     */
+    private static class NotCompactException extends IOException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
     public static class LongSerializer implements TypeSerializer<Long> {
         public final int priority() {
             return SERIALIZER_PRIORITY_LONG;
@@ -360,6 +519,400 @@ public class DefaultSerializer implements CustomSerializer {
         }
     }
 
+    public static class DataSerializableIdSerializer implements TypeSerializer<DataSerializable> {
+        public final int priority() {
+            return SERIALIZER_PRIORITY_DATA_SERIALIZABLE_ID;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return isDataSerializableIdRegistered(obj);
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_DATA_SERIALIZABLE_ID;
+        }
+
+        public final DataSerializable read(final FastByteArrayInputStream bbis) throws Exception {
+            final int typeId = bbis.readInt();
+            final DataSerializableFactory factory = mapDataSerializableFactories.get(typeId);
+            if (factory == null) {
+                throw new IOException("No DataSerializable is registered with type id " + typeId);
+            }
+            final DataSerializable ds = factory.create();
+            ds.readData(bbis);
+            return ds;
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final DataSerializable obj) throws Exception {
+            bbos.writeInt(mapDataSerializableIds.get(obj.getClass()));
+            obj.writeData(bbos);
+        }
+    }
+
+    public static class DoubleSerializer implements TypeSerializer<Double> {
+        public final int priority() {
+            return SERIALIZER_PRIORITY_DOUBLE;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return obj instanceof Double;
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_DOUBLE;
+        }
+
+        public final Double read(final FastByteArrayInputStream bbis) throws Exception {
+            return bbis.readDouble();
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final Double obj) throws Exception {
+            bbos.writeDouble(obj.doubleValue());
+        }
+    }
+
+    public static class FloatSerializer implements TypeSerializer<Float> {
+        public final int priority() {
+            return SERIALIZER_PRIORITY_FLOAT;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return obj instanceof Float;
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_FLOAT;
+        }
+
+        public final Float read(final FastByteArrayInputStream bbis) throws Exception {
+            return bbis.readFloat();
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final Float obj) throws Exception {
+            bbos.writeFloat(obj.floatValue());
+        }
+    }
+
+    public static class ShortSerializer implements TypeSerializer<Short> {
+        public final int priority() {
+            return SERIALIZER_PRIORITY_SHORT;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return obj instanceof Short;
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_SHORT;
+        }
+
+        public final Short read(final FastByteArrayInputStream bbis) throws Exception {
+            return bbis.readShort();
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final Short obj) throws Exception {
+            bbos.writeShort(obj.shortValue());
+        }
+    }
+
+    public static class ByteSerializer implements TypeSerializer<Byte> {
+        public final int priority() {
+            return SERIALIZER_PRIORITY_BYTE;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return obj instanceof Byte;
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_BYTE;
+        }
+
+        public final Byte read(final FastByteArrayInputStream bbis) throws Exception {
+            return bbis.readByte();
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final Byte obj) throws Exception {
+            bbos.writeByte(obj.byteValue());
+        }
+    }
+
+    public static class CharacterSerializer implements TypeSerializer<Character> {
+        public final int priority() {
+            return SERIALIZER_PRIORITY_CHARACTER;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return obj instanceof Character;
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_CHARACTER;
+        }
+
+        public final Character read(final FastByteArrayInputStream bbis) throws Exception {
+            return bbis.readChar();
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final Character obj) throws Exception {
+            bbos.writeChar(obj.charValue());
+        }
+    }
+
+    public static class UUIDSerializer implements TypeSerializer<UUID> {
+        public final int priority() {
+            return SERIALIZER_PRIORITY_UUID;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return obj instanceof UUID;
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_UUID;
+        }
+
+        public final UUID read(final FastByteArrayInputStream bbis) throws Exception {
+            return new UUID(bbis.readLong(), bbis.readLong());
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final UUID obj) throws Exception {
+            bbos.writeLong(obj.getMostSignificantBits());
+            bbos.writeLong(obj.getLeastSignificantBits());
+        }
+    }
+
+    /**
+     * Arrays of the primitive types other than byte, written as their length, the kind
+     * of the array and the elements.
+     */
+    public static class PrimitiveArraySerializer implements TypeSerializer<Object> {
+        private static final byte INT_ARRAY = 0;
+        private static final byte LONG_ARRAY = 1;
+        private static final byte DOUBLE_ARRAY = 2;
+        private static final byte FLOAT_ARRAY = 3;
+        private static final byte SHORT_ARRAY = 4;
+        private static final byte CHAR_ARRAY = 5;
+        private static final byte BOOLEAN_ARRAY = 6;
+
+        public final int priority() {
+            return SERIALIZER_PRIORITY_PRIMITIVE_ARRAY;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return obj instanceof int[] || obj instanceof long[] || obj instanceof double[]
+                    || obj instanceof float[] || obj instanceof short[] || obj instanceof char[]
+                    || obj instanceof boolean[];
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_PRIMITIVE_ARRAY;
+        }
+
+        public final Object read(final FastByteArrayInputStream bbis) throws Exception {
+            final byte kind = bbis.readByte();
+            final int length = bbis.readInt();
+            switch (kind) {
+                case INT_ARRAY: {
+                    final int[] array = new int[length];
+                    for (int i = 0; i < length; i++) array[i] = bbis.readInt();
+                    return array;
+                }
+                case LONG_ARRAY: {
+                    final long[] array = new long[length];
+                    for (int i = 0; i < length; i++) array[i] = bbis.readLong();
+                    return array;
+                }
+                case DOUBLE_ARRAY: {
+                    final double[] array = new double[length];
+                    for (int i = 0; i < length; i++) array[i] = bbis.readDouble();
+                    return array;
+                }
+                case FLOAT_ARRAY: {
+                    final float[] array = new float[length];
+                    for (int i = 0; i < length; i++) array[i] = bbis.readFloat();
+                    return array;
+                }
+                case SHORT_ARRAY: {
+                    final short[] array = new short[length];
+                    for (int i = 0; i < length; i++) array[i] = bbis.readShort();
+                    return array;
+                }
+                case CHAR_ARRAY: {
+                    final char[] array = new char[length];
+                    for (int i = 0; i < length; i++) array[i] = bbis.readChar();
+                    return array;
+                }
+                case BOOLEAN_ARRAY: {
+                    final boolean[] array = new boolean[length];
+                    for (int i = 0; i < length; i++) array[i] = bbis.readBoolean();
+                    return array;
+                }
+                default:
+                    throw new IOException("Unknown primitive array kind " + kind);
+            }
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final Object obj) throws Exception {
+            if (obj instanceof int[]) {
+                final int[] array = (int[]) obj;
+                bbos.writeByte(INT_ARRAY);
+                bbos.writeInt(array.length);
+                for (int v : array) bbos.writeInt(v);
+            } else if (obj instanceof long[]) {
+                final long[] array = (long[]) obj;
+                bbos.writeByte(LONG_ARRAY);
+                bbos.writeInt(array.length);
+                for (long v : array) bbos.writeLong(v);
+            } else if (obj instanceof double[]) {
+                final double[] array = (double[]) obj;
+                bbos.writeByte(DOUBLE_ARRAY);
+                bbos.writeInt(array.length);
+                for (double v : array) bbos.writeDouble(v);
+            } else if (obj instanceof float[]) {
+                final float[] array = (float[]) obj;
+                bbos.writeByte(FLOAT_ARRAY);
+                bbos.writeInt(array.length);
+                for (float v : array) bbos.writeFloat(v);
+            } else if (obj instanceof short[]) {
+                final short[] array = (short[]) obj;
+                bbos.writeByte(SHORT_ARRAY);
+                bbos.writeInt(array.length);
+                for (short v : array) bbos.writeShort(v);
+            } else if (obj instanceof char[]) {
+                final char[] array = (char[]) obj;
+                bbos.writeByte(CHAR_ARRAY);
+                bbos.writeInt(array.length);
+                for (char v : array) bbos.writeChar(v);
+            } else {
+                final boolean[] array = (boolean[]) obj;
+                bbos.writeByte(BOOLEAN_ARRAY);
+                bbos.writeInt(array.length);
+                for (boolean v : array) bbos.writeBoolean(v);
+            }
+        }
+    }
+
+    /**
+     * ArrayList, LinkedList, HashSet and LinkedHashSet (not their subclasses), written
+     * element by element. If an element needs Java serialization, the collection is
+     * written by ObjectSerializer, as one Java serialization stream.
+     */
+    public class CollectionSerializer implements TypeSerializer<Collection> {
+        private static final byte ARRAY_LIST = 0;
+        private static final byte LINKED_LIST = 1;
+        private static final byte HASH_SET = 2;
+        private static final byte LINKED_HASH_SET = 3;
+
+        public final int priority() {
+            return SERIALIZER_PRIORITY_COLLECTION;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return kindOf(obj) != -1;
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_COLLECTION;
+        }
+
+        @SuppressWarnings("unchecked")
+        public final Collection read(final FastByteArrayInputStream bbis) throws Exception {
+            final byte kind = bbis.readByte();
+            final int size = bbis.readInt();
+            final Collection collection;
+            switch (kind) {
+                case ARRAY_LIST:
+                    collection = new ArrayList(size);
+                    break;
+                case LINKED_LIST:
+                    collection = new LinkedList();
+                    break;
+                case HASH_SET:
+                    collection = new HashSet(Math.max(16, (int) (size / .75f) + 1));
+                    break;
+                case LINKED_HASH_SET:
+                    collection = new LinkedHashSet(Math.max(16, (int) (size / .75f) + 1));
+                    break;
+                default:
+                    throw new IOException("Unknown collection kind " + kind);
+            }
+            for (int i = 0; i < size; i++) {
+                collection.add(readElement(bbis));
+            }
+            return collection;
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final Collection obj) throws Exception {
+            write(bbos, obj, 0);
+        }
+
+        final void write(final FastByteArrayOutputStream bbos, final Collection obj, final int nesting) throws Exception {
+            bbos.writeByte(kindOf(obj));
+            bbos.writeInt(obj.size());
+            for (Object element : obj) {
+                writeElement(bbos, element, nesting);
+            }
+        }
+
+        private byte kindOf(final Object obj) {
+            final Class klass = obj.getClass();
+            if (klass == ArrayList.class) {
+                return ARRAY_LIST;
+            } else if (klass == LinkedList.class) {
+                return LINKED_LIST;
+            } else if (klass == HashSet.class) {
+                return HASH_SET;
+            } else if (klass == LinkedHashSet.class) {
+                return LINKED_HASH_SET;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * HashMap (not its subclasses) written entry by entry, see CollectionSerializer.
+     * LinkedHashMap is written by Java serialization, which keeps its access order.
+     */
+    public class MapSerializer implements TypeSerializer<Map> {
+
+        public final int priority() {
+            return SERIALIZER_PRIORITY_MAP;
+        }
+
+        public final boolean isSuitable(final Object obj) {
+            return obj.getClass() == HashMap.class;
+        }
+
+        public final byte getTypeId() {
+            return SERIALIZER_TYPE_MAP;
+        }
+
+        @SuppressWarnings("unchecked")
+        public final Map read(final FastByteArrayInputStream bbis) throws Exception {
+            final int size = bbis.readInt();
+            final Map map = new HashMap(Math.max(16, (int) (size / .75f) + 1));
+            for (int i = 0; i < size; i++) {
+                final Object key = readElement(bbis);
+                map.put(key, readElement(bbis));
+            }
+            return map;
+        }
+
+        public final void write(final FastByteArrayOutputStream bbos, final Map obj) throws Exception {
+            write(bbos, obj, 0);
+        }
+
+        final void write(final FastByteArrayOutputStream bbos, final Map obj, final int nesting) throws Exception {
+            bbos.writeInt(obj.size());
+            for (Object o : obj.entrySet()) {
+                final Map.Entry entry = (Map.Entry) o;
+                writeElement(bbos, entry.getKey(), nesting);
+                writeElement(bbos, entry.getValue(), nesting);
+            }
+        }
+    }
+
     public static class ObjectSerializer implements TypeSerializer<Object> {
         public final int priority() {
             return SERIALIZER_PRIORITY_OBJECT;
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Direct socket buffers of the closed connections, kept for the next connections.
+ * Direct buffers are costly to allocate and their memory is only freed by GC.
+ */
+final class DirectBufferPool {
+    private final ConcurrentMap<Integer, Queue<ByteBuffer>> mapBuffers = new ConcurrentHashMap<Integer, Queue<ByteBuffer>>(2);
+    private final AtomicInteger pooledCount = new AtomicInteger();
+    private final int maxPooledCount;
+
+    DirectBufferPool(int maxPooledCount) {
+        this.maxPooledCount = maxPooledCount;
+    }
+
+    ByteBuffer take(int capacity) {
+        final Queue<ByteBuffer> buffers = mapBuffers.get(capacity);
+        final ByteBuffer buffer = (buffers == null) ? null : buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        pooledCount.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Should be called by the thread using the buffer, after its last use.
+     */
+    void release(ByteBuffer buffer) {
+        if (!buffer.isDirect()) return;
+        if (pooledCount.incrementAndGet() > maxPooledCount) {
+            pooledCount.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        Queue<ByteBuffer> buffers = mapBuffers.get(buffer.capacity());
+        if (buffers == null) {
+            buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+            final Queue<ByteBuffer> existing = mapBuffers.putIfAbsent(buffer.capacity(), buffers);
+            if (existing != null) {
+                buffers = existing;
+            }
+        }
+        buffers.offer(buffer);
+    }
+
+    int size() {
+        return pooledCount.get();
+    }
+}
@@ -87,6 +87,13 @@ public final class FastByteArrayOutputStream extends ByteArrayOutputStream imple
         return count;
     }
 
+    /**
+     * Drops the bytes written after the first count bytes.
+     */
+    void truncate(int count) {
+        this.count = count;
+    }
+
     @Override
     public byte toByteArray()[] {
         byte newbuf[] = new byte[count];
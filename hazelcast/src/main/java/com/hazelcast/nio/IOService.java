@@ -88,6 +88,8 @@ public interface IOService {
 
     boolean getSocketNoDelay();
 
+    boolean isSocketDirectBuffer();
+
     int getSelectorThreadCount();
 
     long getConnectionMonitorInterval();
@@ -63,12 +63,15 @@ public final class IOUtil {
                 for (int i = 0; i < n; i++) {
                     dest.put(src.get());
                 }
-            } else {
+            } else if (src.hasArray() && dest.hasArray()) {
                 int srcPosition = src.position();
                 int destPosition = dest.position();
                 System.arraycopy(src.array(), srcPosition, dest.array(), destPosition, n);
                 src.position(srcPosition + n);
                 dest.position(destPosition + n);
+            } else {
+                // socket buffers are direct when hazelcast.socket.direct.buffer is set
+                copyFromDirectToDirectBuffer(src, dest);
             }
         }
         return n;
@@ -167,6 +167,10 @@ public class NodeIOService implements IOService {
         return this.node.getGroupProperties().SOCKET_NO_DELAY.getBoolean();
     }
 
+    public boolean isSocketDirectBuffer() {
+        return this.node.getGroupProperties().SOCKET_DIRECT_BUFFER.getBoolean();
+    }
+
     public int getSelectorThreadCount() {
         return node.groupProperties.IO_THREAD_COUNT.getInteger();
     }
@@ -22,6 +22,7 @@ import com.hazelcast.impl.base.CallStateAware;
 import com.hazelcast.util.ByteUtil;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -35,13 +36,20 @@ public final class Packet implements SocketWritable, CallStateAware {
 
     public final ByteBuffer bbSizes = ByteBuffer.allocate(13);
 
-    public final ByteBuffer bbHeader = ByteBuffer.allocate(500);
+    private static final int HEADER_SIZE = 500;
+
+    // space kept for an index value, its type and the hashes written after the indexes
+    private static final int INDEX_RESERVE = 32;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public ByteBuffer bbHeader = ByteBuffer.allocate(HEADER_SIZE);
 
     private DataHolder key = null;
 
     private DataHolder value = null;
 
-    public Long[] indexes = null;
+    public Object[] indexes = null;
 
     public byte[] indexTypes = null;
 
@@ -120,6 +128,42 @@ public final class Packet implements SocketWritable, CallStateAware {
         return new String(bytes);
     }
 
+    /**
+     * Index values are longs, or the strings of the ordered indexes. The header
+     * is grown for the strings that don't fit.
+     */
+    private void putIndexValue(Object indexValue) {
+        if (indexValue instanceof String) {
+            final byte[] bytes = ((String) indexValue).getBytes(UTF_8);
+            ensureHeaderCapacity(bytes.length + INDEX_RESERVE);
+            bbHeader.put((byte) 1);
+            bbHeader.putInt(bytes.length);
+            bbHeader.put(bytes);
+        } else {
+            ensureHeaderCapacity(INDEX_RESERVE);
+            bbHeader.put((byte) 0);
+            bbHeader.putLong((Long) indexValue);
+        }
+    }
+
+    private Object getIndexValue() {
+        if (bbHeader.get() == (byte) 1) {
+            final byte[] bytes = new byte[bbHeader.getInt()];
+            bbHeader.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+        return bbHeader.getLong();
+    }
+
+    private void ensureHeaderCapacity(int size) {
+        if (bbHeader.remaining() < size) {
+            final ByteBuffer newHeader = ByteBuffer.allocate(bbHeader.position() + size);
+            bbHeader.flip();
+            newHeader.put(bbHeader);
+            bbHeader = newHeader;
+        }
+    }
+
     protected void writeBoolean(ByteBuffer bb, boolean value) {
         bb.put((value) ? (byte) 1 : (byte) 0);
     }
@@ -187,11 +231,13 @@ public final class Packet implements SocketWritable, CallStateAware {
         byte indexCount = (indexes == null) ? 0 : (byte) indexes.length;
         bbHeader.put(indexCount);
         for (byte i = 0; i < indexCount; i++) {
-            bbHeader.putLong(indexes[i]);
+            putIndexValue(indexes[i]);
             bbHeader.put(indexTypes[i]);
         }
         bbHeader.putInt(key == null ? -1 : key.partitionHash);
         bbHeader.putInt(value == null ? -1 : value.partitionHash);
+        bbHeader.putInt(key == null ? 0 : key.hash);
+        bbHeader.put(Util.DATA_HASH_ID);
         bbHeader.flip();
         bbSizes.putInt(bbHeader.limit());
         bbSizes.putInt(key == null ? 0 : key.size);
@@ -239,16 +285,23 @@ public final class Packet implements SocketWritable, CallStateAware {
         name = getString(bbHeader);
         byte indexCount = bbHeader.get();
         if (indexCount > 0) {
-            indexes = new Long[indexCount];
+            indexes = new Object[indexCount];
             indexTypes = new byte[indexCount];
             for (byte i = 0; i < indexCount; i++) {
-                indexes[i] = bbHeader.getLong();
+                indexes[i] = getIndexValue();
                 indexTypes[i] = bbHeader.get();
             }
         }
         int keyPartitionHash = bbHeader.getInt();
         int valuePartitionHash = bbHeader.getInt();
-        if (key != null) key.setPartitionHash(keyPartitionHash);
+        int keyHash = bbHeader.getInt();
+        byte keyHashId = bbHeader.get();
+        if (key != null) {
+            key.setPartitionHash(keyPartitionHash);
+            if (keyHashId == Util.DATA_HASH_ID) {
+                key.hash = keyHash;
+            }
+        }
         if (value != null) value.setPartitionHash(valuePartitionHash);
     }
 
@@ -285,7 +338,11 @@ public final class Packet implements SocketWritable, CallStateAware {
         callId = -1;
         client = false;
         bbSizes.clear();
-        bbHeader.clear();
+        if (bbHeader.capacity() > HEADER_SIZE) {
+            bbHeader = ByteBuffer.allocate(HEADER_SIZE);
+        } else {
+            bbHeader.clear();
+        }
         key = null;
         value = null;
         conn = null;
@@ -355,6 +412,41 @@ public final class Packet implements SocketWritable, CallStateAware {
         return totalWritten >= totalSize;
     }
 
+    /**
+     * Copies the sizes and the header if they fit in the buffer. The key and the value
+     * are then written from their own buffers by a gathering write.
+     */
+    final boolean writeHeaderToSocketBuffer(ByteBuffer dest) {
+        if (dest.remaining() < bbSizes.remaining() + bbHeader.remaining()) {
+            return false;
+        }
+        totalWritten += IOUtil.copyToHeapBuffer(bbSizes, dest);
+        totalWritten += IOUtil.copyToHeapBuffer(bbHeader, dest);
+        return true;
+    }
+
+    final int getBodySize() {
+        return (key == null ? 0 : key.size) + (value == null ? 0 : value.size);
+    }
+
+    /**
+     * @return buffer of the key or the value being read if the header is read and at least
+     *         minSize bytes are left to read into it, so that the socket can be read into it
+     *         directly; null otherwise
+     */
+    final ByteBuffer getBodyReadBuffer(int minSize) {
+        if (!sizeRead || bbHeader.hasRemaining()) {
+            return null;
+        }
+        ByteBuffer buffer = null;
+        if (key != null && key.shouldRead()) {
+            buffer = key.buffer;
+        } else if (value != null && value.shouldRead()) {
+            buffer = value.buffer;
+        }
+        return (buffer != null && buffer.remaining() >= minSize) ? buffer : null;
+    }
+
     public final boolean read(ByteBuffer bb) {
         while (!sizeRead && bb.hasRemaining() && bbSizes.hasRemaining()) {
             IOUtil.copyToHeapBuffer(bb, bbSizes);
@@ -362,7 +454,11 @@ public final class Packet implements SocketWritable, CallStateAware {
         if (!sizeRead && !bbSizes.hasRemaining()) {
             sizeRead = true;
             bbSizes.flip();
-            bbHeader.limit(bbSizes.getInt());
+            final int headerSize = bbSizes.getInt();
+            if (headerSize > bbHeader.capacity()) {
+                bbHeader = ByteBuffer.allocate(headerSize);
+            }
+            bbHeader.limit(headerSize);
             int keySize = bbSizes.getInt();
             int valueSize = bbSizes.getInt();
             if (keySize > 0) key = new DataHolder(keySize);
@@ -409,7 +505,7 @@ public final class Packet implements SocketWritable, CallStateAware {
             if (objKey instanceof Data) {
                 setKey((Data) objKey);
             } else {
-                key = new DataHolder(ThreadContext.get().toData(objKey));
+                key = newKeyHolder(ThreadContext.get().toData(objKey));
             }
         }
         if (objValue != null) {
@@ -445,7 +541,16 @@ public final class Packet implements SocketWritable, CallStateAware {
     }
 
     public void setKey(Data key) {
-        this.key = (key == null || key.size() == 0) ? null : new DataHolder(key);
+        this.key = (key == null || key.size() == 0) ? null : newKeyHolder(key);
+    }
+
+    /**
+     * Hashes of the key are computed once by the sender and are sent in the header.
+     */
+    private static DataHolder newKeyHolder(Data key) {
+        key.getPartitionHash();
+        key.hashCode();
+        return new DataHolder(key);
     }
 
     public void setValue(Data value) {
@@ -32,6 +32,8 @@ class ReadHandler extends AbstractSelectionHandler implements Runnable {
 
     SocketReader socketReader = null;
 
+    SocketPacketReader directBodyReader = null;
+
     @SuppressWarnings("VolatileLongOrDoubleField")
     volatile long lastRegistration = 0;
     @SuppressWarnings("VolatileLongOrDoubleField")
@@ -39,7 +41,7 @@ class ReadHandler extends AbstractSelectionHandler implements Runnable {
 
     public ReadHandler(Connection connection) {
         super(connection, connection.getInOutSelector());
-        inBuffer = ByteBuffer.allocate(connectionManager.SOCKET_RECEIVE_BUFFER_SIZE);
+        inBuffer = connectionManager.allocateSocketBuffer(connectionManager.SOCKET_RECEIVE_BUFFER_SIZE);
     }
 
     public final void handle() {
@@ -61,7 +63,12 @@ class ReadHandler extends AbstractSelectionHandler implements Runnable {
                     WriteHandler writeHandler = connection.getWriteHandler();
                     if ("HZC".equals(protocol)) {
                         writeHandler.setProtocol("HZC");
-                        socketReader = new SocketPacketReader(socketChannel, connection);
+                        SocketPacketReader socketPacketReader = new SocketPacketReader(socketChannel, connection);
+                        if (inBuffer.isDirect() && !socketPacketReader.isDecrypting()
+                                && socketChannel instanceof DefaultSocketChannelWrapper) {
+                            directBodyReader = socketPacketReader;
+                        }
+                        socketReader = socketPacketReader;
                     } else {
                         writeHandler.setProtocol("TEXT");
                         inBuffer.put(protocolBuffer.array());
@@ -71,6 +78,25 @@ class ReadHandler extends AbstractSelectionHandler implements Runnable {
                 }
             }
             if (socketReader == null) return;
+            if (directBodyReader != null && inBuffer.position() == 0) {
+                // big keys and values are read into their own buffers instead of the socket buffer,
+                // they are heap buffers so the channel still copies from a temporary direct buffer
+                ByteBuffer bodyBuffer = directBodyReader.getBodyReadBuffer(inBuffer.capacity());
+                if (bodyBuffer != null) {
+                    // the temporary direct buffer is as big as the remaining heap buffer
+                    int limit = bodyBuffer.limit();
+                    bodyBuffer.limit(Math.min(limit, bodyBuffer.position() + inBuffer.capacity()));
+                    try {
+                        if (socketChannel.read(bodyBuffer) == -1) {
+                            throw new EOFException();
+                        }
+                    } finally {
+                        bodyBuffer.limit(limit);
+                    }
+                    directBodyReader.bodyRead();
+                    return;
+                }
+            }
             int readBytes = socketChannel.read(inBuffer);
             if (readBytes == -1) {
                 throw new EOFException();
@@ -93,6 +119,11 @@ class ReadHandler extends AbstractSelectionHandler implements Runnable {
         }
     }
 
+    @Override
+    protected void shutdown() {
+        releaseSocketBuffer(inBuffer);
+    }
+
     public final void run() {
         lastRegistration = Clock.currentTimeMillis();
         registerOp(inOutSelector.selector, SelectionKey.OP_READ);
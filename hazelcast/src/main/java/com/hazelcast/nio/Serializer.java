@@ -82,7 +82,8 @@ public final class Serializer extends AbstractSerializer {
         }
 
         public final boolean isSuitable(final Object obj) {
-            return obj instanceof DataSerializable;
+            // registered classes are written with their type id by DefaultSerializer
+            return obj instanceof DataSerializable && !DefaultSerializer.isDataSerializableIdRegistered(obj);
         }
 
         public final byte getTypeId() {
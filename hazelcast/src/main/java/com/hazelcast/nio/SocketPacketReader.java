@@ -27,6 +27,8 @@ import static com.hazelcast.nio.IOUtil.copyToHeapBuffer;
 
 class SocketPacketReader implements SocketReader {
 
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
     Packet packet = null;
 
     final PacketReader packetReader;
@@ -62,6 +64,31 @@ class SocketPacketReader implements SocketReader {
         packetReader.readPacket(inBuffer);
     }
 
+    /**
+     * @return true if the packets are decrypted from the socket buffer
+     */
+    boolean isDecrypting() {
+        return !(packetReader instanceof DefaultPacketReader);
+    }
+
+    /**
+     * @return buffer of the key or the value of the packet being read, if the socket
+     *         should be read into it directly, see Packet.getBodyReadBuffer
+     */
+    ByteBuffer getBodyReadBuffer(int minSize) {
+        return (packet == null) ? null : packet.getBodyReadBuffer(minSize);
+    }
+
+    /**
+     * Called after reading into the buffer returned by getBodyReadBuffer.
+     */
+    void bodyRead() {
+        if (packet.read(EMPTY_BUFFER)) {
+            enqueueFullPacket(packet);
+            packet = null;
+        }
+    }
+
     public void enqueueFullPacket(final Packet p) {
         p.flipBuffers();
         p.read();
@@ -57,6 +57,13 @@ public class SocketPacketWriter implements SocketWriter<Packet> {
         return packetWriter.writePacket(socketWritable, socketBuffer);
     }
 
+    /**
+     * @return true if the packets are encrypted into the socket buffer
+     */
+    boolean isEncrypting() {
+        return !(packetWriter instanceof DefaultPacketWriter);
+    }
+
     interface PacketWriter {
         boolean writePacket(Packet packet, ByteBuffer socketBB) throws Exception;
     }
@@ -28,8 +28,18 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
+import static com.hazelcast.impl.Constants.IO.KILO_BYTE;
+
 public final class WriteHandler extends AbstractSelectionHandler implements Runnable {
 
+    /**
+     * Packets with a bigger key and value are written by gathering writes when
+     * the socket buffers are direct, so the key and the value are not copied into
+     * the socket buffer. They are heap buffers, the channel still copies them into
+     * its own temporary direct buffer.
+     */
+    static final int GATHERING_WRITE_THRESHOLD = 8 * KILO_BYTE;
+
     private final Queue<SocketWritable> writeQueue = new ConcurrentLinkedQueue<SocketWritable>() {
         final AtomicInteger size = new AtomicInteger();
 
@@ -61,6 +71,14 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
 
     private final ByteBuffer socketBB;
 
+    private final ByteBuffer[] gatheringBuffers = new ByteBuffer[3];
+
+    private final ByteBuffer emptyBuffer = ByteBuffer.allocate(0);
+
+    private boolean gatheringWrites = false;
+
+    private Packet gatheringPacket = null;
+
     private boolean ready = false;
 
     private volatile SocketWritable lastWritable = null;
@@ -73,13 +91,16 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
 
     WriteHandler(Connection connection) {
         super(connection, connection.getInOutSelector());
-        socketBB = ByteBuffer.allocate(connectionManager.SOCKET_SEND_BUFFER_SIZE);
+        socketBB = connectionManager.allocateSocketBuffer(connectionManager.SOCKET_SEND_BUFFER_SIZE);
     }
 
     public void setProtocol(String protocol) {
         if (socketWriter == null) {
             if ("HZC".equals(protocol)) {
-                socketWriter = new SocketPacketWriter(connection);
+                SocketPacketWriter socketPacketWriter = new SocketPacketWriter(connection);
+                gatheringWrites = socketBB.isDirect() && !socketPacketWriter.isEncrypting()
+                        && socketChannel instanceof DefaultSocketChannelWrapper;
+                socketWriter = socketPacketWriter;
                 socketBB.put("HZC".getBytes());
                 inOutSelector.addTask(this);
             } else {
@@ -111,6 +132,8 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
 
     public void handle() {
         lastHandle = Clock.currentTimeMillis();
+        if (!connection.live())
+            return;
         if (socketWriter == null) {
             setProtocol("HZC");
         }
@@ -121,25 +144,26 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
                 return;
             }
         }
-        if (!connection.live())
-            return;
         try {
-            while (socketBB.hasRemaining()) {
+            while (gatheringPacket == null && socketBB.hasRemaining()) {
                 if (lastWritable == null) {
                     lastWritable = poll();
                 }
                 if (lastWritable != null) {
+                    if (gatheringWrites && lastWritable instanceof Packet
+                            && ((Packet) lastWritable).getBodySize() >= GATHERING_WRITE_THRESHOLD) {
+                        Packet packet = (Packet) lastWritable;
+                        if (packet.writeHeaderToSocketBuffer(socketBB)) {
+                            gatheringPacket = packet;
+                            gatheringBuffers[0] = socketBB;
+                            gatheringBuffers[1] = (packet.getKey() == null) ? emptyBuffer : packet.getKey().buffer;
+                            gatheringBuffers[2] = (packet.getValue() == null) ? emptyBuffer : packet.getValue().buffer;
+                        }
+                        break;
+                    }
                     boolean complete = socketWriter.write(lastWritable, socketBB);
                     if (complete) {
-                        if (lastWritable instanceof Packet) {
-                            Packet packet = (Packet) lastWritable;
-                            connection.releasePacket(packet);
-                            if (systemLogService.shouldTrace()) {
-                                systemLogService.trace(packet,
-                                        new SystemArgsLog("WrittenOut ",
-                                                connection.getEndPoint(), packet.operation));
-                            }
-                        }
+                        written(lastWritable);
                         lastWritable = null;
                     } else {
                         if (socketBB.hasRemaining()) {
@@ -150,7 +174,40 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
                     break;
                 }
             }
-            if (socketBB.position() > 0) {
+            if (gatheringPacket != null) {
+                socketBB.flip();
+                // the channel copies heap buffers to a temporary direct buffer as a whole,
+                // so at most a socket buffer size of the key and value is written at once
+                int limitKey = gatheringBuffers[1].limit();
+                int limitValue = gatheringBuffers[2].limit();
+                int chunk = Math.min(gatheringBuffers[1].remaining(), socketBB.capacity());
+                gatheringBuffers[1].limit(gatheringBuffers[1].position() + chunk);
+                chunk = Math.min(gatheringBuffers[2].remaining(), socketBB.capacity() - chunk);
+                gatheringBuffers[2].limit(gatheringBuffers[2].position() + chunk);
+                try {
+                    socketChannel.write(gatheringBuffers);
+                } catch (Exception e) {
+                    lastWritable = null;
+                    gatheringPacket = null;
+                    handleSocketException(e);
+                    return;
+                } finally {
+                    gatheringBuffers[1].limit(limitKey);
+                    gatheringBuffers[2].limit(limitValue);
+                }
+                if (socketBB.hasRemaining()) {
+                    socketBB.compact();
+                } else {
+                    socketBB.clear();
+                }
+                if (!gatheringBuffers[1].hasRemaining() && !gatheringBuffers[2].hasRemaining()) {
+                    written(gatheringPacket);
+                    lastWritable = null;
+                    gatheringPacket = null;
+                    gatheringBuffers[1] = null;
+                    gatheringBuffers[2] = null;
+                }
+            } else if (socketBB.position() > 0) {
                 socketBB.flip();
                 try {
                     socketChannel.write(socketBB);
@@ -185,6 +242,18 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
         ready = false;
     }
 
+    private void written(SocketWritable socketWritable) {
+        if (socketWritable instanceof Packet) {
+            Packet packet = (Packet) socketWritable;
+            connection.releasePacket(packet);
+            if (systemLogService.shouldTrace()) {
+                systemLogService.trace(packet,
+                        new SystemArgsLog("WrittenOut ",
+                                connection.getEndPoint(), packet.operation));
+            }
+        }
+    }
+
     private void registerWrite() {
         lastRegistration = Clock.currentTimeMillis();
         registerOp(inOutSelector.selector, SelectionKey.OP_WRITE);
@@ -196,6 +265,7 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
         while (obj != null) {
             obj = poll();
         }
+        releaseSocketBuffer(socketBB);
     }
 
     public int size() {
@@ -24,12 +24,23 @@ public class MigrationEvent extends EventObject {
     final int partitionId;
     final Member oldOwner;
     final Member newOwner;
+    final long recordCount;
+    final long byteCount;
+    final long duration;
 
     public MigrationEvent(Object source, int partitionId, Member oldOwner, Member newOwner) {
+        this(source, partitionId, oldOwner, newOwner, 0, 0, 0);
+    }
+
+    public MigrationEvent(Object source, int partitionId, Member oldOwner, Member newOwner,
+                          long recordCount, long byteCount, long duration) {
         super(source);
         this.partitionId = partitionId;
         this.oldOwner = oldOwner;
         this.newOwner = newOwner;
+        this.recordCount = recordCount;
+        this.byteCount = byteCount;
+        this.duration = duration;
     }
 
     public int getPartitionId() {
@@ -44,12 +55,45 @@ public class MigrationEvent extends EventObject {
         return newOwner;
     }
 
+    /**
+     * Returns the number of records sent by the old owner. Known when the migration
+     * is completed, 0 for a started migration.
+     *
+     * @return number of migrated records
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the number of compressed bytes sent by the old owner. Known when the
+     * migration is completed, 0 for a started migration.
+     *
+     * @return number of migrated bytes
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Returns how long the old owner took to send the records, in milliseconds. Known
+     * when the migration is completed, 0 for a started migration.
+     *
+     * @return duration of the migration in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
     @Override
     public String toString() {
         return "MigrationEvent{" +
                 "partitionId=" + partitionId +
                 ", oldOwner=" + oldOwner +
                 ", newOwner=" + newOwner +
+                ", recordCount=" + recordCount +
+                ", byteCount=" + byteCount +
+                ", duration=" + duration +
                 '}';
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+
+import java.io.Serializable;
+
+/**
+ * Aggregates the entries of a map on the members owning them, see
+ * {@link com.hazelcast.core.IMap#aggregate(Aggregator, Predicate)}.
+ * <p/>
+ * A copy of the aggregator is sent to each member and accumulates the matching
+ * entries owned by the member. Copies of the aggregator may accumulate in parallel,
+ * each on a different set of entries. The copies are sent back to the caller, which
+ * combines them into one and calls {@link #reduce()} for the result.
+ * <p/>
+ * Built-in aggregators are created by {@link Aggregators}.
+ *
+ * @param <K> key
+ * @param <V> value
+ * @param <R> result
+ */
+public interface Aggregator<K, V, R> extends Serializable {
+    /**
+     * Adds the entry to the partial result of this aggregator. The entry must not be changed.
+     *
+     * @param entry matching entry
+     */
+    void accumulate(MapEntry<K, V> entry);
+
+    /**
+     * Adds the partial result of another copy of this aggregator to this aggregator.
+     *
+     * @param other copy of this aggregator that accumulated other entries
+     */
+    void combine(Aggregator<K, V, R> other);
+
+    /**
+     * @return result of the aggregation of the accumulated entries
+     */
+    R reduce();
+}
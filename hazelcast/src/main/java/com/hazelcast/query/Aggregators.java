@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.nio.DataSerializable;
+import com.hazelcast.nio.SerializationHelper;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Built-in aggregators. The attribute is read from the value the same way as in
+ * {@link SqlPredicate}, "this" is the value itself. Entries whose attribute is null
+ * are skipped.
+ * <pre>
+ * Long count = map.aggregate(Aggregators.count(), new SqlPredicate("active"));
+ * Double averageAge = map.aggregate(Aggregators.avg("age"), new SqlPredicate("active"));
+ * </pre>
+ */
+public final class Aggregators {
+
+    private Aggregators() {
+    }
+
+    public static Aggregator<Object, Object, Long> count() {
+        return new CountAggregator();
+    }
+
+    /**
+     * @return sum as a Long if all the attributes are integral, as a Double otherwise
+     */
+    public static Aggregator<Object, Object, Number> sum(String attribute) {
+        return new SumAggregator(attribute);
+    }
+
+    /**
+     * @return average as a Double, null if there is no attribute to average
+     */
+    public static Aggregator<Object, Object, Double> avg(String attribute) {
+        return new AvgAggregator(attribute);
+    }
+
+    public static Aggregator<Object, Object, Comparable> min(String attribute) {
+        return new MinMaxAggregator(attribute, true);
+    }
+
+    public static Aggregator<Object, Object, Comparable> max(String attribute) {
+        return new MinMaxAggregator(attribute, false);
+    }
+
+    public static Aggregator<Object, Object, Set<Object>> distinct(String attribute) {
+        return new DistinctAggregator(attribute);
+    }
+
+    public static abstract class AbstractAggregator<R> extends SerializationHelper
+            implements Aggregator<Object, Object, R>, DataSerializable {
+        Expression expression;
+
+        protected AbstractAggregator() {
+        }
+
+        protected AbstractAggregator(String attribute) {
+            this.expression = Predicates.get(attribute);
+        }
+
+        public void accumulate(MapEntry<Object, Object> entry) {
+            final Object value = expression.getValue(entry);
+            if (value != null) {
+                accumulate(value);
+            }
+        }
+
+        protected abstract void accumulate(Object value);
+
+        public void writeData(DataOutput out) throws IOException {
+            writeObject(out, expression);
+        }
+
+        public void readData(DataInput in) throws IOException {
+            expression = (Expression) readObject(in);
+        }
+    }
+
+    public static class CountAggregator implements Aggregator<Object, Object, Long>, DataSerializable {
+        long count = 0;
+
+        public void accumulate(MapEntry<Object, Object> entry) {
+            count++;
+        }
+
+        public void combine(Aggregator<Object, Object, Long> other) {
+            count += ((CountAggregator) other).count;
+        }
+
+        public Long reduce() {
+            return count;
+        }
+
+        public void writeData(DataOutput out) throws IOException {
+            out.writeLong(count);
+        }
+
+        public void readData(DataInput in) throws IOException {
+            count = in.readLong();
+        }
+    }
+
+    public static class SumAggregator extends AbstractAggregator<Number> {
+        long longSum = 0;
+        double doubleSum = 0;
+        boolean floating = false;
+
+        public SumAggregator() {
+        }
+
+        public SumAggregator(String attribute) {
+            super(attribute);
+        }
+
+        protected void accumulate(Object value) {
+            if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+                floating = true;
+                doubleSum += ((Number) value).doubleValue();
+            } else {
+                longSum += ((Number) value).longValue();
+            }
+        }
+
+        public void combine(Aggregator<Object, Object, Number> other) {
+            final SumAggregator sum = (SumAggregator) other;
+            longSum += sum.longSum;
+            doubleSum += sum.doubleSum;
+            floating |= sum.floating;
+        }
+
+        public Number reduce() {
+            if (floating) {
+                return doubleSum + longSum;
+            }
+            return longSum;
+        }
+
+        public void writeData(DataOutput out) throws IOException {
+            super.writeData(out);
+            out.writeLong(longSum);
+            out.writeDouble(doubleSum);
+            out.writeBoolean(floating);
+        }
+
+        public void readData(DataInput in) throws IOException {
+            super.readData(in);
+            longSum = in.readLong();
+            doubleSum = in.readDouble();
+            floating = in.readBoolean();
+        }
+    }
+
+    public static class AvgAggregator extends AbstractAggregator<Double> {
+        double sum = 0;
+        long count = 0;
+
+        public AvgAggregator() {
+        }
+
+        public AvgAggregator(String attribute) {
+            super(attribute);
+        }
+
+        protected void accumulate(Object value) {
+            sum += ((Number) value).doubleValue();
+            count++;
+        }
+
+        public void combine(Aggregator<Object, Object, Double> other) {
+            final AvgAggregator avg = (AvgAggregator) other;
+            sum += avg.sum;
+            count += avg.count;
+        }
+
+        public Double reduce() {
+            return (count == 0) ? null : sum / count;
+        }
+
+        public void writeData(DataOutput out) throws IOException {
+            super.writeData(out);
+            out.writeDouble(sum);
+            out.writeLong(count);
+        }
+
+        public void readData(DataInput in) throws IOException {
+            super.readData(in);
+            sum = in.readDouble();
+            count = in.readLong();
+        }
+    }
+
+    public static class MinMaxAggregator extends AbstractAggregator<Comparable> {
+        boolean min;
+        Comparable result = null;
+
+        public MinMaxAggregator() {
+        }
+
+        public MinMaxAggregator(String attribute, boolean min) {
+            super(attribute);
+            this.min = min;
+        }
+
+        protected void accumulate(Object value) {
+            final Comparable comparable = (Comparable) value;
+            if (result == null) {
+                result = comparable;
+            } else {
+                final int c = comparable.compareTo(result);
+                if (min ? c < 0 : c > 0) {
+                    result = comparable;
+                }
+            }
+        }
+
+        public void combine(Aggregator<Object, Object, Comparable> other) {
+            final Comparable otherResult = ((MinMaxAggregator) other).result;
+            if (otherResult != null) {
+                accumulate(otherResult);
+            }
+        }
+
+        public Comparable reduce() {
+            return result;
+        }
+
+        public void writeData(DataOutput out) throws IOException {
+            super.writeData(out);
+            out.writeBoolean(min);
+            writeObject(out, result);
+        }
+
+        public void readData(DataInput in) throws IOException {
+            super.readData(in);
+            min = in.readBoolean();
+            result = (Comparable) readObject(in);
+        }
+    }
+
+    public static class DistinctAggregator extends AbstractAggregator<Set<Object>> {
+        Set<Object> values = new HashSet<Object>();
+
+        public DistinctAggregator() {
+        }
+
+        public DistinctAggregator(String attribute) {
+            super(attribute);
+        }
+
+        protected void accumulate(Object value) {
+            values.add(value);
+        }
+
+        public void combine(Aggregator<Object, Object, Set<Object>> other) {
+            values.addAll(((DistinctAggregator) other).values);
+        }
+
+        public Set<Object> reduce() {
+            return values;
+        }
+
+        public void writeData(DataOutput out) throws IOException {
+            super.writeData(out);
+            out.writeInt(values.size());
+            for (Object value : values) {
+                writeObject(out, value);
+            }
+        }
+
+        public void readData(DataInput in) throws IOException {
+            super.readData(in);
+            final int size = in.readInt();
+            values = new HashSet<Object>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readObject(in));
+            }
+        }
+    }
+}
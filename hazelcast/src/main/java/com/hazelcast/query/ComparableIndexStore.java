@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.impl.Record;
+import com.hazelcast.util.concurrent.ConcurrentNavigableMap;
+import com.hazelcast.util.concurrent.ConcurrentSkipListMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Sorted index store keyed on the attribute values themselves instead of their long
+ * index values, so that strings are sorted by their natural order and equal hash
+ * codes don't mix the records of different values.
+ * <p/>
+ * Records with a null attribute are kept apart and only match the null value.
+ */
+public class ComparableIndexStore {
+    /**
+     * Index value of the records with a null attribute
+     */
+    static final Object NULL = new Object();
+
+    private final ConcurrentNavigableMap<Comparable, ConcurrentMap<Long, Record>> mapRecords = new ConcurrentSkipListMap<Comparable, ConcurrentMap<Long, Record>>();
+    private final ConcurrentMap<Long, Record> nullRecords = new ConcurrentHashMap<Long, Record>(1, 0.75f, 1);
+
+    public void getSubRecordsBetween(MultiResultSet results, Comparable from, Comparable to) {
+        if (from == null || to == null || from.compareTo(to) > 0) return;
+        addResultSets(results, mapRecords.subMap(from, true, to, true));
+    }
+
+    public void getSubRecords(MultiResultSet results, boolean equal, boolean lessThan, Comparable searchedValue) {
+        if (searchedValue == null) return;
+        addResultSets(results, (lessThan) ? mapRecords.headMap(searchedValue, equal) : mapRecords.tailMap(searchedValue, equal));
+    }
+
+    /**
+     * Adds the records of the strings starting with the prefix.
+     */
+    public void getSubRecordsWithPrefix(MultiResultSet results, String prefix) {
+        final String end = prefixEnd(prefix);
+        if (end == null) {
+            addResultSets(results, mapRecords.tailMap(prefix, true));
+        } else {
+            addResultSets(results, mapRecords.subMap(prefix, true, end, false));
+        }
+    }
+
+    public synchronized void newRecordIndex(Comparable newValue, Record record) {
+        ConcurrentMap<Long, Record> records;
+        if (newValue == null) {
+            records = nullRecords;
+        } else {
+            records = mapRecords.get(newValue);
+            if (records == null) {
+                records = new ConcurrentHashMap<Long, Record>(1, 0.75f, 1);
+                mapRecords.put(newValue, records);
+            }
+        }
+        records.put(record.getId(), record);
+    }
+
+    public synchronized void removeRecordIndex(Comparable oldValue, Long recordId) {
+        if (oldValue == null) {
+            nullRecords.remove(recordId);
+            return;
+        }
+        ConcurrentMap<Long, Record> records = mapRecords.get(oldValue);
+        if (records != null) {
+            records.remove(recordId);
+            if (records.size() == 0) {
+                mapRecords.remove(oldValue);
+            }
+        }
+    }
+
+    public Set<MapEntry> getRecords(Comparable value) {
+        return new SingleResultSet(value == null ? nullRecords : mapRecords.get(value));
+    }
+
+    public void getRecords(MultiResultSet results, Set<Comparable> values) {
+        for (Comparable value : values) {
+            if (value == null) {
+                results.addResultSet(NULL, nullRecords.values());
+            } else {
+                ConcurrentMap<Long, Record> records = mapRecords.get(value);
+                if (records != null) {
+                    results.addResultSet(value, records.values());
+                }
+            }
+        }
+    }
+
+    ConcurrentMap<Comparable, ConcurrentMap<Long, Record>> getMapRecords() {
+        return mapRecords;
+    }
+
+    private static void addResultSets(MultiResultSet results, Map<Comparable, ConcurrentMap<Long, Record>> values) {
+        for (Map.Entry<Comparable, ConcurrentMap<Long, Record>> entry : values.entrySet()) {
+            results.addResultSet(entry.getKey(), entry.getValue().values());
+        }
+    }
+
+    /**
+     * @return smallest string greater than all the strings starting with the prefix,
+     *         null if there is none
+     */
+    static String prefixEnd(String prefix) {
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            final char c = prefix.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                return prefix.substring(0, i) + (char) (c + 1);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "ComparableIndexStore{" +
+                "mapRecords=" + mapRecords.size() +
+                ", nullRecords=" + nullRecords.size() +
+                '}';
+    }
+}
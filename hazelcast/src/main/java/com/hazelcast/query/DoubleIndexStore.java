@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+/**
+ * Sorted index store for double and float attributes. Index values are the raw
+ * bits of the attribute (Double.doubleToLongBits or Float.floatToIntBits), which
+ * don't sort like the numbers for negative values. They are sorted on keys that
+ * keep the order of Double.compare instead.
+ */
+public class DoubleIndexStore extends LongIndexStore {
+    private final boolean floatValues;
+
+    public DoubleIndexStore(boolean floatValues) {
+        this.floatValues = floatValues;
+    }
+
+    @Override
+    protected long toKey(long value) {
+        final double doubleValue = floatValues ? Float.intBitsToFloat((int) value) : Double.longBitsToDouble(value);
+        final long bits = Double.doubleToLongBits(doubleValue);
+        // flip the magnitude of negative numbers so that they sort as signed longs
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    @Override
+    protected long toValue(long key) {
+        final double doubleValue = Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+        return floatValues ? Float.floatToIntBits((float) doubleValue) : Double.doubleToLongBits(doubleValue);
+    }
+}
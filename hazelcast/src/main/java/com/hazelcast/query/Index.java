@@ -19,21 +19,31 @@ package com.hazelcast.query;
 import com.hazelcast.core.MapEntry;
 import com.hazelcast.impl.Record;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 public class Index {
-    // recordId -- indexValue
-    private final ConcurrentMap<Long, Long> recordValues = new ConcurrentHashMap<Long, Long>(100, 0.75f, 1);
-    // indexValue -- Map<recordId, Record>
-    private final IndexStore indexStore;
+    // recordId -- indexValue, the attribute value itself for the comparable index store
+    private final ConcurrentMap<Long, Object> recordValues = new ConcurrentHashMap<Long, Object>(100, 0.75f, 1);
+    // indexValue -- Map<recordId, Record>, sorted stores are chosen by the type of the first non-null value
+    private volatile IndexStore indexStore;
+    private volatile ComparableIndexStore comparableIndexStore;
+    // records with a null attribute indexed before the sorted store is chosen
+    private final ConcurrentMap<Long, Record> nullRecords = new ConcurrentHashMap<Long, Record>(1, 0.75f, 1);
     private final Expression expression;
     private final boolean ordered;
     private final int attributeIndex;
     private volatile byte returnType = -1;
     volatile boolean strong = false;
     volatile boolean checkedStrength = false;
+    // false while the index is built for the records put before it was added
+    private volatile boolean ready = true;
 
     private static final int TYPE_STRING = 101;
     private static final int TYPE_INT = 102;
@@ -49,28 +59,32 @@ public class Index {
         this.expression = expression;
         this.ordered = ordered;
         this.attributeIndex = attributeIndex;
-        if (ordered) {
-            indexStore = new SortedIndexStore();
-        } else {
+        if (!ordered) {
             indexStore = new UnsortedIndexStore();
+        } else if (expression == null) {
+            indexStore = new SortedIndexStore();
         }
     }
 
-    public void index(Long newValue, Record record) {
+    public void index(Object newValue, Record record) {
         if (expression != null && returnType == -1) {
             returnType = record.getIndexTypes()[attributeIndex];
         }
+        if (indexStore == null && comparableIndexStore == null && !createSortedIndexStore(newValue, record)) {
+            return;
+        }
         final Long recordId = record.getId();
-        Long oldValue = recordValues.get(recordId);
+        Object oldValue = recordValues.get(recordId);
         if (record.isActive()) {
+            final Object value = (comparableIndexStore == null) ? toLongValue(newValue) : toComparableValue(newValue);
             // add or update
             if (oldValue == null) {
                 // record is new
-                newRecordIndex(newValue, record);
-            } else if (!oldValue.equals(newValue)) {
+                newRecordIndex(value, record);
+            } else if (!oldValue.equals(value)) {
                 // record is updated
                 removeRecordIndex(oldValue, recordId);
-                newRecordIndex(newValue, record);
+                newRecordIndex(value, record);
             }
         } else {
             // remove the index
@@ -81,8 +95,107 @@ public class Index {
         }
     }
 
+    /**
+     * Integral and floating point attributes are sorted on their long index values
+     * without boxing, strings on their own values. Other types are sorted on their
+     * hash codes and can only be looked up by equality.
+     * <p/>
+     * The store is chosen by the type of the first non-null value. Until then the records
+     * have a null attribute, they are kept aside and added to the store once it is created.
+     *
+     * @return false if the record is kept aside
+     */
+    private synchronized boolean createSortedIndexStore(Object newValue, Record record) {
+        if (indexStore != null || comparableIndexStore != null) return true;
+        if (isNullValue(newValue)) {
+            if (record.isActive()) {
+                nullRecords.put(record.getId(), record);
+            } else {
+                nullRecords.remove(record.getId());
+            }
+            return false;
+        }
+        final byte type = (newValue instanceof String) ? TYPE_STRING : record.getIndexTypes()[attributeIndex];
+        returnType = type;
+        // the null records are added before the store is published, a record
+        // updated meanwhile waits for the lock and is then updated in the store
+        if (type == TYPE_STRING) {
+            final ComparableIndexStore store = new ComparableIndexStore();
+            for (Record nullRecord : nullRecords.values()) {
+                store.newRecordIndex(null, nullRecord);
+                recordValues.put(nullRecord.getId(), ComparableIndexStore.NULL);
+            }
+            strong = true;
+            checkedStrength = true;
+            comparableIndexStore = store;
+        } else {
+            final IndexStore store;
+            if (type == TYPE_DOUBLE || type == TYPE_FLOAT) {
+                store = new DoubleIndexStore(type == TYPE_FLOAT);
+            } else if (type == TYPE_INT || type == TYPE_LONG || type == TYPE_BYTE
+                    || type == TYPE_BOOLEAN || type == TYPE_CLASS) {
+                store = new LongIndexStore();
+            } else {
+                store = new SortedIndexStore();
+            }
+            for (Record nullRecord : nullRecords.values()) {
+                store.newRecordIndex(Long.MIN_VALUE, nullRecord);
+                recordValues.put(nullRecord.getId(), Long.MIN_VALUE);
+            }
+            indexStore = store;
+        }
+        nullRecords.clear();
+        return true;
+    }
+
+    private static boolean isNullValue(Object value) {
+        return value == null || (value instanceof Long && (Long) value == Long.MIN_VALUE);
+    }
+
+    private static Long toLongValue(Object value) {
+        return (value instanceof String) ? Long.valueOf(value.hashCode()) : (Long) value;
+    }
+
+    private static Object toComparableValue(Object value) {
+        if (isNullValue(value)) {
+            return ComparableIndexStore.NULL;
+        }
+        return (value instanceof String) ? value : String.valueOf(value);
+    }
+
     public Long extractLongValue(Object value) {
-        Object extractedValue = expression.getValue(value);
+        return toIndexLongValue(expression.getValue(value));
+    }
+
+    /**
+     * Extracts the index value on the caller thread. For the strings of an ordered index
+     * that is the string itself, so that the owner of the record sorts it without
+     * deserializing the record value; for the rest it is the long index value.
+     */
+    public Object extractIndexValue(Object value) {
+        final Object extractedValue = expression.getValue(value);
+        final Long longValue = toIndexLongValue(extractedValue);
+        return (ordered && extractedValue instanceof String) ? extractedValue : longValue;
+    }
+
+    /**
+     * Writes an index value extracted by {@link #extractIndexValue(Object)}.
+     */
+    public static void writeIndexValue(DataOutput out, Object indexValue) throws IOException {
+        final boolean string = indexValue instanceof String;
+        out.writeBoolean(string);
+        if (string) {
+            out.writeUTF((String) indexValue);
+        } else {
+            out.writeLong((Long) indexValue);
+        }
+    }
+
+    public static Object readIndexValue(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : in.readLong();
+    }
+
+    private Long toIndexLongValue(Object extractedValue) {
         setIndexType(extractedValue);
         if (extractedValue == null) {
             return Long.MIN_VALUE;
@@ -98,47 +211,136 @@ public class Index {
         }
     }
 
-    private void newRecordIndex(Long newValue, Record record) {
+    private void newRecordIndex(Object newValue, Record record) {
         Long recordId = record.getId();
-        indexStore.newRecordIndex(newValue, record);
+        if (comparableIndexStore != null) {
+            comparableIndexStore.newRecordIndex(toStoreValue(newValue), record);
+        } else {
+            indexStore.newRecordIndex((Long) newValue, record);
+        }
         recordValues.put(recordId, newValue);
     }
 
-    private void removeRecordIndex(Long oldValue, Long recordId) {
+    private void removeRecordIndex(Object oldValue, Long recordId) {
         recordValues.remove(recordId);
-        indexStore.removeRecordIndex(oldValue, recordId);
+        if (comparableIndexStore != null) {
+            comparableIndexStore.removeRecordIndex(toStoreValue(oldValue), recordId);
+        } else {
+            indexStore.removeRecordIndex((Long) oldValue, recordId);
+        }
+    }
+
+    private static Comparable toStoreValue(Object value) {
+        return (value == ComparableIndexStore.NULL) ? null : (Comparable) value;
     }
 
     public void appendState(StringBuffer sbState) {
-        sbState.append("\nexp:" + expression + ", recordValues:" + recordValues.size() + ", " + indexStore);
+        sbState.append("\nexp:" + expression + ", recordValues:" + recordValues.size() + ", " + getStore());
     }
 
-    public Set<MapEntry> getRecords(Set<Long> uniqueValues) {
-        if (uniqueValues.size() == 1) {
-            return indexStore.getRecords(uniqueValues.iterator().next());
-        } else {
-            MultiResultSet results = new MultiResultSet(recordValues);
-            indexStore.getRecords(results, uniqueValues);
-            return results;
+    public Set<MapEntry> getRecords(Set<?> values) {
+        if (values.size() == 1) {
+            return getRecords(values.iterator().next());
+        }
+        MultiResultSet results = new MultiResultSet(recordValues);
+        if (comparableIndexStore != null) {
+            Set<Comparable> comparableValues = new HashSet<Comparable>(values.size());
+            for (Object value : values) {
+                comparableValues.add(toComparable(value));
+            }
+            comparableIndexStore.getRecords(results, comparableValues);
+        } else if (indexStore != null) {
+            Set<Long> longValues = new HashSet<Long>(values.size());
+            for (Object value : values) {
+                longValues.add(getLongValue(value));
+            }
+            indexStore.getRecords(results, longValues);
+        } else if (values.contains(null)) {
+            return new SingleResultSet(nullRecords);
+        }
+        return results;
+    }
+
+    public Set<MapEntry> getRecords(Object value) {
+        if (comparableIndexStore != null) {
+            return comparableIndexStore.getRecords(toComparable(value));
+        } else if (indexStore != null) {
+            return indexStore.getRecords(getLongValue(value));
         }
+        return new SingleResultSet((value == null) ? nullRecords : null);
     }
 
-    public Set<MapEntry> getRecords(Long value) {
-        return indexStore.getRecords(value);
+    public Set<MapEntry> getSubRecordsBetween(Object from, Object to) {
+        MultiResultSet results = new MultiResultSet(recordValues);
+        if (comparableIndexStore != null) {
+            comparableIndexStore.getSubRecordsBetween(results, toComparable(from), toComparable(to));
+        } else if (indexStore != null) {
+            indexStore.getSubRecordsBetween(results, getLongValue(from), getLongValue(to));
+        }
+        return results;
+    }
+
+    public Set<MapEntry> getSubRecords(boolean equal, boolean lessThan, Object searchedValue) {
+        MultiResultSet results = new MultiResultSet(recordValues);
+        if (comparableIndexStore != null) {
+            comparableIndexStore.getSubRecords(results, equal, lessThan, toComparable(searchedValue));
+        } else if (indexStore != null) {
+            indexStore.getSubRecords(results, equal, lessThan, getLongValue(searchedValue));
+        }
+        return results;
     }
 
-    public Set<MapEntry> getSubRecordsBetween(Long from, Long to) {
+    /**
+     * @return records whose attribute is less or greater than the value, including
+     *         the records with a null attribute
+     */
+    public Set<MapEntry> getSubRecordsNotEqual(Object value) {
         MultiResultSet results = new MultiResultSet(recordValues);
-        indexStore.getSubRecordsBetween(results, from, to);
+        if (comparableIndexStore != null) {
+            final Comparable comparableValue = toComparable(value);
+            if (comparableValue == null) {
+                comparableIndexStore.getSubRecordsWithPrefix(results, "");
+            } else {
+                comparableIndexStore.getSubRecords(results, false, true, comparableValue);
+                comparableIndexStore.getSubRecords(results, false, false, comparableValue);
+                comparableIndexStore.getRecords(results, Collections.<Comparable>singleton(null));
+            }
+        } else if (indexStore != null) {
+            final Long longValue = getLongValue(value);
+            indexStore.getSubRecords(results, false, true, longValue);
+            indexStore.getSubRecords(results, false, false, longValue);
+        } else if (value != null) {
+            return new SingleResultSet(nullRecords);
+        }
         return results;
     }
 
-    public Set<MapEntry> getSubRecords(boolean equal, boolean lessThan, Long searchedValue) {
+    /**
+     * @return records whose attribute starts with the prefix, null if the index can't
+     *         serve prefix lookups
+     * @see #isPrefixIndexed()
+     */
+    public Set<MapEntry> getSubRecordsWithPrefix(String prefix) {
+        if (comparableIndexStore == null) return null;
         MultiResultSet results = new MultiResultSet(recordValues);
-        indexStore.getSubRecords(results, equal, lessThan, searchedValue);
+        comparableIndexStore.getSubRecordsWithPrefix(results, prefix);
         return results;
     }
 
+    /**
+     * @return true if this is an ordered index on a string attribute
+     */
+    public boolean isPrefixIndexed() {
+        return comparableIndexStore != null;
+    }
+
+    private Comparable toComparable(Object value) {
+        if (value == null || value instanceof String) {
+            return (Comparable) value;
+        }
+        return String.valueOf(value);
+    }
+
     void setIndexType(Object extractedValue) {
         if (returnType == -1) {
             if (expression instanceof Predicates.GetExpressionImpl) {
@@ -198,7 +400,13 @@ public class Index {
         if (value == null) return Long.MIN_VALUE;
         int valueType = getIndexType(value.getClass());
         if (valueType != returnType) {
-            if (value instanceof String) {
+            if (value instanceof Number) {
+                if (returnType == TYPE_DOUBLE) {
+                    value = ((Number) value).doubleValue();
+                } else if (returnType == TYPE_FLOAT) {
+                    value = ((Number) value).floatValue();
+                }
+            } else if (value instanceof String) {
                 String str = (String) value;
                 if (returnType == TYPE_INT) {
                     value = Integer.valueOf(str);
@@ -224,12 +432,19 @@ public class Index {
         return attributeIndex;
     }
 
-    ConcurrentMap<Long, Long> getRecordValues() {
+    ConcurrentMap<Long, Object> getRecordValues() {
         return recordValues;
     }
 
-    ConcurrentMap<Long, ConcurrentMap<Long, Record>> getMapRecords() {
-        return indexStore.getMapRecords();
+    ConcurrentMap<?, ConcurrentMap<Long, Record>> getMapRecords() {
+        if (comparableIndexStore != null) {
+            return comparableIndexStore.getMapRecords();
+        }
+        return (indexStore == null) ? new ConcurrentHashMap<Long, ConcurrentMap<Long, Record>>() : indexStore.getMapRecords();
+    }
+
+    private Object getStore() {
+        return (comparableIndexStore != null) ? comparableIndexStore : indexStore;
     }
 
     public Expression getExpression() {
@@ -244,6 +459,17 @@ public class Index {
         return strong;
     }
 
+    /**
+     * @return true if all the owned records are indexed and the index can serve queries
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -262,9 +488,10 @@ public class Index {
         final StringBuffer sb = new StringBuffer();
         sb.append("Index{");
         sb.append("recordValues=").append(recordValues.size());
-        sb.append(", ").append(indexStore);
+        sb.append(", ").append(getStore());
         sb.append(", ordered=").append(ordered);
         sb.append(", strong=").append(strong);
+        sb.append(", ready=").append(ready);
         sb.append(", expression=").append(expression);
         sb.append('}');
         return sb.toString();
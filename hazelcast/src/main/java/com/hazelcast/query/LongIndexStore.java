@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.impl.Record;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted index store for integral attributes. The distinct index values are kept as
+ * primitive longs in sorted blocks instead of a skip list of boxed Longs, lookups and
+ * range scans are binary searches over the blocks.
+ * <p/>
+ * Updates are serialized by the write lock, queries only hold the read lock while
+ * collecting the record maps of the matching values.
+ */
+public class LongIndexStore implements IndexStore {
+    private static final int BLOCK_SIZE = 256;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+    // sorted keys in blocks, first key of a block is greater than the last key of the previous block
+    private long[][] keys = new long[4][];
+    private Object[][] records = new Object[4][];
+    private int[] sizes = new int[4];
+    private int blockCount = 0;
+    private int keyCount = 0;
+
+    /**
+     * @return sort key of the index value, index values are sorted by their keys
+     */
+    protected long toKey(long value) {
+        return value;
+    }
+
+    /**
+     * @return index value of the sort key
+     */
+    protected long toValue(long key) {
+        return key;
+    }
+
+    public void getSubRecordsBetween(MultiResultSet results, Long from, Long to) {
+        collect(results, toKey(from), toKey(to));
+    }
+
+    public void getSubRecords(MultiResultSet results, boolean equal, boolean lessThan, Long searchedValue) {
+        final long key = toKey(searchedValue);
+        if (lessThan) {
+            if (equal) {
+                collect(results, Long.MIN_VALUE, key);
+            } else if (key != Long.MIN_VALUE) {
+                collect(results, Long.MIN_VALUE, key - 1);
+            }
+        } else {
+            if (equal) {
+                collect(results, key, Long.MAX_VALUE);
+            } else if (key != Long.MAX_VALUE) {
+                collect(results, key + 1, Long.MAX_VALUE);
+            }
+        }
+    }
+
+    public void newRecordIndex(Long newValue, Record record) {
+        final long key = toKey(newValue);
+        writeLock.lock();
+        try {
+            ConcurrentMap<Long, Record> valueRecords = get(key);
+            if (valueRecords == null) {
+                valueRecords = new ConcurrentHashMap<Long, Record>(1, 0.75f, 1);
+                insert(key, valueRecords);
+            }
+            valueRecords.put(record.getId(), record);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void removeRecordIndex(Long oldValue, Long recordId) {
+        final long key = toKey(oldValue);
+        writeLock.lock();
+        try {
+            ConcurrentMap<Long, Record> valueRecords = get(key);
+            if (valueRecords != null) {
+                valueRecords.remove(recordId);
+                if (valueRecords.size() == 0) {
+                    delete(key);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Set<MapEntry> getRecords(Long value) {
+        final long key = toKey(value);
+        readLock.lock();
+        try {
+            return new SingleResultSet(get(key));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public void getRecords(MultiResultSet results, Set<Long> values) {
+        readLock.lock();
+        try {
+            for (Long value : values) {
+                ConcurrentMap<Long, Record> valueRecords = get(toKey(value));
+                if (valueRecords != null) {
+                    results.addResultSet(value, valueRecords.values());
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return snapshot of the index values and their records
+     */
+    public ConcurrentMap<Long, ConcurrentMap<Long, Record>> getMapRecords() {
+        readLock.lock();
+        try {
+            ConcurrentMap<Long, ConcurrentMap<Long, Record>> mapRecords = new ConcurrentHashMap<Long, ConcurrentMap<Long, Record>>(keyCount);
+            for (int b = 0; b < blockCount; b++) {
+                for (int i = 0; i < sizes[b]; i++) {
+                    mapRecords.put(toValue(keys[b][i]), (ConcurrentMap<Long, Record>) records[b][i]);
+                }
+            }
+            return mapRecords;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the records of the keys between from and to, both inclusive.
+     */
+    private void collect(MultiResultSet results, long from, long to) {
+        if (from > to) return;
+        readLock.lock();
+        try {
+            if (blockCount == 0) return;
+            int b = findBlock(from);
+            int i = search(keys[b], sizes[b], from);
+            if (i < 0) {
+                i = -(i + 1);
+            }
+            for (; b < blockCount; b++, i = 0) {
+                final long[] blockKeys = keys[b];
+                final Object[] blockRecords = records[b];
+                final int size = sizes[b];
+                for (; i < size; i++) {
+                    if (blockKeys[i] > to) return;
+                    results.addResultSet(toValue(blockKeys[i]), ((ConcurrentMap<Long, Record>) blockRecords[i]).values());
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private ConcurrentMap<Long, Record> get(long key) {
+        if (blockCount == 0) return null;
+        final int b = findBlock(key);
+        final int i = search(keys[b], sizes[b], key);
+        return (i < 0) ? null : (ConcurrentMap<Long, Record>) records[b][i];
+    }
+
+    /**
+     * @return last block whose first key is not greater than the key, first block if there is none
+     */
+    private int findBlock(long key) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (keys[mid][0] <= key) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Same as Arrays.binarySearch on the first size keys.
+     */
+    private static int search(long[] blockKeys, int size, long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midKey = blockKeys[mid];
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insert(long key, Object valueRecords) {
+        if (blockCount == 0) {
+            insertBlock(0);
+        }
+        int b = findBlock(key);
+        int i = -(search(keys[b], sizes[b], key) + 1);
+        if (sizes[b] == BLOCK_SIZE) {
+            // split the full block in two halves
+            final int half = BLOCK_SIZE / 2;
+            insertBlock(b + 1);
+            System.arraycopy(keys[b], half, keys[b + 1], 0, half);
+            System.arraycopy(records[b], half, records[b + 1], 0, half);
+            Arrays.fill(records[b], half, BLOCK_SIZE, null);
+            sizes[b] = half;
+            sizes[b + 1] = half;
+            if (i > half) {
+                b++;
+                i -= half;
+            }
+        }
+        final int size = sizes[b];
+        System.arraycopy(keys[b], i, keys[b], i + 1, size - i);
+        System.arraycopy(records[b], i, records[b], i + 1, size - i);
+        keys[b][i] = key;
+        records[b][i] = valueRecords;
+        sizes[b] = size + 1;
+        keyCount++;
+    }
+
+    private void delete(long key) {
+        final int b = findBlock(key);
+        final int i = search(keys[b], sizes[b], key);
+        if (i < 0) return;
+        final int size = sizes[b] - 1;
+        System.arraycopy(keys[b], i + 1, keys[b], i, size - i);
+        System.arraycopy(records[b], i + 1, records[b], i, size - i);
+        records[b][size] = null;
+        sizes[b] = size;
+        keyCount--;
+        if (size == 0) {
+            removeBlock(b);
+        }
+    }
+
+    private void insertBlock(int b) {
+        if (blockCount == keys.length) {
+            final int capacity = blockCount * 2;
+            keys = copyOf(keys, capacity);
+            records = copyOf(records, capacity);
+            final int[] newSizes = new int[capacity];
+            System.arraycopy(sizes, 0, newSizes, 0, blockCount);
+            sizes = newSizes;
+        }
+        System.arraycopy(keys, b, keys, b + 1, blockCount - b);
+        System.arraycopy(records, b, records, b + 1, blockCount - b);
+        System.arraycopy(sizes, b, sizes, b + 1, blockCount - b);
+        keys[b] = new long[BLOCK_SIZE];
+        records[b] = new Object[BLOCK_SIZE];
+        sizes[b] = 0;
+        blockCount++;
+    }
+
+    private void removeBlock(int b) {
+        blockCount--;
+        System.arraycopy(keys, b + 1, keys, b, blockCount - b);
+        System.arraycopy(records, b + 1, records, b, blockCount - b);
+        System.arraycopy(sizes, b + 1, sizes, b, blockCount - b);
+        keys[blockCount] = null;
+        records[blockCount] = null;
+    }
+
+    private static <T> T[] copyOf(T[] array, int length) {
+        final T[] copy = (T[]) java.lang.reflect.Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "mapRecords=" + keyCount +
+                '}';
+    }
+}
@@ -31,6 +31,10 @@ public class MapIndexService {
     private final ConcurrentMap<Long, Record> records = new ConcurrentHashMap<Long, Record>(10000, 0.75f, 1);
     private final Index indexValue;
     private final Map<Expression, Index> mapIndexes = new ConcurrentHashMap<Expression, Index>(4, 0.75f, 1);
+    // indexes that are built for all the owned records, queries only use these
+    private volatile Map<Expression, Index> readyIndexes = Collections.emptyMap();
+    // indexes by their attribute index, same order as the index values of the records
+    private volatile Index[] indexesInOrder = new Index[0];
     private final Object indexTypesLock = new Object();
     private volatile boolean hasIndexedAttributes = false;
     @SuppressWarnings("VolatileArrayField")
@@ -67,43 +71,97 @@ public class MapIndexService {
             }
             indexValue.index(newValueIndex, record);
         }
-        Long[] indexValues = record.getIndexes();
+        final Index[] indexes = indexesInOrder;
+        if (indexes.length > 0 && record.isActive()) {
+            completeIndexValues(record, indexes, null, null);
+        }
+        Object[] indexValues = record.getIndexes();
         if (indexValues != null && hasIndexedAttributes) {
             byte[] indexTypes = record.getIndexTypes();
             if (indexTypes == null || indexValues.length != indexTypes.length) {
                 throw new IllegalArgumentException("index and types don't match " + Arrays.toString(indexTypes));
             }
-            Collection<Index> indexes = mapIndexes.values();
             for (Index index : indexes) {
                 if (indexValues.length > index.getAttributeIndex()) {
-                    Long newValue = indexValues[index.getAttributeIndex()];
+                    Object newValue = indexValues[index.getAttributeIndex()];
                     index.index(newValue, record);
                 }
             }
         }
     }
 
+    /**
+     * Adds an owned record to an index that is being built. The index value is extracted
+     * by the builder thread from the value data of the record, it is only used if the
+     * record still has the same value.
+     * Records updated or removed after the index was added are already indexed
+     * and skipped.
+     */
+    public void buildIndex(Index index, Record record, Data valueData, Object indexValue) {
+        if (!record.isActive() || records.get(record.getId()) != record) return;
+        if (index.getRecordValues().containsKey(record.getId())) return;
+        if (valueData != null && valueData.equals(record.getValueData())) {
+            completeIndexValues(record, indexesInOrder, index, indexValue);
+        }
+        index(record);
+    }
+
+    /**
+     * Extracts the index values missing from the record, for the indexes added after
+     * the record was put or when the member that put it didn't know them yet.
+     */
+    private void completeIndexValues(Record record, Index[] indexes, Index builtIndex, Object builtValue) {
+        final Object[] indexValues = record.getIndexes();
+        if (indexValues != null && indexValues.length >= indexes.length) return;
+        final Object[] newIndexValues = new Object[indexes.length];
+        final byte[] newIndexTypes = new byte[indexes.length];
+        int count = 0;
+        if (indexValues != null) {
+            final byte[] indexTypes = record.getIndexTypes();
+            if (indexTypes == null || indexValues.length != indexTypes.length) {
+                throw new IllegalArgumentException("index and types don't match " + Arrays.toString(indexTypes));
+            }
+            count = indexValues.length;
+            System.arraycopy(indexValues, 0, newIndexValues, 0, count);
+            System.arraycopy(indexTypes, 0, newIndexTypes, 0, count);
+        }
+        Object value = null;
+        for (int i = count; i < indexes.length; i++) {
+            final Index index = indexes[i];
+            if (index == builtIndex) {
+                newIndexValues[i] = builtValue;
+            } else {
+                if (value == null) {
+                    value = record.getValue();
+                }
+                newIndexValues[i] = index.extractIndexValue(value);
+            }
+            newIndexTypes[i] = index.getIndexType();
+        }
+        record.setIndexes(newIndexValues, newIndexTypes);
+    }
+
     public Collection<Record> getOwnedRecords() {
         return records.values();
     }
 
-    public Long[] getIndexValues(Object value) {
+    public Object[] getIndexValues(Object value) {
         if (hasIndexedAttributes) {
-            int indexCount = mapIndexes.size();
-            Long[] newIndexes = new Long[indexCount];
+            final Index[] indexes = indexesInOrder;
+            int indexCount = indexes.length;
+            Object[] newIndexes = new Object[indexCount];
             if (value instanceof Data) {
                 value = toObject((Data) value);
             }
-            Collection<Index> indexes = mapIndexes.values();
             for (Index index : indexes) {
                 int attributedIndex = index.getAttributeIndex();
-                newIndexes[attributedIndex] = index.extractLongValue(value);
+                newIndexes[attributedIndex] = index.extractIndexValue(value);
             }
             byte[] _indexTypes = indexTypes;
-            if (_indexTypes == null || _indexTypes.length != indexCount) {
+            if (!isCurrent(_indexTypes, indexes)) {
                 synchronized (indexTypesLock) {
                     _indexTypes = indexTypes;
-                    if (_indexTypes == null || _indexTypes.length != indexCount) {
+                    if (!isCurrent(_indexTypes, indexes)) {
                         _indexTypes = new byte[indexCount];
                         for (Index index : indexes) {
                             int attributedIndex = index.getAttributeIndex();
@@ -118,31 +176,60 @@ public class MapIndexService {
         return null;
     }
 
+    /**
+     * The type of an index is only known once a non-null value is extracted, the types
+     * sent with the index values are updated until then.
+     */
+    private static boolean isCurrent(byte[] indexTypes, Index[] indexes) {
+        if (indexTypes == null || indexTypes.length != indexes.length) return false;
+        for (Index index : indexes) {
+            if (indexTypes[index.getAttributeIndex()] != index.getIndexType()) return false;
+        }
+        return true;
+    }
+
     public byte[] getIndexTypes() {
         return indexTypes;
     }
 
+    /**
+     * Adds the index if it doesn't exist yet. If there are owned records, the index is not
+     * ready until it is built for them by {@link #buildIndex(Index, Record, Data, Object)}
+     * and marked by {@link #markIndexReady(Index)}. Records put or updated meanwhile are
+     * indexed as usual.
+     */
     public Index addIndex(Expression expression, boolean ordered, int attributeIndex) {
         Index index = mapIndexes.get(expression);
         if (index == null) {
-            if (size() > 0) {
-                StringBuilder sb = new StringBuilder("Index can only be added before adding entries!");
-                sb.append("\n");
-                sb.append("Add indexes first and only once then put entries.");
-                throw new RuntimeException(sb.toString());
-            }
             if (attributeIndex == -1) {
                 attributeIndex = mapIndexes.size();
             }
             index = new Index(expression, ordered, attributeIndex);
+            index.setReady(size() == 0);
             mapIndexes.put(expression, index);
+            indexesInOrder = getIndexesInOrder();
             indexTypes = null;
-            //todo build the indexes
             hasIndexedAttributes = true;
+            updateReadyIndexes();
         }
         return index;
     }
 
+    public void markIndexReady(Index index) {
+        index.setReady(true);
+        updateReadyIndexes();
+    }
+
+    private void updateReadyIndexes() {
+        final Map<Expression, Index> indexes = new HashMap<Expression, Index>(mapIndexes.size());
+        for (Index index : mapIndexes.values()) {
+            if (index.isReady()) {
+                indexes.put(index.getExpression(), index);
+            }
+        }
+        readyIndexes = indexes;
+    }
+
     public Set<MapEntry> doQuery(QueryContext queryContext) {
         boolean strong = false;
         Set<MapEntry> results;
@@ -151,10 +238,10 @@ public class MapIndexService {
             if (predicate != null && mapIndexes != null && predicate instanceof IndexAwarePredicate) {
                 List<IndexAwarePredicate> lsIndexAwarePredicates = new ArrayList<IndexAwarePredicate>();
                 IndexAwarePredicate iap = (IndexAwarePredicate) predicate;
-                strong = iap.collectIndexAwarePredicates(lsIndexAwarePredicates, mapIndexes);
+                strong = iap.collectIndexAwarePredicates(lsIndexAwarePredicates, queryContext.getMapIndexes());
                 if (strong) {
                     Set<Index> setAppliedIndexes = new HashSet<Index>(1);
-                    iap.collectAppliedIndexes(setAppliedIndexes, mapIndexes);
+                    iap.collectAppliedIndexes(setAppliedIndexes, queryContext.getMapIndexes());
                     if (setAppliedIndexes.size() > 0) {
                         for (Index index : setAppliedIndexes) {
                             if (strong) {
@@ -239,6 +326,13 @@ public class MapIndexService {
         return mapIndexes;
     }
 
+    /**
+     * @return indexes that can serve queries, the indexes still being built are left out
+     */
+    public Map<Expression, Index> getReadyIndexes() {
+        return readyIndexes;
+    }
+
     public boolean hasIndexedAttributes() {
         return hasIndexedAttributes;
     }
@@ -267,6 +361,8 @@ public class MapIndexService {
 
     public void clear() {
         mapIndexes.clear();
+        indexesInOrder = new Index[0];
+        readyIndexes = Collections.emptyMap();
         records.clear();
         size.set(0);
     }
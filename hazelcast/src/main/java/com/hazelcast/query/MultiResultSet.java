@@ -24,14 +24,14 @@ import java.util.concurrent.ConcurrentMap;
 
 public class MultiResultSet extends AbstractSet<MapEntry> {
     private final List<Collection<Record>> resultSets = new ArrayList<Collection<Record>>();
-    private final Set<Long> indexValues = new HashSet<Long>();
-    private final ConcurrentMap<Long, Long> recordValues;
+    private final Set<Object> indexValues = new HashSet<Object>();
+    private final ConcurrentMap<Long, ?> recordValues;
 
-    MultiResultSet(ConcurrentMap<Long, Long> recordValues) {
+    MultiResultSet(ConcurrentMap<Long, ?> recordValues) {
         this.recordValues = recordValues;
     }
 
-    public void addResultSet(Long indexValue, Collection<Record> resultSet) {
+    public void addResultSet(Object indexValue, Collection<Record> resultSet) {
         resultSets.add(resultSet);
         indexValues.add(indexValue);
     }
@@ -43,7 +43,7 @@ public class MultiResultSet extends AbstractSet<MapEntry> {
 
     @Override
     public boolean contains(Object mapEntry) {
-        Long indexValue = recordValues.get(((Record) mapEntry).getId());
+        Object indexValue = recordValues.get(((Record) mapEntry).getId());
         return indexValue != null && indexValues.contains(indexValue);
     }
 
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.impl.Record;
+import com.hazelcast.impl.base.KeyValue;
+import com.hazelcast.nio.Data;
+import com.hazelcast.nio.DataSerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.SerializationHelper.readObject;
+import static com.hazelcast.nio.SerializationHelper.writeObject;
+
+/**
+ * Predicate returning the results of a query one page at a time.
+ * <p/>
+ * Entries are ordered by the given comparator, or by their keys if no comparator
+ * is given and the keys are {@link Comparable}. Entries that compare as equal are
+ * ordered by their serialized keys, so the order is the same on every member.
+ * Each member only returns the entries of the requested page, so the result of
+ * the whole query is never held in memory.
+ * <p/>
+ * The last entry of each page is kept as the anchor of the next page. The next
+ * page is the entries coming after the anchor, so paging is not affected by
+ * entries added to or removed from the previous pages.
+ * <pre>
+ * PagingPredicate pagingPredicate = new PagingPredicate(new SqlPredicate("age > 30"), 100);
+ * Collection values = map.values(pagingPredicate);
+ * while (!values.isEmpty()) {
+ *     ...
+ *     pagingPredicate.nextPage();
+ *     values = map.values(pagingPredicate);
+ * }
+ * </pre>
+ * The comparator and the inner predicate are sent to the members, so they must be
+ * serializable. Entries changed in the current transaction are not included in the
+ * pages.
+ */
+public class PagingPredicate implements Predicate, DataSerializable {
+
+    private Predicate predicate;
+    private Comparator<Map.Entry> comparator;
+    private int pageSize;
+    private int page = 0;
+    private final SortedMap<Integer, Map.Entry> anchors = new TreeMap<Integer, Map.Entry>();
+
+    public PagingPredicate() {
+    }
+
+    public PagingPredicate(int pageSize) {
+        this(null, null, pageSize);
+    }
+
+    public PagingPredicate(Predicate predicate, int pageSize) {
+        this(predicate, null, pageSize);
+    }
+
+    public PagingPredicate(Comparator<Map.Entry> comparator, int pageSize) {
+        this(null, comparator, pageSize);
+    }
+
+    /**
+     * @param predicate  entries to return, all entries if null
+     * @param comparator order of the entries, key order if null
+     * @param pageSize   number of entries in a page
+     */
+    public PagingPredicate(Predicate predicate, Comparator<Map.Entry> comparator, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Nested paging predicates are not supported!");
+        }
+        this.predicate = predicate;
+        this.comparator = comparator;
+        this.pageSize = pageSize;
+    }
+
+    public void nextPage() {
+        page++;
+    }
+
+    public void previousPage() {
+        if (page > 0) {
+            page--;
+        }
+    }
+
+    /**
+     * Goes back to the first page and forgets the anchors of the pages.
+     */
+    public void reset() {
+        page = 0;
+        anchors.clear();
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    public Comparator<Map.Entry> getComparator() {
+        return comparator;
+    }
+
+    public boolean apply(MapEntry mapEntry) {
+        return (predicate == null || predicate.apply(mapEntry)) && isAfterAnchor(mapEntry);
+    }
+
+    /**
+     * @return true if the entry comes after the anchor the current page starts from
+     */
+    public boolean isAfterAnchor(Map.Entry entry) {
+        final Map.Entry anchor = getAnchor();
+        return anchor == null || compare(entry, anchor) > 0;
+    }
+
+    /**
+     * @return the closest known anchor before the current page, null if the current page
+     *         is read from the first entry
+     */
+    public Map.Entry getAnchor() {
+        final int anchorPage = getAnchorPage();
+        return anchorPage < 0 ? null : anchors.get(anchorPage);
+    }
+
+    /**
+     * @return page the anchor returned by {@link #getAnchor()} is the last entry of, -1 if none
+     */
+    public int getAnchorPage() {
+        if (page == 0 || anchors.isEmpty()) {
+            return -1;
+        }
+        final SortedMap<Integer, Map.Entry> head = anchors.headMap(page);
+        return head.isEmpty() ? -1 : head.lastKey();
+    }
+
+    /**
+     * @return number of entries to read after the anchor to reach the end of the current page
+     */
+    public int getFetchSize() {
+        return pageSize * (page - getAnchorPage());
+    }
+
+    /**
+     * Called by the query engine with the last entry of a page.
+     */
+    public void setAnchor(int page, Map.Entry anchor) {
+        anchors.put(page, new AnchorEntry(keyData(anchor), anchor.getKey(), anchor.getValue()));
+    }
+
+    public int compare(Map.Entry e1, Map.Entry e2) {
+        int result = 0;
+        if (comparator != null) {
+            result = comparator.compare(e1, e2);
+        } else {
+            final Object key1 = e1.getKey();
+            if (key1 instanceof Comparable) {
+                result = ((Comparable) key1).compareTo(e2.getKey());
+            }
+        }
+        if (result != 0) {
+            return result;
+        }
+        return compare(keyData(e1), keyData(e2));
+    }
+
+    /**
+     * @return comparator ordering the entries the way pages are built
+     */
+    public Comparator<Map.Entry> getEntryComparator() {
+        return new Comparator<Map.Entry>() {
+            public int compare(Map.Entry e1, Map.Entry e2) {
+                return PagingPredicate.this.compare(e1, e2);
+            }
+        };
+    }
+
+    private static int compare(Data d1, Data d2) {
+        final byte[] b1 = d1.buffer;
+        final byte[] b2 = d2.buffer;
+        final int length = Math.min(b1.length, b2.length);
+        for (int i = 0; i < length; i++) {
+            if (b1[i] != b2[i]) {
+                return b1[i] < b2[i] ? -1 : 1;
+            }
+        }
+        return b1.length - b2.length;
+    }
+
+    private static Data keyData(Map.Entry entry) {
+        if (entry instanceof Record) {
+            return ((Record) entry).getKeyData();
+        } else if (entry instanceof KeyValue) {
+            return ((KeyValue) entry).getKeyData();
+        } else if (entry instanceof AnchorEntry) {
+            return ((AnchorEntry) entry).getKeyData();
+        }
+        return toData(entry.getKey());
+    }
+
+    public void writeData(DataOutput out) throws IOException {
+        writeObject(out, predicate);
+        writeObject(out, comparator);
+        out.writeInt(pageSize);
+        out.writeInt(page);
+        final int anchorPage = getAnchorPage();
+        out.writeInt(anchorPage);
+        if (anchorPage >= 0) {
+            final Map.Entry anchor = anchors.get(anchorPage);
+            writeObject(out, anchor.getKey());
+            writeObject(out, anchor.getValue());
+        }
+    }
+
+    public void readData(DataInput in) throws IOException {
+        predicate = (Predicate) readObject(in);
+        comparator = (Comparator<Map.Entry>) readObject(in);
+        pageSize = in.readInt();
+        page = in.readInt();
+        anchors.clear();
+        final int anchorPage = in.readInt();
+        if (anchorPage >= 0) {
+            final Object key = readObject(in);
+            final Object value = readObject(in);
+            anchors.put(anchorPage, new AnchorEntry(null, key, value));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PagingPredicate{predicate=" + predicate + ", pageSize=" + pageSize + ", page=" + page + '}';
+    }
+
+    static class AnchorEntry implements Map.Entry {
+        Data keyData;
+        final Object key;
+        final Object value;
+
+        AnchorEntry(Data keyData, Object key, Object value) {
+            this.keyData = keyData;
+            this.key = key;
+            this.value = value;
+        }
+
+        Data getKeyData() {
+            if (keyData == null) {
+                keyData = toData(key);
+            }
+            return keyData;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
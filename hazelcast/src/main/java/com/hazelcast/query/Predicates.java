@@ -67,7 +67,7 @@ public final class Predicates {
 
         public Set<MapEntry> filter(QueryContext queryContext) {
             Index index = queryContext.getMapIndexes().get(first);
-            return index.getSubRecords(equal, less, index.getLongValue(second));
+            return index.getSubRecords(equal, less, second);
         }
 
         @Override
@@ -129,7 +129,7 @@ public final class Predicates {
 
         public Set<MapEntry> filter(QueryContext queryContext) {
             Index index = queryContext.getMapIndexes().get(first);
-            return index.getSubRecordsBetween(index.getLongValue(second), index.getLongValue(to));
+            return index.getSubRecordsBetween(second, to);
         }
 
         public void writeData(DataOutput out) throws IOException {
@@ -167,7 +167,7 @@ public final class Predicates {
         public Set<MapEntry> filter(QueryContext queryContext) {
             Index index = queryContext.getMapIndexes().get(first);
             if (index != null) {
-                return index.getSubRecords(false, false, index.getLongValue(second));
+                return index.getSubRecordsNotEqual(second);
             } else {
                 return null;
             }
@@ -284,12 +284,7 @@ public final class Predicates {
             checkInValues();
             Index index = queryContext.getMapIndexes().get(first);
             if (index != null) {
-                Set<Long> setLongValues = new HashSet<Long>(inValues.size());
-                for (Object valueObj : inValues) {
-                    final Long value = index.getLongValue(valueObj);
-                    setLongValues.add(value);
-                }
-                return index.getRecords(setLongValues);
+                return index.getRecords(inValues);
             } else {
                 return null;
             }
@@ -382,7 +377,8 @@ public final class Predicates {
         }
     }
 
-    public static class LikePredicate extends AbstractPredicate {
+    public static class LikePredicate extends AbstractPredicate implements IndexAwarePredicate {
+        private static final String WILDCARDS = "%_\\.[]{}()*+?^$|";
         Expression<String> first;
         String second;
         Pattern pattern = null;
@@ -410,6 +406,53 @@ public final class Predicates {
             }
         }
 
+        /**
+         * @return literal start of the pattern, before the first wildcard
+         */
+        String getPrefix() {
+            if (second == null) return null;
+            for (int i = 0; i < second.length(); i++) {
+                if (WILDCARDS.indexOf(second.charAt(i)) != -1) {
+                    return second.substring(0, i);
+                }
+            }
+            return second;
+        }
+
+        public boolean collectIndexAwarePredicates(List<IndexAwarePredicate> lsIndexPredicates, Map<Expression, Index> mapIndexes) {
+            if (first instanceof GetExpression && isPrefixIndexed(mapIndexes.get(first))) {
+                lsIndexPredicates.add(this);
+                // only 'prefix%' is matched exactly by the index, other patterns are checked on its records
+                return second.length() == getPrefix().length() + 1 && second.endsWith("%");
+            }
+            return false;
+        }
+
+        public void collectAppliedIndexes(Set<Index> setAppliedIndexes, Map<Expression, Index> mapIndexes) {
+            Index index = mapIndexes.get(first);
+            if (index != null) {
+                setAppliedIndexes.add(index);
+            }
+        }
+
+        public boolean isIndexed(QueryContext queryContext) {
+            return isPrefixIndexed(queryContext.getMapIndexes().get(first));
+        }
+
+        private boolean isPrefixIndexed(Index index) {
+            final String prefix = getPrefix();
+            return index != null && index.isPrefixIndexed() && prefix != null && prefix.length() > 0;
+        }
+
+        public Set<MapEntry> filter(QueryContext queryContext) {
+            Index index = queryContext.getMapIndexes().get(first);
+            if (index != null) {
+                return index.getSubRecordsWithPrefix(getPrefix());
+            } else {
+                return null;
+            }
+        }
+
         public void writeData(DataOutput out) throws IOException {
             writeObject(out, first);
             out.writeUTF(second);
@@ -506,7 +549,7 @@ public final class Predicates {
         public Set<MapEntry> filter(QueryContext queryContext) {
             Index index = queryContext.getMapIndexes().get(first);
             if (index != null) {
-                return index.getRecords(index.getLongValue(second));
+                return index.getRecords(second);
             } else {
                 return null;
             }
@@ -29,7 +29,7 @@ public class QueryContext {
         this.mapName = mapName;
         this.predicate = predicate;
         this.mapIndexService = mapIndexService;
-        this.mapIndexes = mapIndexService.getIndexes();
+        this.mapIndexes = mapIndexService.getReadyIndexes();
     }
 
     public boolean isStrong() {
@@ -65,7 +65,7 @@ public class SortedIndexStore implements IndexStore {
         }
     }
 
-    public void newRecordIndex(Long newValue, Record record) {
+    public synchronized void newRecordIndex(Long newValue, Record record) {
         long recordId = record.getId();
         ConcurrentMap<Long, Record> records = mapRecords.get(newValue);
         if (records == null) {
@@ -76,7 +76,7 @@ public class SortedIndexStore implements IndexStore {
         records.put(recordId, record);
     }
 
-    public void removeRecordIndex(Long oldValue, Long recordId) {
+    public synchronized void removeRecordIndex(Long oldValue, Long recordId) {
         ConcurrentMap<Long, Record> records = mapRecords.get(oldValue);
         if (records != null) {
             records.remove(recordId);
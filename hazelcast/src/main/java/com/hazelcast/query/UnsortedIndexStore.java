@@ -56,7 +56,7 @@ public class UnsortedIndexStore implements IndexStore {
         }
     }
 
-    public void newRecordIndex(Long newValue, Record record) {
+    public synchronized void newRecordIndex(Long newValue, Record record) {
         Long recordId = record.getId();
         ConcurrentMap<Long, Record> records = mapRecords.get(newValue);
         if (records == null) {
@@ -66,7 +66,7 @@ public class UnsortedIndexStore implements IndexStore {
         records.put(recordId, record);
     }
 
-    public void removeRecordIndex(Long oldValue, Long recordId) {
+    public synchronized void removeRecordIndex(Long oldValue, Long recordId) {
         ConcurrentMap<Long, Record> records = mapRecords.get(oldValue);
         if (records != null) {
             records.remove(recordId);
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Evicts a part of the entries of a near cache without keeping them sorted. The
+ * eviction threshold of LRU/LFU is estimated from a random sample of the entries.
+ */
+public final class SampledEviction {
+    public static final float EVICTION_RATE = 0.25f;
+    private static final int SAMPLE_SIZE = 256;
+
+    public interface Entry {
+
+        /**
+         * @return score of the entry, lower scores are evicted first
+         */
+        long getEvictionScore();
+
+        boolean isValid(long now);
+    }
+
+    public interface Remover<K, E extends Entry> {
+
+        /**
+         * @return true if the entry is removed by this call
+         */
+        boolean remove(K key, E entry);
+    }
+
+    private SampledEviction() {
+    }
+
+    /**
+     * Removes EVICTION_RATE of the entries: the expired ones and the ones scored
+     * below the sampled threshold.
+     *
+     * @param scored false if the entries are evicted in no particular order
+     * @return number of removed entries
+     */
+    public static <K, E extends Entry> int evict(Map<K, E> entries, boolean scored, Remover<K, E> remover) {
+        final int evictionCount = Math.max(1, (int) (entries.size() * EVICTION_RATE));
+        final long threshold = scored ? findEvictionThreshold(entries.values()) : Long.MAX_VALUE;
+        final long now = Clock.currentTimeMillis();
+        int count = 0;
+        for (Map.Entry<K, E> mapEntry : entries.entrySet()) {
+            final E entry = mapEntry.getValue();
+            if ((!entry.isValid(now) || entry.getEvictionScore() <= threshold)
+                    && remover.remove(mapEntry.getKey(), entry)) {
+                if (++count >= evictionCount) {
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Picks a random sample of the entries by reservoir sampling and returns the score
+     * below which EVICTION_RATE of the sampled entries fall.
+     */
+    static long findEvictionThreshold(Collection<? extends Entry> entries) {
+        final long[] samples = new long[SAMPLE_SIZE];
+        final Random random = new Random();
+        int seen = 0;
+        for (Entry entry : entries) {
+            if (seen < SAMPLE_SIZE) {
+                samples[seen] = entry.getEvictionScore();
+            } else {
+                final int index = random.nextInt(seen + 1);
+                if (index < SAMPLE_SIZE) {
+                    samples[index] = entry.getEvictionScore();
+                }
+            }
+            seen++;
+        }
+        final int sampleCount = Math.min(seen, SAMPLE_SIZE);
+        if (sampleCount == 0) {
+            return Long.MAX_VALUE;
+        }
+        Arrays.sort(samples, 0, sampleCount);
+        return samples[(int) (sampleCount * EVICTION_RATE)];
+    }
+}
@@ -99,6 +99,30 @@ public class MapConfigTest {
         new MapConfig().setEvictionPercentage(MapConfig.MAX_EVICTION_PERCENTAGE + 1);
     }
 
+    /**
+     * Test method for {@link com.hazelcast.config.MapConfig#getEvictionSampleSize()}.
+     */
+    @Test
+    public void testGetEvictionSampleSize() {
+        assertEquals(MapConfig.DEFAULT_EVICTION_SAMPLE_SIZE, new MapConfig().getEvictionSampleSize());
+    }
+
+    /**
+     * Test method for {@link com.hazelcast.config.MapConfig#setEvictionSampleSize(int)}.
+     */
+    @Test
+    public void testSetEvictionSampleSize() {
+        assertEquals(5, new MapConfig().setEvictionSampleSize(5).getEvictionSampleSize());
+    }
+
+    /**
+     * Test method for {@link com.hazelcast.config.MapConfig#setEvictionSampleSize(int)}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetEvictionSampleSizeLowerLimit() {
+        new MapConfig().setEvictionSampleSize(-1);
+    }
+
     /**
      * Test method for {@link com.hazelcast.config.MapConfig#getEvictionDelaySeconds()}.
      */
@@ -16,19 +16,27 @@
 
 package com.hazelcast.core;
 
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.impl.MapStoreTest.FailAwareMapStore;
 import junit.framework.TestCase;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 @RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
 public class IMapAsyncTest {
@@ -99,4 +107,102 @@ public class IMapAsyncTest {
         Future<String> f1 = map.removeAsync(key);
         TestCase.assertNull(f1.get());
     }
+
+    @Test
+    public void testAndThen() throws Exception {
+        final IMap<String, String> map = Hazelcast.getMap("map:test:andThen");
+        map.put(key, value1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final CountDownLatch latch = new CountDownLatch(2);
+            final AtomicReference<Object> result = new AtomicReference<Object>();
+            map.getAsync(key).andThen(new ExecutionCallback<String>() {
+                public void done(Future<String> future) {
+                    try {
+                        result.set(future.get());
+                    } catch (Exception e) {
+                        result.set(e);
+                    }
+                    latch.countDown();
+                }
+            }, executor);
+            final AsyncFuture<String> f1 = map.putAsync(key, value2);
+            f1.get();
+            // registered after completion
+            f1.andThen(new ExecutionCallback<String>() {
+                public void done(Future<String> future) {
+                    latch.countDown();
+                }
+            }, executor);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(value1, result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testManyInFlightWithBackups() throws Exception {
+        Hazelcast.shutdownAll();
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        try {
+            IMap<Integer, Integer> map1 = h1.getMap("map:test:inFlight");
+            final int count = 5000;
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>(count);
+            for (int i = 0; i < count; i++) {
+                futures.add(map1.putAsync(i, i));
+            }
+            for (Future<Integer> future : futures) {
+                assertNull(future.get(30, TimeUnit.SECONDS));
+            }
+            futures.clear();
+            for (int i = 0; i < count; i++) {
+                futures.add(map1.getAsync(i));
+            }
+            for (int i = 0; i < count; i++) {
+                assertEquals(Integer.valueOf(i), futures.get(i).get(30, TimeUnit.SECONDS));
+            }
+            futures.clear();
+            for (int i = 0; i < count; i += 2) {
+                futures.add(map1.removeAsync(i));
+            }
+            for (Future<Integer> future : futures) {
+                assertNotNull(future.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(count / 2, map1.getLocalMapStats().getOwnedEntryCount()
+                    + h2.getMap("map:test:inFlight").getLocalMapStats().getOwnedEntryCount());
+            // futures are completed after the sync backups, none is lost with the member
+            h2.getLifecycleService().shutdown();
+            assertEquals(count / 2, map1.size());
+            for (int i = 1; i < count; i += 2) {
+                assertEquals(Integer.valueOf(i), map1.get(i));
+            }
+        } finally {
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    @Test
+    public void testStoreFailure() throws Exception {
+        FailAwareMapStore store = new FailAwareMapStore();
+        Config config = new Config();
+        config.getMapConfig("map:test:storeFailure").setMapStoreConfig(new MapStoreConfig().setImplementation(store));
+        Hazelcast.shutdownAll();
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        try {
+            IMap<String, String> map = h1.getMap("map:test:storeFailure");
+            store.setFail(true);
+            try {
+                map.putAsync(key, value1).get();
+                fail("Store failure should fail the future");
+            } catch (ExecutionException expected) {
+            }
+            store.setFail(false);
+            assertNull(map.putAsync(key, value2).get());
+            assertEquals(value2, store.dbGet(key));
+        } finally {
+            Hazelcast.shutdownAll();
+        }
+    }
 }
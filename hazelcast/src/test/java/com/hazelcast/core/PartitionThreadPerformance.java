@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.impl.GroupProperties;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares map throughput of the single ServiceThread (hazelcast.partition.thread.count=0)
+ * with partition threads on put/get mixes.
+ * Thread count of the partition threaded runs can be set by -DpartitionThreadCount (default 8).
+ */
+public class PartitionThreadPerformance {
+
+    private static final int PARTITION_THREAD_COUNT = Integer.getInteger("partitionThreadCount", 8);
+    private static final int CLIENT_THREAD_COUNT = Integer.getInteger("clientThreadCount", 40);
+    private static final int KEY_COUNT = 10000;
+    private static final int VALUE_SIZE = 100;
+    private static final long DURATION_MILLIS = TimeUnit.SECONDS.toMillis(Integer.getInteger("durationSeconds", 20));
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testGetHeavyWithServiceThread() throws Exception {
+        run("getHeavy-serviceThread", 0, 80);
+    }
+
+    @Test
+    public void testGetHeavyWithPartitionThreads() throws Exception {
+        run("getHeavy-partitionThreads-" + PARTITION_THREAD_COUNT, PARTITION_THREAD_COUNT, 80);
+    }
+
+    @Test
+    public void testPutHeavyWithServiceThread() throws Exception {
+        run("putHeavy-serviceThread", 0, 20);
+    }
+
+    @Test
+    public void testPutHeavyWithPartitionThreads() throws Exception {
+        run("putHeavy-partitionThreads-" + PARTITION_THREAD_COUNT, PARTITION_THREAD_COUNT, 20);
+    }
+
+    private void run(String testName, int partitionThreadCount, final int getPercentage) throws Exception {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_PARTITION_THREAD_COUNT, String.valueOf(partitionThreadCount));
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        final IMap<Integer, byte[]> map1 = h1.getMap("default");
+        final IMap<Integer, byte[]> map2 = h2.getMap("default");
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map1.put(i, new byte[VALUE_SIZE]);
+        }
+        final AtomicLong operations = new AtomicLong();
+        final CountDownLatch latch = new CountDownLatch(CLIENT_THREAD_COUNT);
+        final long end = System.currentTimeMillis() + DURATION_MILLIS;
+        for (int t = 0; t < CLIENT_THREAD_COUNT; t++) {
+            final IMap<Integer, byte[]> map = (t % 2 == 0) ? map1 : map2;
+            new Thread() {
+                public void run() {
+                    final Random random = new Random();
+                    long count = 0;
+                    try {
+                        while (System.currentTimeMillis() < end) {
+                            final int key = random.nextInt(KEY_COUNT);
+                            if (random.nextInt(100) < getPercentage) {
+                                map.get(key);
+                            } else {
+                                map.put(key, new byte[VALUE_SIZE]);
+                            }
+                            count++;
+                        }
+                    } finally {
+                        operations.addAndGet(count);
+                        latch.countDown();
+                    }
+                }
+            }.start();
+        }
+        final long start = System.currentTimeMillis();
+        latch.await();
+        final long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        System.out.println(testName + ", clientThreads:" + CLIENT_THREAD_COUNT + ", ops:" + operations.get()
+                + ", ops/sec:" + (operations.get() * 1000 / elapsed));
+    }
+}
@@ -34,6 +34,9 @@ import org.junit.runner.RunWith;
 import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.hazelcast.impl.TestUtil.getConcurrentMapManager;
 import static java.lang.Thread.sleep;
@@ -84,6 +87,97 @@ public class ClusterBackupTest {
         assertEquals(size, m3.size());
     }
 
+    @Test
+    public void testChunkedMigration() throws Exception {
+        final int size = 20000;
+        final AtomicLong migratedRecords = new AtomicLong();
+        final AtomicLong migratedBytes = new AtomicLong();
+        final AtomicInteger completedMigrations = new AtomicInteger();
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_CHUNK_SIZE, "2048");
+        config.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_CHUNKS_IN_FLIGHT, "2");
+        config.addListenerConfig(new ListenerConfig(new MigrationListener() {
+            public void migrationStarted(MigrationEvent migrationEvent) {
+            }
+
+            public void migrationCompleted(MigrationEvent migrationEvent) {
+                migratedRecords.addAndGet(migrationEvent.getRecordCount());
+                migratedBytes.addAndGet(migrationEvent.getByteCount());
+                completedMigrations.incrementAndGet();
+            }
+        }));
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        IMap m1 = h1.getMap("default");
+        for (int i = 0; i < size; i++) {
+            m1.put(i, "value" + i);
+        }
+        Config config2 = new Config();
+        config2.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_CHUNK_SIZE, "2048");
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config2);
+        IMap m2 = h2.getMap("default");
+        int lastCompleted = -1;
+        while (lastCompleted != completedMigrations.get()) {
+            lastCompleted = completedMigrations.get();
+            Thread.sleep(3000);
+        }
+        assertEquals(size, m2.size());
+        for (int i = 0; i < size; i += 100) {
+            assertEquals("value" + i, m2.get(i));
+        }
+        assertTrue(completedMigrations.get() > 0);
+        assertEquals(m2.getLocalMapStats().getOwnedEntryCount(), migratedRecords.get());
+        assertTrue(migratedBytes.get() > 0);
+    }
+
+    @Test
+    public void testConcurrentMigrations() throws Exception {
+        final int size = 20000;
+        final AtomicInteger maxRunningMigrations = new AtomicInteger();
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_INTERVAL, "0");
+        config.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_MAX_CONCURRENT, "4");
+        // slows down each migration, so they overlap
+        config.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_MAX_BANDWIDTH, "10000");
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        IMap m1 = h1.getMap("default");
+        for (int i = 0; i < size; i++) {
+            m1.put(i, "value" + i);
+        }
+        final PartitionManager partitionManager = getConcurrentMapManager(h1).getPartitionManager();
+        final AtomicBoolean sampling = new AtomicBoolean(true);
+        Thread sampler = new Thread() {
+            public void run() {
+                while (sampling.get()) {
+                    final int running = partitionManager.getRunningMigrationCount();
+                    if (running > maxRunningMigrations.get()) {
+                        maxRunningMigrations.set(running);
+                    }
+                    try {
+                        sleep(5);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        };
+        sampler.start();
+        Config config2 = new Config();
+        config2.setProperty(GroupProperties.PROP_PARTITION_MIGRATION_MAX_BANDWIDTH, "10000");
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config2);
+        IMap m2 = h2.getMap("default");
+        do {
+            Thread.sleep(1000);
+        } while (partitionManager.getRunningMigrationCount() > 0 || !partitionManager.isMigrationQueueEmpty());
+        sampling.set(false);
+        sampler.join();
+        assertEquals(size, m2.size());
+        for (int i = 0; i < size; i += 100) {
+            assertEquals("value" + i, m2.get(i));
+        }
+        assertTrue(maxRunningMigrations.get() > 1);
+        assertTrue(maxRunningMigrations.get() <= 4);
+    }
+
     @Test
     public void testGracefulShutdown2() throws Exception {
         int size = 10000;
@@ -328,6 +422,50 @@ public class ClusterBackupTest {
         assertEquals(2 * size, getTotalBackupEntryCount(map1, map2, map3, map4));
     }
 
+    @Test(timeout = 160000)
+    public void testBatchedBackups() throws Exception {
+        Config config = new Config();
+        config.getProperties().put(GroupProperties.PROP_PARTITION_MIGRATION_INTERVAL, "0");
+        config.getMapConfig("default").setBackupCounts(1, 1);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h3 = Hazelcast.newHazelcastInstance(config);
+        final IMap map1 = h1.getMap("default");
+        IMap map2 = h2.getMap("default");
+        IMap map3 = h3.getMap("default");
+        final int threadCount = 8;
+        final int countPerThread = 2000;
+        final int size = threadCount * countPerThread;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final int start = t * countPerThread;
+            new Thread() {
+                public void run() {
+                    for (int i = start; i < start + countPerThread; i++) {
+                        map1.put(i, i);
+                    }
+                    latch.countDown();
+                }
+            }.start();
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        assertEquals(size, getTotalOwnedEntryCount(map1, map2, map3));
+        for (int i = 0; i < 20 && getTotalBackupEntryCount(map1, map2, map3) < 2 * size; i++) {
+            sleep(500);
+        }
+        assertEquals(2 * size, getTotalBackupEntryCount(map1, map2, map3));
+        ConcurrentMapManager.BackupBatcher backupBatcher = getConcurrentMapManager(h1).backupBatcher;
+        assertTrue(backupBatcher.getBackupCount() > 0);
+        assertTrue(backupBatcher.getBatchCount() < backupBatcher.getBackupCount());
+        assertTrue(backupBatcher.getMaxBatchSize() > 1);
+        h2.getLifecycleService().shutdown();
+        sleep(3000);
+        assertEquals(size, map1.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, map3.get(i));
+        }
+    }
+
     private long getTotalOwnedEntryCount(IMap... maps) {
         long total = 0;
         for (IMap iMap : maps) {
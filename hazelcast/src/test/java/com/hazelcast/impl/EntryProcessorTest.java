@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.EntryProcessor;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.impl.MapStoreTest.TestMapStore;
+import com.hazelcast.query.Predicate;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class EntryProcessorTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testExecuteOnKey() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testExecuteOnKey");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, map.executeOnKey(i, new IncrementProcessor()));
+        }
+        IMap<Integer, Integer> map2 = h2.getMap("testExecuteOnKey");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i + 1), map2.get(i));
+        }
+        assertNull(map.executeOnKey(100, new IncrementProcessor()));
+        assertEquals(Integer.valueOf(1), map.get(100));
+        assertEquals(101, map.size());
+    }
+
+    @Test
+    public void testExecuteOnKeyWithoutChange() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testExecuteOnKeyWithoutChange");
+        map.put(1, 1);
+        assertEquals(1, map.executeOnKey(1, new GetProcessor()));
+        assertNull(map.executeOnKey(2, new GetProcessor()));
+        assertEquals(Integer.valueOf(1), map.get(1));
+        assertFalse(map.containsKey(2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testExecuteOnKeyRemove() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testExecuteOnKeyRemove");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertEquals(i, map.executeOnKey(i, new RemoveProcessor()));
+        }
+        assertNull(map.executeOnKey(1000, new RemoveProcessor()));
+        IMap<Integer, Integer> map2 = h2.getMap("testExecuteOnKeyRemove");
+        assertEquals(50, map2.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 1, map2.containsKey(i));
+        }
+    }
+
+    @Test
+    public void testExecuteOnKeyBackup() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testExecuteOnKeyBackup");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 == 0) {
+                map.executeOnKey(i, new RemoveProcessor());
+            } else {
+                map.executeOnKey(i, new IncrementProcessor());
+            }
+        }
+        h1.getLifecycleService().kill();
+        IMap<Integer, Integer> map2 = h2.getMap("testExecuteOnKeyBackup");
+        assertEquals(900, map2.size());
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 == 0) {
+                assertNull(map2.get(i));
+            } else {
+                assertEquals(Integer.valueOf(i + 1), map2.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testExecuteOnKeyException() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testExecuteOnKeyException");
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+            try {
+                map.executeOnKey(i, new FailingProcessor());
+                fail();
+            } catch (RuntimeException expected) {
+            }
+        }
+        IMap<Integer, Integer> map2 = h2.getMap("testExecuteOnKeyException");
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), map2.get(i));
+        }
+    }
+
+    @Test
+    public void testExecuteOnKeyWaitsForLock() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        final IMap<Integer, Integer> map = h1.getMap("testExecuteOnKeyWaitsForLock");
+        map.put(1, 1);
+        map.lock(1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        new Thread(new Runnable() {
+            public void run() {
+                result.set(map.executeOnKey(1, new IncrementProcessor()));
+                latch.countDown();
+            }
+        }).start();
+        assertFalse(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(1, map.executeOnKey(1, new GetProcessor()));
+        map.unlock(1);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, result.get());
+        assertEquals(Integer.valueOf(2), map.get(1));
+    }
+
+    @Test
+    public void testExecuteOnKeyWriteThrough() {
+        TestMapStore testMapStore = new TestMapStore(2, 1, 1);
+        testMapStore.setLoadAllKeys(false);
+        Config config = new Config();
+        config.getMapConfig("default").setMapStoreConfig(new MapStoreConfig().setImplementation(testMapStore));
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        testMapStore.insert(1, 1);
+        IMap<Integer, Integer> map = h1.getMap("default");
+        assertEquals(1, map.executeOnKey(1, new IncrementProcessor()));
+        assertEquals(2, testMapStore.getStore().get(1));
+        assertNull(map.executeOnKey(2, new IncrementProcessor()));
+        assertEquals(1, testMapStore.getStore().get(2));
+        assertEquals(2, map.executeOnKey(1, new RemoveProcessor()));
+        assertFalse(testMapStore.getStore().containsKey(1));
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void testExecuteOnEntries() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testExecuteOnEntries");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        Map<Integer, Object> results = map.executeOnEntries(new IncrementProcessor());
+        assertEquals(1000, results.size());
+        IMap<Integer, Integer> map2 = h2.getMap("testExecuteOnEntries");
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, results.get(i));
+            assertEquals(Integer.valueOf(i + 1), map2.get(i));
+        }
+        results = map2.executeOnEntries(new RemoveProcessor(), new EvenKeyPredicate());
+        assertEquals(500, results.size());
+        assertEquals(500, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 1, map.containsKey(i));
+        }
+        assertTrue(map.executeOnEntries(new GetProcessor(), new EvenKeyPredicate()).isEmpty());
+    }
+
+    @Test
+    public void testExecuteOnEntriesDuringMigration() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        final IMap<Integer, Integer> map = h1.getMap("testExecuteOnEntriesDuringMigration");
+        final int size = 2000;
+        for (int i = 0; i < size; i++) {
+            map.put(i, 0);
+        }
+        final CountDownLatch joined = new CountDownLatch(1);
+        new Thread() {
+            public void run() {
+                Hazelcast.newHazelcastInstance(new Config());
+                Hazelcast.newHazelcastInstance(new Config());
+                joined.countDown();
+            }
+        }.start();
+        int rounds = 0;
+        // partitions migrate to the new members while the keys are collected
+        while (joined.getCount() > 0 || rounds < 5) {
+            assertEquals(size, map.executeOnEntries(new IncrementProcessor(), new SlowPredicate()).size());
+            rounds++;
+        }
+        for (int i = 0; i < size; i++) {
+            assertEquals(Integer.valueOf(rounds), map.get(i));
+        }
+    }
+
+    static class SlowPredicate implements Predicate<Integer, Integer> {
+        public boolean apply(MapEntry<Integer, Integer> mapEntry) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ignored) {
+            }
+            return true;
+        }
+    }
+
+    static class IncrementProcessor implements EntryProcessor<Integer, Integer> {
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            Integer value = entry.getValue();
+            entry.setValue(value == null ? 1 : value + 1);
+            return value;
+        }
+    }
+
+    static class GetProcessor implements EntryProcessor<Integer, Integer> {
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            return entry.getValue();
+        }
+    }
+
+    static class RemoveProcessor implements EntryProcessor<Integer, Integer> {
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            return entry.setValue(null);
+        }
+    }
+
+    static class FailingProcessor implements EntryProcessor<Integer, Integer> {
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            entry.setValue(-1);
+            throw new IllegalStateException("fail " + entry.getKey());
+        }
+    }
+
+    static class EvenKeyPredicate implements Predicate {
+        public boolean apply(MapEntry mapEntry) {
+            return ((Integer) mapEntry.getKey()) % 2 == 0;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.util.Clock;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.hazelcast.impl.TestUtil.getCMap;
+
+/**
+ * Compares the cost of choosing the records to evict with the sorted full scan
+ * (eviction-sample-size=0) and with sampling.
+ * Entry count can be set by -DentryCount (default 200000) and sample size by -DsampleSize (default 5).
+ */
+public class EvictionPerformance {
+
+    private static final int ENTRY_COUNT = Integer.getInteger("entryCount", 200000);
+    private static final int SAMPLE_SIZE = Integer.getInteger("sampleSize", 5);
+    private static final int ROUNDS = 10;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testSortedLRU() {
+        run("LRU", 0);
+    }
+
+    @Test
+    public void testSampledLRU() {
+        run("LRU", SAMPLE_SIZE);
+    }
+
+    @Test
+    public void testSortedLFU() {
+        run("LFU", 0);
+    }
+
+    @Test
+    public void testSampledLFU() {
+        run("LFU", SAMPLE_SIZE);
+    }
+
+    private void run(String evictionPolicy, int sampleSize) {
+        Config config = new Config();
+        config.getMapConfig("default").setEvictionPolicy(evictionPolicy).setEvictionSampleSize(sampleSize);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Integer> map = h1.getMap("default");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i += 3) {
+            map.get(i);
+        }
+        CMap cmap = getCMap(h1, "default");
+        long elapsed = 0;
+        int selected = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long start = System.nanoTime();
+            selected = selectRecordsToEvict(cmap, 25);
+            elapsed += System.nanoTime() - start;
+        }
+        System.out.println(evictionPolicy + (sampleSize > 0 ? " sampled-" + sampleSize : " sorted")
+                + ", entries:" + ENTRY_COUNT + ", selected:" + selected
+                + ", avg ms:" + (elapsed / ROUNDS / 1000000.0));
+    }
+
+    /**
+     * Same selection as CMap.evict(int) without executing the eviction, so every round sees the full map.
+     */
+    private static int selectRecordsToEvict(CMap cmap, int percentage) {
+        final Set<Record> recordsToEvict = new HashSet<Record>();
+        if (cmap.isSampledEviction()) {
+            cmap.selectSampledRecordsToEvict(cmap.mapIndexService.size() * percentage / 100,
+                    Clock.currentTimeMillis(), recordsToEvict);
+        } else {
+            final Set<Record> sortedRecords = new TreeSet<Record>(cmap.evictionComparator);
+            final long now = Clock.currentTimeMillis();
+            for (Record record : cmap.mapRecords.values()) {
+                if (record.isActive() && record.isValid(now) && record.isEvictable()) {
+                    sortedRecords.add(record);
+                }
+            }
+            final int count = sortedRecords.size() * percentage / 100;
+            for (Record record : sortedRecords) {
+                if (recordsToEvict.size() >= count) {
+                    break;
+                }
+                recordsToEvict.add(record);
+            }
+        }
+        return recordsToEvict.size();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.impl.monitor.LatencyHistogram;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.*;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class LatencyHistogramTest {
+
+    @Test
+    public void empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 16; i++) {
+            histogram.record(i);
+        }
+        assertEquals(16, histogram.getCount());
+        assertEquals(7, histogram.getPercentile(50));
+        assertEquals(15, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0));
+    }
+
+    @Test
+    public void relativeError() {
+        for (long value = 1; value < (1L << 36); value = value * 3 + 1) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(value * 2);
+            long reported = histogram.getPercentile(50);
+            assertTrue("value " + value + " reported " + reported, reported >= value);
+            assertTrue("value " + value + " reported " + reported, reported - value <= value / 16);
+        }
+    }
+
+    @Test
+    public void outOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals((1L << 36) - 1, histogram.getPercentile(100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPercentile() {
+        new LatencyHistogram().getPercentile(101);
+    }
+
+    @Test
+    public void addAndCopyAndReset() {
+        LatencyHistogram h1 = new LatencyHistogram();
+        LatencyHistogram h2 = new LatencyHistogram();
+        for (int i = 1; i <= 99; i++) {
+            h1.record(10);
+        }
+        h2.record(5000);
+        h1.add(h2);
+        assertEquals(100, h1.getCount());
+        assertEquals(10, h1.getPercentile(99));
+        assertEquals(5000, h1.getPercentile(99.9));
+        LatencyHistogram copy = h1.copyAndReset();
+        assertEquals(0, h1.getCount());
+        assertEquals(0, h1.getMax());
+        assertEquals(100, copy.getCount());
+        assertEquals(5000, copy.getMax());
+    }
+
+    @Test
+    public void concurrentRecords() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final int threads = 4;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread() {
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        histogram.record(i % 100);
+                    }
+                    latch.countDown();
+                }
+            }.start();
+        }
+        latch.await();
+        assertEquals(40000, histogram.getCount());
+        assertEquals(99, histogram.getMax());
+    }
+
+    @Test
+    public void testDataSerializable() throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(i * 7);
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        histogram.writeData(new DataOutputStream(bos));
+        LatencyHistogram newHistogram = new LatencyHistogram();
+        newHistogram.readData(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+        assertEquals(histogram.getCount(), newHistogram.getCount());
+        assertEquals(histogram.getMax(), newHistogram.getMax());
+        for (double percentile : new double[]{0, 50, 90, 99, 99.9, 100}) {
+            assertEquals(histogram.getPercentile(percentile), newHistogram.getPercentile(percentile));
+        }
+    }
+}
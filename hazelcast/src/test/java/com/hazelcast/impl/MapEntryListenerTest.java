@@ -17,9 +17,12 @@
 package com.hazelcast.impl;
 
 import com.hazelcast.core.*;
+import com.hazelcast.query.Predicate;
 import org.junit.*;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
@@ -50,7 +53,7 @@ public class MapEntryListenerTest {
     }
 
     @After
-    public void after() {
+    public void after() throws InterruptedException {
         destroyMaps();
         h1.getLifecycleService().shutdown();
         h2.getLifecycleService().shutdown();
@@ -64,9 +67,14 @@ public class MapEntryListenerTest {
         map2 = h2.getMap(n);
     }
 
-    private void destroyMaps() {
+    private void destroyMaps() throws InterruptedException {
+        // destroy is cluster wide, a second destroy could reach the other member after
+        // the map is created again and remove its new listeners
         map1.destroy();
-        map2.destroy();
+        for (int i = 0; i < 100 && TestUtil.getNode(h2).factory.proxiesByName.containsKey(Prefix.MAP + n); i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertFalse(TestUtil.getNode(h2).factory.proxiesByName.containsKey(Prefix.MAP + n));
     }
 
     @Test
@@ -138,6 +146,87 @@ public class MapEntryListenerTest {
         destroyMaps();
     }
 
+    @Test
+    public void predicateListenerTest() throws InterruptedException {
+        map1.addEntryListener(createEntryListener(false), new KeySuffixPredicate("1"), false);
+        map1.addEntryListener(createEntryListener(false), new KeySuffixPredicate("2"), true);
+        map2.addEntryListener(createEntryListener(false), new KeySuffixPredicate("1"), true);
+        int k = 10;
+        putDummyData(k);
+        // foo1 for the first and the third listener, foo2 for the second one
+        checkCountWithExpected(3, 0, 2);
+    }
+
+    @Test
+    public void removePredicateListenerTest() throws InterruptedException {
+        EntryListener<String, String> listener = createEntryListener(false);
+        map2.addEntryListener(listener, new KeySuffixPredicate("1"), true);
+        Assert.assertFalse(TestUtil.getCMap(h1, n).mapPredicateListeners.isEmpty());
+        map2.removeEntryListener(listener);
+        Assert.assertTrue(TestUtil.getCMap(h1, n).mapPredicateListeners.isEmpty());
+        Assert.assertTrue(TestUtil.getCMap(h2, n).mapPredicateListeners.isEmpty());
+        putDummyData(10);
+        checkCountWithExpected(0, 0, 0);
+    }
+
+    @Test
+    public void removeOneOfEqualPredicateListenersTest() throws InterruptedException {
+        EntryListener<String, String> listener1 = createEntryListener(false);
+        EntryListener<String, String> listener2 = createEntryListener(false);
+        // equal predicates without equals, registered once on the members
+        map2.addEntryListener(listener1, new KeySuffixPredicate("1"), true);
+        map2.addEntryListener(listener2, new KeySuffixPredicate("1"), true);
+        map2.removeEntryListener(listener1);
+        int k = 20;
+        putDummyData(k);
+        // foo1 and foo11 for the second listener
+        checkCountWithExpected(2, 0, 2);
+        map2.removeEntryListener(listener2);
+        Assert.assertTrue(TestUtil.getCMap(h1, n).mapPredicateListeners.isEmpty());
+    }
+
+    @Test
+    public void batchedEventsTest() throws InterruptedException {
+        final int k = 2000;
+        final CountDownLatch latch = new CountDownLatch(k * 2);
+        final AtomicInteger wrongValues = new AtomicInteger();
+        map2.addEntryListener(new EntryAdapter<String, String>() {
+            public void entryAdded(EntryEvent<String, String> event) {
+                if (!"bar".equals(event.getValue()) || event.getOldValue() != null) {
+                    wrongValues.incrementAndGet();
+                }
+                latch.countDown();
+            }
+
+            public void entryUpdated(EntryEvent<String, String> event) {
+                if (!"baz".equals(event.getValue()) || !"bar".equals(event.getOldValue())) {
+                    wrongValues.incrementAndGet();
+                }
+                latch.countDown();
+            }
+        }, true);
+        for (int i = 0; i < k; i++) {
+            map1.put("foo" + i, "bar");
+        }
+        for (int i = 0; i < k; i++) {
+            map1.put("foo" + i, "baz");
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        Assert.assertEquals(0, wrongValues.get());
+    }
+
+    static class KeySuffixPredicate implements Predicate<String, String> {
+        final String suffix;
+
+        KeySuffixPredicate(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public boolean apply(MapEntry<String, String> mapEntry) {
+            return mapEntry.getKey().endsWith(suffix);
+        }
+    }
+
     private void putDummyData(int k) {
         for (int i = 0; i < k; i++) {
             map1.put("foo" + i, "bar");
@@ -145,8 +234,16 @@ public class MapEntryListenerTest {
     }
 
     private void checkCountWithExpected(int expectedGlobal, int expectedLocal, int expectedValue) throws InterruptedException {
-        // wait for entry listener execution
-        Thread.sleep(1000 * 3);
+        // wait for entry listener execution, events are sent in batches
+        for (int i = 0; i < 100; i++) {
+            if (localCount.get() >= expectedLocal && globalCount.get() >= expectedGlobal
+                    && valueCount.get() >= expectedValue) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        // give the unexpected events time to arrive
+        Thread.sleep(1000);
         Assert.assertEquals(expectedLocal, localCount.get());
         Assert.assertEquals(expectedGlobal, globalCount.get());
         Assert.assertEquals(expectedValue, valueCount.get());
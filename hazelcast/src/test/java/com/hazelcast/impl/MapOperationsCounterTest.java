@@ -210,4 +210,31 @@ public class MapOperationsCounterTest {
         assertEquals(mapOperationStats.getPublishedStats().getNumberOfRemoves(), newStat.getNumberOfRemoves());
         String str = newStat.toString();
     }
+
+    @Test
+    public void latencyPercentilesOfSubPeriods() throws Exception {
+        MapOperationsCounter mapOperationStats = new MapOperationsCounter(500);
+        for (int i = 1; i <= 1000; i++) {
+            mapOperationStats.incrementPuts(i);
+            mapOperationStats.incrementGets(5);
+            if (i % 250 == 0) {
+                Thread.sleep(110);
+            }
+        }
+        mapOperationStats.incrementOtherOperations();
+        LocalMapOperationStats stats = mapOperationStats.getPublishedStats();
+        assertEquals(1000, stats.getNumberOfPuts());
+        assertEquals(1000, stats.getPutLatencyPercentile(100));
+        assertTrue(Math.abs(stats.getPutLatencyPercentile(50) - 500) <= 500 / 16);
+        assertTrue(Math.abs(stats.getPutLatencyPercentile(99) - 990) <= 990 / 16);
+        assertEquals(5, stats.getGetLatencyPercentile(99.9));
+        assertEquals(0, stats.getRemoveLatencyPercentile(99));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ((DataSerializable) stats).writeData(new DataOutputStream(bos));
+        LocalMapOperationStatsImpl newStat = new LocalMapOperationStatsImpl();
+        newStat.readData(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+        assertEquals(stats.getPutLatencyPercentile(99), newStat.getPutLatencyPercentile(99));
+        assertEquals(stats.getPutLatencyPercentile(100), newStat.getPutLatencyPercentile(100));
+        assertEquals(5, newStat.getGetLatencyPercentile(50));
+    }
 }
@@ -24,6 +24,7 @@ import com.hazelcast.core.*;
 import com.hazelcast.impl.partition.PartitionInfo;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.nio.Data;
+import com.hazelcast.partition.PartitionService;
 import com.hazelcast.query.SqlPredicate;
 import org.junit.After;
 import org.junit.BeforeClass;
@@ -35,6 +36,7 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.hazelcast.nio.IOUtil.toData;
 import static org.junit.Assert.*;
@@ -469,6 +471,97 @@ public class MapStoreTest extends TestUtil {
         assertEquals("value1", testMapStore.db.get("1"));
     }
 
+    @Test
+    public void testWriteBehindCoalescesUpdates() throws Exception {
+        FailAwareMapStore testMapStore = new FailAwareMapStore();
+        Config config = newConfig(testMapStore, 2);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        IMap map = h1.getMap("default");
+        assertEquals(0, map.size());
+        BlockingQueue listener = new LinkedBlockingQueue();
+        testMapStore.addListener(listener);
+        for (int i = 0; i < 10; i++) {
+            map.put("1", "value" + i);
+        }
+        assertEquals(1, map.getLocalMapStats().getWriteBehindQueueSize());
+        assertEquals(0, testMapStore.db.size());
+        assertNotNull(listener.poll(20, TimeUnit.SECONDS));
+        assertEquals(1, testMapStore.stores.get() + testMapStore.storeAlls.get());
+        assertEquals("value9", testMapStore.db.get("1"));
+        assertEquals(0, map.getLocalMapStats().getWriteBehindQueueSize());
+        testMapStore.setFail(true);
+        map.put("2", "value2");
+        assertNotNull(listener.poll(20, TimeUnit.SECONDS));
+        Thread.sleep(500);
+        assertEquals(1, map.getLocalMapStats().getWriteBehindFailureCount());
+        assertEquals(1, map.getLocalMapStats().getWriteBehindQueueSize());
+        testMapStore.setFail(false);
+        assertNotNull(listener.poll(20, TimeUnit.SECONDS));
+        assertEquals("value2", testMapStore.db.get("2"));
+        assertEquals(0, map.getLocalMapStats().getWriteBehindQueueSize());
+    }
+
+    @Test
+    public void testWriteBehindBackupKeptUntilStored() throws Exception {
+        FailAwareMapStore testMapStore = new FailAwareMapStore();
+        Config config = newConfig(testMapStore, 2);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        IMap map1 = h1.getMap("default");
+        IMap map2 = h2.getMap("default");
+        BlockingQueue listener = new LinkedBlockingQueue();
+        testMapStore.addListener(listener);
+        testMapStore.setFail(true);
+        for (int i = 0; i < 10; i++) {
+            map1.put(i, "value" + i);
+        }
+        assertNotNull(listener.poll(20, TimeUnit.SECONDS));
+        Thread.sleep(3000);
+        assertEquals(10, map1.getLocalMapStats().getWriteBehindBackupQueueSize()
+                + map2.getLocalMapStats().getWriteBehindBackupQueueSize());
+        testMapStore.setFail(false);
+        for (int i = 0; i < 200; i++) {
+            if (testMapStore.db.size() == 10 && map1.getLocalMapStats().getWriteBehindBackupQueueSize()
+                    + map2.getLocalMapStats().getWriteBehindBackupQueueSize() == 0) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertEquals(10, testMapStore.db.size());
+        assertEquals(0, map1.getLocalMapStats().getWriteBehindBackupQueueSize()
+                + map2.getLocalMapStats().getWriteBehindBackupQueueSize());
+    }
+
+    @Test
+    public void testWriteBehindBackupDeletesAfterOwnerDies() throws Exception {
+        FailAwareMapStore testMapStore = new FailAwareMapStore();
+        Config config = newConfig(testMapStore, 1);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        IMap map1 = h1.getMap("default");
+        IMap map2 = h2.getMap("default");
+        for (int i = 0; i < 20; i++) {
+            map1.put(i, "value" + i);
+        }
+        for (int i = 0; i < 200 && testMapStore.db.size() < 20; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(20, testMapStore.db.size());
+        testMapStore.setFail(true);
+        for (int i = 0; i < 20; i++) {
+            map1.remove(i);
+        }
+        Thread.sleep(3000);
+        assertEquals(20, testMapStore.db.size());
+        h1.getLifecycleService().kill();
+        testMapStore.setFail(false);
+        for (int i = 0; i < 300 && testMapStore.db.size() > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, testMapStore.db.size());
+        assertEquals(0, map2.size());
+    }
+
     @Test
     public void testOneMemberFlushOnShutdown() throws Exception {
         TestMapStore testMapStore = new TestMapStore(1, 1, 1);
@@ -1440,6 +1533,108 @@ public class MapStoreTest extends TestUtil {
         Hazelcast.shutdownAll();
     }
 
+    @Test
+    public void testMapKeyStreamingLoaderInitialization() {
+        final int initialKeys = 5000;
+        final AtomicInteger closedIterators = new AtomicInteger();
+        final AtomicInteger iteratedKeys = new AtomicInteger();
+        final AtomicReference<PartitionService> partitionService = new AtomicReference<PartitionService>();
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_MAP_LOAD_CHUNK_SIZE, "100");
+        config.setProperty(GroupProperties.PROP_MAP_LOAD_PARALLELISM, "2");
+        MapStoreConfig msConfig = new MapStoreConfig();
+        msConfig.setEnabled(true);
+        config.getMapConfig("testStreamingLoader").setMapStoreConfig(msConfig);
+        msConfig.setImplementation(new MapKeyStreamingLoader<Integer, String>() {
+            public String load(Integer key) {
+                return "Value: " + key;
+            }
+
+            public Map<Integer, String> loadAll(Collection<Integer> keys) {
+                Map<Integer, String> map = new HashMap<Integer, String>(keys.size());
+                for (Integer key : keys) {
+                    map.put(key, load(key));
+                }
+                return map;
+            }
+
+            public Set<Integer> loadAllKeys() {
+                throw new UnsupportedOperationException("keys should be streamed");
+            }
+
+            public Iterator<Integer> iterateKeys(final Set<Integer> partitionIds) {
+                return new ClosableKeyIterator(initialKeys, closedIterators) {
+                    @Override
+                    public boolean hasNext() {
+                        while (super.hasNext()) {
+                            if (partitionIds.contains(partitionService.get().getPartition(next).getPartitionId())) {
+                                return true;
+                            }
+                            next++;
+                        }
+                        return false;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        iteratedKeys.incrementAndGet();
+                        return super.next();
+                    }
+                };
+            }
+        });
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        partitionService.set(h1.getPartitionService());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, String> map1 = h1.getMap("testStreamingLoader");
+        IMap<Integer, String> map2 = h2.getMap("testStreamingLoader");
+        assertEquals(initialKeys, map1.size());
+        assertEquals("Value: 1", map2.get(1));
+        assertEquals(2, closedIterators.get());
+        long loaded = 0;
+        for (IMap<Integer, String> map : Arrays.asList(map1, map2)) {
+            LocalMapStats stats = map.getLocalMapStats();
+            assertTrue(stats.isInitialLoadCompleted());
+            long perPartition = 0;
+            for (int count : stats.getInitialLoadedEntryCounts()) {
+                perPartition += count;
+            }
+            assertEquals(stats.getInitialLoadedEntryCount(), perPartition);
+            loaded += stats.getInitialLoadedEntryCount();
+        }
+        // a key can be loaded twice if its partition migrates during the load
+        assertTrue(loaded >= initialKeys);
+        // each member iterates only over the keys of its own partitions
+        assertTrue(iteratedKeys.get() < 2 * initialKeys);
+    }
+
+    static class ClosableKeyIterator implements Iterator<Integer>, java.io.Closeable {
+        final int size;
+        final AtomicInteger closedIterators;
+        int next = 0;
+
+        ClosableKeyIterator(int size, AtomicInteger closedIterators) {
+            this.size = size;
+            this.closedIterators = closedIterators;
+        }
+
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        public Integer next() {
+            return next++;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void close() {
+            closedIterators.incrementAndGet();
+        }
+    }
+
     @Test
     /**
      * Issue 816.
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MultiMap;
+import com.hazelcast.core.Transaction;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class MultiKeyTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Set<Integer> range(int from, int to) {
+        final Set<Integer> keys = new HashSet<Integer>();
+        for (int i = from; i < to; i++) {
+            keys.add(i);
+        }
+        return keys;
+    }
+
+    @Test
+    public void testPutAllRemoveAllContainsKeys() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h3 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, String> map1 = h1.getMap("default");
+        IMap<Integer, String> map2 = h2.getMap("default");
+        Map<Integer, String> entries = new HashMap<Integer, String>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put(i, "value" + i);
+        }
+        map1.putAll(entries);
+        assertEquals(1000, map2.size());
+        assertEquals("value500", map2.get(500));
+        Set<Integer> keys = range(990, 1010);
+        assertEquals(range(990, 1000), map2.containsKeys(keys));
+        map2.removeAll(range(0, 500));
+        assertEquals(500, map1.size());
+        assertNull(map1.get(10));
+        assertEquals("value510", map1.get(510));
+        assertTrue(h3.<Integer, String>getMap("default").containsKeys(range(0, 500)).isEmpty());
+        assertEquals(range(500, 1000), map1.containsKeys(range(0, 1000)));
+    }
+
+    @Test
+    public void testBackupsOfPutAll() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h3 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map1 = h1.getMap("default");
+        Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put(i, i);
+        }
+        map1.putAll(entries);
+        map1.removeAll(range(0, 100));
+        h2.getLifecycleService().shutdown();
+        Thread.sleep(3000);
+        assertEquals(900, map1.size());
+        IMap<Integer, Integer> map3 = h3.getMap("default");
+        for (int i = 100; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), map3.get(i));
+        }
+    }
+
+    @Test
+    public void testTryLockAll() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map1 = h1.getMap("default");
+        IMap<Integer, Integer> map2 = h2.getMap("default");
+        assertTrue(map1.tryLockAll(range(0, 10), 1, TimeUnit.SECONDS));
+        assertFalse(map2.tryLock(5));
+        assertFalse(map2.tryLockAll(range(5, 15), 200, TimeUnit.MILLISECONDS));
+        // locks acquired by the failed call are released
+        assertTrue(map1.tryLock(12));
+        map1.unlock(12);
+        map1.unlockAll(range(0, 10));
+        assertTrue(map2.tryLockAll(range(5, 15), 1, TimeUnit.SECONDS));
+        assertFalse(map1.tryLock(7));
+        map2.unlockAll(range(5, 15));
+        assertTrue(map1.tryLock(7));
+        map1.unlock(7);
+    }
+
+    @Test
+    public void testTryLockAllIsReentrant() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map1 = h1.getMap("default");
+        IMap<Integer, Integer> map2 = h2.getMap("default");
+        assertTrue(map1.tryLockAll(range(0, 10), 1, TimeUnit.SECONDS));
+        map1.lock(3);
+        map1.unlockAll(range(0, 10));
+        assertFalse(map2.tryLock(3));
+        assertTrue(map2.tryLock(4));
+        map2.unlock(4);
+        map1.unlock(3);
+        assertTrue(map2.tryLock(3));
+        map2.unlock(3);
+    }
+
+    @Test
+    public void testTransactionCommit() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, String> map1 = h1.getMap("default");
+        IMap<Integer, String> map2 = h2.getMap("default");
+        MultiMap<Integer, String> multiMap = h1.getMultiMap("default");
+        for (int i = 0; i < 100; i++) {
+            map2.put(i, "old" + i);
+        }
+        Transaction txn = h1.getTransaction();
+        txn.begin();
+        for (int i = 0; i < 300; i++) {
+            map1.put(i, "new" + i);
+        }
+        for (int i = 50; i < 100; i++) {
+            map1.remove(i);
+        }
+        for (int i = 0; i < 10; i++) {
+            multiMap.put(1, "value" + i);
+        }
+        txn.commit();
+        assertEquals(250, map2.size());
+        assertEquals("new10", map2.get(10));
+        assertEquals("new200", map2.get(200));
+        assertNull(map2.get(60));
+        assertEquals(10, h2.getMultiMap("default").get(1).size());
+        // locks of the transaction are released
+        assertTrue(map2.tryLockAll(range(0, 300), 1, TimeUnit.SECONDS));
+        map2.unlockAll(range(0, 300));
+        assertTrue(h2.getMultiMap("default").tryLock(1));
+    }
+
+    @Test
+    public void testEmptyKeys() throws Exception {
+        IMap<Integer, Integer> map = Hazelcast.newHazelcastInstance(new Config()).getMap("default");
+        map.removeAll(new HashSet<Integer>());
+        assertTrue(map.containsKeys(new HashSet<Integer>()).isEmpty());
+        assertTrue(map.tryLockAll(new HashSet<Integer>(), 0, TimeUnit.SECONDS));
+        map.unlockAll(new HashSet<Integer>());
+    }
+}
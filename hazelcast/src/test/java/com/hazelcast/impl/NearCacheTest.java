@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.monitor.LocalMapStats;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class NearCacheTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Config newConfig(NearCacheConfig nearCacheConfig) {
+        Config config = new Config();
+        config.getMapConfig("default").setNearCacheConfig(nearCacheConfig);
+        return config;
+    }
+
+    @Test
+    public void testHitsAndInvalidation() throws Exception {
+        Config config = newConfig(new NearCacheConfig());
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, String> map1 = h1.getMap("default");
+        IMap<Integer, String> map2 = h2.getMap("default");
+        for (int i = 0; i < 100; i++) {
+            map1.put(i, "value" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, map1.get(i));
+            assertEquals("value" + i, map1.get(i));
+        }
+        LocalMapStats stats = map1.getLocalMapStats();
+        long cached = stats.getNearCacheEntryCount();
+        assertTrue(cached > 0 && cached < 100);
+        assertEquals(cached, stats.getNearCacheHits());
+        assertEquals(200 - cached, stats.getNearCacheMisses());
+        for (int i = 0; i < 100; i++) {
+            map2.put(i, "new" + i);
+        }
+        Thread.sleep(500);
+        assertEquals(cached, map1.getLocalMapStats().getNearCacheInvalidations());
+        assertEquals(0, map1.getLocalMapStats().getNearCacheEntryCount());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("new" + i, map1.get(i));
+        }
+        map2.remove(7);
+        Thread.sleep(500);
+        assertNull(map1.get(7));
+        assertFalse(map1.containsKey(7));
+    }
+
+    @Test
+    public void testMaxSizeEviction() throws Exception {
+        NearCacheConfig nearCacheConfig = new NearCacheConfig().setMaxSize(100).setEvictionPolicy("LRU");
+        Config config = newConfig(nearCacheConfig);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Integer> map1 = h1.getMap("default");
+        for (int i = 0; i < 1000; i++) {
+            map1.put(i, i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), map1.get(i));
+        }
+        LocalMapStats stats = map1.getLocalMapStats();
+        assertTrue(stats.getNearCacheEntryCount() < 100);
+        assertTrue(stats.getNearCacheEvictions() > 0);
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+        NearCacheConfig nearCacheConfig = new NearCacheConfig().setTimeToLiveSeconds(1);
+        Config config = newConfig(nearCacheConfig);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Integer> map1 = h1.getMap("default");
+        for (int i = 0; i < 100; i++) {
+            map1.put(i, i);
+            map1.get(i);
+        }
+        long cached = map1.getLocalMapStats().getNearCacheEntryCount();
+        assertTrue(cached > 0);
+        Thread.sleep(1500);
+        for (int i = 0; i < 100; i++) {
+            map1.get(i);
+        }
+        assertEquals(0, map1.getLocalMapStats().getNearCacheHits());
+    }
+
+    @Test
+    public void testConcurrentReadsAndUpdatesWithPartitionThreads() throws Exception {
+        Config config = newConfig(new NearCacheConfig().setMaxSize(500).setEvictionPolicy("LFU"));
+        config.setProperty(GroupProperties.PROP_PARTITION_THREAD_COUNT, "4");
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        final IMap<Integer, Integer> map1 = h1.getMap("default");
+        final IMap<Integer, Integer> map2 = h2.getMap("default");
+        final int keyCount = 1000;
+        for (int i = 0; i < keyCount; i++) {
+            map1.put(i, 0);
+        }
+        final int threadCount = 8;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        for (int t = 0; t < threadCount; t++) {
+            final IMap<Integer, Integer> map = (t % 2 == 0) ? map1 : map2;
+            final boolean writer = t < 2;
+            new Thread() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < 5000; i++) {
+                            final int key = i % keyCount;
+                            if (writer) {
+                                map.put(key, i);
+                            } else {
+                                map.get(key);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }.start();
+        }
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        assertNull(error.get());
+        for (int i = 0; i < keyCount; i++) {
+            map2.put(i, -i);
+        }
+        Thread.sleep(500);
+        for (int i = 0; i < keyCount; i++) {
+            assertEquals(Integer.valueOf(-i), map1.get(i));
+            assertEquals(Integer.valueOf(-i), map2.get(i));
+        }
+        assertTrue(map1.getLocalMapStats().getNearCacheEntryCount() <= 500);
+    }
+}
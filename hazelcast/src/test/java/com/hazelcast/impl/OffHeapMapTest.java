@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.config.MaxSizeConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.storage.Storage;
+import com.hazelcast.nio.IOUtil;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.impl.TestUtil.getCMap;
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class OffHeapMapTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Config newConfig(String mapName) {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_ELASTIC_MEMORY_TOTAL_SIZE, "16M");
+        config.setProperty(GroupProperties.PROP_ELASTIC_MEMORY_CHUNK_SIZE, "256");
+        config.getMapConfig(mapName).setStorageType(MapConfig.StorageType.OFFHEAP);
+        return config;
+    }
+
+    @Test
+    public void testHeapIsDefault() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        h1.getMap("default").put(1, 1);
+        CMap cmap = getCMap(h1, "default");
+        assertNull(cmap.getStorage());
+        assertTrue(cmap.getRecord(IOUtil.toData(1)) instanceof DefaultRecord);
+    }
+
+    @Test
+    public void testElasticMemoryDoesNotMakeMapsOffHeap() {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_ELASTIC_MEMORY_ENABLED, "true");
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        h1.getMap("default").put(1, 1);
+        assertNull(getCMap(h1, "default").getStorage());
+    }
+
+    @Test
+    public void testEachMapHasItsOwnStorage() {
+        Config config = newConfig("offheap1");
+        config.getMapConfig("offheap2").setStorageType(MapConfig.StorageType.OFFHEAP);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Integer> map1 = h1.getMap("offheap1");
+        IMap<Integer, Integer> map2 = h1.getMap("offheap2");
+        for (int i = 0; i < 100; i++) {
+            map1.put(i, i);
+        }
+        map2.put(1, 1);
+        Storage storage1 = getCMap(h1, "offheap1").getStorage();
+        Storage storage2 = getCMap(h1, "offheap2").getStorage();
+        assertNotSame(storage1, storage2);
+        assertEquals(100 * 256, storage1.getUsedSize());
+        assertEquals(256, storage2.getUsedSize());
+    }
+
+    @Test(timeout = 60000)
+    public void testPutFailsWhenStorageIsFull() {
+        Config config = newConfig("offheap");
+        config.setProperty(GroupProperties.PROP_ELASTIC_MEMORY_TOTAL_SIZE, "4K");
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, byte[]> map = h1.getMap("offheap");
+        // each value takes 4 of the 16 chunks
+        for (int i = 0; i < 4; i++) {
+            map.put(i, new byte[1000]);
+        }
+        try {
+            map.put(4, new byte[1000]);
+            fail("should have thrown exception");
+        } catch (RuntimeException expected) {
+        }
+        try {
+            map.set(4, new byte[1000], 0, TimeUnit.SECONDS);
+            fail("should have thrown exception");
+        } catch (RuntimeException expected) {
+        }
+        assertEquals(4, map.size());
+        assertFalse(map.containsKey(4));
+        map.remove(0);
+        map.put(4, new byte[1000]);
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig("offheap"));
+        IMap<Integer, String> map = h1.getMap("offheap");
+        for (int i = 0; i < 100; i++) {
+            assertNull(map.put(i, "value" + i));
+        }
+        CMap cmap = getCMap(h1, "offheap");
+        Storage storage = cmap.getStorage();
+        assertNotNull(storage);
+        assertTrue(cmap.getRecord(IOUtil.toData(1)) instanceof OffHeapRecord);
+        assertEquals(100 * 256, storage.getUsedSize());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, map.get(i));
+            assertEquals("value" + i, map.put(i, "new" + i));
+        }
+        assertEquals(100 * 256, storage.getUsedSize());
+        assertEquals("new7", map.get(7));
+        assertEquals("new7", map.remove(7));
+        assertNull(map.get(7));
+        assertEquals(99, map.size());
+        assertEquals(99 * 256, storage.getUsedSize());
+        map.destroy();
+        assertEquals(0, storage.getUsedSize());
+    }
+
+    @Test
+    public void testBackupAndMigration() throws Exception {
+        final int size = 1000;
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig("offheap"));
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig("offheap"));
+        IMap<Integer, Integer> map1 = h1.getMap("offheap");
+        for (int i = 0; i < size; i++) {
+            map1.put(i, i);
+        }
+        HazelcastInstance h3 = Hazelcast.newHazelcastInstance(newConfig("offheap"));
+        IMap<Integer, Integer> map3 = h3.getMap("offheap");
+        Thread.sleep(3000);
+        assertEquals(size, map3.size());
+        h1.getLifecycleService().shutdown();
+        IMap<Integer, Integer> map2 = h2.getMap("offheap");
+        for (int i = 0; i < 100 && map2.size() != size; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(size, map2.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(Integer.valueOf(i), map2.get(i));
+        }
+    }
+
+    @Test
+    public void testEvictionByUsedStorage() throws Exception {
+        Config config = newConfig("offheap");
+        config.getMapConfig("offheap").setEvictionPolicy("LRU").setEvictionPercentage(50)
+                .setMaxSizeConfig(new MaxSizeConfig().setSize(1).setMaxSizePolicy(MaxSizeConfig.POLICY_USED_HEAP_SIZE));
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, byte[]> map = h1.getMap("offheap");
+        Storage storage = getCMap(h1, "offheap").getStorage();
+        for (int i = 0; i < 3000; i++) {
+            map.put(i, new byte[1000]);
+        }
+        Thread.sleep(3000);
+        assertTrue(map.size() < 3000);
+        assertTrue(storage.getUsedSize() <= 1000 * 1000);
+    }
+
+    @Test
+    public void testWriteBehind() throws Exception {
+        MapStoreTest.TestMapStore mapStore = new MapStoreTest.TestMapStore();
+        Config config = newConfig("offheap");
+        config.getMapConfig("offheap").setMapStoreConfig(new MapStoreConfig()
+                .setImplementation(mapStore).setWriteDelaySeconds(1));
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, String> map = h1.getMap("offheap");
+        for (int i = 0; i < 10; i++) {
+            map.put(i, "value" + i);
+        }
+        Map store = mapStore.getStore();
+        for (int i = 0; i < 100 && store.size() < 10; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(10, store.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("value" + i, store.get(i));
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.*;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.impl.TestUtil.getNode;
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class PartitionThreadTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Config newConfig(int partitionThreadCount) {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_PARTITION_THREAD_COUNT, String.valueOf(partitionThreadCount));
+        return config;
+    }
+
+    @Test
+    public void testPartitionThreadingIsDisabledByDefault() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        assertFalse(getNode(h1).clusterService.isPartitionThreadingEnabled());
+        assertFalse(getNode(h1).concurrentMapManager.isPartitionThreadedMap("c:default"));
+    }
+
+    @Test
+    public void testInternalMapsStayOnServiceThread() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig(4));
+        ConcurrentMapManager concurrentMapManager = getNode(h1).concurrentMapManager;
+        assertTrue(getNode(h1).clusterService.isPartitionThreadingEnabled());
+        assertTrue(concurrentMapManager.isPartitionThreadedMap(Prefix.MAP + "default"));
+        assertTrue(concurrentMapManager.isPartitionThreadedMap(Prefix.MULTIMAP + "default"));
+        assertFalse(concurrentMapManager.isPartitionThreadedMap(Prefix.MAP_FOR_QUEUE + "default"));
+        assertFalse(concurrentMapManager.isPartitionThreadedMap(Prefix.MAP_HAZELCAST + "AtomicLongMap"));
+    }
+
+    @Test
+    public void testMapOperations() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig(4));
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig(4));
+        IMap<Integer, Integer> m1 = h1.getMap("testMapOperations");
+        IMap<Integer, Integer> m2 = h2.getMap("testMapOperations");
+        final int size = 1000;
+        for (int i = 0; i < size; i++) {
+            assertNull(m1.put(i, i));
+        }
+        assertEquals(size, m1.size());
+        assertEquals(size, m2.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(Integer.valueOf(i), m2.get(i));
+            assertTrue(m1.containsKey(i));
+        }
+        for (int i = 0; i < size; i++) {
+            assertEquals(Integer.valueOf(i), m2.put(i, i * 2));
+            assertEquals(Integer.valueOf(i * 2), m1.putIfAbsent(i, -1));
+            assertTrue(m1.replace(i, i * 2, i * 3));
+        }
+        for (int i = 0; i < size; i += 2) {
+            assertEquals(Integer.valueOf(i * 3), m2.remove(i));
+        }
+        assertEquals(size / 2, m1.size());
+        HazelcastInstance h3 = Hazelcast.newHazelcastInstance(newConfig(2));
+        IMap<Integer, Integer> m3 = h3.getMap("testMapOperations");
+        Thread.sleep(3000);
+        assertEquals(size / 2, m3.size());
+        for (int i = 1; i < size; i += 2) {
+            assertEquals(Integer.valueOf(i * 3), m3.get(i));
+        }
+        h1.getLifecycleService().shutdown();
+        Thread.sleep(2000);
+        assertEquals(size / 2, m2.size());
+        for (int i = 1; i < size; i += 2) {
+            assertEquals(Integer.valueOf(i * 3), m2.get(i));
+        }
+    }
+
+    @Test
+    public void testNearCacheInvalidation() throws Exception {
+        Config config = newConfig(4);
+        config.getMapConfig("default").setNearCacheConfig(new NearCacheConfig());
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Integer> m1 = h1.getMap("default");
+        IMap<Integer, Integer> m2 = h2.getMap("default");
+        final int size = 1000;
+        for (int i = 0; i < size; i++) {
+            m1.put(i, i);
+        }
+        for (int i = 0; i < size; i++) {
+            assertEquals(Integer.valueOf(i), m1.get(i));
+            assertEquals(Integer.valueOf(i), m2.get(i));
+        }
+        // near cache entries are invalidated by the partition threads of the owners
+        for (int i = 0; i < size; i++) {
+            m2.put(i, -i);
+        }
+        Thread.sleep(500);
+        for (int i = 0; i < size; i++) {
+            assertEquals(Integer.valueOf(-i), m1.get(i));
+            assertEquals(Integer.valueOf(-i), m2.get(i));
+        }
+    }
+
+    @Test
+    public void testMultiMapOperations() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig(4));
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig(4));
+        MultiMap<Integer, String> mm1 = h1.getMultiMap("testMultiMapOperations");
+        MultiMap<Integer, String> mm2 = h2.getMultiMap("testMultiMapOperations");
+        for (int i = 0; i < 100; i++) {
+            assertTrue(mm1.put(i, "a"));
+            assertTrue(mm2.put(i, "b"));
+            assertFalse(mm1.put(i, "b"));
+        }
+        for (int i = 0; i < 100; i++) {
+            Collection<String> values = mm2.get(i);
+            assertEquals(2, values.size());
+            assertTrue(values.contains("a"));
+            assertTrue(mm1.remove(i, "a"));
+            assertEquals(1, mm1.valueCount(i));
+        }
+    }
+
+    @Test
+    public void testLockWaitersAreNotified() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig(4));
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig(4));
+        final IMap<Integer, Integer> m1 = h1.getMap("testLockWaitersAreNotified");
+        final IMap<Integer, Integer> m2 = h2.getMap("testLockWaitersAreNotified");
+        final int keys = 50;
+        for (int i = 0; i < keys; i++) {
+            m1.lock(i);
+        }
+        final CountDownLatch latch = new CountDownLatch(keys);
+        for (int i = 0; i < keys; i++) {
+            final int key = i;
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        if (m2.tryLock(key, 10, TimeUnit.SECONDS)) {
+                            m2.put(key, key);
+                            m2.unlock(key);
+                            latch.countDown();
+                        }
+                    } catch (Throwable e) {
+                        e.printStackTrace();
+                    }
+                }
+            }).start();
+        }
+        Thread.sleep(500);
+        assertEquals(keys, latch.getCount());
+        for (int i = 0; i < keys; i++) {
+            m1.unlock(i);
+        }
+        assertTrue(latch.await(20, TimeUnit.SECONDS));
+        for (int i = 0; i < keys; i++) {
+            assertEquals(Integer.valueOf(i), m1.get(i));
+        }
+    }
+
+    @Test
+    public void testEntryListeners() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig(4));
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig(4));
+        IMap<Integer, Integer> m1 = h1.getMap("testEntryListeners");
+        IMap<Integer, Integer> m2 = h2.getMap("testEntryListeners");
+        final int size = 100;
+        final CountDownLatch added = new CountDownLatch(size);
+        final CountDownLatch keyUpdated = new CountDownLatch(1);
+        m1.addEntryListener(new EntryAdapter<Integer, Integer>() {
+            @Override
+            public void entryAdded(EntryEvent<Integer, Integer> event) {
+                added.countDown();
+            }
+        }, true);
+        m2.addEntryListener(new EntryAdapter<Integer, Integer>() {
+            @Override
+            public void entryUpdated(EntryEvent<Integer, Integer> event) {
+                keyUpdated.countDown();
+            }
+        }, 7, true);
+        for (int i = 0; i < size; i++) {
+            m2.put(i, i);
+        }
+        assertTrue(added.await(10, TimeUnit.SECONDS));
+        Thread.sleep(500);
+        m1.put(7, 77);
+        assertTrue(keyUpdated.await(10, TimeUnit.SECONDS));
+    }
+}
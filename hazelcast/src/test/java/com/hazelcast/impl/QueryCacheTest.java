@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.QueryCache;
+import com.hazelcast.impl.TestUtil.Employee;
+import com.hazelcast.monitor.LocalQueryCacheStats;
+import com.hazelcast.query.SqlPredicate;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class QueryCacheTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static void assertSizeEventually(int expected, QueryCache cache) throws InterruptedException {
+        for (int i = 0; i < 50 && cache.size() != expected; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(expected, cache.size());
+    }
+
+    @Test
+    public void testLoadAndUpdates() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map1 = h1.getMap("employees");
+        IMap<Integer, Employee> map2 = h2.getMap("employees");
+        for (int i = 0; i < 100; i++) {
+            map1.put(i, new Employee("name" + i, i, true, i));
+        }
+        QueryCache<Integer, Employee> cache = map1.getQueryCache(new SqlPredicate("age >= 50"));
+        assertEquals("employees", cache.getName());
+        assertEquals(50, cache.size());
+        assertEquals(50, cache.get(50).getAge());
+        assertNull(cache.get(49));
+        // into the predicate
+        for (int i = 0; i < 10; i++) {
+            map2.put(i, new Employee("name" + i, 100 + i, true, i));
+        }
+        assertSizeEventually(60, cache);
+        assertEquals(105, cache.get(5).getAge());
+        // out of the predicate
+        for (int i = 90; i < 100; i++) {
+            map2.put(i, new Employee("name" + i, 1, true, i));
+        }
+        assertSizeEventually(50, cache);
+        assertFalse(cache.containsKey(95));
+        // removed and not matching entries
+        for (int i = 50; i < 60; i++) {
+            map2.remove(i);
+        }
+        map2.put(1000, new Employee("name", 10, true, 1));
+        assertSizeEventually(40, cache);
+        assertFalse(cache.containsKey(1000));
+        for (Employee employee : cache.values()) {
+            assertTrue(employee.getAge() >= 50);
+        }
+        assertEquals(new HashSet<Integer>(map1.keySet(new SqlPredicate("age >= 50"))), cache.keySet());
+    }
+
+    @Test
+    public void testIndexedQuery() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h2.getMap("employees");
+        for (int i = 0; i < 200; i++) {
+            map.put(i, new Employee("name" + i, i, i % 2 == 0, i));
+        }
+        QueryCache<Integer, Employee> cache = h1.<Integer, Employee>getMap("employees").getQueryCache(new SqlPredicate("active"));
+        assertEquals(100, cache.size());
+        cache.addIndex("age", true);
+        Collection<Employee> values = cache.values(new SqlPredicate("age < 20"));
+        assertEquals(10, values.size());
+        for (Employee employee : values) {
+            assertTrue(employee.isActive() && employee.getAge() < 20);
+        }
+        // updates are indexed
+        map.put(0, new Employee("name0", 500, true, 0));
+        map.put(2, new Employee("name2", 2, false, 2));
+        map.put(1, new Employee("name1", 1, true, 1));
+        assertSizeEventually(100, cache);
+        Thread.sleep(500);
+        assertEquals(9, cache.keySet(new SqlPredicate("age < 20")).size());
+        assertTrue(cache.keySet(new SqlPredicate("age < 20")).contains(1));
+        assertFalse(cache.keySet(new SqlPredicate("age < 20")).contains(2));
+        assertEquals(1, cache.entrySet(new SqlPredicate("age = 500")).size());
+    }
+
+    @Test
+    public void testStatsAndDestroy() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h2.getMap("employees");
+        QueryCache<Integer, Employee> cache = h1.<Integer, Employee>getMap("employees").getQueryCache(new SqlPredicate("age > 10"));
+        assertTrue(cache.isEmpty());
+        for (int i = 0; i < 20; i++) {
+            map.put(i, new Employee("name" + i, i, true, i));
+        }
+        assertSizeEventually(9, cache);
+        LocalQueryCacheStats stats = cache.getLocalQueryCacheStats();
+        assertEquals(9, stats.getEntryCount());
+        assertTrue(stats.getEventCount() >= 9);
+        assertTrue(stats.getLastUpdateTime() >= stats.getCreationTime());
+        assertTrue(stats.getMaxEventLagMillis() >= stats.getAverageEventLagMillis());
+        cache.destroy();
+        assertTrue(cache.isEmpty());
+        map.put(100, new Employee("name", 100, true, 1));
+        Thread.sleep(500);
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullPredicate() {
+        Hazelcast.newHazelcastInstance(new Config()).getMap("employees").getQueryCache(null);
+    }
+}
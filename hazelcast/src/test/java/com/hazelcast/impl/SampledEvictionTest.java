@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MaxSizeConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.impl.TestUtil.getCMap;
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class SampledEvictionTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    private static Config newConfig(String mapName, String evictionPolicy, int maxSize) {
+        Config config = new Config();
+        config.getMapConfig(mapName).setEvictionPolicy(evictionPolicy).setEvictionPercentage(25)
+                .setEvictionSampleSize(5)
+                .setMaxSizeConfig(new MaxSizeConfig().setSize(maxSize).setMaxSizePolicy(MaxSizeConfig.POLICY_MAP_SIZE_PER_JVM));
+        return config;
+    }
+
+    @Test
+    public void testSamplerFollowsRecords() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig("sampled", "LRU", 0));
+        IMap<Integer, Integer> map = h1.getMap("sampled");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        CMap cmap = getCMap(h1, "sampled");
+        assertNotNull(cmap.recordSampler);
+        assertNull(cmap.frequencySketch);
+        assertEquals(1000, cmap.recordSampler.size());
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, -i);
+        }
+        assertEquals(1000, cmap.recordSampler.size());
+        map.clear();
+        map.destroy();
+        assertEquals(0, cmap.recordSampler.size());
+    }
+
+    @Test
+    public void testSortedIsDefault() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        h1.getMap("default").put(1, 1);
+        CMap cmap = getCMap(h1, "default");
+        assertNull(cmap.recordSampler);
+        assertFalse(cmap.isSampledEviction());
+    }
+
+    @Test
+    public void testEvictPercentage() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig("sampled", "LRU", 0));
+        IMap<Integer, Integer> map = h1.getMap("sampled");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        CMap cmap = getCMap(h1, "sampled");
+        cmap.evict(25);
+        for (int i = 0; i < 100 && map.size() > 750; i++) {
+            sleep(50);
+        }
+        assertEquals(750, map.size());
+    }
+
+    @Test
+    public void testMaxSizeLRU() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig("sampled", "LRU", 1000));
+        IMap<Integer, Integer> map = h1.getMap("sampled");
+        for (int i = 0; i < 3000; i++) {
+            map.put(i, i);
+        }
+        Thread.sleep(3000);
+        assertTrue(map.size() <= 1000);
+        assertTrue(map.size() > 0);
+    }
+
+    @Test
+    public void testLFUKeepsHotEntries() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig("sampled", "LFU", 1000));
+        IMap<Integer, Integer> map = h1.getMap("sampled");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        CMap cmap = getCMap(h1, "sampled");
+        assertNotNull(cmap.frequencySketch);
+        for (int j = 0; j < 10; j++) {
+            for (int i = 0; i < 50; i++) {
+                map.get(i);
+            }
+        }
+        cmap.evict(50);
+        for (int i = 0; i < 100 && map.size() > 500; i++) {
+            sleep(50);
+        }
+        assertEquals(500, map.size());
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (map.containsKey(i)) {
+                hot++;
+            }
+        }
+        assertTrue("hot entries evicted: " + (50 - hot), hot >= 45);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.DefaultRecord;
+import com.hazelcast.impl.Record;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.hazelcast.nio.IOUtil.toData;
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class EvictionPoolTest {
+
+    private static Record newRecord(int id) {
+        return new DefaultRecord(null, 0, toData(id), toData(id), 0, 0, id);
+    }
+
+    @Test
+    public void testLowestScoreFirst() {
+        EvictionPool pool = new EvictionPool(4);
+        Record[] records = new Record[10];
+        for (int i = 0; i < 10; i++) {
+            records[i] = newRecord(i);
+        }
+        for (int i = 9; i >= 0; i--) {
+            pool.offer(records[i], i);
+        }
+        pool.offer(records[0], 0);
+        assertEquals(4, pool.size());
+        for (int i = 0; i < 4; i++) {
+            assertSame(records[i], pool.poll());
+        }
+        assertNull(pool.poll());
+    }
+
+    @Test
+    public void testSampler() {
+        RecordSampler sampler = new RecordSampler();
+        Record[] records = new Record[100];
+        for (int i = 0; i < 100; i++) {
+            records[i] = newRecord(i);
+            sampler.add(records[i]);
+        }
+        assertEquals(100, sampler.size());
+        for (int i = 0; i < 100; i += 2) {
+            sampler.remove(records[i]);
+        }
+        assertEquals(50, sampler.size());
+        Random random = new Random();
+        for (int i = 0; i < 1000; i++) {
+            Record record = sampler.sample(random);
+            assertEquals(1, record.getId() % 2);
+        }
+        sampler.clear();
+        assertEquals(0, sampler.size());
+        assertNull(sampler.sample(random));
+        assertEquals(-1, records[1].getSamplingIndex());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class FrequencySketchTest {
+
+    @Test
+    public void testFrequency() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("hot".hashCode());
+        }
+        sketch.increment("cold".hashCode());
+        assertEquals(10, sketch.frequency("hot".hashCode()));
+        assertEquals(1, sketch.frequency("cold".hashCode()));
+        assertEquals(0, sketch.frequency("none".hashCode()));
+    }
+
+    @Test
+    public void testFrequencyIsLimited() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(7);
+        }
+        assertEquals(15, sketch.frequency(7));
+    }
+
+    @Test
+    public void testAging() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment(7);
+        }
+        boolean agingDue = false;
+        for (int i = 0; i < 1000; i++) {
+            if (sketch.increment(i * 31)) {
+                assertFalse("aging is claimed once", agingDue);
+                agingDue = true;
+            }
+        }
+        assertTrue(agingDue);
+        assertEquals(15, sketch.frequency(7));
+        sketch.age();
+        assertTrue(sketch.frequency(7) < 15);
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws Exception {
+        final FrequencySketch sketch = new FrequencySketch(4096);
+        final int threadCount = 8;
+        final int keyCount = 1000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int firstKey = t * keyCount;
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 3; i++) {
+                        for (int key = firstKey; key < firstKey + keyCount; key++) {
+                            sketch.increment(key);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // count-min only overestimates, a lower frequency means a lost increment
+        for (int key = 0; key < threadCount * keyCount; key++) {
+            assertTrue(sketch.frequency(key) >= 3);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.DefaultRecord;
+import com.hazelcast.impl.Record;
+import com.hazelcast.nio.Data;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.nio.IOUtil.toData;
+
+/**
+ * Compares a single ConcurrentHashMap of records with the PartitionedRecordMap for collecting
+ * the records of a migrating partition and for the ownership pass of the map cleanup,
+ * where this member owns half of the partitions.
+ * Entry count can be set by -DentryCount (default 1000000, 10000000 needs about -Xmx4g).
+ */
+public class PartitionedRecordMapPerformance {
+
+    private static final int ENTRY_COUNT = Integer.getInteger("entryCount", 1000000);
+    private static final int PARTITION_COUNT = 271;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void testSingleMap() {
+        ConcurrentMap<Data, Record> records = new ConcurrentHashMap<Data, Record>(10000, 0.75f, 1);
+        fill(records);
+        final boolean[] owned = owned();
+        for (int round = 0; round < ROUNDS; round++) {
+            final int partitionId = round % PARTITION_COUNT;
+            long start = System.nanoTime();
+            final List<Record> migrating = new ArrayList<Record>();
+            for (Record record : records.values()) {
+                if (record.getBlockId() == partitionId) {
+                    migrating.add(record);
+                }
+            }
+            final long migrationNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            int unknown = 0;
+            for (Record record : records.values()) {
+                if (!owned[record.getBlockId()]) {
+                    unknown++;
+                }
+            }
+            print("single map", migrating.size(), migrationNanos, unknown, System.nanoTime() - start);
+        }
+    }
+
+    @Test
+    public void testPartitionedMap() {
+        PartitionedRecordMap records = new PartitionedRecordMap(PARTITION_COUNT);
+        fill(records);
+        final boolean[] owned = owned();
+        for (int round = 0; round < ROUNDS; round++) {
+            final int partitionId = round % PARTITION_COUNT;
+            long start = System.nanoTime();
+            final List<Record> migrating = new ArrayList<Record>();
+            for (Record record : records.getPartition(partitionId).values()) {
+                migrating.add(record);
+            }
+            final long migrationNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            int unknown = 0;
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                final Collection<Record> partition = records.getPartition(i).values();
+                if (!owned[i]) {
+                    unknown += partition.size();
+                }
+            }
+            print("partitioned map", migrating.size(), migrationNanos, unknown, System.nanoTime() - start);
+        }
+    }
+
+    private static void fill(ConcurrentMap<Data, Record> records) {
+        final PartitionedRecordMap router = new PartitionedRecordMap(PARTITION_COUNT);
+        final long start = System.nanoTime();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Data key = toData(i);
+            records.put(key, new DefaultRecord(null, router.getPartitionId(key), key, toData(i), 0, 0, i));
+        }
+        System.out.println("entries:" + ENTRY_COUNT + ", fill ms:" + (System.nanoTime() - start) / 1000000);
+    }
+
+    private static boolean[] owned() {
+        final boolean[] owned = new boolean[PARTITION_COUNT];
+        final Random random = new Random(PARTITION_COUNT);
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            owned[i] = random.nextBoolean();
+        }
+        return owned;
+    }
+
+    private static void print(String type, int migrating, long migrationNanos, int unknown, long cleanupNanos) {
+        System.out.println(type + ", migrating records:" + migrating
+                + ", collect ms:" + (migrationNanos / 1000000.0)
+                + ", unknown records:" + unknown
+                + ", cleanup scan ms:" + (cleanupNanos / 1000000.0));
+    }
+}
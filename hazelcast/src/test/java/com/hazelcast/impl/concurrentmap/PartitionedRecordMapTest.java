@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.DefaultRecord;
+import com.hazelcast.impl.Record;
+import com.hazelcast.nio.Data;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.nio.IOUtil.toData;
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class PartitionedRecordMapTest {
+
+    private static final int PARTITION_COUNT = 271;
+
+    private static Record newRecord(PartitionedRecordMap map, int id) {
+        Data key = toData(id);
+        return new DefaultRecord(null, map.getPartitionId(key), key, toData(id), 0, 0, id);
+    }
+
+    @Test
+    public void testRecordsAreKeptInTheirPartition() {
+        PartitionedRecordMap map = new PartitionedRecordMap(PARTITION_COUNT);
+        for (int i = 0; i < 1000; i++) {
+            Record record = newRecord(map, i);
+            assertNull(map.put(record.getKeyData(), record));
+        }
+        assertEquals(1000, map.size());
+        int total = 0;
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            for (Record record : map.getPartition(partitionId).values()) {
+                assertEquals(partitionId, record.getBlockId());
+                total++;
+            }
+        }
+        assertEquals(1000, total);
+        for (int i = 0; i < 1000; i++) {
+            Record record = map.get(toData(i));
+            assertNotNull(record);
+            assertEquals(i, record.getId());
+            assertTrue(map.containsKey(toData(i)));
+        }
+        assertNull(map.get("not data"));
+        assertFalse(map.containsKey(toData(1000)));
+        assertEquals(0, map.remove(toData(0)).getId());
+        assertNull(map.remove(toData(0)));
+        assertEquals(999, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testIterators() {
+        PartitionedRecordMap map = new PartitionedRecordMap(PARTITION_COUNT);
+        assertFalse(map.values().iterator().hasNext());
+        for (int i = 0; i < 500; i++) {
+            Record record = newRecord(map, i);
+            map.put(record.getKeyData(), record);
+        }
+        Set<Long> ids = new HashSet<Long>();
+        for (Record record : map.values()) {
+            assertTrue(ids.add(record.getId()));
+        }
+        assertEquals(500, ids.size());
+        assertEquals(500, map.entrySet().size());
+        Iterator<Map.Entry<Data, Record>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Data, Record> entry = it.next();
+            assertEquals(entry.getKey(), entry.getValue().getKeyData());
+            if (entry.getValue().getId() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(250, map.size());
+        for (Record record : map.values()) {
+            assertEquals(1, record.getId() % 2);
+        }
+        assertEquals(250, map.keySet().size());
+    }
+
+    @Test
+    public void testConditionalOperations() {
+        PartitionedRecordMap map = new PartitionedRecordMap(PARTITION_COUNT);
+        Record first = newRecord(map, 1);
+        Data key = first.getKeyData();
+        Record second = new DefaultRecord(null, first.getBlockId(), key, toData(2), 0, 0, 2);
+        assertNull(map.putIfAbsent(key, first));
+        assertSame(first, map.putIfAbsent(key, second));
+        assertFalse(map.replace(key, second, first));
+        assertTrue(map.replace(key, first, second));
+        assertSame(second, map.replace(key, first));
+        assertFalse(map.remove(key, second));
+        assertTrue(map.remove(key, first));
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.concurrentmap;
+
+import com.hazelcast.impl.Record;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.hazelcast.impl.TestUtil.newRecord;
+import static com.hazelcast.nio.IOUtil.toData;
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class WriteBehindQueueTest {
+
+    @Test
+    public void testPollInStoreTimeOrder() {
+        WriteBehindQueue queue = new WriteBehindQueue();
+        Record retried = newRecord(1, "retried", "value");
+        Record first = newRecord(2, "first", "value");
+        Record second = newRecord(3, "second", "value");
+        // queued again after a failed store, with a backoff
+        queue.offer(retried, 1000);
+        queue.offer(first, 100);
+        queue.offer(second, 100);
+        assertEquals(Arrays.asList(first, second), queue.poll(500, 10));
+        assertNull(queue.poll(500, 10));
+        assertEquals(Arrays.asList(retried), queue.poll(1000, 10));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testCoalesceKeepsFirstStoreTime() {
+        WriteBehindQueue queue = new WriteBehindQueue();
+        Record record = newRecord(1, "key", "value1");
+        Record updated = newRecord(1, "key", "value2");
+        queue.offer(record, 100);
+        queue.offer(updated, 200);
+        assertEquals(1, queue.size());
+        List<Record> records = queue.poll(100, 10);
+        assertEquals(Arrays.asList(updated), records);
+    }
+
+    @Test
+    public void testRemove() {
+        WriteBehindQueue queue = new WriteBehindQueue();
+        queue.offer(newRecord(1, "key1", "value"), 100);
+        queue.offer(newRecord(2, "key2", "value"), 200);
+        assertTrue(queue.contains(toData("key1")));
+        assertNotNull(queue.remove(toData("key1")));
+        assertFalse(queue.contains(toData("key1")));
+        // updated after the stored version
+        queue.removeStored(toData("key2"), -1);
+        assertEquals(1, queue.poll(200, 10).size());
+        assertEquals(0, queue.size());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.impl.storage;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class OffHeapStorageTest {
+
+    @Test
+    public void testPutGet() {
+        OffHeapStorage storage = new OffHeapStorage(1024 * 1024, 64);
+        Random random = new Random();
+        List<byte[]> values = new ArrayList<byte[]>();
+        List<DataRef> refs = new ArrayList<DataRef>();
+        for (int i = 0; i < 100; i++) {
+            byte[] value = new byte[random.nextInt(1000)];
+            random.nextBytes(value);
+            values.add(value);
+            refs.add(storage.put(value));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(Arrays.equals(values.get(i), storage.get(refs.get(i))));
+        }
+    }
+
+    @Test
+    public void testEmptyValue() {
+        OffHeapStorage storage = new OffHeapStorage(1024, 64);
+        DataRef ref = storage.put(new byte[0]);
+        assertEquals(0, ref.size());
+        assertEquals(0, storage.get(ref).length);
+        assertEquals(64, storage.getUsedSize());
+    }
+
+    @Test
+    public void testChunksAreReused() {
+        OffHeapStorage storage = new OffHeapStorage(64 * 10, 64);
+        DataRef ref1 = storage.put(new byte[64 * 5]);
+        DataRef ref2 = storage.put(new byte[64 * 5]);
+        assertEquals(5, ref1.getChunkCount());
+        assertEquals(storage.getTotalSize(), storage.getUsedSize());
+        storage.remove(ref1);
+        assertEquals(64 * 5, storage.getUsedSize());
+        byte[] value = new byte[64 * 4 + 1];
+        Arrays.fill(value, (byte) 7);
+        DataRef ref3 = storage.put(value);
+        assertEquals(5, ref3.getChunkCount());
+        assertTrue(Arrays.equals(value, storage.get(ref3)));
+        storage.remove(ref2);
+        storage.remove(ref3);
+        assertEquals(0, storage.getUsedSize());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStorageFull() {
+        OffHeapStorage storage = new OffHeapStorage(64 * 10, 64);
+        storage.put(new byte[64 * 8]);
+        storage.put(new byte[64 * 3]);
+    }
+
+    @Test
+    public void testValuesSpanningSlabs() {
+        OffHeapStorage storage = new OffHeapStorage(64L * 1024 * 1024, 1024 * 1024);
+        byte[] value = new byte[20 * 1024 * 1024];
+        new Random().nextBytes(value);
+        DataRef ref = storage.put(value);
+        assertEquals(20, ref.getChunkCount());
+        assertTrue(Arrays.equals(value, storage.get(ref)));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.impl.Util;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Compares the FNV and the MurmurHash3 hashes of 100 byte and 2 KB keys, and measures
+ * map gets on those keys with the hash selected by -Dhazelcast.data.hash (default murmur3).
+ * Each measure is done in a few rounds, the first ones warm up the JIT.
+ */
+public class DataHashPerformance {
+
+    private static final int ROUNDS = 3;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testHash100B() {
+        hash(100, 10000000);
+    }
+
+    @Test
+    public void testHash2KB() {
+        hash(2048, 500000);
+    }
+
+    @Test
+    public void testGet100B() {
+        get(100, 1000000);
+    }
+
+    @Test
+    public void testGet2KB() {
+        get(2048, 1000000);
+    }
+
+    private static void hash(int keySize, int count) {
+        byte[] key = new byte[keySize];
+        Arrays.fill(key, (byte) 'k');
+        int h = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                key[i % keySize]++;
+                h += Util.fnvHash(key);
+            }
+            long fnvNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                key[i % keySize]++;
+                h += Util.murmurHash3(key, 0);
+            }
+            long murmurNanos = System.nanoTime() - start;
+            System.out.println("key bytes:" + keySize
+                    + ", fnv hashes/s:" + (count * 1000000000L / fnvNanos)
+                    + ", murmur3 hashes/s:" + (count * 1000000000L / murmurNanos) + " (" + h + ")");
+        }
+    }
+
+    private static void get(int keySize, int count) {
+        HazelcastInstance h = Hazelcast.newHazelcastInstance(null);
+        IMap<String, Integer> map = h.getMap("default");
+        String[] keys = new String[1000];
+        for (int i = 0; i < keys.length; i++) {
+            char[] chars = new char[keySize];
+            Arrays.fill(chars, 'k');
+            String number = String.valueOf(i);
+            number.getChars(0, number.length(), chars, 0);
+            keys[i] = new String(chars);
+            map.put(keys[i], i);
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                map.get(keys[i % keys.length]);
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.println(GroupProperties.DATA_HASH.getValue() + " hash, key chars:" + keySize
+                    + ", gets/s:" + (count * 1000000000L / nanos));
+        }
+    }
+}
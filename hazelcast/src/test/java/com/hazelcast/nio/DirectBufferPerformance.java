@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of map puts between two members with heap socket buffers
+ * and with direct socket buffers (gathering writes of big keys and values), for 1 KB
+ * and 1 MB values. The puts are done by the first member on keys owned by the second,
+ * so every value is sent over the socket. Each mode is measured in a few rounds,
+ * the first ones warm up the JIT.
+ * Thread count can be set by -DthreadCount (default 4).
+ */
+public class DirectBufferPerformance {
+
+    private static final int THREAD_COUNT = Integer.getInteger("threadCount", 4);
+    private static final int ROUNDS = 3;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testHeapBuffers1KB() throws Exception {
+        run(false, 1024, 100000);
+    }
+
+    @Test
+    public void testDirectBuffers1KB() throws Exception {
+        run(true, 1024, 100000);
+    }
+
+    @Test
+    public void testHeapBuffers1MB() throws Exception {
+        run(false, 1024 * 1024, 1000);
+    }
+
+    @Test
+    public void testDirectBuffers1MB() throws Exception {
+        run(true, 1024 * 1024, 1000);
+    }
+
+    private static void run(boolean direct, int valueSize, int putCount) throws Exception {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_SOCKET_DIRECT_BUFFER, String.valueOf(direct));
+        config.getMapConfig("default").setBackupCount(0);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        final IMap<Integer, byte[]> map = h1.getMap("default");
+        // values are overwritten, at most 64 MB are kept in the map
+        final Integer[] keys = remoteKeys(h1, h2, Math.min(1000, 64 * 1024 * 1024 / valueSize));
+        final byte[] value = new byte[valueSize];
+        for (int round = 0; round < ROUNDS; round++) {
+            final int putsPerThread = putCount / THREAD_COUNT;
+            final CountDownLatch latch = new CountDownLatch(THREAD_COUNT);
+            long start = System.nanoTime();
+            for (int t = 0; t < THREAD_COUNT; t++) {
+                final int offset = t;
+                new Thread() {
+                    public void run() {
+                        try {
+                            for (int i = 0; i < putsPerThread; i++) {
+                                map.set(keys[(offset + i * THREAD_COUNT) % keys.length], value, 0, TimeUnit.SECONDS);
+                            }
+                        } finally {
+                            latch.countDown();
+                        }
+                    }
+                }.start();
+            }
+            latch.await();
+            long nanos = System.nanoTime() - start;
+            long puts = (long) putsPerThread * THREAD_COUNT;
+            System.out.println((direct ? "direct" : "heap") + " buffers, value bytes:" + valueSize
+                    + ", threads:" + THREAD_COUNT
+                    + ", puts/s:" + (puts * 1000000000L / nanos)
+                    + ", MB/s:" + (puts * valueSize * 1000L / nanos));
+        }
+    }
+
+    private static Integer[] remoteKeys(HazelcastInstance h1, HazelcastInstance h2, int count) {
+        List<Integer> keys = new ArrayList<Integer>(count);
+        for (int i = 0; keys.size() < count; i++) {
+            if (h1.getPartitionService().getPartition(i).getOwner().equals(h2.getCluster().getLocalMember())) {
+                keys.add(i);
+            }
+        }
+        return keys.toArray(new Integer[count]);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.SymmetricEncryptionConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.impl.GroupProperties;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class DirectBufferTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testDirectBufferPool() {
+        DirectBufferPool pool = new DirectBufferPool(2);
+        ByteBuffer b1 = pool.take(1024);
+        ByteBuffer b2 = pool.take(1024);
+        ByteBuffer b3 = pool.take(1024);
+        ByteBuffer b4 = pool.take(2048);
+        assertTrue(b1.isDirect());
+        assertEquals(2048, b4.capacity());
+        b1.putInt(1);
+        pool.release(b1);
+        pool.release(b2);
+        pool.release(b3);
+        pool.release(ByteBuffer.allocate(1024));
+        assertEquals(2, pool.size());
+        ByteBuffer reused = pool.take(1024);
+        assertTrue(reused == b1 || reused == b2);
+        assertEquals(0, reused.position());
+        assertEquals(1024, reused.remaining());
+        assertNotSame(b1, pool.take(2048));
+        assertEquals(1, pool.size());
+    }
+
+    @Test(timeout = 120000)
+    public void testDirectBuffers() throws Exception {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_SOCKET_DIRECT_BUFFER, "true");
+        putAndGet(config);
+    }
+
+    @Test(timeout = 120000)
+    public void testDirectBuffersWithSymmetricEncryption() throws Exception {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_SOCKET_DIRECT_BUFFER, "true");
+        SymmetricEncryptionConfig encryptionConfig = new SymmetricEncryptionConfig();
+        encryptionConfig.setEnabled(true);
+        config.getNetworkConfig().setSymmetricEncryptionConfig(encryptionConfig);
+        putAndGet(config);
+    }
+
+    /**
+     * Values are both smaller and bigger than the gathering write threshold
+     * and the socket buffers, and are put and read by both members.
+     */
+    private static void putAndGet(Config config) {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, byte[]> map1 = h1.getMap("default");
+        IMap<Integer, byte[]> map2 = h2.getMap("default");
+        int[] sizes = {1, 1000, 10000, 40000, 100000, 1000000, 3000000};
+        for (int i = 0; i < 40; i++) {
+            int size = sizes[i % sizes.length];
+            IMap<Integer, byte[]> map = (i % 2 == 0) ? map1 : map2;
+            map.put(i, newValue(i, size));
+        }
+        assertEquals(40, map1.size());
+        for (int i = 0; i < 40; i++) {
+            int size = sizes[i % sizes.length];
+            IMap<Integer, byte[]> map = (i % 2 == 0) ? map2 : map1;
+            assertTrue("value of " + i, Arrays.equals(newValue(i, size), map.get(i)));
+        }
+    }
+
+    private static byte[] newValue(int seed, int size) {
+        byte[] value = new byte[size];
+        for (int i = 0; i < size; i++) {
+            value[i] = (byte) (seed + i);
+        }
+        return value;
+    }
+}
@@ -16,13 +16,16 @@
 
 package com.hazelcast.nio;
 
+import com.hazelcast.impl.ClusterOperation;
 import com.hazelcast.impl.FactoryImpl;
 import com.hazelcast.impl.FactoryImpl.ProxyKey;
+import com.hazelcast.impl.Util;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.io.*;
-import java.util.Date;
+import java.nio.ByteBuffer;
+import java.util.*;
 
 import static com.hazelcast.nio.IOUtil.toData;
 import static com.hazelcast.nio.IOUtil.toObject;
@@ -51,6 +54,133 @@ public class SerializationTest {
         assertEquals(5L, toObject(five));
     }
 
+    @Test
+    public void testMurmurHash3() {
+        assertEquals(0, Util.murmurHash3(new byte[0], 0));
+        assertEquals(0x248bfa47, Util.murmurHash3("hello".getBytes(), 0));
+        assertEquals(0x2e4ff723, Util.murmurHash3("The quick brown fox jumps over the lazy dog".getBytes(), 0));
+    }
+
+    @Test
+    public void testDataHashSentInPacketHeader() {
+        Data key = toData("key");
+        Data value = toData("value");
+        Packet packet = new Packet();
+        packet.set("map", ClusterOperation.CONCURRENT_MAP_PUT, key, value);
+        packet.onEnqueue();
+        ByteBuffer bb = ByteBuffer.allocate(1024);
+        assertTrue(packet.writeToSocketBuffer(bb));
+        bb.flip();
+        Packet received = new Packet();
+        assertTrue(received.read(bb));
+        received.flipBuffers();
+        received.read();
+        Data receivedKey = received.getKeyData();
+        assertEquals(key.hashCode(), receivedKey.hash);
+        assertEquals(key.getPartitionHash(), receivedKey.getPartitionHash());
+        assertEquals(key, receivedKey);
+        assertEquals(value, received.getValueData());
+    }
+
+    @Test
+    public void testRegisteredDataSerializable() {
+        final Serializer serializer = new Serializer();
+        final DataSerializableImpl o = new DataSerializableImpl();
+        o.v = 5;
+        o.s = "s";
+        final int classNameSize = serializer.writeObject(o).size();
+        DefaultSerializer.registerDataSerializable(1001, RegisteredDataSerializable.class, new DataSerializableFactory() {
+            public DataSerializable create() {
+                return new RegisteredDataSerializable();
+            }
+        });
+        final RegisteredDataSerializable registered = new RegisteredDataSerializable();
+        registered.v = 5;
+        registered.s = "s";
+        final Data data = serializer.writeObject(registered);
+        assertTrue(data.size() < classNameSize);
+        final RegisteredDataSerializable read = (RegisteredDataSerializable) serializer.readObject(data);
+        assertEquals(5, read.v);
+        assertEquals("s", read.s);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisteredTypeIdConflict() {
+        final DataSerializableFactory factory = new DataSerializableFactory() {
+            public DataSerializable create() {
+                return new RegisteredDataSerializable();
+            }
+        };
+        DefaultSerializer.registerDataSerializable(1002, RegisteredDataSerializable.class, factory);
+        DefaultSerializer.registerDataSerializable(1002, DataSerializableImpl.class, new DataSerializableFactory() {
+            public DataSerializable create() {
+                return new DataSerializableImpl();
+            }
+        });
+    }
+
+    @Test
+    public void testJdkTypes() {
+        final Serializer serializer = new Serializer();
+        final Object[] objects = {1.5d, 2.5f, (short) 3, (byte) 4, 'c', UUID.randomUUID()};
+        for (Object o : objects) {
+            assertEquals(o, serializer.readObject(serializer.writeObject(o)));
+        }
+        assertArrayEquals(new int[]{1, 2}, (int[]) serializer.readObject(serializer.writeObject(new int[]{1, 2})));
+        assertArrayEquals(new long[]{1, 2}, (long[]) serializer.readObject(serializer.writeObject(new long[]{1, 2})));
+        assertArrayEquals(new char[]{'a'}, (char[]) serializer.readObject(serializer.writeObject(new char[]{'a'})));
+        assertArrayEquals(new short[]{1}, (short[]) serializer.readObject(serializer.writeObject(new short[]{1})));
+        assertTrue(Arrays.equals(new double[]{1.5}, (double[]) serializer.readObject(serializer.writeObject(new double[]{1.5}))));
+        assertTrue(Arrays.equals(new boolean[]{true, false},
+                (boolean[]) serializer.readObject(serializer.writeObject(new boolean[]{true, false}))));
+    }
+
+    @Test
+    public void testCollections() {
+        final Serializer serializer = new Serializer();
+        final List<Object> list = new ArrayList<Object>(Arrays.asList(1, "a", null, 2L));
+        final Set<Object> set = new LinkedHashSet<Object>(list);
+        final Map<Object, Object> map = new HashMap<Object, Object>();
+        map.put("list", list);
+        map.put("set", set);
+        map.put(null, new LinkedList<Object>(list));
+        final Object read = serializer.readObject(serializer.writeObject(map));
+        assertEquals(HashMap.class, read.getClass());
+        assertEquals(map, read);
+        assertEquals(ArrayList.class, ((Map) read).get("list").getClass());
+        assertEquals(new ArrayList<Object>(set), new ArrayList<Object>((Set) ((Map) read).get("set")));
+        // the list is written by Java serialization if an element is
+        list.add(Locale.US);
+        assertEquals(list, serializer.readObject(serializer.writeObject(list)));
+        final Set<Object> treeSet = new TreeSet<Object>(Arrays.asList("b", "a"));
+        assertEquals(treeSet, serializer.readObject(serializer.writeObject(treeSet)));
+    }
+
+    @Test
+    public void testSelfReferencingCollection() {
+        final Serializer serializer = new Serializer();
+        final List<Object> list = new ArrayList<Object>();
+        list.add(1);
+        list.add(list);
+        final List read = (List) serializer.readObject(serializer.writeObject(list));
+        assertEquals(2, read.size());
+        assertEquals(1, read.get(0));
+        assertTrue(read.get(1) instanceof List);
+    }
+
+    @Test
+    public void testAccessOrderedLinkedHashMap() {
+        final Serializer serializer = new Serializer();
+        final Map<String, Integer> map = new LinkedHashMap<String, Integer>(16, .75f, true);
+        map.put("a", 1);
+        map.put("b", 2);
+        map.get("a");
+        final Map read = (Map) serializer.readObject(serializer.writeObject(map));
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<Object>(read.keySet()));
+        read.get("b");
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<Object>(read.keySet()));
+    }
+
     public static String getHexString(byte[] b) throws Exception {
         String result = "";
         for (int i = 0; i < b.length; i++) {
@@ -221,4 +351,19 @@ public class SerializationTest {
             writeExternal = true;
         }
     }
+
+    private static class RegisteredDataSerializable implements DataSerializable {
+        private int v;
+        private String s;
+
+        public void readData(DataInput in) throws IOException {
+            v = in.readInt();
+            s = in.readUTF();
+        }
+
+        public void writeData(DataOutput out) throws IOException {
+            out.writeInt(v);
+            out.writeUTF(s);
+        }
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.impl.TestUtil.Employee;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class AggregatorsTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testBuiltInAggregators() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h1.getMap("testBuiltInAggregators");
+        fill(map, 5000);
+        assertAggregates(map);
+        assertAggregates(h2.<Integer, Employee>getMap("testBuiltInAggregators"));
+    }
+
+    @Test
+    public void testAggregatorsWithIndex() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h1.getMap("testAggregatorsWithIndex");
+        map.addIndex("age", true);
+        map.addIndex("active", false);
+        fill(map, 5000);
+        assertAggregates(map);
+    }
+
+    @Test
+    public void testEmptyMap() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h1.getMap("testEmptyMap");
+        assertEquals(Long.valueOf(0), map.aggregate(Aggregators.count()));
+        assertEquals(0L, map.aggregate(Aggregators.sum("age")));
+        assertNull(map.aggregate(Aggregators.avg("age")));
+        assertNull(map.aggregate(Aggregators.max("age")));
+        assertTrue(map.aggregate(Aggregators.distinct("name")).isEmpty());
+        fill(map, 10);
+        assertEquals(Long.valueOf(0), map.aggregate(Aggregators.count(), new SqlPredicate("age > 1000")));
+    }
+
+    @Test
+    public void testCustomAggregator() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Employee> map = h1.getMap("testCustomAggregator");
+        fill(map, 3000);
+        Map<Boolean, Integer> counts = map.aggregate(new CountByActive());
+        assertEquals(Integer.valueOf(1500), counts.get(true));
+        assertEquals(Integer.valueOf(1500), counts.get(false));
+        counts = map.aggregate(new CountByActive(), new SqlPredicate("age < 10"));
+        assertEquals(Integer.valueOf(250), counts.get(true));
+        assertEquals(Integer.valueOf(250), counts.get(false));
+    }
+
+    private static void fill(IMap<Integer, Employee> map, int count) {
+        Map<Integer, Employee> entries = new HashMap<Integer, Employee>();
+        for (int i = 0; i < count; i++) {
+            entries.put(i, new Employee("name" + i, i % 60, i % 2 == 0, i));
+        }
+        map.putAll(entries);
+    }
+
+    private static void assertAggregates(IMap<Integer, Employee> map) {
+        assertEquals(Long.valueOf(5000), map.aggregate(Aggregators.count()));
+        assertEquals(Long.valueOf(2500), map.aggregate(Aggregators.count(), new SqlPredicate("active")));
+        // ages are 0..59, each repeated 83 or 84 times
+        long ageSum = 0;
+        for (int i = 0; i < 5000; i++) {
+            ageSum += i % 60;
+        }
+        assertEquals(ageSum, map.aggregate(Aggregators.sum("age")));
+        assertEquals(4999.0 * 5000 / 2, map.aggregate(Aggregators.sum("salary")));
+        assertEquals(2499.5, map.aggregate(Aggregators.avg("salary")), 0.001);
+        assertEquals(50, map.aggregate(Aggregators.min("age"), new SqlPredicate("age >= 50")));
+        assertEquals(59, map.aggregate(Aggregators.max("age")));
+        assertEquals(4998.0, map.aggregate(Aggregators.max("salary"), new SqlPredicate("active")));
+        Set<Object> ages = map.aggregate(Aggregators.distinct("age"), new SqlPredicate("age < 10"));
+        assertEquals(10, ages.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ages.contains(i));
+        }
+    }
+
+    static class CountByActive implements Aggregator<Integer, Employee, Map<Boolean, Integer>> {
+        final Map<Boolean, Integer> counts = new HashMap<Boolean, Integer>();
+
+        public void accumulate(MapEntry<Integer, Employee> entry) {
+            add(entry.getValue().isActive(), 1);
+        }
+
+        public void combine(Aggregator<Integer, Employee, Map<Boolean, Integer>> other) {
+            for (Map.Entry<Boolean, Integer> entry : ((CountByActive) other).counts.entrySet()) {
+                add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        public Map<Boolean, Integer> reduce() {
+            return counts;
+        }
+
+        private void add(boolean active, int count) {
+            final Integer current = counts.get(active);
+            counts.put(active, current == null ? count : current + count);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.impl.CMap;
+import com.hazelcast.impl.Record;
+import com.hazelcast.nio.Data;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.hazelcast.impl.TestUtil.newRecord;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the sorted index stores on distinct values: SortedIndexStore (boxed Longs in a
+ * skip list set), LongIndexStore (primitive sorted blocks) and ComparableIndexStore (the
+ * string values in a skip list map, which SortedIndexStore can only index by hash code).
+ * Each store is measured in a few rounds, the first ones warm up the JIT.
+ * Value count can be set by -DvalueCount (default 200000).
+ */
+public class IndexPerformance {
+
+    private static final int VALUE_COUNT = Integer.getInteger("valueCount", 200000);
+    private static final int RANGE_QUERIES = 2000;
+    private static final int RANGE_SIZE = 100;
+    private static final int ROUNDS = 3;
+
+    @Test
+    public void testSortedIndexStore() {
+        for (int round = 0; round < ROUNDS; round++) {
+            run(new SortedIndexStore());
+        }
+    }
+
+    @Test
+    public void testLongIndexStore() {
+        for (int round = 0; round < ROUNDS; round++) {
+            run(new LongIndexStore());
+        }
+    }
+
+    @Test
+    public void testComparableIndexStore() {
+        for (int round = 0; round < ROUNDS; round++) {
+            runComparable();
+        }
+    }
+
+    private static void runComparable() {
+        final Record[] records = newRecords();
+        final String[] values = new String[VALUE_COUNT];
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            values[i] = String.valueOf(1000000000L + i);
+        }
+        final ComparableIndexStore store = new ComparableIndexStore();
+        long start = System.nanoTime();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            store.newRecordIndex(values[shuffled(i)], records[i]);
+        }
+        final long insertNanos = System.nanoTime() - start;
+        final Random random = new Random(1);
+        int found = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < RANGE_QUERIES; i++) {
+            final int from = random.nextInt(VALUE_COUNT - RANGE_SIZE);
+            final MultiResultSet results = new MultiResultSet(new ConcurrentHashMap<Long, Object>());
+            store.getSubRecordsBetween(results, values[from], values[from + RANGE_SIZE - 1]);
+            found += results.size();
+        }
+        final long rangeNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            store.removeRecordIndex(values[shuffled(i)], records[i].getId());
+        }
+        print(store, insertNanos, rangeNanos, System.nanoTime() - start, found);
+    }
+
+    private static void run(IndexStore store) {
+        final Record[] records = newRecords();
+        long start = System.nanoTime();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            store.newRecordIndex((long) shuffled(i), records[i]);
+        }
+        final long insertNanos = System.nanoTime() - start;
+        final Random random = new Random(1);
+        int found = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < RANGE_QUERIES; i++) {
+            final long from = random.nextInt(VALUE_COUNT - RANGE_SIZE);
+            final MultiResultSet results = new MultiResultSet(new ConcurrentHashMap<Long, Long>());
+            store.getSubRecordsBetween(results, from, from + RANGE_SIZE - 1);
+            found += results.size();
+        }
+        final long rangeNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            store.removeRecordIndex((long) shuffled(i), records[i].getId());
+        }
+        print(store, insertNanos, rangeNanos, System.nanoTime() - start, found);
+    }
+
+    private static Record[] newRecords() {
+        final CMap cmap = mock(CMap.class);
+        final Record[] records = new Record[VALUE_COUNT];
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            records[i] = newRecord(cmap, i, (Data) null, (Data) null);
+        }
+        return records;
+    }
+
+    /**
+     * @return i-th value of a fixed permutation of 0..VALUE_COUNT-1
+     */
+    private static int shuffled(int i) {
+        return (int) ((i * 7919L) % VALUE_COUNT);
+    }
+
+    private static void print(Object store, long insertNanos, long rangeNanos, long removeNanos, int found) {
+        System.out.println(store.getClass().getSimpleName() + ", values:" + VALUE_COUNT
+                + ", insert ns/value:" + (insertNanos / VALUE_COUNT)
+                + ", range query us:" + (rangeNanos / RANGE_QUERIES / 1000.0)
+                + ", remove ns/value:" + (removeNanos / VALUE_COUNT)
+                + ", found:" + found);
+    }
+}
@@ -16,13 +16,14 @@
 
 package com.hazelcast.query;
 
+import com.hazelcast.core.MapEntry;
 import com.hazelcast.impl.Record;
 import com.hazelcast.impl.TestUtil;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
-import java.util.Arrays;
-import java.util.HashSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import static org.junit.Assert.*;
@@ -132,4 +133,164 @@ public class IndexTest extends TestUtil {
         assertEquals(0, index.getSubRecordsBetween(66L, 555L).size());
         assertEquals(0, index.getSubRecordsBetween(555L, 555L).size());
     }
+
+    @Test
+    public void testLongIndexStore() {
+        LongIndexStore store = new LongIndexStore();
+        List<Long> values = new ArrayList<Long>();
+        for (long i = -1000; i < 1000; i++) {
+            values.add(i * 3);
+        }
+        // enough distinct values to split the blocks, in random order
+        Collections.shuffle(values, new Random(1));
+        long recordId = 0;
+        for (Long value : values) {
+            store.newRecordIndex(value, newRecord(recordId++));
+        }
+        store.newRecordIndex(0L, newRecord(recordId));
+        assertEquals(2, store.getRecords(0L).size());
+        assertEquals(0, store.getRecords(1L).size());
+        assertEquals(2000, store.getMapRecords().size());
+        assertEquals(4, subRecordsBetween(store, -5, 5));
+        assertEquals(0, subRecordsBetween(store, 5, -5));
+        assertEquals(1000, subRecords(store, false, true, 0));
+        assertEquals(1002, subRecords(store, true, true, 0));
+        assertEquals(999, subRecords(store, false, false, 0));
+        assertEquals(1, subRecords(store, true, false, 2997));
+        assertEquals(1, subRecords(store, true, true, -3000));
+        recordId = 0;
+        for (Long value : values) {
+            if (value % 2 == 0) {
+                store.removeRecordIndex(value, recordId);
+            }
+            recordId++;
+        }
+        assertEquals(1, store.getRecords(0L).size());
+        assertEquals(1001, store.getMapRecords().size());
+        assertEquals(500, subRecords(store, false, true, 0));
+        assertEquals(3, subRecordsBetween(store, -3, 3));
+        assertEquals(1001, subRecordsBetween(store, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testDoubleIndexStore() {
+        DoubleIndexStore store = new DoubleIndexStore(false);
+        long recordId = 0;
+        for (int i = -100; i <= 100; i++) {
+            store.newRecordIndex(Double.doubleToLongBits(i / 10.0), newRecord(recordId++));
+        }
+        assertEquals(1, store.getRecords(Double.doubleToLongBits(-1.5)).size());
+        assertEquals(21, subRecordsBetween(store, Double.doubleToLongBits(-1.0), Double.doubleToLongBits(1.0)));
+        assertEquals(100, subRecords(store, false, true, Double.doubleToLongBits(0.0)));
+        assertEquals(5, subRecords(store, false, true, Double.doubleToLongBits(-9.55)));
+        assertEquals(6, subRecords(store, true, false, Double.doubleToLongBits(9.5)));
+        assertTrue(store.getMapRecords().containsKey(Double.doubleToLongBits(-10.0)));
+        DoubleIndexStore floatStore = new DoubleIndexStore(true);
+        for (int i = -100; i <= 100; i++) {
+            floatStore.newRecordIndex((long) Float.floatToIntBits(i / 10f), newRecord(recordId++));
+        }
+        assertEquals(20, subRecords(floatStore, true, true, (long) Float.floatToIntBits(-8.05f)));
+        assertTrue(floatStore.getMapRecords().containsKey((long) Float.floatToIntBits(-0.5f)));
+    }
+
+    @Test
+    public void testComparableIndexStore() {
+        ComparableIndexStore store = new ComparableIndexStore();
+        String[] values = {"a", "ab", "abc", "abd", "ac", "b", "b\uffff", "b\uffff\uffff", "c"};
+        long recordId = 0;
+        for (String value : values) {
+            store.newRecordIndex(value, newRecord(recordId++));
+        }
+        store.newRecordIndex(null, newRecord(recordId));
+        assertEquals(1, store.getRecords((Comparable) null).size());
+        assertEquals(1, store.getRecords("abc").size());
+        assertEquals(3, subRecordsWithPrefix(store, "ab"));
+        assertEquals(3, subRecordsWithPrefix(store, "b"));
+        assertEquals(2, subRecordsWithPrefix(store, "b\uffff"));
+        assertEquals(9, subRecordsWithPrefix(store, ""));
+        MultiResultSet results = new MultiResultSet(new ConcurrentHashMap<Long, Object>());
+        store.getSubRecordsBetween(results, "ab", "ac");
+        assertEquals(4, results.size());
+        results = new MultiResultSet(new ConcurrentHashMap<Long, Object>());
+        store.getSubRecords(results, false, false, "abd");
+        assertEquals(5, results.size());
+        store.removeRecordIndex("abc", 2L);
+        store.removeRecordIndex(null, recordId);
+        assertEquals(0, store.getRecords((Comparable) null).size());
+        assertEquals(2, subRecordsWithPrefix(store, "ab"));
+    }
+
+    @Test
+    public void testStringIndex() {
+        Index index = new Index(Predicates.get("name"), true, 0);
+        for (int i = 0; i < 100; i++) {
+            index.index("name" + i, newEmployeeRecord(i, "name" + i));
+        }
+        index.index(Long.MIN_VALUE, newEmployeeRecord(100, null));
+        assertTrue(index.isPrefixIndexed());
+        assertTrue(index.isStrong());
+        assertEquals(11, index.getSubRecordsWithPrefix("name1").size());
+        assertEquals(1, index.getRecords("name1").size());
+        assertEquals(1, index.getRecords((Object) null).size());
+        assertEquals(2, index.getRecords(new HashSet<Object>(Arrays.asList("name1", "name2", "name"))).size());
+        assertEquals(12, index.getSubRecordsBetween("name1", "name2").size());
+        assertEquals(100, index.getSubRecords(false, false, "name").size());
+        assertEquals(100, index.getSubRecordsNotEqual("name5").size());
+        // update moves the record to the new value
+        Record record = newEmployeeRecord(1, "other");
+        index.index("other", record);
+        assertEquals(10, index.getSubRecordsWithPrefix("name1").size());
+        assertEquals(1, index.getRecords("other").size());
+        assertEquals("other", index.getRecordValues().get(1L));
+        Set<MapEntry> lessThanName2 = index.getSubRecords(false, true, "name2");
+        assertTrue(lessThanName2.contains(newEmployeeRecord(0, "name0")));
+        assertFalse(lessThanName2.contains(record));
+        record.setActive(false);
+        index.index("other", record);
+        assertEquals(0, index.getRecords("other").size());
+        assertNull(index.getRecordValues().get(1L));
+    }
+
+    @Test
+    public void testStoreChosenByFirstNonNullValue() {
+        Index index = new Index(Predicates.get("name"), true, 0);
+        Record nullRecord = newRecord(1, "key1", new Employee(null, 1, true, 1));
+        nullRecord.setIndexes(new Long[]{Long.MIN_VALUE}, new byte[]{Index.getIndexType(Object.class)});
+        index.index(Long.MIN_VALUE, nullRecord);
+        assertFalse(index.isPrefixIndexed());
+        assertEquals(1, index.getRecords((Object) null).size());
+        index.index("name2", newEmployeeRecord(2, "name2"));
+        index.index("name3", newEmployeeRecord(3, "name3"));
+        assertTrue(index.isPrefixIndexed());
+        assertEquals(2, index.getSubRecordsWithPrefix("name").size());
+        assertEquals(1, index.getRecords((Object) null).size());
+        nullRecord.setActive(false);
+        index.index(Long.MIN_VALUE, nullRecord);
+        assertEquals(0, index.getRecords((Object) null).size());
+    }
+
+    private static Record newEmployeeRecord(long recordId, String name) {
+        Record record = newRecord(recordId, "key" + recordId, new Employee(name, 1, true, 1));
+        record.setIndexes(new Object[]{(name == null) ? Long.MIN_VALUE : name},
+                new byte[]{Index.getIndexType(String.class)});
+        return record;
+    }
+
+    private static int subRecordsBetween(IndexStore store, long from, long to) {
+        MultiResultSet results = new MultiResultSet(new ConcurrentHashMap<Long, Long>());
+        store.getSubRecordsBetween(results, from, to);
+        return results.size();
+    }
+
+    private static int subRecords(IndexStore store, boolean equal, boolean lessThan, long value) {
+        MultiResultSet results = new MultiResultSet(new ConcurrentHashMap<Long, Long>());
+        store.getSubRecords(results, equal, lessThan, value);
+        return results.size();
+    }
+
+    private static int subRecordsWithPrefix(ComparableIndexStore store, String prefix) {
+        MultiResultSet results = new MultiResultSet(new ConcurrentHashMap<Long, Object>());
+        store.getSubRecordsWithPrefix(results, prefix);
+        return results.size();
+    }
 }
@@ -22,6 +22,7 @@ import com.hazelcast.impl.CMap;
 import com.hazelcast.util.Clock;
 import com.hazelcast.impl.Record;
 import com.hazelcast.impl.TestUtil;
+import com.hazelcast.nio.Data;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -32,6 +33,8 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
 import static org.junit.Assert.*;
 
 @RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
@@ -129,4 +132,57 @@ public class MapIndexServiceTest extends TestUtil {
         }
         cmap.getNode().connectionManager.shutdown();
     }
+
+    @Test
+    public void testAddIndexToPopulatedService() throws Exception {
+        CMap cmap = mockCMap("default");
+        MapIndexService mapIndexService = new MapIndexService(false);
+        Expression nameExpression = Predicates.get("name");
+        Expression ageExpression = Predicates.get("age");
+        mapIndexService.addIndex(nameExpression, false, -1);
+        Record[] records = new Record[1000];
+        for (int i = 0; i < records.length; i++) {
+            Employee employee = new Employee(i + "Name", i % 80, (i % 2 == 0), 100 + i);
+            records[i] = newRecord(cmap, i, "key" + i, employee);
+            records[i].setIndexes(mapIndexService.getIndexValues(employee), mapIndexService.getIndexTypes());
+            mapIndexService.index(records[i]);
+        }
+        Index ageIndex = mapIndexService.addIndex(ageExpression, true, -1);
+        assertFalse(ageIndex.isReady());
+        assertTrue(mapIndexService.getReadyIndexes().containsKey(nameExpression));
+        assertFalse(mapIndexService.getReadyIndexes().containsKey(ageExpression));
+        // not ready index is not used, query falls back to a full scan
+        QueryContext queryContext = new QueryContext("default", new SqlPredicate("age = 10"), mapIndexService);
+        assertEquals(records.length, mapIndexService.doQuery(queryContext).size());
+        assertFalse(queryContext.isStrong());
+        // record updated while building, index values are put by a member that doesn't know the new index
+        Employee updated = new Employee("0Name", 10, true, 100);
+        records[0].setValueData(toData(updated));
+        Index nameIndex = mapIndexService.getIndexes().get(nameExpression);
+        records[0].setIndexes(new Long[]{nameIndex.extractLongValue(updated)}, new byte[]{nameIndex.getIndexType()});
+        mapIndexService.index(records[0]);
+        assertEquals(2, records[0].getIndexes().length);
+        // record updated after the builder extracted its index value
+        Data oldValue = records[1].getValueData();
+        records[1].setValueData(toData(new Employee("1Name", 10, false, 101)));
+        for (Record record : records) {
+            if (record == records[1]) {
+                mapIndexService.buildIndex(ageIndex, record, oldValue, ageIndex.extractLongValue(toObject(oldValue)));
+            } else {
+                mapIndexService.buildIndex(ageIndex, record, record.getValueData(),
+                        ageIndex.extractLongValue(record.getValue()));
+            }
+        }
+        mapIndexService.markIndexReady(ageIndex);
+        assertTrue(mapIndexService.getReadyIndexes().containsKey(ageExpression));
+        queryContext = new QueryContext("default", new SqlPredicate("age = 10"), mapIndexService);
+        Set<MapEntry> results = mapIndexService.doQuery(queryContext);
+        assertTrue(queryContext.isStrong());
+        // 10, 90, ..., 970 and the two updated records
+        assertEquals(15, results.size());
+        for (MapEntry entry : results) {
+            assertEquals(10, ((Employee) entry.getValue()).getAge());
+        }
+        cmap.getNode().connectionManager.shutdown();
+    }
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2008-2012, Hazel Bilisim Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapEntry;
+import com.hazelcast.impl.GroupProperties;
+import com.hazelcast.impl.TestUtil.Employee;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.*;
+
+import static com.hazelcast.nio.IOUtil.toData;
+import static com.hazelcast.nio.IOUtil.toObject;
+import static org.junit.Assert.*;
+
+@RunWith(com.hazelcast.util.RandomBlockJUnit4ClassRunner.class)
+public class PagingPredicateTest {
+
+    @BeforeClass
+    public static void init() throws Exception {
+        System.setProperty(GroupProperties.PROP_WAIT_SECONDS_BEFORE_JOIN, "1");
+        System.setProperty(GroupProperties.PROP_VERSION_CHECK_ENABLED, "false");
+        Hazelcast.shutdownAll();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testPagingKeys() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testPagingKeys");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        PagingPredicate pagingPredicate = new PagingPredicate(50);
+        int expected = 0;
+        Set<Integer> keys = map.keySet(pagingPredicate);
+        while (!keys.isEmpty()) {
+            assertEquals(50, keys.size());
+            for (Integer key : keys) {
+                assertEquals(expected++, key.intValue());
+            }
+            pagingPredicate.nextPage();
+            keys = map.keySet(pagingPredicate);
+        }
+        assertEquals(1000, expected);
+        assertEquals(20, pagingPredicate.getPage());
+    }
+
+    @Test
+    public void testPagingWithPredicateAndComparator() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testPagingWithPredicateAndComparator");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        PagingPredicate pagingPredicate = new PagingPredicate(new EvenValuePredicate(), new ValueDescending(), 20);
+        assertValues(map.values(pagingPredicate), 98, 20, -2);
+        pagingPredicate.nextPage();
+        assertValues(map.values(pagingPredicate), 58, 20, -2);
+        pagingPredicate.nextPage();
+        assertValues(map.values(pagingPredicate), 18, 10, -2);
+        pagingPredicate.nextPage();
+        assertTrue(map.values(pagingPredicate).isEmpty());
+        pagingPredicate.previousPage();
+        pagingPredicate.previousPage();
+        assertValues(map.values(pagingPredicate), 58, 20, -2);
+        pagingPredicate.reset();
+        assertValues(map.values(pagingPredicate), 98, 20, -2);
+    }
+
+    @Test
+    public void testPagingEntriesAfterUpdate() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testPagingEntriesAfterUpdate");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        PagingPredicate pagingPredicate = new PagingPredicate(10);
+        Set<Map.Entry<Integer, Integer>> entries = map.entrySet(pagingPredicate);
+        assertEquals(10, entries.size());
+        // entries of the pages already read don't shift the next page
+        map.remove(0);
+        map.remove(1);
+        pagingPredicate.nextPage();
+        entries = map.entrySet(pagingPredicate);
+        int expected = 10;
+        for (Map.Entry<Integer, Integer> entry : entries) {
+            assertEquals(expected, entry.getKey().intValue());
+            assertEquals(expected++, entry.getValue().intValue());
+        }
+        assertEquals(20, expected);
+    }
+
+    @Test
+    public void testSkippingPages() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testSkippingPages");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        PagingPredicate pagingPredicate = new PagingPredicate(new Predicates.GreaterLessPredicate(
+                new Predicates.GetExpressionImpl("this"), 10, true, false), 7);
+        pagingPredicate.nextPage();
+        pagingPredicate.nextPage();
+        pagingPredicate.nextPage();
+        assertValues(map.values(pagingPredicate), 31, 7, 1);
+        pagingPredicate.previousPage();
+        assertValues(map.values(pagingPredicate), 24, 7, 1);
+        pagingPredicate.previousPage();
+        pagingPredicate.previousPage();
+        assertValues(map.values(pagingPredicate), 10, 7, 1);
+    }
+
+    @Test
+    public void testPagingWithIndex() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        Hazelcast.newHazelcastInstance(new Config());
+        IMap<String, Employee> map = h1.getMap("testPagingWithIndex");
+        map.addIndex("age", true);
+        for (int i = 0; i < 500; i++) {
+            map.put("e" + i, new Employee("name" + i, i % 50, i % 2 == 0, i));
+        }
+        PagingPredicate pagingPredicate = new PagingPredicate(new SqlPredicate("age >= 40"), new SalaryAscending(), 30);
+        int count = 0;
+        double lastSalary = -1;
+        Collection<Employee> values = map.values(pagingPredicate);
+        while (!values.isEmpty()) {
+            for (Employee employee : values) {
+                assertTrue(employee.getAge() >= 40);
+                assertTrue(employee.getSalary() > lastSalary);
+                lastSalary = employee.getSalary();
+                count++;
+            }
+            pagingPredicate.nextPage();
+            values = map.values(pagingPredicate);
+        }
+        assertEquals(100, count);
+    }
+
+    @Test
+    public void testPagingLargeMap() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(new Config());
+        IMap<Integer, Integer> map = h1.getMap("testPagingLargeMap");
+        Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 20000; i++) {
+            entries.put(i, i);
+        }
+        map.putAll(entries);
+        // above the parallel query threshold, chunks of the partitions are evaluated in parallel
+        assertEquals(10000, map.values(new EvenValuePredicate()).size());
+        assertEquals(10000, map.localKeySet(new EvenValuePredicate()).size()
+                + h2.getMap("testPagingLargeMap").localKeySet(new EvenValuePredicate()).size());
+        PagingPredicate pagingPredicate = new PagingPredicate(new EvenValuePredicate(), new ValueDescending(), 1000);
+        int expected = 19998;
+        Collection<Integer> values = map.values(pagingPredicate);
+        while (!values.isEmpty()) {
+            assertEquals(1000, values.size());
+            for (Integer value : values) {
+                assertEquals(expected, value.intValue());
+                expected -= 2;
+            }
+            pagingPredicate.nextPage();
+            values = map.values(pagingPredicate);
+        }
+        assertEquals(-2, expected);
+    }
+
+    @Test
+    public void testSerialization() {
+        PagingPredicate pagingPredicate = new PagingPredicate(new EvenValuePredicate(), new ValueDescending(), 10);
+        pagingPredicate.setAnchor(0, new PagingPredicate.AnchorEntry(toData(5), 5, 50));
+        pagingPredicate.nextPage();
+        pagingPredicate.nextPage();
+        PagingPredicate copy = (PagingPredicate) toObject(toData(pagingPredicate));
+        assertEquals(2, copy.getPage());
+        assertEquals(10, copy.getPageSize());
+        assertEquals(0, copy.getAnchorPage());
+        assertEquals(20, copy.getFetchSize());
+        assertEquals(5, copy.getAnchor().getKey());
+        assertEquals(50, copy.getAnchor().getValue());
+        assertTrue(copy.getPredicate() instanceof EvenValuePredicate);
+        assertTrue(copy.getComparator() instanceof ValueDescending);
+    }
+
+    private static void assertValues(Collection<Integer> values, int first, int size, int step) {
+        assertEquals(size, values.size());
+        int expected = first;
+        for (Integer value : values) {
+            assertEquals(expected, value.intValue());
+            expected += step;
+        }
+    }
+
+    static class EvenValuePredicate implements Predicate<Integer, Integer> {
+        public boolean apply(MapEntry<Integer, Integer> mapEntry) {
+            return mapEntry.getValue() % 2 == 0;
+        }
+    }
+
+    static class ValueDescending implements Comparator<Map.Entry>, Serializable {
+        public int compare(Map.Entry e1, Map.Entry e2) {
+            return ((Integer) e2.getValue()).compareTo((Integer) e1.getValue());
+        }
+    }
+
+    static class SalaryAscending implements Comparator<Map.Entry>, Serializable {
+        public int compare(Map.Entry e1, Map.Entry e2) {
+            return Double.compare(((Employee) e1.getValue()).getSalary(),
+                    ((Employee) e2.getValue()).getSalary());
+        }
+    }
+}
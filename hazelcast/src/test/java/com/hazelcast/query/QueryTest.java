@@ -33,6 +33,7 @@ import org.junit.runner.RunWith;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.*;
 
@@ -931,6 +932,114 @@ public class QueryTest extends TestUtil {
         assertEquals(2, map.values(new SqlPredicate("age=1 and name like 'e%'")).size());
     }
 
+    @Test
+    public void testSortedIndexOnStringsAndDoubles() {
+        HazelcastInstance h1 = newInstance();
+        HazelcastInstance h2 = newInstance();
+        IMap<String, Employee> map = h1.getMap("testSortedIndexOnStringsAndDoubles");
+        map.addIndex("name", true);
+        map.addIndex("salary", true);
+        for (int i = 0; i < 1000; i++) {
+            map.put(String.valueOf(i), new Employee((i % 10 == 0) ? null : "name" + i, i % 60, true, i - 500.5));
+        }
+        IMap<String, Employee> map2 = h2.getMap("testSortedIndexOnStringsAndDoubles");
+        // name1, name10..name19 without name10, name100..name199 without the multiples of 10
+        assertNames(map2.values(new SqlPredicate("name LIKE 'name1%'")), "name1", 100);
+        assertNames(map2.values(new SqlPredicate("name LIKE 'name1_5'")), "name1", 10);
+        assertNames(map2.values(new SqlPredicate("name BETWEEN 'name2' AND 'name2z'")), "name2", 100);
+        assertNames(map2.values(new SqlPredicate("name >= 'name998'")), "name99", 2);
+        assertNames(map2.values(new SqlPredicate("name < 'name11'")), "name1", 10);
+        assertEquals(1, map2.values(new SqlPredicate("name = 'name7'")).size());
+        assertEquals(999, map2.values(new SqlPredicate("name != 'name7'")).size());
+        assertEquals(100, map2.values(new PredicateBuilder().getEntryObject().get("name").equal(null)).size());
+        assertEquals(2, map2.values(new SqlPredicate("name IN ('name7', 'name8', 'name10')")).size());
+        // negative doubles are sorted by value, not by their bits
+        assertEquals(11, map2.values(Predicates.between(Predicates.get("salary"), -5.5, 4.5)).size());
+        assertEquals(2, map2.values(Predicates.lessThan(Predicates.get("salary"), -498.5)).size());
+        assertEquals(501, map2.values(new SqlPredicate("salary < 0")).size());
+        assertEquals(3, map2.values(new SqlPredicate("salary >= 496.5")).size());
+        assertEquals(100, map2.values(new SqlPredicate("salary < 0 and name LIKE 'name4%'")).size());
+        // updated names move in the index
+        map.put("1", new Employee("zzz", 1, true, 1000));
+        assertNames(map2.values(new SqlPredicate("name LIKE 'name1%'")), "name1", 99);
+        assertEquals(1, map2.values(new SqlPredicate("name > 'zz' and salary > 999.9")).size());
+    }
+
+    @Test
+    public void testSortedIndexOnLongStrings() {
+        HazelcastInstance h1 = newInstance();
+        HazelcastInstance h2 = newInstance();
+        IMap<String, Employee> map = h1.getMap("testSortedIndexOnLongStrings");
+        map.addIndex("name", true);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append('ç');
+        }
+        // the names don't fit in the header of the packets sent to the owners
+        final String longName = sb.toString();
+        for (int i = 0; i < 100; i++) {
+            map.put(String.valueOf(i), new Employee(longName + i, i, true, i));
+        }
+        IMap<String, Employee> map2 = h2.getMap("testSortedIndexOnLongStrings");
+        assertNames(map2.values(new SqlPredicate("name LIKE '" + longName + "1%'")), longName + "1", 11);
+        assertEquals(1, map2.values(new PredicateBuilder().getEntryObject().get("name").equal(longName + "42")).size());
+    }
+
+    private static void assertNames(Collection<Employee> employees, String prefix, int expectedCount) {
+        assertEquals(expectedCount, employees.size());
+        for (Employee employee : employees) {
+            assertTrue(employee.getName(), employee.getName().startsWith(prefix));
+        }
+    }
+
+    @Test
+    public void testAddIndexToPopulatedMap() throws Exception {
+        HazelcastInstance h1 = newInstance();
+        HazelcastInstance h2 = newInstance();
+        final IMap<String, Employee> map = h1.getMap("testAddIndexToPopulatedMap");
+        final int count = 10000;
+        Map<String, Employee> entries = new HashMap<String, Employee>();
+        for (int i = 0; i < count; i++) {
+            entries.put(String.valueOf(i), new Employee("name" + i, i % 60, i % 2 == 0, i));
+        }
+        map.putAll(entries);
+        // entries are updated while the indexes are built
+        final AtomicBoolean running = new AtomicBoolean(true);
+        Thread updater = new Thread() {
+            public void run() {
+                for (int i = 0; running.get(); i = (i + 7) % count) {
+                    map.put(String.valueOf(i), new Employee("name" + i, i % 60, i % 2 == 0, i));
+                }
+            }
+        };
+        updater.start();
+        map.addIndex("age", true);
+        map.addIndex("name", false);
+        IMap<String, Employee> map2 = h2.getMap("testAddIndexToPopulatedMap");
+        // queries scan the entries until the indexes are ready
+        assertEquals(167, map2.values(new SqlPredicate("age = 10")).size());
+        for (HazelcastInstance h : new HazelcastInstance[]{h1, h2}) {
+            MapIndexService mapIndexService = TestUtil.getCMap(h, map.getName()).getMapIndexService();
+            for (int i = 0; i < 300 && mapIndexService.getReadyIndexes().size() < 2; i++) {
+                Thread.sleep(100);
+            }
+            assertEquals(2, mapIndexService.getReadyIndexes().size());
+        }
+        running.set(false);
+        updater.join();
+        int indexed = 0;
+        for (HazelcastInstance h : new HazelcastInstance[]{h1, h2}) {
+            MapIndexService mapIndexService = TestUtil.getCMap(h, map.getName()).getMapIndexService();
+            indexed += mapIndexService.getIndexes().get(Predicates.get("age")).getRecordValues().size();
+        }
+        assertEquals(count, indexed);
+        assertEquals(167, map2.values(new SqlPredicate("age = 10")).size());
+        assertEquals(1670, map2.values(new SqlPredicate("age < 10")).size());
+        assertEquals(1, map2.values(new SqlPredicate("name = 'name77'")).size());
+        map.put(String.valueOf(count), new Employee("name" + count, 10, true, count));
+        assertEquals(168, map2.values(new SqlPredicate("age = 10")).size());
+    }
+
     @Test
     public void testMapIndexInitialization() {
         Config config = new Config();